@@ -16,6 +16,7 @@
 
 package io.netty.buffer;
 
+import io.netty.util.concurrent.FastThreadLocal;
 import io.netty.util.concurrent.GlobalEventExecutor;
 import io.netty.util.concurrent.ScheduledFuture;
 import io.netty.util.internal.PlatformDependent;
@@ -275,7 +276,7 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator {
         return directArenas != null;
     }
 
-    final class PoolThreadLocalCache extends ThreadLocal<PoolThreadCache> {
+    final class PoolThreadLocalCache extends FastThreadLocal<PoolThreadCache> {
         private final Map<Thread, PoolThreadCache> caches = new IdentityHashMap<Thread, PoolThreadCache>();
         private final ReleaseCacheTask task = new ReleaseCacheTask();
         private final AtomicInteger index = new AtomicInteger();
@@ -286,56 +287,47 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator {
         }
 
         @Override
-        public PoolThreadCache get() {
-            PoolThreadCache cache = super.get();
-            if (cache == null) {
-                final int idx = index.getAndIncrement();
-                final PoolArena<byte[]> heapArena;
-                final PoolArena<ByteBuffer> directArena;
-
-                if (heapArenas != null) {
-                    heapArena = heapArenas[Math.abs(idx % heapArenas.length)];
-                } else {
-                    heapArena = null;
-                }
+        protected PoolThreadCache initialValue() {
+            final int idx = index.getAndIncrement();
+            final PoolArena<byte[]> heapArena;
+            final PoolArena<ByteBuffer> directArena;
 
-                if (directArenas != null) {
-                    directArena = directArenas[Math.abs(idx % directArenas.length)];
-                } else {
-                    directArena = null;
-                }
-                // If the current Thread is assigned to an EventExecutor we can
-                // easily free the cached stuff again once the EventExecutor completes later.
-                cache = new PoolThreadCache(
-                        heapArena, directArena, tinyCacheSize, smallCacheSize, normalCacheSize,
-                        DEFAULT_MAX_CACHED_BUFFER_CAPACITY, DEFAULT_CACHE_TRIM_INTERVAL);
-                set(cache);
+            if (heapArenas != null) {
+                heapArena = heapArenas[Math.abs(idx % heapArenas.length)];
+            } else {
+                heapArena = null;
             }
-            return cache;
-        }
 
-        @Override
-        public void set(PoolThreadCache value) {
+            if (directArenas != null) {
+                directArena = directArenas[Math.abs(idx % directArenas.length)];
+            } else {
+                directArena = null;
+            }
+
+            PoolThreadCache cache = new PoolThreadCache(
+                    heapArena, directArena, tinyCacheSize, smallCacheSize, normalCacheSize,
+                    DEFAULT_MAX_CACHED_BUFFER_CAPACITY, DEFAULT_CACHE_TRIM_INTERVAL);
+
+            // Threads which finish without FastThreadLocal.removeAll() are picked up by the ReleaseCacheTask.
             Thread current = Thread.currentThread();
             synchronized (caches) {
-                caches.put(current, value);
+                caches.put(current, cache);
                 if (task.releaseTaskFuture == null) {
                     task.releaseTaskFuture = GlobalEventExecutor.INSTANCE.scheduleWithFixedDelay(task,
                             cacheThreadAliveCheckInterval, cacheThreadAliveCheckInterval, TimeUnit.MILLISECONDS);
                 }
             }
-            super.set(value);
+            return cache;
         }
 
         @Override
-        public void remove() {
-            super.remove();
-            PoolThreadCache cache;
+        protected void onRemoval(PoolThreadCache cache) {
             Thread current = Thread.currentThread();
+            boolean removed;
             synchronized (caches) {
-                cache = caches.remove(current);
+                removed = caches.remove(current) != null;
             }
-            if (cache != null) {
+            if (removed) {
                 cache.free();
             }
         }
@@ -15,10 +15,11 @@
  */
 package io.netty.handler.codec.http;
 
+import io.netty.util.concurrent.FastThreadLocal;
 
 final class CookieEncoderUtil {
 
-    static final ThreadLocal<StringBuilder> buffer = new ThreadLocal<StringBuilder>() {
+    static final FastThreadLocal<StringBuilder> buffer = new FastThreadLocal<StringBuilder>() {
         @Override
         public StringBuilder get() {
             StringBuilder buf = super.get();
@@ -17,7 +17,7 @@ package io.netty.handler.codec.http.websocketx;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ReplayingDecoder;
+import io.netty.handler.codec.ResumableDecoder;
 import io.netty.handler.codec.TooLongFrameException;
 
 import java.util.List;
@@ -30,7 +30,7 @@ import static io.netty.buffer.ByteBufUtil.readBytes;
  * For the detailed instruction on adding add Web Socket support to your HTTP server, take a look into the
  * <tt>WebSocketServer</tt> example located in the {@code io.netty.example.http.websocket} package.
  */
-public class WebSocket00FrameDecoder extends ReplayingDecoder<Void> implements WebSocketFrameDecoder {
+public class WebSocket00FrameDecoder extends ResumableDecoder<Void> implements WebSocketFrameDecoder {
 
     static final int DEFAULT_MAX_FRAME_SIZE = 16384;
 
@@ -53,30 +53,40 @@ public class WebSocket00FrameDecoder extends ReplayingDecoder<Void> implements W
     }
 
     @Override
-    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+    protected void decode(ChannelHandlerContext ctx, Reader in, List<Object> out) throws Exception {
         // Discard all data received if closing handshake was received before.
         if (receivedClosingHandshake) {
-            in.skipBytes(actualReadableBytes());
+            in.skipBytes(in.readableBytes());
             return;
         }
 
         // Decode a frame otherwise.
         byte type = in.readByte();
+        if (in.isSuspended()) {
+            return;
+        }
+        WebSocketFrame frame;
         if ((type & 0x80) == 0x80) {
             // If the MSB on type is set, decode the frame length
-            out.add(decodeBinaryFrame(ctx, type, in));
+            frame = decodeBinaryFrame(ctx, type, in);
         } else {
             // Decode a 0xff terminated UTF-8 string
-            out.add(decodeTextFrame(ctx, in));
+            frame = decodeTextFrame(ctx, in);
+        }
+        if (frame != null) {
+            out.add(frame);
         }
     }
 
-    private WebSocketFrame decodeBinaryFrame(ChannelHandlerContext ctx, byte type, ByteBuf buffer) {
+    private WebSocketFrame decodeBinaryFrame(ChannelHandlerContext ctx, byte type, Reader in) {
         long frameSize = 0;
         int lengthFieldSize = 0;
         byte b;
         do {
-            b = buffer.readByte();
+            b = in.readByte();
+            if (in.isSuspended()) {
+                return null;
+            }
             frameSize <<= 7;
             frameSize |= b & 0x7f;
             if (frameSize > maxFrameSize) {
@@ -93,13 +103,17 @@ public class WebSocket00FrameDecoder extends ReplayingDecoder<Void> implements W
             receivedClosingHandshake = true;
             return new CloseWebSocketFrame();
         }
-        ByteBuf payload = readBytes(ctx.alloc(), buffer, (int) frameSize);
+        if (!in.request((int) frameSize)) {
+            return null;
+        }
+        ByteBuf payload = readBytes(ctx.alloc(), in.buffer(), (int) frameSize);
         return new BinaryWebSocketFrame(payload);
     }
 
-    private WebSocketFrame decodeTextFrame(ChannelHandlerContext ctx, ByteBuf buffer) {
+    private WebSocketFrame decodeTextFrame(ChannelHandlerContext ctx, Reader in) {
+        ByteBuf buffer = in.buffer();
         int ridx = buffer.readerIndex();
-        int rbytes = actualReadableBytes();
+        int rbytes = buffer.readableBytes();
         int delimPos = buffer.indexOf(ridx, ridx + rbytes, (byte) 0xFF);
         if (delimPos == -1) {
             // Frame delimiter (0xFF) not found
@@ -108,6 +122,7 @@ public class WebSocket00FrameDecoder extends ReplayingDecoder<Void> implements W
                 throw new TooLongFrameException();
             } else {
                 // Wait until more data is received
+                in.request(rbytes + 1);
                 return null;
             }
         }
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.http.websocketx;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.CharsetUtil;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class WebSocket00FrameDecoderTest {
+
+    @Test
+    public void testFragmentedFrames() {
+        EmbeddedChannel ch = new EmbeddedChannel(new WebSocket00FrameDecoder());
+
+        ByteBuf frames = Unpooled.buffer();
+        frames.writeByte(0x00).writeBytes("hello".getBytes(CharsetUtil.UTF_8)).writeByte(0xFF);
+        frames.writeByte(0x80).writeByte(0x81).writeByte(0x01);
+        for (int i = 0; i < 129; i ++) {
+            frames.writeByte(i);
+        }
+        frames.writeByte(0xFF).writeByte(0x00);
+        while (frames.isReadable()) {
+            ch.writeInbound(frames.readSlice(1).retain());
+        }
+        frames.release();
+
+        TextWebSocketFrame text = (TextWebSocketFrame) ch.readInbound();
+        assertEquals("hello", text.text());
+        text.release();
+
+        BinaryWebSocketFrame binary = (BinaryWebSocketFrame) ch.readInbound();
+        assertEquals(129, binary.content().readableBytes());
+        for (int i = 0; i < 129; i ++) {
+            assertEquals((byte) i, binary.content().getByte(i));
+        }
+        binary.release();
+
+        assertTrue(ch.readInbound() instanceof CloseWebSocketFrame);
+        assertNull(ch.readInbound());
+        assertFalse(ch.finish());
+    }
+}
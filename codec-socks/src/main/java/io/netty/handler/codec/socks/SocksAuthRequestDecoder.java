@@ -17,7 +17,7 @@ package io.netty.handler.codec.socks;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ReplayingDecoder;
+import io.netty.handler.codec.ResumableDecoder;
 import io.netty.util.CharsetUtil;
 
 import java.util.List;
@@ -26,7 +26,7 @@ import java.util.List;
  * Decodes {@link ByteBuf}s into {@link SocksAuthRequest}.
  * Before returning SocksRequest decoder removes itself from pipeline.
  */
-public class SocksAuthRequestDecoder extends ReplayingDecoder<SocksAuthRequestDecoder.State> {
+public class SocksAuthRequestDecoder extends ResumableDecoder<SocksAuthRequestDecoder.State> {
     private static final String name = "SOCKS_AUTH_REQUEST_DECODER";
 
     public static String getName() {
@@ -44,23 +44,32 @@ public class SocksAuthRequestDecoder extends ReplayingDecoder<SocksAuthRequestDe
     }
 
     @Override
-    protected void decode(ChannelHandlerContext ctx, ByteBuf byteBuf, List<Object> out) throws Exception {
+    protected void decode(ChannelHandlerContext ctx, Reader in, List<Object> out) throws Exception {
         switch (state()) {
             case CHECK_PROTOCOL_VERSION: {
-                version = SocksSubnegotiationVersion.fromByte(byteBuf.readByte());
+                version = SocksSubnegotiationVersion.fromByte(in.readByte());
+                if (in.isSuspended()) {
+                    return;
+                }
                 if (version != SocksSubnegotiationVersion.AUTH_PASSWORD) {
                     break;
                 }
                 checkpoint(State.READ_USERNAME);
             }
             case READ_USERNAME: {
-                fieldLength = byteBuf.readByte();
-                username = byteBuf.readBytes(fieldLength).toString(CharsetUtil.US_ASCII);
+                fieldLength = in.readByte();
+                username = in.readString(fieldLength, CharsetUtil.US_ASCII);
+                if (in.isSuspended()) {
+                    return;
+                }
                 checkpoint(State.READ_PASSWORD);
             }
             case READ_PASSWORD: {
-                fieldLength = byteBuf.readByte();
-                password = byteBuf.readBytes(fieldLength).toString(CharsetUtil.US_ASCII);
+                fieldLength = in.readByte();
+                password = in.readString(fieldLength, CharsetUtil.US_ASCII);
+                if (in.isSuspended()) {
+                    return;
+                }
                 msg = new SocksAuthRequest(username, password);
             }
         }
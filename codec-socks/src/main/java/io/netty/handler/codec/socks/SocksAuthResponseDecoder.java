@@ -17,7 +17,7 @@ package io.netty.handler.codec.socks;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ReplayingDecoder;
+import io.netty.handler.codec.ResumableDecoder;
 
 import java.util.List;
 
@@ -25,7 +25,7 @@ import java.util.List;
  * Decodes {@link ByteBuf}s into {@link SocksAuthResponse}.
  * Before returning SocksResponse decoder removes itself from pipeline.
  */
-public class SocksAuthResponseDecoder extends ReplayingDecoder<SocksAuthResponseDecoder.State> {
+public class SocksAuthResponseDecoder extends ResumableDecoder<SocksAuthResponseDecoder.State> {
     private static final String name = "SOCKS_AUTH_RESPONSE_DECODER";
 
     public static String getName() {
@@ -41,18 +41,24 @@ public class SocksAuthResponseDecoder extends ReplayingDecoder<SocksAuthResponse
     }
 
     @Override
-    protected void decode(ChannelHandlerContext channelHandlerContext, ByteBuf byteBuf, List<Object> out)
+    protected void decode(ChannelHandlerContext channelHandlerContext, Reader in, List<Object> out)
             throws Exception {
         switch (state()) {
             case CHECK_PROTOCOL_VERSION: {
-                version = SocksSubnegotiationVersion.fromByte(byteBuf.readByte());
+                version = SocksSubnegotiationVersion.fromByte(in.readByte());
+                if (in.isSuspended()) {
+                    return;
+                }
                 if (version != SocksSubnegotiationVersion.AUTH_PASSWORD) {
                     break;
                 }
                 checkpoint(State.READ_AUTH_RESPONSE);
             }
             case READ_AUTH_RESPONSE: {
-                authStatus = SocksAuthStatus.fromByte(byteBuf.readByte());
+                authStatus = SocksAuthStatus.fromByte(in.readByte());
+                if (in.isSuspended()) {
+                    return;
+                }
                 msg = new SocksAuthResponse(authStatus);
             }
         }
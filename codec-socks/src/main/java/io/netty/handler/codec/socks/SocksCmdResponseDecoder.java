@@ -17,7 +17,7 @@ package io.netty.handler.codec.socks;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ReplayingDecoder;
+import io.netty.handler.codec.ResumableDecoder;
 import io.netty.util.CharsetUtil;
 
 import java.util.List;
@@ -26,7 +26,7 @@ import java.util.List;
  * Decodes {@link ByteBuf}s into {@link SocksCmdResponse}.
  * Before returning SocksResponse decoder removes itself from pipeline.
  */
-public class SocksCmdResponseDecoder extends ReplayingDecoder<SocksCmdResponseDecoder.State> {
+public class SocksCmdResponseDecoder extends ResumableDecoder<SocksCmdResponseDecoder.State> {
     private static final String name = "SOCKS_CMD_RESPONSE_DECODER";
 
     public static String getName() {
@@ -47,39 +47,56 @@ public class SocksCmdResponseDecoder extends ReplayingDecoder<SocksCmdResponseDe
     }
 
     @Override
-    protected void decode(ChannelHandlerContext ctx, ByteBuf byteBuf, List<Object> out) throws Exception {
+    protected void decode(ChannelHandlerContext ctx, Reader in, List<Object> out) throws Exception {
         switch (state()) {
             case CHECK_PROTOCOL_VERSION: {
-                version = SocksProtocolVersion.fromByte(byteBuf.readByte());
+                version = SocksProtocolVersion.fromByte(in.readByte());
+                if (in.isSuspended()) {
+                    return;
+                }
                 if (version != SocksProtocolVersion.SOCKS5) {
                     break;
                 }
                 checkpoint(State.READ_CMD_HEADER);
             }
             case READ_CMD_HEADER: {
-                cmdStatus = SocksCmdStatus.fromByte(byteBuf.readByte());
-                reserved = byteBuf.readByte();
-                addressType = SocksAddressType.fromByte(byteBuf.readByte());
+                if (!in.request(3)) {
+                    return;
+                }
+                cmdStatus = SocksCmdStatus.fromByte(in.readByte());
+                reserved = in.readByte();
+                addressType = SocksAddressType.fromByte(in.readByte());
                 checkpoint(State.READ_CMD_ADDRESS);
             }
             case READ_CMD_ADDRESS: {
                 switch (addressType) {
                     case IPv4: {
-                        host = SocksCommonUtils.intToIp(byteBuf.readInt());
-                        port = byteBuf.readUnsignedShort();
+                        if (!in.request(6)) {
+                            return;
+                        }
+                        host = SocksCommonUtils.intToIp(in.readInt());
+                        port = in.readUnsignedShort();
                         msg = new SocksCmdResponse(cmdStatus, addressType, host, port);
                         break;
                     }
                     case DOMAIN: {
-                        fieldLength = byteBuf.readByte();
-                        host = byteBuf.readBytes(fieldLength).toString(CharsetUtil.US_ASCII);
-                        port = byteBuf.readUnsignedShort();
+                        fieldLength = in.readByte();
+                        host = in.readString(fieldLength, CharsetUtil.US_ASCII);
+                        port = in.readUnsignedShort();
+                        if (in.isSuspended()) {
+                            return;
+                        }
                         msg = new SocksCmdResponse(cmdStatus, addressType, host, port);
                         break;
                     }
                     case IPv6: {
-                        host = SocksCommonUtils.ipv6toStr(byteBuf.readBytes(16).array());
-                        port = byteBuf.readUnsignedShort();
+                        if (!in.request(18)) {
+                            return;
+                        }
+                        byte[] address = new byte[16];
+                        in.readBytes(address);
+                        host = SocksCommonUtils.ipv6toStr(address);
+                        port = in.readUnsignedShort();
                         msg = new SocksCmdResponse(cmdStatus, addressType, host, port);
                         break;
                     }
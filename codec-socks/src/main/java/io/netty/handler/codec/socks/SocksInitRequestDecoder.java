@@ -17,7 +17,7 @@ package io.netty.handler.codec.socks;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ReplayingDecoder;
+import io.netty.handler.codec.ResumableDecoder;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -26,7 +26,7 @@ import java.util.List;
  * Decodes {@link ByteBuf}s into {@link SocksInitRequest}.
  * Before returning SocksRequest decoder removes itself from pipeline.
  */
-public class SocksInitRequestDecoder extends ReplayingDecoder<SocksInitRequestDecoder.State> {
+public class SocksInitRequestDecoder extends ResumableDecoder<SocksInitRequestDecoder.State> {
     private static final String name = "SOCKS_INIT_REQUEST_DECODER";
 
     public static String getName() {
@@ -43,10 +43,13 @@ public class SocksInitRequestDecoder extends ReplayingDecoder<SocksInitRequestDe
     }
 
     @Override
-    protected void decode(ChannelHandlerContext ctx, ByteBuf byteBuf, List<Object> out) throws Exception {
+    protected void decode(ChannelHandlerContext ctx, Reader in, List<Object> out) throws Exception {
         switch (state()) {
             case CHECK_PROTOCOL_VERSION: {
-                version = SocksProtocolVersion.fromByte(byteBuf.readByte());
+                version = SocksProtocolVersion.fromByte(in.readByte());
+                if (in.isSuspended()) {
+                    return;
+                }
                 if (version != SocksProtocolVersion.SOCKS5) {
                     break;
                 }
@@ -54,9 +57,12 @@ public class SocksInitRequestDecoder extends ReplayingDecoder<SocksInitRequestDe
             }
             case READ_AUTH_SCHEMES: {
                 authSchemes.clear();
-                authSchemeNum = byteBuf.readByte();
+                authSchemeNum = in.readByte();
                 for (int i = 0; i < authSchemeNum; i++) {
-                    authSchemes.add(SocksAuthScheme.fromByte(byteBuf.readByte()));
+                    authSchemes.add(SocksAuthScheme.fromByte(in.readByte()));
+                }
+                if (in.isSuspended()) {
+                    return;
                 }
                 msg = new SocksInitRequest(authSchemes);
                 break;
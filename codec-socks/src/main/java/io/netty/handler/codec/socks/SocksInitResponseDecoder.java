@@ -17,7 +17,7 @@ package io.netty.handler.codec.socks;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ReplayingDecoder;
+import io.netty.handler.codec.ResumableDecoder;
 
 import java.util.List;
 
@@ -25,7 +25,7 @@ import java.util.List;
  * Decodes {@link ByteBuf}s into {@link SocksInitResponse}.
  * Before returning SocksResponse decoder removes itself from pipeline.
  */
-public class SocksInitResponseDecoder extends ReplayingDecoder<SocksInitResponseDecoder.State> {
+public class SocksInitResponseDecoder extends ResumableDecoder<SocksInitResponseDecoder.State> {
     private static final String name = "SOCKS_INIT_RESPONSE_DECODER";
 
     public static String getName() {
@@ -42,17 +42,23 @@ public class SocksInitResponseDecoder extends ReplayingDecoder<SocksInitResponse
     }
 
     @Override
-    protected void decode(ChannelHandlerContext ctx, ByteBuf byteBuf, List<Object> out) throws Exception {
+    protected void decode(ChannelHandlerContext ctx, Reader in, List<Object> out) throws Exception {
         switch (state()) {
             case CHECK_PROTOCOL_VERSION: {
-                version = SocksProtocolVersion.fromByte(byteBuf.readByte());
+                version = SocksProtocolVersion.fromByte(in.readByte());
+                if (in.isSuspended()) {
+                    return;
+                }
                 if (version != SocksProtocolVersion.SOCKS5) {
                     break;
                 }
                 checkpoint(State.READ_PREFFERED_AUTH_TYPE);
             }
             case READ_PREFFERED_AUTH_TYPE: {
-                authScheme = SocksAuthScheme.fromByte(byteBuf.readByte());
+                authScheme = SocksAuthScheme.fromByte(in.readByte());
+                if (in.isSuspended()) {
+                    return;
+                }
                 msg = new SocksInitResponse(authScheme);
                 break;
             }
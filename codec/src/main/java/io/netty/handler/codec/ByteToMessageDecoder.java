@@ -16,6 +16,8 @@
 package io.netty.handler.codec;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerAdapter;
@@ -44,13 +46,89 @@ import java.util.List;
  *
  * Be aware that sub-classes of {@link ByteToMessageDecoder} <strong>MUST NOT</strong>
  * annotated with {@link @Sharable}.
+ *
+ * <h3>Cumulating the received bytes</h3>
+ *
+ * The bytes which could not be decoded yet are kept in a cumulation buffer to which the next received
+ * {@link ByteBuf} is added by the {@link Cumulator} of the decoder.  The default {@link #MERGE_CUMULATOR} copies the
+ * received bytes into a single buffer, which is the fastest to decode from.  Protocols with large frames may use
+ * {@link #COMPOSITE_CUMULATOR} or {@link #adaptiveCumulator(int)} instead, which add the received buffers to a
+ * {@link CompositeByteBuf} without copying them:
+ * <pre>
+ *     decoder.setCumulator({@link ByteToMessageDecoder}.adaptiveCumulator(64 * 1024));
+ * </pre>
  */
 public abstract class ByteToMessageDecoder extends ChannelHandlerAdapter {
 
+    /**
+     * Cumulate {@link ByteBuf}s by merging them into one {@link ByteBuf}, using memory copies.
+     */
+    public static final Cumulator MERGE_CUMULATOR = new Cumulator() {
+        @Override
+        public ByteBuf cumulate(ByteBufAllocator alloc, ByteBuf cumulation, ByteBuf in) {
+            ByteBuf buffer;
+            if (cumulation.writerIndex() > cumulation.maxCapacity() - in.readableBytes()
+                    || cumulation.refCnt() > 1) {
+                // Expand cumulation (by replace it) when either there is not more room in the buffer
+                // or if the refCnt is greater then 1 which may happen when the user use slice().retain() or
+                // duplicate().retain().
+                //
+                // See:
+                // - https://github.com/netty/netty/issues/2327
+                // - https://github.com/netty/netty/issues/1764
+                buffer = expandCumulation(alloc, cumulation, in.readableBytes());
+            } else {
+                buffer = cumulation;
+            }
+            buffer.writeBytes(in);
+            in.release();
+            return buffer;
+        }
+    };
+
+    /**
+     * Cumulate {@link ByteBuf}s by adding them to a {@link CompositeByteBuf} and so do no memory copy whenever
+     * possible.  Be aware that {@link CompositeByteBuf} uses a more complex indexing implementation so depending on
+     * your use-case and the decoder implementation this may be slower than just use the {@link #MERGE_CUMULATOR}.
+     */
+    public static final Cumulator COMPOSITE_CUMULATOR = new Cumulator() {
+        @Override
+        public ByteBuf cumulate(ByteBufAllocator alloc, ByteBuf cumulation, ByteBuf in) {
+            ByteBuf buffer;
+            if (cumulation.refCnt() > 1) {
+                // Expand cumulation (by replace it) when the refCnt is greater then 1 which may happen when the user
+                // use slice().retain() or duplicate().retain().
+                //
+                // See:
+                // - https://github.com/netty/netty/issues/2327
+                // - https://github.com/netty/netty/issues/1764
+                buffer = expandCumulation(alloc, cumulation, in.readableBytes());
+                buffer.writeBytes(in);
+                in.release();
+            } else {
+                CompositeByteBuf composite;
+                if (cumulation instanceof CompositeByteBuf) {
+                    composite = (CompositeByteBuf) cumulation;
+                } else {
+                    int readable = cumulation.readableBytes();
+                    composite = alloc.compositeBuffer(Integer.MAX_VALUE);
+                    composite.addComponent(cumulation).writerIndex(readable);
+                }
+                composite.addComponent(in).writerIndex(composite.writerIndex() + in.readableBytes());
+                buffer = composite;
+            }
+            return buffer;
+        }
+    };
+
     ByteBuf cumulation;
+    private Cumulator cumulator = MERGE_CUMULATOR;
     private boolean singleDecode;
+    private boolean batchOutput;
     private boolean decodeWasNull;
     private boolean first;
+    private int discardAfterReads = 1;
+    private int numReads;
 
     protected ByteToMessageDecoder() {
         if (isSharable()) {
@@ -78,6 +156,76 @@ public abstract class ByteToMessageDecoder extends ChannelHandlerAdapter {
         return singleDecode;
     }
 
+    /**
+     * If set then all messages which were decoded on one {@link #channelRead(ChannelHandlerContext, Object)} call are
+     * passed on as a single {@link MessageBatch} instead of one by one, if there is more than one of them.  Only
+     * enable it if the next handlers in the {@link io.netty.channel.ChannelPipeline} know how to handle a
+     * {@link MessageBatch}, or use a {@link MessageBatchUnpacker}.
+     *
+     * Default is {@code false}.
+     */
+    public void setBatchOutput(boolean batchOutput) {
+        this.batchOutput = batchOutput;
+    }
+
+    /**
+     * If {@code true} then all messages which were decoded on one {@link #channelRead(ChannelHandlerContext, Object)}
+     * call are passed on as a single {@link MessageBatch}.
+     *
+     * Default is {@code false}.
+     */
+    public boolean isBatchOutput() {
+        return batchOutput;
+    }
+
+    /**
+     * Set the {@link Cumulator} to use for cumulate the received {@link ByteBuf}s.
+     */
+    public void setCumulator(Cumulator cumulator) {
+        if (cumulator == null) {
+            throw new NullPointerException("cumulator");
+        }
+        this.cumulator = cumulator;
+    }
+
+    /**
+     * Set the number of reads after which {@link ByteBuf#discardSomeReadBytes()} is called on the cumulation buffer
+     * to free up memory.  The bytes are discarded once the current read is complete, so a higher value compacts
+     * the cumulation buffer less often and moves the undecoded bytes less often.
+     *
+     * Default is {@code 1}, which means the cumulation buffer is compacted every time a read is complete.
+     */
+    public void setDiscardAfterReads(int discardAfterReads) {
+        if (discardAfterReads <= 0) {
+            throw new IllegalArgumentException(
+                    "discardAfterReads: " + discardAfterReads + " (expected: > 0)");
+        }
+        this.discardAfterReads = discardAfterReads;
+    }
+
+    /**
+     * Returns a {@link Cumulator} which uses the {@link #MERGE_CUMULATOR} as long as less than
+     * {@code compositeThreshold} bytes are cumulated, and the {@link #COMPOSITE_CUMULATOR} as soon as more bytes are
+     * cumulated.  So small frames are decoded from a single buffer, while the bytes of large frames, which span
+     * many reads, are not copied over and over again while the cumulation buffer grows.
+     */
+    public static Cumulator adaptiveCumulator(final int compositeThreshold) {
+        if (compositeThreshold <= 0) {
+            throw new IllegalArgumentException(
+                    "compositeThreshold: " + compositeThreshold + " (expected: > 0)");
+        }
+        return new Cumulator() {
+            @Override
+            public ByteBuf cumulate(ByteBufAllocator alloc, ByteBuf cumulation, ByteBuf in) {
+                if (cumulation instanceof CompositeByteBuf
+                        || cumulation.readableBytes() >= compositeThreshold - in.readableBytes()) {
+                    return COMPOSITE_CUMULATOR.cumulate(alloc, cumulation, in);
+                }
+                return MERGE_CUMULATOR.cumulate(alloc, cumulation, in);
+            }
+        };
+    }
+
     /**
      * Returns the actual number of readable bytes in the internal cumulative
      * buffer of this decoder. You usually do not need to rely on this value
@@ -133,20 +281,9 @@ public abstract class ByteToMessageDecoder extends ChannelHandlerAdapter {
                 if (first) {
                     cumulation = data;
                 } else {
-                    if (cumulation.writerIndex() > cumulation.maxCapacity() - data.readableBytes()
-                            || cumulation.refCnt() > 1) {
-                        // Expand cumulation (by replace it) when either there is not more room in the buffer
-                        // or if the refCnt is greater then 1 which may happen when the user use slice().retain() or
-                        // duplicate().retain().
-                        //
-                        // See:
-                        // - https://github.com/netty/netty/issues/2327
-                        // - https://github.com/netty/netty/issues/1764
-                        expandCumulation(ctx, data.readableBytes());
-                    }
-                    cumulation.writeBytes(data);
-                    data.release();
+                    cumulation = cumulator.cumulate(ctx.alloc(), cumulation, data);
                 }
+                numReads ++;
                 callDecode(ctx, cumulation, out);
             } catch (DecoderException e) {
                 throw e;
@@ -154,15 +291,14 @@ public abstract class ByteToMessageDecoder extends ChannelHandlerAdapter {
                 throw new DecoderException(t);
             } finally {
                 if (cumulation != null && !cumulation.isReadable()) {
+                    numReads = 0;
                     cumulation.release();
                     cumulation = null;
                 }
                 int size = out.size();
                 decodeWasNull = size == 0;
 
-                for (int i = 0; i < size; i ++) {
-                    ctx.fireChannelRead(out.get(i));
-                }
+                MessageBatch.fireChannelRead(ctx, out, size, batchOutput);
                 out.recycle();
             }
         } else {
@@ -170,16 +306,18 @@ public abstract class ByteToMessageDecoder extends ChannelHandlerAdapter {
         }
     }
 
-    private void expandCumulation(ChannelHandlerContext ctx, int readable) {
+    static ByteBuf expandCumulation(ByteBufAllocator alloc, ByteBuf cumulation, int readable) {
         ByteBuf oldCumulation = cumulation;
-        cumulation = ctx.alloc().buffer(oldCumulation.readableBytes() + readable);
+        cumulation = alloc.buffer(oldCumulation.readableBytes() + readable);
         cumulation.writeBytes(oldCumulation);
         oldCumulation.release();
+        return cumulation;
     }
 
     @Override
     public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
-        if (cumulation != null && !first && cumulation.refCnt() == 1) {
+        if (cumulation != null && !first && cumulation.refCnt() == 1 && numReads >= discardAfterReads) {
+            numReads = 0;
             // discard some bytes if possible to make more room in the
             // buffer but only if the refCnt == 1  as otherwise the user may have
             // used slice().retain() or duplicate().retain().
@@ -217,10 +355,7 @@ public abstract class ByteToMessageDecoder extends ChannelHandlerAdapter {
                 cumulation.release();
                 cumulation = null;
             }
-            int size = out.size();
-            for (int i = 0; i < size; i ++) {
-                ctx.fireChannelRead(out.get(i));
-            }
+            MessageBatch.fireChannelRead(ctx, out, out.size(), batchOutput);
             ctx.fireChannelInactive();
             out.recycle();
         }
@@ -297,4 +432,16 @@ public abstract class ByteToMessageDecoder extends ChannelHandlerAdapter {
     protected void decodeLast(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
         decode(ctx, in, out);
     }
+
+    /**
+     * Cumulate {@link ByteBuf}s.
+     */
+    public interface Cumulator {
+        /**
+         * Cumulate the given {@link ByteBuf}s and return the {@link ByteBuf} that holds the cumulated bytes.
+         * The implementation is responsible to correctly handle the life-cycle of the given {@link ByteBuf}s and so
+         * call {@link ByteBuf#release()} if a {@link ByteBuf} is fully consumed.
+         */
+        ByteBuf cumulate(ByteBufAllocator alloc, ByteBuf cumulation, ByteBuf in);
+    }
 }
@@ -179,18 +179,82 @@ import java.util.List;
  * | 0xCA | 0x0010 | 0xFE | "HELLO, WORLD" |      | 0xFE | "HELLO, WORLD" |
  * +------+--------+------+----------------+      +------+----------------+
  * </pre>
+ *
+ * <h3>Length fields of other encodings</h3>
+ *
+ * The length field does not need to be an unsigned integer of a fixed size.  Pass a {@link LengthField}, like
+ * {@link #VARINT32_LENGTH_FIELD} or your own implementation, to decode length fields of any encoding.  If the
+ * length field has a variable size, use {@link #STRIP_HEADER} as <tt>initialBytesToStrip</tt> to strip everything
+ * up to the end of the length field:
+ * <pre>
+ * lengthFieldOffset   = 0
+ * <b>lengthField</b>         = <b>{@link #VARINT32_LENGTH_FIELD}</b>
+ * lengthAdjustment    = 0
+ * <b>initialBytesToStrip</b> = <b>{@link #STRIP_HEADER}</b>
+ *
+ * BEFORE DECODE (302 bytes)       AFTER DECODE (300 bytes)
+ * +--------+----------------+      +----------------+
+ * | Length | Actual Content |----->| Actual Content |
+ * | 0xAC02 |  (300 bytes)   |      |  (300 bytes)   |
+ * +--------+----------------+      +----------------+
+ * </pre>
+ *
+ * <h3>Avoiding the copy of each frame</h3>
+ *
+ * By default every frame is copied into a newly allocated buffer.  If {@link #setSliceFrames(boolean)} is enabled,
+ * the frames are emitted as retained slices of the internal cumulation buffer instead, so no frame is copied at all.
+ * Be aware that a slice keeps the whole cumulation buffer from being released or reused until the frame is
+ * released.
+ *
  * @see LengthFieldPrepender
  */
 public class LengthFieldBasedFrameDecoder extends ByteToMessageDecoder {
 
-    private final ByteOrder byteOrder;
+    /**
+     * Passed as <tt>initialBytesToStrip</tt> to strip everything up to the end of the length field from the decoded
+     * frame, whatever the actual size of the length field is.
+     */
+    public static final int STRIP_HEADER = -1;
+
+    /**
+     * Decodes a length field which is encoded as a Google Protocol Buffers
+     * <a href="http://code.google.com/apis/protocolbuffers/docs/encoding.html#varints">Base 128 Varint</a>
+     * of up to 32 bits.
+     */
+    public static final LengthField VARINT32_LENGTH_FIELD = new LengthField() {
+        @Override
+        public int length(ByteBuf buf, int offset, int available) {
+            int maxLength = Math.min(available, 5);
+            for (int i = 0; i < maxLength; i ++) {
+                if (buf.getByte(offset + i) >= 0) {
+                    return i + 1;
+                }
+            }
+            // Either more bytes are needed or decode(...) will reject the last byte.
+            return maxLength == 5 ? 5 : -1;
+        }
+
+        @Override
+        public long decode(ByteBuf buf, int offset, int length) {
+            int result = 0;
+            for (int i = 0; i < length; i ++) {
+                byte b = buf.getByte(offset + i);
+                result |= (b & 0x7f) << i * 7;
+                if (b >= 0) {
+                    return result;
+                }
+            }
+            throw new CorruptedFrameException("length wider than 32-bit");
+        }
+    };
+
     private final int maxFrameLength;
     private final int lengthFieldOffset;
-    private final int lengthFieldLength;
-    private final int lengthFieldEndOffset;
+    private final LengthField lengthField;
     private final int lengthAdjustment;
     private final int initialBytesToStrip;
     private final boolean failFast;
+    private boolean sliceFrames;
     private boolean discardingTooLongFrame;
     private long tooLongFrameLength;
     private long bytesToDiscard;
@@ -302,6 +366,74 @@ public class LengthFieldBasedFrameDecoder extends ByteToMessageDecoder {
             throw new NullPointerException("byteOrder");
         }
 
+        checkArguments(maxFrameLength, lengthFieldOffset, initialBytesToStrip);
+
+        if (lengthFieldOffset > maxFrameLength - lengthFieldLength) {
+            throw new IllegalArgumentException(
+                    "maxFrameLength (" + maxFrameLength + ") " +
+                    "must be equal to or greater than " +
+                    "lengthFieldOffset (" + lengthFieldOffset + ") + " +
+                    "lengthFieldLength (" + lengthFieldLength + ").");
+        }
+
+        this.maxFrameLength = maxFrameLength;
+        this.lengthFieldOffset = lengthFieldOffset;
+        lengthField = new UnadjustedFrameLengthField(lengthFieldLength, byteOrder);
+        this.lengthAdjustment = lengthAdjustment;
+        this.initialBytesToStrip = initialBytesToStrip;
+        this.failFast = failFast;
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxFrameLength
+     *        the maximum length of the frame.  If the length of the frame is
+     *        greater than this value, {@link TooLongFrameException} will be
+     *        thrown.
+     * @param lengthFieldOffset
+     *        the offset of the length field
+     * @param lengthField
+     *        the {@link LengthField} which decodes the length field
+     * @param lengthAdjustment
+     *        the compensation value to add to the value of the length field
+     * @param initialBytesToStrip
+     *        the number of first bytes to strip out from the decoded frame or
+     *        {@link #STRIP_HEADER} to strip everything up to the end of the
+     *        length field
+     * @param failFast
+     *        If <tt>true</tt>, a {@link TooLongFrameException} is thrown as
+     *        soon as the decoder notices the length of the frame will exceed
+     *        <tt>maxFrameLength</tt> regardless of whether the entire frame
+     *        has been read.  If <tt>false</tt>, a {@link TooLongFrameException}
+     *        is thrown after the entire frame that exceeds <tt>maxFrameLength</tt>
+     *        has been read.
+     */
+    public LengthFieldBasedFrameDecoder(
+            int maxFrameLength, int lengthFieldOffset, LengthField lengthField,
+            int lengthAdjustment, int initialBytesToStrip, boolean failFast) {
+        if (lengthField == null) {
+            throw new NullPointerException("lengthField");
+        }
+
+        checkArguments(maxFrameLength, lengthFieldOffset, initialBytesToStrip);
+
+        if (lengthFieldOffset >= maxFrameLength) {
+            throw new IllegalArgumentException(
+                    "maxFrameLength (" + maxFrameLength + ") " +
+                    "must be greater than " +
+                    "lengthFieldOffset (" + lengthFieldOffset + ").");
+        }
+
+        this.maxFrameLength = maxFrameLength;
+        this.lengthFieldOffset = lengthFieldOffset;
+        this.lengthField = lengthField;
+        this.lengthAdjustment = lengthAdjustment;
+        this.initialBytesToStrip = initialBytesToStrip;
+        this.failFast = failFast;
+    }
+
+    private static void checkArguments(int maxFrameLength, int lengthFieldOffset, int initialBytesToStrip) {
         if (maxFrameLength <= 0) {
             throw new IllegalArgumentException(
                     "maxFrameLength must be a positive integer: " +
@@ -314,28 +446,46 @@ public class LengthFieldBasedFrameDecoder extends ByteToMessageDecoder {
                     lengthFieldOffset);
         }
 
-        if (initialBytesToStrip < 0) {
+        if (initialBytesToStrip < 0 && initialBytesToStrip != STRIP_HEADER) {
             throw new IllegalArgumentException(
                     "initialBytesToStrip must be a non-negative integer: " +
                     initialBytesToStrip);
         }
+    }
 
-        if (lengthFieldOffset > maxFrameLength - lengthFieldLength) {
+    /**
+     * Returns a {@link LengthField} which decodes an unsigned 8/16/24/32 bit or a 64 bit integer.
+     *
+     * @param length the length of the length field (1, 2, 3, 4, or 8)
+     * @param order  the {@link ByteOrder} of the length field
+     */
+    public static LengthField fixedLengthField(int length, ByteOrder order) {
+        if (order == null) {
+            throw new NullPointerException("order");
+        }
+        switch (length) {
+        case 1: case 2: case 3: case 4: case 8:
+            return new FixedLengthField(length, order);
+        default:
             throw new IllegalArgumentException(
-                    "maxFrameLength (" + maxFrameLength + ") " +
-                    "must be equal to or greater than " +
-                    "lengthFieldOffset (" + lengthFieldOffset + ") + " +
-                    "lengthFieldLength (" + lengthFieldLength + ").");
+                    "length: " + length + " (expected: 1, 2, 3, 4, or 8)");
         }
+    }
 
-        this.byteOrder = byteOrder;
-        this.maxFrameLength = maxFrameLength;
-        this.lengthFieldOffset = lengthFieldOffset;
-        this.lengthFieldLength = lengthFieldLength;
-        this.lengthAdjustment = lengthAdjustment;
-        lengthFieldEndOffset = lengthFieldOffset + lengthFieldLength;
-        this.initialBytesToStrip = initialBytesToStrip;
-        this.failFast = failFast;
+    /**
+     * Sets if frames are emitted as retained slices of the internal cumulation buffer instead of copies.  Default is
+     * {@code false}.
+     */
+    public void setSliceFrames(boolean sliceFrames) {
+        this.sliceFrames = sliceFrames;
+    }
+
+    /**
+     * Returns {@code true} if frames are emitted as retained slices of the internal cumulation buffer instead of
+     * copies.
+     */
+    public boolean isSliceFrames() {
+        return sliceFrames;
     }
 
     @Override
@@ -365,12 +515,28 @@ public class LengthFieldBasedFrameDecoder extends ByteToMessageDecoder {
             failIfNecessary(false);
         }
 
-        if (in.readableBytes() < lengthFieldEndOffset) {
+        int readableBytes = in.readableBytes();
+        if (readableBytes <= lengthFieldOffset) {
             return null;
         }
 
         int actualLengthFieldOffset = in.readerIndex() + lengthFieldOffset;
-        long frameLength = getUnadjustedFrameLength(in, actualLengthFieldOffset, lengthFieldLength, byteOrder);
+        int lengthFieldLength = lengthField.length(in, actualLengthFieldOffset, readableBytes - lengthFieldOffset);
+        if (lengthFieldLength < 0) {
+            return null;
+        }
+        int lengthFieldEndOffset = lengthFieldOffset + lengthFieldLength;
+        if (readableBytes < lengthFieldEndOffset) {
+            return null;
+        }
+
+        long frameLength;
+        try {
+            frameLength = lengthField.decode(in, actualLengthFieldOffset, lengthFieldLength);
+        } catch (CorruptedFrameException e) {
+            in.skipBytes(lengthFieldEndOffset);
+            throw e;
+        }
 
         if (frameLength < 0) {
             in.skipBytes(lengthFieldEndOffset);
@@ -410,6 +576,10 @@ public class LengthFieldBasedFrameDecoder extends ByteToMessageDecoder {
             return null;
         }
 
+        int initialBytesToStrip = this.initialBytesToStrip;
+        if (initialBytesToStrip == STRIP_HEADER) {
+            initialBytesToStrip = lengthFieldEndOffset;
+        }
         if (initialBytesToStrip > frameLengthInt) {
             in.skipBytes(frameLengthInt);
             throw new CorruptedFrameException(
@@ -435,29 +605,7 @@ public class LengthFieldBasedFrameDecoder extends ByteToMessageDecoder {
      * @throws DecoderException if failed to decode the specified region
      */
     protected long getUnadjustedFrameLength(ByteBuf buf, int offset, int length, ByteOrder order) {
-        buf = buf.order(order);
-        long frameLength;
-        switch (length) {
-        case 1:
-            frameLength = buf.getUnsignedByte(offset);
-            break;
-        case 2:
-            frameLength = buf.getUnsignedShort(offset);
-            break;
-        case 3:
-            frameLength = buf.getUnsignedMedium(offset);
-            break;
-        case 4:
-            frameLength = buf.getUnsignedInt(offset);
-            break;
-        case 8:
-            frameLength = buf.getLong(offset);
-            break;
-        default:
-            throw new DecoderException(
-                    "unsupported lengthFieldLength: " + lengthFieldLength + " (expected: 1, 2, 3, 4, or 8)");
-        }
-        return frameLength;
+        return FixedLengthField.decode(buf, offset, length, order);
     }
 
     private void failIfNecessary(boolean firstDetectionOfTooLongFrame) {
@@ -489,8 +637,14 @@ public class LengthFieldBasedFrameDecoder extends ByteToMessageDecoder {
      * It's often useful when you convert the extracted frame into an object.
      * Refer to the source code of {@link ObjectDecoder} to see how this method
      * is overridden to avoid memory copy.
+     * <p>
+     * If {@link #isSliceFrames()} is {@code true}, the default implementation
+     * returns a retained slice, otherwise a copy.
      */
     protected ByteBuf extractFrame(ChannelHandlerContext ctx, ByteBuf buffer, int index, int length) {
+        if (sliceFrames) {
+            return buffer.slice(index, length).retain();
+        }
         ByteBuf frame = ctx.alloc().buffer(length);
         frame.writeBytes(buffer, index, length);
         return frame;
@@ -507,4 +661,98 @@ public class LengthFieldBasedFrameDecoder extends ByteToMessageDecoder {
                             " - discarding");
         }
     }
+
+    /**
+     * Decodes the length field of a frame into an unadjusted frame length.  Implementations must not modify the state
+     * of the buffers passed to them (e.g. {@code readerIndex}, {@code writerIndex}, and the content of the buffer.)
+     *
+     * @see #fixedLengthField(int, ByteOrder)
+     * @see #VARINT32_LENGTH_FIELD
+     */
+    public interface LengthField {
+        /**
+         * Returns the length of the length field which starts at {@code offset}, or {@code -1} if the length can not
+         * be determined from the {@code available} bytes yet.  The returned length may be greater than
+         * {@code available}, in which case the decoder waits for more data.
+         */
+        int length(ByteBuf buf, int offset, int available);
+
+        /**
+         * Decodes the length field of the given {@code length} which starts at {@code offset}.
+         *
+         * @throws CorruptedFrameException if the length field is malformed, in which case the length field is
+         *                                 discarded
+         */
+        long decode(ByteBuf buf, int offset, int length);
+    }
+
+    private static final class FixedLengthField implements LengthField {
+        private final int length;
+        private final ByteOrder order;
+
+        FixedLengthField(int length, ByteOrder order) {
+            this.length = length;
+            this.order = order;
+        }
+
+        @Override
+        public int length(ByteBuf buf, int offset, int available) {
+            return length;
+        }
+
+        @Override
+        public long decode(ByteBuf buf, int offset, int length) {
+            return decode(buf, offset, length, order);
+        }
+
+        static long decode(ByteBuf buf, int offset, int length, ByteOrder order) {
+            buf = buf.order(order);
+            long frameLength;
+            switch (length) {
+            case 1:
+                frameLength = buf.getUnsignedByte(offset);
+                break;
+            case 2:
+                frameLength = buf.getUnsignedShort(offset);
+                break;
+            case 3:
+                frameLength = buf.getUnsignedMedium(offset);
+                break;
+            case 4:
+                frameLength = buf.getUnsignedInt(offset);
+                break;
+            case 8:
+                frameLength = buf.getLong(offset);
+                break;
+            default:
+                throw new DecoderException(
+                        "unsupported lengthFieldLength: " + length + " (expected: 1, 2, 3, 4, or 8)");
+            }
+            return frameLength;
+        }
+    }
+
+    /**
+     * Delegates to {@link #getUnadjustedFrameLength(ByteBuf, int, int, ByteOrder)} so sub-classes which override it
+     * keep working.
+     */
+    private final class UnadjustedFrameLengthField implements LengthField {
+        private final int length;
+        private final ByteOrder order;
+
+        UnadjustedFrameLengthField(int length, ByteOrder order) {
+            this.length = length;
+            this.order = order;
+        }
+
+        @Override
+        public int length(ByteBuf buf, int offset, int available) {
+            return length;
+        }
+
+        @Override
+        public long decode(ByteBuf buf, int offset, int length) {
+            return getUnadjustedFrameLength(buf, offset, length, order);
+        }
+    }
 }
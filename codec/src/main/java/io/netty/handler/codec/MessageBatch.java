@@ -0,0 +1,225 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.IllegalReferenceCountException;
+import io.netty.util.Recycler;
+import io.netty.util.Recycler.Handle;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.ReferenceCounted;
+import io.netty.util.internal.PlatformDependent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A recyclable list of messages which a decoder passes on as a single message if batch output is enabled via
+ * {@link ByteToMessageDecoder#setBatchOutput(boolean)} or {@link MessageToMessageDecoder#setBatchOutput(boolean)}.
+ * This way a batch-aware handler sees many decoded messages per traversal of the pipeline.
+ * <p>
+ * The handler which receives a {@link MessageBatch} is responsible for it.  It either calls {@link #release()}, which
+ * releases the contained messages and recycles the batch, or takes over the contained messages and calls
+ * {@link #recycle()}.  A {@link MessageBatchUnpacker} can be placed in front of handlers that are not batch-aware,
+ * so they receive the messages one by one again.  If no handler consumes the {@link MessageBatch}, the tail of the
+ * pipeline releases it like any other {@link ReferenceCounted} message.
+ */
+public final class MessageBatch extends ArrayList<Object> implements ReferenceCounted {
+
+    private static final long serialVersionUID = 6203627917466812617L;
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 8;
+
+    private static final AtomicIntegerFieldUpdater<MessageBatch> refCntUpdater;
+
+    static {
+        AtomicIntegerFieldUpdater<MessageBatch> updater =
+                PlatformDependent.newAtomicIntegerFieldUpdater(MessageBatch.class, "refCnt");
+        if (updater == null) {
+            updater = AtomicIntegerFieldUpdater.newUpdater(MessageBatch.class, "refCnt");
+        }
+        refCntUpdater = updater;
+    }
+
+    private static final Recycler<MessageBatch> RECYCLER = new Recycler<MessageBatch>() {
+        @Override
+        protected MessageBatch newObject(Handle<MessageBatch> handle) {
+            return new MessageBatch(handle);
+        }
+    };
+
+    /**
+     * Create a new empty {@link MessageBatch} instance
+     */
+    public static MessageBatch newInstance() {
+        return newInstance(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Create a new empty {@link MessageBatch} instance with the given capacity.
+     */
+    public static MessageBatch newInstance(int minCapacity) {
+        MessageBatch ret = RECYCLER.get();
+        ret.refCnt = 1;
+        ret.ensureCapacity(minCapacity);
+        return ret;
+    }
+
+    /**
+     * Fire the first {@code size} messages of the given {@link List} through the {@link ChannelHandlerContext},
+     * either as one {@link MessageBatch} if {@code batch} is {@code true} and there is more than one message, or
+     * one by one.
+     */
+    static void fireChannelRead(ChannelHandlerContext ctx, List<Object> msgs, int size, boolean batch) {
+        if (batch && size > 1) {
+            MessageBatch messageBatch = newInstance(size);
+            for (int i = 0; i < size; i ++) {
+                messageBatch.add(msgs.get(i));
+            }
+            ctx.fireChannelRead(messageBatch);
+        } else {
+            for (int i = 0; i < size; i ++) {
+                ctx.fireChannelRead(msgs.get(i));
+            }
+        }
+    }
+
+    private final Handle<MessageBatch> handle;
+    private volatile int refCnt = 1;
+
+    private MessageBatch(Handle<MessageBatch> handle) {
+        super(DEFAULT_INITIAL_CAPACITY);
+        this.handle = handle;
+    }
+
+    @Override
+    public boolean add(Object element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        return super.add(element);
+    }
+
+    @Override
+    public void add(int index, Object element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        super.add(index, element);
+    }
+
+    @Override
+    public Object set(int index, Object element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        return super.set(index, element);
+    }
+
+    /**
+     * Clear and recycle this instance.  This does not release the contained messages.
+     */
+    public boolean recycle() {
+        clear();
+        return RECYCLER.recycle(this, handle);
+    }
+
+    @Override
+    public int refCnt() {
+        return refCnt;
+    }
+
+    @Override
+    public MessageBatch retain() {
+        return retain(1);
+    }
+
+    @Override
+    public MessageBatch retain(int increment) {
+        if (increment <= 0) {
+            throw new IllegalArgumentException("increment: " + increment + " (expected: > 0)");
+        }
+
+        for (;;) {
+            int refCnt = this.refCnt;
+            if (refCnt == 0) {
+                throw new IllegalReferenceCountException(0, increment);
+            }
+            if (refCnt > Integer.MAX_VALUE - increment) {
+                throw new IllegalReferenceCountException(refCnt, increment);
+            }
+            if (refCntUpdater.compareAndSet(this, refCnt, refCnt + increment)) {
+                return this;
+            }
+        }
+    }
+
+    @Override
+    public MessageBatch touch() {
+        return touch(null);
+    }
+
+    @Override
+    public MessageBatch touch(Object hint) {
+        int size = size();
+        for (int i = 0; i < size; i ++) {
+            ReferenceCountUtil.touch(get(i), hint);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return release(1);
+    }
+
+    /**
+     * Decreases the reference count by the specified {@code decrement}.  Once it reaches {@code 0}, all contained
+     * messages are released and this instance is recycled.
+     */
+    @Override
+    public boolean release(int decrement) {
+        if (decrement <= 0) {
+            throw new IllegalArgumentException("decrement: " + decrement + " (expected: > 0)");
+        }
+
+        for (;;) {
+            int refCnt = this.refCnt;
+            if (refCnt < decrement) {
+                throw new IllegalReferenceCountException(refCnt, -decrement);
+            }
+            if (refCntUpdater.compareAndSet(this, refCnt, refCnt - decrement)) {
+                if (refCnt == decrement) {
+                    deallocate();
+                    return true;
+                }
+                return false;
+            }
+        }
+    }
+
+    private void deallocate() {
+        try {
+            int size = size();
+            for (int i = 0; i < size; i ++) {
+                ReferenceCountUtil.release(get(i));
+            }
+        } finally {
+            recycle();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec;
+
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * Passes on the messages of each received {@link MessageBatch} one by one and recycles the {@link MessageBatch}.
+ * Place it in front of the handlers which do not know about {@link MessageBatch}es:
+ * <pre>
+ * {@link io.netty.channel.ChannelPipeline} pipeline = ...;
+ *
+ * MyFrameDecoder decoder = new MyFrameDecoder();
+ * decoder.setBatchOutput(true);
+ * pipeline.addLast("frameDecoder", decoder);
+ * pipeline.addLast("batchAwareHandler", new MyBatchAwareHandler());
+ * pipeline.addLast("batchUnpacker", new {@link MessageBatchUnpacker}());
+ * pipeline.addLast("handler", new MyHandler());
+ * </pre>
+ * All other messages are passed on as they are.
+ */
+@Sharable
+public class MessageBatchUnpacker extends ChannelHandlerAdapter {
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof MessageBatch) {
+            MessageBatch batch = (MessageBatch) msg;
+            try {
+                int size = batch.size();
+                for (int i = 0; i < size; i ++) {
+                    ctx.fireChannelRead(batch.get(i));
+                }
+            } finally {
+                batch.recycle();
+            }
+        } else {
+            ctx.fireChannelRead(msg);
+        }
+    }
+}
@@ -53,6 +53,7 @@ import java.util.List;
 public abstract class MessageToMessageDecoder<I> extends ChannelHandlerAdapter {
 
     private final TypeParameterMatcher matcher;
+    private boolean batchOutput;
 
     /**
      * Create a new instance which will try to detect the types to match out of the type parameter of the class.
@@ -70,6 +71,27 @@ public abstract class MessageToMessageDecoder<I> extends ChannelHandlerAdapter {
         matcher = TypeParameterMatcher.get(inboundMessageType);
     }
 
+    /**
+     * If set then all messages which were decoded from one message are passed on as a single {@link MessageBatch}
+     * instead of one by one, if there is more than one of them.  Only enable it if the next handlers in the
+     * {@link ChannelPipeline} know how to handle a {@link MessageBatch}, or use a {@link MessageBatchUnpacker}.
+     *
+     * Default is {@code false}.
+     */
+    public void setBatchOutput(boolean batchOutput) {
+        this.batchOutput = batchOutput;
+    }
+
+    /**
+     * If {@code true} then all messages which were decoded from one message are passed on as a single
+     * {@link MessageBatch}.
+     *
+     * Default is {@code false}.
+     */
+    public boolean isBatchOutput() {
+        return batchOutput;
+    }
+
     /**
      * Returns {@code true} if the given message should be handled. If {@code false} it will be passed to the next
      * {@link ChannelHandler} in the {@link ChannelPipeline}.
@@ -98,10 +120,7 @@ public abstract class MessageToMessageDecoder<I> extends ChannelHandlerAdapter {
         } catch (Exception e) {
             throw new DecoderException(e);
         } finally {
-            int size = out.size();
-            for (int i = 0; i < size; i ++) {
-                ctx.fireChannelRead(out.get(i));
-            }
+            MessageBatch.fireChannelRead(ctx, out, out.size(), batchOutput);
             out.recycle();
         }
     }
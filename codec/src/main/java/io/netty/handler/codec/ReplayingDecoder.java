@@ -340,10 +340,7 @@ public abstract class ReplayingDecoder<S> extends ByteToMessageDecoder {
                 cumulation = null;
             }
 
-            int size = out.size();
-            for (int i = 0; i < size; i ++) {
-                ctx.fireChannelRead(out.get(i));
-            }
+            MessageBatch.fireChannelRead(ctx, out, out.size(), isBatchOutput());
             ctx.fireChannelInactive();
             out.recycle();
         }
@@ -0,0 +1,324 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * A specialized variation of {@link ByteToMessageDecoder} which, like {@link ReplayingDecoder}, allows you to
+ * write a decoder as a simple state machine, but which never uses exceptions to report that more data is needed.
+ * <p>
+ * The {@code decode(..)} method is handed a {@link Reader} instead of the cumulation buffer.  Every read operation
+ * of the {@link Reader} checks if enough bytes are readable.  If not, the {@link Reader} is
+ * {@linkplain Reader#isSuspended() suspended}: the read returns {@code 0} (or {@code null}) without touching the
+ * buffer and every subsequent read does the same.  Once {@code decode(..)} returns, the {@code readerIndex} is
+ * rewound to the last {@linkplain #checkpoint() checkpoint} and the number of bytes that were missing is
+ * remembered, so {@code decode(..)} is not called again before they have been received.  Compared to
+ * {@link ReplayingDecoder} a header is therefore never re-parsed for every small segment which arrives, and no
+ * stack has to be unwound.
+ * <p>
+ * The {@code IntegerHeaderFrameDecoder} shown in {@link ReplayingDecoder} looks like the following:
+ * <pre>
+ * public class IntegerHeaderFrameDecoder extends {@link ResumableDecoder}&lt;{@link Void}&gt; {
+ *
+ *   {@code @Override}
+ *   protected void decode({@link ChannelHandlerContext} ctx,
+ *                           {@link Reader} in, List&lt;Object&gt; out) throws Exception {
+ *     int length = in.readInt();
+ *     ByteBuf frame = in.readBytes(length);
+ *     if (in.isSuspended()) {
+ *       return;
+ *     }
+ *     out.add(frame);
+ *   }
+ * }
+ * </pre>
+ * As the values returned by a suspended {@link Reader} are meaningless, a decoder must check
+ * {@link Reader#isSuspended()} (or use {@link Reader#request(int)} upfront) before it acts on them, for example
+ * before it adds a message to the output or changes its state.
+ */
+public abstract class ResumableDecoder<S> extends ByteToMessageDecoder {
+
+    private final Reader reader = new Reader();
+    private S state;
+    private int checkpoint = -1;
+    private int requiredBytes;
+
+    /**
+     * Creates a new instance with no initial state (i.e: {@code null}).
+     */
+    protected ResumableDecoder() {
+        this(null);
+    }
+
+    /**
+     * Creates a new instance with the specified initial state.
+     */
+    protected ResumableDecoder(S initialState) {
+        state = initialState;
+    }
+
+    /**
+     * Stores the current reader position, so the next {@code decode(..)} call resumes from here if the
+     * {@link Reader} is suspended later on.
+     */
+    protected void checkpoint() {
+        checkpoint = reader.buf.readerIndex();
+    }
+
+    /**
+     * Stores the current reader position and updates the current decoder state.
+     */
+    protected void checkpoint(S state) {
+        checkpoint();
+        state(state);
+    }
+
+    /**
+     * Returns the current state of this decoder.
+     * @return the current state of this decoder
+     */
+    protected S state() {
+        return state;
+    }
+
+    /**
+     * Sets the current state of this decoder.
+     * @return the old state of this decoder
+     */
+    protected S state(S newState) {
+        S oldState = state;
+        state = newState;
+        return oldState;
+    }
+
+    @Override
+    protected final void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        if (in.readableBytes() < requiredBytes) {
+            // Still not enough data to get past the point where the last call was suspended.
+            return;
+        }
+        Reader reader = this.reader;
+        reader.reset(in);
+        checkpoint = in.readerIndex();
+        try {
+            decode(ctx, reader, out);
+        } finally {
+            resume(ctx, in);
+        }
+    }
+
+    @Override
+    protected final void decodeLast(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        Reader reader = this.reader;
+        reader.reset(in);
+        checkpoint = in.readerIndex();
+        try {
+            decodeLast(ctx, reader, out);
+        } finally {
+            resume(ctx, in);
+        }
+    }
+
+    private void resume(ChannelHandlerContext ctx, ByteBuf in) {
+        Reader reader = this.reader;
+        if (reader.suspended) {
+            int checkpoint = this.checkpoint;
+            requiredBytes = reader.requiredIndex - checkpoint;
+            // Only rewind if the handler is still part of the pipeline, as otherwise the remaining bytes
+            // were handed over already.
+            if (!ctx.isRemoved()) {
+                in.readerIndex(checkpoint);
+            }
+        } else {
+            requiredBytes = 0;
+        }
+        reader.reset(null);
+    }
+
+    /**
+     * Decode the from the {@link Reader} to an other. This method will be called till either the input
+     * {@link ByteBuf} has nothing to read anymore, till nothing was read from it or till the {@link Reader} was
+     * suspended because not enough bytes were readable.
+     *
+     * @param ctx           the {@link ChannelHandlerContext} which this {@link ResumableDecoder} belongs to
+     * @param in            the {@link Reader} from which to read data
+     * @param out           the {@link List} to which decoded messages should be added
+     * @throws Exception    is thrown if an error accour
+     */
+    protected abstract void decode(ChannelHandlerContext ctx, Reader in, List<Object> out) throws Exception;
+
+    /**
+     * Is called one last time when the {@link ChannelHandlerContext} goes in-active.
+     *
+     * By default this will just call {@link #decode(ChannelHandlerContext, Reader, List)} but sub-classes may
+     * override this for some special cleanup operation.
+     */
+    protected void decodeLast(ChannelHandlerContext ctx, Reader in, List<Object> out) throws Exception {
+        decode(ctx, in, out);
+    }
+
+    /**
+     * Reads from the cumulation buffer of a {@link ResumableDecoder} and suspends instead of failing once not
+     * enough bytes are readable.  A {@link Reader} is only valid during the {@code decode(..)} call it was
+     * passed to.
+     */
+    public static final class Reader {
+
+        private ByteBuf buf;
+        private boolean suspended;
+        private int requiredIndex;
+
+        Reader() { }
+
+        void reset(ByteBuf buf) {
+            this.buf = buf;
+            suspended = false;
+        }
+
+        /**
+         * Returns {@code true} if a previous read could not be satisfied.  All values returned since then are
+         * meaningless and the buffer will not be advanced anymore until the next {@code decode(..)} call.
+         */
+        public boolean isSuspended() {
+            return suspended;
+        }
+
+        /**
+         * Returns {@code true} if at least {@code length} bytes are readable.  Otherwise this {@link Reader} is
+         * suspended and {@code false} is returned.
+         */
+        public boolean request(int length) {
+            if (length < 0) {
+                throw new IllegalArgumentException("length: " + length + " (expected: >= 0)");
+            }
+            if (suspended) {
+                return false;
+            }
+            ByteBuf buf = this.buf;
+            if (buf.readableBytes() >= length) {
+                return true;
+            }
+            suspended = true;
+            requiredIndex = buf.readerIndex() + length;
+            return false;
+        }
+
+        /**
+         * Returns the number of bytes which can be read before this {@link Reader} suspends.
+         */
+        public int readableBytes() {
+            return suspended ? 0 : buf.readableBytes();
+        }
+
+        /**
+         * Returns the underlying cumulation buffer, which may be used to look ahead (for example to search for a
+         * delimiter) and to read data which was {@linkplain #request(int) requested} before.
+         */
+        public ByteBuf buffer() {
+            return buf;
+        }
+
+        public byte readByte() {
+            return request(1) ? buf.readByte() : 0;
+        }
+
+        public short readUnsignedByte() {
+            return request(1) ? buf.readUnsignedByte() : 0;
+        }
+
+        public short readShort() {
+            return request(2) ? buf.readShort() : 0;
+        }
+
+        public int readUnsignedShort() {
+            return request(2) ? buf.readUnsignedShort() : 0;
+        }
+
+        public int readMedium() {
+            return request(3) ? buf.readMedium() : 0;
+        }
+
+        public int readUnsignedMedium() {
+            return request(3) ? buf.readUnsignedMedium() : 0;
+        }
+
+        public int readInt() {
+            return request(4) ? buf.readInt() : 0;
+        }
+
+        public long readUnsignedInt() {
+            return request(4) ? buf.readUnsignedInt() : 0;
+        }
+
+        public long readLong() {
+            return request(8) ? buf.readLong() : 0;
+        }
+
+        /**
+         * Fills {@code dst} if enough bytes are readable and does nothing otherwise.
+         */
+        public void readBytes(byte[] dst) {
+            if (request(dst.length)) {
+                buf.readBytes(dst);
+            }
+        }
+
+        /**
+         * Returns a newly allocated copy of the next {@code length} bytes or {@code null} if not enough bytes are
+         * readable.
+         */
+        public ByteBuf readBytes(int length) {
+            return request(length) ? buf.readBytes(length) : null;
+        }
+
+        /**
+         * Returns a slice of the next {@code length} bytes or {@code null} if not enough bytes are readable.
+         * The slice shares the cumulation buffer and so is only valid until {@code decode(..)} returns, unless
+         * it is {@linkplain ByteBuf#retain() retained}.
+         */
+        public ByteBuf readSlice(int length) {
+            return request(length) ? buf.readSlice(length) : null;
+        }
+
+        /**
+         * Decodes the next {@code length} bytes with the given {@link Charset} or returns {@code null} if not
+         * enough bytes are readable.
+         */
+        public String readString(int length, Charset charset) {
+            if (!request(length)) {
+                return null;
+            }
+            ByteBuf buf = this.buf;
+            String s = buf.toString(buf.readerIndex(), length, charset);
+            buf.skipBytes(length);
+            return s;
+        }
+
+        /**
+         * Skips the next {@code length} bytes if enough bytes are readable and does nothing otherwise.
+         */
+        public void skipBytes(int length) {
+            if (request(length)) {
+                buf.skipBytes(length);
+            }
+        }
+    }
+}
@@ -45,6 +45,15 @@ public final class Base64 {
 
     private static final byte EQUALS_SIGN_ENC = -1; // Indicates equals sign in encoding
 
+    /** The number of 3-byte groups which make up a line of {@value #MAX_LINE_LENGTH} characters. */
+    private static final int GROUPS_PER_LINE = MAX_LINE_LENGTH / 4;
+
+    /** The number of bytes which are encoded at once if the input is not backed by an array. */
+    private static final int ENCODE_CHUNK_SIZE = GROUPS_PER_LINE * 3 * 64;
+
+    /** The number of characters which are decoded at once if the input is not backed by an array. */
+    private static final int DECODE_CHUNK_SIZE = 4096;
+
     private static byte[] alphabet(Base64Dialect dialect) {
         if (dialect == null) {
             throw new NullPointerException("dialect");
@@ -112,39 +121,44 @@ public final class Base64 {
             throw new NullPointerException("dialect");
         }
 
-        int len43 = len * 4 / 3;
-        ByteBuf dest = Unpooled.buffer(
-                len43 +
-                        (len % 3 > 0 ? 4 : 0) + // Account for padding
-                        (breakLines ? len43 / MAX_LINE_LENGTH : 0)).order(src.order()); // New lines
-        int d = 0;
-        int e = 0;
-        int len2 = len - 2;
-        int lineLength = 0;
-        for (; d < len2; d += 3, e += 4) {
-            encode3to4(src, d + off, 3, dest, e, dialect);
-
-            lineLength += 4;
-            if (breakLines && lineLength == MAX_LINE_LENGTH) {
-                dest.setByte(e + 4, NEW_LINE);
-                e ++;
-                lineLength = 0;
-            } // end if: end of line
-        } // end for: each piece of array
-
-        if (d < len) {
-            encode3to4(src, d + off, len - d, dest, e, dialect);
-            e += 4;
-        } // end if: some padding needed
+        final byte[] alphabet = alphabet(dialect);
+        final ByteBuf dest = Unpooled.buffer(encodedLength(len, breakLines));
+        final byte[] destArray = dest.array();
+        final int destOffset = dest.arrayOffset();
+        int e = destOffset;
+        if (src.hasArray()) {
+            e = encode(src.array(), src.arrayOffset() + off, len, destArray, e, breakLines, alphabet);
+        } else {
+            // Copy the input in chunks, which is a plain memory copy for direct buffers. A chunk always ends at the
+            // end of a line, so that the line length does not need to be carried over to the next chunk.
+            final byte[] chunk = new byte[Math.min(len, ENCODE_CHUNK_SIZE)];
+            for (int d = 0; d < len; d += chunk.length) {
+                final int n = Math.min(len - d, chunk.length);
+                src.getBytes(off + d, chunk, 0, n);
+                e = encode(chunk, 0, n, destArray, e, breakLines, alphabet);
+            }
+        }
 
-        return dest.slice(0, e);
+        return dest.slice(0, e - destOffset).order(src.order());
     }
 
-    private static void encode3to4(
-            ByteBuf src, int srcOffset, int numSigBytes,
-            ByteBuf dest, int destOffset, Base64Dialect dialect) {
+    /**
+     * Returns the exact length of the encoded form of {@code len} bytes.
+     */
+    private static int encodedLength(int len, boolean breakLines) {
+        final int groups = len / 3;
+        return (groups + (len % 3 > 0 ? 1 : 0)) * 4 + // Account for padding
+                (breakLines ? groups / GROUPS_PER_LINE : 0); // New lines
+    }
 
-        byte[] ALPHABET = alphabet(dialect);
+    /**
+     * Encodes {@code len} bytes of {@code src} into {@code dest}, starting a new line every
+     * {@value #MAX_LINE_LENGTH} characters if {@code breakLines} is {@code true}.
+     *
+     * @return the index after the last character written to {@code dest}
+     */
+    private static int encode(
+            byte[] src, int srcOffset, int len, byte[] dest, int destOffset, boolean breakLines, byte[] alphabet) {
 
         //           1         2         3
         // 01234567890123456789012345678901 Bit position
@@ -153,35 +167,49 @@ public final class Base64 {
         //          >>18  >>12  >> 6  >> 0  Right shift necessary
         //                0x3f  0x3f  0x3f  Additional AND
 
-        // Create buffer with zero-padding if there are only one or two
-        // significant bytes passed in the array.
-        // We have to shift left 24 in order to flush out the 1's that appear
-        // when Java treats a value as negative that is cast from a byte to an int.
-        int inBuff =
-                (numSigBytes > 0? src.getByte(srcOffset)     << 24 >>>  8 : 0) |
-                (numSigBytes > 1? src.getByte(srcOffset + 1) << 24 >>> 16 : 0) |
-                (numSigBytes > 2? src.getByte(srcOffset + 2) << 24 >>> 24 : 0);
-
-        switch (numSigBytes) {
-        case 3:
-            dest.setByte(destOffset    , ALPHABET[inBuff >>> 18       ]);
-            dest.setByte(destOffset + 1, ALPHABET[inBuff >>> 12 & 0x3f]);
-            dest.setByte(destOffset + 2, ALPHABET[inBuff >>>  6 & 0x3f]);
-            dest.setByte(destOffset + 3, ALPHABET[inBuff        & 0x3f]);
-            break;
-        case 2:
-            dest.setByte(destOffset    , ALPHABET[inBuff >>> 18       ]);
-            dest.setByte(destOffset + 1, ALPHABET[inBuff >>> 12 & 0x3f]);
-            dest.setByte(destOffset + 2, ALPHABET[inBuff >>> 6  & 0x3f]);
-            dest.setByte(destOffset + 3, EQUALS_SIGN);
+        final int end = srcOffset + len;
+        final int groupsEnd = end - 2;
+        int s = srcOffset;
+        int e = destOffset;
+        int lineLength = 0;
+        for (; s < groupsEnd; s += 3, e += 4) {
+            final int inBuff = (src[s] & 0xff) << 16 | (src[s + 1] & 0xff) << 8 | src[s + 2] & 0xff;
+            dest[e    ] = alphabet[inBuff >>> 18       ];
+            dest[e + 1] = alphabet[inBuff >>> 12 & 0x3f];
+            dest[e + 2] = alphabet[inBuff >>>  6 & 0x3f];
+            dest[e + 3] = alphabet[inBuff        & 0x3f];
+
+            if (breakLines) {
+                lineLength += 4;
+                if (lineLength == MAX_LINE_LENGTH) {
+                    dest[e + 4] = NEW_LINE;
+                    e ++;
+                    lineLength = 0;
+                }
+            }
+        }
+
+        switch (end - s) {
+        case 2: {
+            final int inBuff = (src[s] & 0xff) << 16 | (src[s + 1] & 0xff) << 8;
+            dest[e    ] = alphabet[inBuff >>> 18       ];
+            dest[e + 1] = alphabet[inBuff >>> 12 & 0x3f];
+            dest[e + 2] = alphabet[inBuff >>>  6 & 0x3f];
+            dest[e + 3] = EQUALS_SIGN;
+            e += 4;
             break;
-        case 1:
-            dest.setByte(destOffset    , ALPHABET[inBuff >>> 18       ]);
-            dest.setByte(destOffset + 1, ALPHABET[inBuff >>> 12 & 0x3f]);
-            dest.setByte(destOffset + 2, EQUALS_SIGN);
-            dest.setByte(destOffset + 3, EQUALS_SIGN);
+        }
+        case 1: {
+            final int inBuff = (src[s] & 0xff) << 16;
+            dest[e    ] = alphabet[inBuff >>> 18       ];
+            dest[e + 1] = alphabet[inBuff >>> 12 & 0x3f];
+            dest[e + 2] = EQUALS_SIGN;
+            dest[e + 3] = EQUALS_SIGN;
+            e += 4;
             break;
         }
+        }
+        return e;
     }
 
     public static ByteBuf decode(ByteBuf src) {
@@ -214,85 +242,127 @@ public final class Base64 {
             throw new NullPointerException("dialect");
         }
 
-        byte[] DECODABET = decodabet(dialect);
+        final byte[] DECODABET = decodabet(dialect);
+        final int[] sextets = dialect.sextets;
 
         int len34 = len * 3 / 4;
-        ByteBuf dest = src.alloc().buffer(len34).order(src.order()); // Upper limit on size of output
-        int outBuffPosn = 0;
+        ByteBuf dest = src.alloc().heapBuffer(len34); // Upper limit on size of output
+        final byte[] destArray = dest.array();
+        final int destOffset = dest.arrayOffset();
+        int outBuffPosn = destOffset;
+
+        final boolean hasArray = src.hasArray();
+        final byte[] srcArray;
+        if (hasArray) {
+            srcArray = src.array();
+        } else {
+            // Copy the input in chunks, which is a plain memory copy for direct buffers.
+            srcArray = new byte[Math.min(len, DECODE_CHUNK_SIZE)];
+        }
 
         byte[] b4 = new byte[4];
         int b4Posn = 0;
-        int i;
-        byte sbiCrop;
-        byte sbiDecode;
-        for (i = off; i < off + len; i ++) {
-            sbiCrop = (byte) (src.getByte(i) & 0x7f); // Only the low seven bits
-            sbiDecode = DECODABET[sbiCrop];
-
-            if (sbiDecode >= WHITE_SPACE_ENC) { // White space, Equals sign or better
-                if (sbiDecode >= EQUALS_SIGN_ENC) { // Equals sign or better
-                    b4[b4Posn ++] = sbiCrop;
-                    if (b4Posn > 3) { // Quartet built
-                        outBuffPosn += decode4to3(
-                                b4, 0, dest, outBuffPosn, dialect);
-                        b4Posn = 0;
-
-                        // If that was the equals sign, break out of 'for' loop
-                        if (sbiCrop == EQUALS_SIGN) {
-                            break;
+        int i = off;
+        final int end = off + len;
+        loop: while (i < end) {
+            // The difference between the index of the input buffer and the index of the array.
+            final int delta;
+            final int chunkEnd;
+            if (hasArray) {
+                delta = src.arrayOffset();
+                chunkEnd = end;
+            } else {
+                final int n = Math.min(end - i, srcArray.length);
+                src.getBytes(i, srcArray, 0, n);
+                delta = -i;
+                chunkEnd = i + n;
+            }
+
+            while (i < chunkEnd) {
+                final int s = i + delta;
+                if (b4Posn == 0 && chunkEnd - i >= 4) {
+                    // Decode a whole quartet at once if it only consists of characters of the alphabet.
+                    final int a = sextets[srcArray[s] & 0xff];
+                    final int b = sextets[srcArray[s + 1] & 0xff];
+                    final int c = sextets[srcArray[s + 2] & 0xff];
+                    final int d = sextets[srcArray[s + 3] & 0xff];
+                    if ((a | b | c | d) >= 0) {
+                        final int outBuff = a << 18 | b << 12 | c << 6 | d;
+                        destArray[outBuffPosn    ] = (byte) (outBuff >>> 16);
+                        destArray[outBuffPosn + 1] = (byte) (outBuff >>>  8);
+                        destArray[outBuffPosn + 2] = (byte)  outBuff;
+                        outBuffPosn += 3;
+                        i += 4;
+                        continue;
+                    }
+                }
+
+                final byte sbiCrop = (byte) (srcArray[s] & 0x7f); // Only the low seven bits
+                final byte sbiDecode = DECODABET[sbiCrop];
+
+                if (sbiDecode >= WHITE_SPACE_ENC) { // White space, Equals sign or better
+                    if (sbiDecode >= EQUALS_SIGN_ENC) { // Equals sign or better
+                        b4[b4Posn ++] = sbiCrop;
+                        if (b4Posn > 3) { // Quartet built
+                            outBuffPosn += decode4to3(b4, 0, destArray, outBuffPosn, DECODABET);
+                            b4Posn = 0;
+
+                            // If that was the equals sign, break out of 'for' loop
+                            if (sbiCrop == EQUALS_SIGN) {
+                                break loop;
+                            }
                         }
                     }
+                } else {
+                    throw new IllegalArgumentException(
+                            "bad Base64 input character at " + i + ": " +
+                            src.getUnsignedByte(i) + " (decimal)");
                 }
-            } else {
-                throw new IllegalArgumentException(
-                        "bad Base64 input character at " + i + ": " +
-                        src.getUnsignedByte(i) + " (decimal)");
+                i ++;
             }
         }
 
-        return dest.slice(0, outBuffPosn);
+        return dest.slice(0, outBuffPosn - destOffset).order(src.order());
     }
 
     private static int decode4to3(
             byte[] src, int srcOffset,
-            ByteBuf dest, int destOffset, Base64Dialect dialect) {
-
-        byte[] DECODABET = decodabet(dialect);
+            byte[] dest, int destOffset, byte[] decodabet) {
 
         if (src[srcOffset + 2] == EQUALS_SIGN) {
             // Example: Dk==
             int outBuff =
-                    (DECODABET[src[srcOffset    ]] & 0xFF) << 18 |
-                    (DECODABET[src[srcOffset + 1]] & 0xFF) << 12;
+                    (decodabet[src[srcOffset    ]] & 0xFF) << 18 |
+                    (decodabet[src[srcOffset + 1]] & 0xFF) << 12;
 
-            dest.setByte(destOffset, (byte) (outBuff >>> 16));
+            dest[destOffset] = (byte) (outBuff >>> 16);
             return 1;
         } else if (src[srcOffset + 3] == EQUALS_SIGN) {
             // Example: DkL=
             int outBuff =
-                    (DECODABET[src[srcOffset    ]] & 0xFF) << 18 |
-                    (DECODABET[src[srcOffset + 1]] & 0xFF) << 12 |
-                    (DECODABET[src[srcOffset + 2]] & 0xFF) <<  6;
+                    (decodabet[src[srcOffset    ]] & 0xFF) << 18 |
+                    (decodabet[src[srcOffset + 1]] & 0xFF) << 12 |
+                    (decodabet[src[srcOffset + 2]] & 0xFF) <<  6;
 
-            dest.setByte(destOffset    , (byte) (outBuff >>> 16));
-            dest.setByte(destOffset + 1, (byte) (outBuff >>>  8));
+            dest[destOffset    ] = (byte) (outBuff >>> 16);
+            dest[destOffset + 1] = (byte) (outBuff >>>  8);
             return 2;
         } else {
             // Example: DkLE
             int outBuff;
             try {
                 outBuff =
-                        (DECODABET[src[srcOffset    ]] & 0xFF) << 18 |
-                        (DECODABET[src[srcOffset + 1]] & 0xFF) << 12 |
-                        (DECODABET[src[srcOffset + 2]] & 0xFF) <<  6 |
-                         DECODABET[src[srcOffset + 3]] & 0xFF;
+                        (decodabet[src[srcOffset    ]] & 0xFF) << 18 |
+                        (decodabet[src[srcOffset + 1]] & 0xFF) << 12 |
+                        (decodabet[src[srcOffset + 2]] & 0xFF) <<  6 |
+                         decodabet[src[srcOffset + 3]] & 0xFF;
             } catch (IndexOutOfBoundsException e) {
                 throw new IllegalArgumentException("not encoded in Base64");
             }
 
-            dest.setByte(destOffset    , (byte) (outBuff >> 16));
-            dest.setByte(destOffset + 1, (byte) (outBuff >>  8));
-            dest.setByte(destOffset + 2, (byte)  outBuff);
+            dest[destOffset    ] = (byte) (outBuff >> 16);
+            dest[destOffset + 1] = (byte) (outBuff >>  8);
+            dest[destOffset + 2] = (byte)  outBuff;
             return 3;
         }
     }
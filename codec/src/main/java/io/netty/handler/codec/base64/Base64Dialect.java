@@ -199,9 +199,20 @@ public enum Base64Dialect {
     final byte[] decodabet;
     final boolean breakLinesByDefault;
 
+    /**
+     * The 6-bit value of every byte as it is looked up in the {@link #decodabet}, or {@code -1} if it is not part of
+     * the alphabet. This allows to decode four characters at once if none of them requires special treatment.
+     */
+    final int[] sextets = new int[256];
+
     Base64Dialect(byte[] alphabet, byte[] decodabet, boolean breakLinesByDefault) {
         this.alphabet = alphabet;
         this.decodabet = decodabet;
         this.breakLinesByDefault = breakLinesByDefault;
+
+        for (int i = 0; i < sextets.length; i ++) {
+            final int crop = i & 0x7f; // Only the low seven bits
+            sextets[i] = crop < decodabet.length && decodabet[crop] >= 0 ? decodabet[crop] : -1;
+        }
     }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.compression;
+
+import io.netty.util.internal.PlatformDependent;
+
+import java.nio.ByteOrder;
+
+/**
+ * Helpers for the match finders of the compressors in this package, which operate on {@code byte[]}s.
+ * When {@code sun.misc.Unsafe} is available, 4 and 8 bytes are read at once.
+ */
+final class CompressionUtil {
+
+    private static final boolean UNSAFE = PlatformDependent.hasUnsafe();
+    private static final boolean NATIVE_LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * Reads an {@code int} in an unspecified byte order, which is only suitable to compare or hash sequences.
+     */
+    static int getInt(byte[] b, int off) {
+        if (UNSAFE) {
+            return PlatformDependent.getInt(b, off);
+        }
+        return getIntLE(b, off);
+    }
+
+    /**
+     * Reads an {@code int} in big endian byte order.
+     */
+    static int getIntBE(byte[] b, int off) {
+        if (UNSAFE) {
+            final int value = PlatformDependent.getInt(b, off);
+            return NATIVE_LITTLE_ENDIAN ? Integer.reverseBytes(value) : value;
+        }
+        return b[off] << 24 | (b[off + 1] & 0xFF) << 16 | (b[off + 2] & 0xFF) << 8 | b[off + 3] & 0xFF;
+    }
+
+    /**
+     * Reads an {@code int} in little endian byte order.
+     */
+    static int getIntLE(byte[] b, int off) {
+        if (UNSAFE) {
+            final int value = PlatformDependent.getInt(b, off);
+            return NATIVE_LITTLE_ENDIAN ? value : Integer.reverseBytes(value);
+        }
+        return b[off] & 0xFF | (b[off + 1] & 0xFF) << 8 | (b[off + 2] & 0xFF) << 16 | b[off + 3] << 24;
+    }
+
+    /**
+     * Reads a {@code long} in little endian byte order.
+     */
+    static long getLongLE(byte[] b, int off) {
+        if (UNSAFE) {
+            final long value = PlatformDependent.getLong(b, off);
+            return NATIVE_LITTLE_ENDIAN ? value : Long.reverseBytes(value);
+        }
+        return getIntLE(b, off) & 0xFFFFFFFFL | (long) getIntLE(b, off + 4) << 32;
+    }
+
+    /**
+     * Returns the number of equal bytes starting at {@code ref} and {@code off}, comparing 8 bytes at once while
+     * possible and not reading past {@code limit}.
+     */
+    static int commonBytes(byte[] b, int ref, int off, int limit) {
+        int len = 0;
+        while (off + len <= limit - 8) {
+            final long diff = getLongLE(b, ref + len) ^ getLongLE(b, off + len);
+            if (diff != 0) {
+                return len + (Long.numberOfTrailingZeros(diff) >>> 3);
+            }
+            len += 8;
+        }
+        while (off + len < limit && b[ref + len] == b[off + len]) {
+            len ++;
+        }
+        return len;
+    }
+
+    private CompressionUtil() {
+        // Unused
+    }
+}
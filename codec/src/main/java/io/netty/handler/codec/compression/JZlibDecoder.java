@@ -26,6 +26,7 @@ public class JZlibDecoder extends ZlibDecoder {
 
     private final Inflater z = new Inflater();
     private byte[] dictionary;
+    private PresetDictionaryRegistry dictionaries;
     private volatile boolean finished;
 
     /**
@@ -73,6 +74,25 @@ public class JZlibDecoder extends ZlibDecoder {
         }
     }
 
+    /**
+     * Creates a new instance which looks up the preset dictionary that is required by the stream in the specified
+     * registry. The wrapper is always {@link ZlibWrapper#ZLIB} because it is the only format that supports the
+     * preset dictionary.
+     *
+     * @throws CompressionException if failed to initialize zlib
+     */
+    public JZlibDecoder(PresetDictionaryRegistry dictionaries) {
+        if (dictionaries == null) {
+            throw new NullPointerException("dictionaries");
+        }
+        this.dictionaries = dictionaries;
+
+        int resultCode = z.inflateInit(JZlib.W_ZLIB);
+        if (resultCode != JZlib.Z_OK) {
+            ZlibUtil.fail(z, "initialization failure", resultCode);
+        }
+    }
+
     /**
      * Returns {@code true} if and only if the end of the compressed stream
      * has been reached.
@@ -130,10 +150,18 @@ public class JZlibDecoder extends ZlibDecoder {
 
                     switch (resultCode) {
                     case JZlib.Z_NEED_DICT:
-                        if (dictionary == null) {
+                        byte[] dict = dictionary;
+                        if (dict == null && dictionaries != null) {
+                            // The Adler-32 checksum of the stream is the ID of the required dictionary at this point.
+                            PresetDictionary presetDictionary = dictionaries.get((int) z.getAdler());
+                            if (presetDictionary != null) {
+                                dict = presetDictionary.array();
+                            }
+                        }
+                        if (dict == null) {
                             ZlibUtil.fail(z, "decompression failure", resultCode);
                         } else {
-                            resultCode = z.inflateSetDictionary(dictionary, dictionary.length);
+                            resultCode = z.inflateSetDictionary(dict, dict.length);
                             if (resultCode != JZlib.Z_OK) {
                                 ZlibUtil.fail(z, "failed to set the dictionary", resultCode);
                             }
@@ -35,8 +35,21 @@ public class JdkZlibDecoder extends ZlibDecoder {
     private static final int FCOMMENT = 0x10;
     private static final int FRESERVED = 0xE0;
 
+    /**
+     * The maximum size of an output buffer which is allocated based on the compression ratio seen so far.
+     */
+    private static final int MAX_OUTPUT_ESTIMATE = 1 << 20;
+
     private Inflater inflater;
+    private boolean nowrap;
+    private final boolean pooled;
     private final byte[] dictionary;
+    private final PresetDictionaryRegistry dictionaries;
+
+    /**
+     * Only used if the input buffer is not backed by an array.
+     */
+    private byte[] inputBuf;
 
     // GZIP related
     private final CRC32 crc;
@@ -64,7 +77,7 @@ public class JdkZlibDecoder extends ZlibDecoder {
      * Creates a new instance with the default wrapper ({@link ZlibWrapper#ZLIB}).
      */
     public JdkZlibDecoder() {
-        this(ZlibWrapper.ZLIB, null);
+        this(ZlibWrapper.ZLIB, null, false);
     }
 
     /**
@@ -73,7 +86,19 @@ public class JdkZlibDecoder extends ZlibDecoder {
      * supports the preset dictionary.
      */
     public JdkZlibDecoder(byte[] dictionary) {
-        this(ZlibWrapper.ZLIB, dictionary);
+        this(ZlibWrapper.ZLIB, dictionary, false);
+    }
+
+    /**
+     * Creates a new instance which looks up the preset dictionary that is required by the stream in the specified
+     * registry. The wrapper is always {@link ZlibWrapper#ZLIB} because it is the only format that supports the
+     * preset dictionary.
+     */
+    public JdkZlibDecoder(PresetDictionaryRegistry dictionaries) {
+        this(ZlibWrapper.ZLIB, null, dictionaries, false);
+        if (dictionaries == null) {
+            throw new NullPointerException("dictionaries");
+        }
     }
 
     /**
@@ -82,24 +107,40 @@ public class JdkZlibDecoder extends ZlibDecoder {
      * supported atm.
      */
     public JdkZlibDecoder(ZlibWrapper wrapper) {
-        this(wrapper, null);
+        this(wrapper, null, false);
     }
 
-    private JdkZlibDecoder(ZlibWrapper wrapper, byte[] dictionary) {
+    /**
+     * Creates a new instance with the specified wrapper and preset dictionary which takes its {@link Inflater} from
+     * the {@link JdkZlibPool} of the current thread if {@code pooled} is {@code true}, and returns it once the
+     * decoder is removed.
+     */
+    JdkZlibDecoder(ZlibWrapper wrapper, byte[] dictionary, boolean pooled) {
+        this(wrapper, dictionary, null, pooled);
+    }
+
+    /**
+     * Creates a new instance like {@link #JdkZlibDecoder(ZlibWrapper, byte[], boolean)}, which looks up the preset
+     * dictionary in the specified registry if no dictionary was specified.
+     */
+    JdkZlibDecoder(ZlibWrapper wrapper, byte[] dictionary, PresetDictionaryRegistry dictionaries, boolean pooled) {
+        this.pooled = pooled;
+        this.dictionary = dictionary;
+        this.dictionaries = dictionaries;
         if (wrapper == null) {
             throw new NullPointerException("wrapper");
         }
         switch (wrapper) {
             case GZIP:
-                inflater = new Inflater(true);
+                inflater = newInflater(true);
                 crc = new CRC32();
                 break;
             case NONE:
-                inflater = new Inflater(true);
+                inflater = newInflater(true);
                 crc = null;
                 break;
             case ZLIB:
-                inflater = new Inflater();
+                inflater = newInflater(false);
                 crc = null;
                 break;
             case ZLIB_OR_NONE:
@@ -110,7 +151,27 @@ public class JdkZlibDecoder extends ZlibDecoder {
             default:
                 throw new IllegalArgumentException("Only GZIP or ZLIB is supported, but you used " + wrapper);
         }
-        this.dictionary = dictionary;
+    }
+
+    private byte[] dictionary(int id) {
+        if (dictionary != null) {
+            return dictionary;
+        }
+        if (dictionaries == null) {
+            throw new DecompressionException(
+                    "decompression failure, unable to set dictionary as non was specified");
+        }
+        PresetDictionary presetDictionary = dictionaries.get(id);
+        if (presetDictionary == null) {
+            throw new DecompressionException(
+                    "decompression failure, unknown preset dictionary: 0x" + Integer.toHexString(id));
+        }
+        return presetDictionary.array();
+    }
+
+    private Inflater newInflater(boolean nowrap) {
+        this.nowrap = nowrap;
+        return pooled ? JdkZlibPool.acquireInflater(nowrap) : new Inflater(nowrap);
     }
 
     @Override
@@ -136,8 +197,7 @@ public class JdkZlibDecoder extends ZlibDecoder {
                 return;
             }
 
-            boolean nowrap = !looksLikeZlib(in.getShort(0));
-            inflater = new Inflater(nowrap);
+            inflater = newInflater(!looksLikeZlib(in.getShort(0)));
             decideZlibOrNone = false;
         }
 
@@ -161,19 +221,22 @@ public class JdkZlibDecoder extends ZlibDecoder {
         if (in.hasArray()) {
             inflater.setInput(in.array(), in.arrayOffset() + in.readerIndex(), in.readableBytes());
         } else {
-            byte[] array = new byte[in.readableBytes()];
-            in.getBytes(in.readerIndex(), array);
-            inflater.setInput(array);
+            byte[] array = inputBuf;
+            if (array == null || array.length < readableBytes) {
+                inputBuf = array = new byte[readableBytes];
+            }
+            in.getBytes(in.readerIndex(), array, 0, readableBytes);
+            inflater.setInput(array, 0, readableBytes);
         }
 
-        int maxOutputLength = inflater.getRemaining() << 1;
+        int maxOutputLength = estimateUncompressedSize(inflater.getRemaining());
         ByteBuf decompressed = ctx.alloc().heapBuffer(maxOutputLength);
         try {
             boolean readFooter = false;
             byte[] outArray = decompressed.array();
             while (!inflater.needsInput()) {
                 int outIndex = decompressed.arrayOffset() + decompressed.writerIndex();
-                int length = outArray.length - outIndex;
+                int length = decompressed.writableBytes();
 
                 if (length == 0) {
                     // completely filled the buffer allocate a new one and start to fill it
@@ -191,11 +254,7 @@ public class JdkZlibDecoder extends ZlibDecoder {
                     }
                 } else {
                     if (inflater.needsDictionary()) {
-                        if (dictionary == null) {
-                            throw new DecompressionException(
-                                    "decompression failure, unable to set dictionary as non was specified");
-                        }
-                        inflater.setDictionary(dictionary);
+                        inflater.setDictionary(dictionary(inflater.getAdler()));
                     }
                 }
 
@@ -229,11 +288,29 @@ public class JdkZlibDecoder extends ZlibDecoder {
         }
     }
 
+    /**
+     * Estimates the size of the uncompressed form of {@code len} bytes from the compression ratio seen so far.
+     */
+    private int estimateUncompressedSize(int len) {
+        final long bytesRead = inflater.getBytesRead();
+        if (bytesRead == 0) {
+            return len << 1;
+        }
+        final long estimate = len * inflater.getBytesWritten() / bytesRead + 64;
+        return (int) Math.min(MAX_OUTPUT_ESTIMATE, Math.max(len, estimate));
+    }
+
     @Override
     protected void handlerRemoved0(ChannelHandlerContext ctx) throws Exception {
         super.handlerRemoved0(ctx);
+        Inflater inflater = this.inflater;
         if (inflater != null) {
-            inflater.end();
+            this.inflater = null;
+            if (pooled) {
+                JdkZlibPool.releaseInflater(inflater, nowrap);
+            } else {
+                inflater.end();
+            }
         }
     }
 
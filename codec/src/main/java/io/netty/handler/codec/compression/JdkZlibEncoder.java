@@ -33,9 +33,21 @@ import java.util.zip.Deflater;
  */
 public class JdkZlibEncoder extends ZlibEncoder {
 
+    /**
+     * The amount of room that is reserved in the output buffer before {@link Deflater#deflate(byte[], int, int, int)}
+     * is called again on a full buffer.
+     */
+    private static final int MIN_DEFLATE_ROOM = 1024;
+
     private final ZlibWrapper wrapper;
-    private final byte[] encodeBuf = new byte[8192];
-    private final Deflater deflater;
+    private final boolean pooled;
+    private Deflater deflater;
+
+    /**
+     * Only used if the input or output buffer is not backed by an array.
+     */
+    private byte[] inputBuf;
+    private byte[] encodeBuf;
     private volatile boolean finished;
     private volatile ChannelHandlerContext ctx;
 
@@ -93,6 +105,14 @@ public class JdkZlibEncoder extends ZlibEncoder {
      * @throws CompressionException if failed to initialize zlib
      */
     public JdkZlibEncoder(ZlibWrapper wrapper, int compressionLevel) {
+        this(wrapper, compressionLevel, false);
+    }
+
+    /**
+     * Creates a new zlib encoder which takes its {@link Deflater} from the {@link JdkZlibPool} of the current thread
+     * if {@code pooled} is {@code true}, and returns it once the encoder is closed or removed.
+     */
+    JdkZlibEncoder(ZlibWrapper wrapper, int compressionLevel, boolean pooled) {
         if (compressionLevel < 0 || compressionLevel > 9) {
             throw new IllegalArgumentException(
                     "compressionLevel: " + compressionLevel + " (expected: 0-9)");
@@ -107,7 +127,10 @@ public class JdkZlibEncoder extends ZlibEncoder {
         }
 
         this.wrapper = wrapper;
-        deflater = new Deflater(compressionLevel, wrapper != ZlibWrapper.ZLIB);
+        this.pooled = pooled;
+        boolean nowrap = wrapper != ZlibWrapper.ZLIB;
+        deflater = pooled ? JdkZlibPool.acquireDeflater(compressionLevel, nowrap)
+                          : new Deflater(compressionLevel, nowrap);
     }
 
     /**
@@ -139,6 +162,14 @@ public class JdkZlibEncoder extends ZlibEncoder {
      * @throws CompressionException if failed to initialize zlib
      */
     public JdkZlibEncoder(int compressionLevel, byte[] dictionary) {
+        this(compressionLevel, dictionary, false);
+    }
+
+    /**
+     * Creates a new zlib encoder with the specified preset dictionary which takes its {@link Deflater} from the
+     * {@link JdkZlibPool} of the current thread if {@code pooled} is {@code true}.
+     */
+    JdkZlibEncoder(int compressionLevel, byte[] dictionary, boolean pooled) {
         if (compressionLevel < 0 || compressionLevel > 9) {
             throw new IllegalArgumentException(
                     "compressionLevel: " + compressionLevel + " (expected: 0-9)");
@@ -148,7 +179,8 @@ public class JdkZlibEncoder extends ZlibEncoder {
         }
 
         wrapper = ZlibWrapper.ZLIB;
-        deflater = new Deflater(compressionLevel);
+        this.pooled = pooled;
+        deflater = pooled ? JdkZlibPool.acquireDeflater(compressionLevel, false) : new Deflater(compressionLevel);
         deflater.setDictionary(dictionary);
     }
 
@@ -206,12 +238,15 @@ public class JdkZlibEncoder extends ZlibEncoder {
             // skip all bytes as we will consume all of them
             uncompressed.skipBytes(len);
         } else {
-            inAry = new byte[len];
-            uncompressed.readBytes(inAry);
+            inAry = inputBuf;
+            if (inAry == null || inAry.length < len) {
+                inputBuf = inAry = new byte[len];
+            }
+            uncompressed.readBytes(inAry, 0, len);
             offset = 0;
         }
 
-        int sizeEstimate = (int) Math.ceil(inAry.length * 1.001) + 12;
+        int sizeEstimate = estimateCompressedSize(len);
 
         if (writeHeader) {
             writeHeader = false;
@@ -269,7 +304,7 @@ public class JdkZlibEncoder extends ZlibEncoder {
 
         finished = true;
 
-        ByteBuf footer = ctx.alloc().buffer();
+        ByteBuf footer = ctx.alloc().heapBuffer();
         if (writeHeader && wrapper == ZlibWrapper.GZIP) {
             // Write the GZIP header first if not written yet. (i.e. user wrote nothing.)
             writeHeader = false;
@@ -292,20 +327,77 @@ public class JdkZlibEncoder extends ZlibEncoder {
             footer.writeByte(uncBytes >>> 16);
             footer.writeByte(uncBytes >>> 24);
         }
-        deflater.end();
+        releaseDeflater();
         return ctx.writeAndFlush(footer, promise);
     }
 
+    /**
+     * Estimates the size of the compressed form of {@code len} bytes from the compression ratio seen so far, so that
+     * highly compressible content does not reserve room for its worst case.
+     */
+    private int estimateCompressedSize(int len) {
+        final int worstCase = (int) Math.ceil(len * 1.001) + 12;
+        final long bytesRead = deflater.getBytesRead();
+        if (bytesRead == 0) {
+            return worstCase;
+        }
+        final long estimate = len * deflater.getBytesWritten() / bytesRead + MIN_DEFLATE_ROOM;
+        return (int) Math.min(worstCase, estimate);
+    }
+
     private void deflate(ByteBuf out) {
-        int numBytes;
-        do {
-            numBytes = deflater.deflate(encodeBuf, 0, encodeBuf.length, Deflater.SYNC_FLUSH);
-            out.writeBytes(encodeBuf, 0, numBytes);
-        } while (numBytes > 0);
+        if (out.hasArray()) {
+            // Deflate right into the output buffer.
+            for (;;) {
+                if (out.writableBytes() < MIN_DEFLATE_ROOM) {
+                    out.ensureWritable(MIN_DEFLATE_ROOM);
+                }
+                int writerIndex = out.writerIndex();
+                int writableBytes = out.writableBytes();
+                int numBytes = deflater.deflate(
+                        out.array(), out.arrayOffset() + writerIndex, writableBytes, Deflater.SYNC_FLUSH);
+                out.writerIndex(writerIndex + numBytes);
+                if (numBytes < writableBytes) {
+                    break;
+                }
+            }
+        } else {
+            byte[] encodeBuf = this.encodeBuf;
+            if (encodeBuf == null) {
+                this.encodeBuf = encodeBuf = new byte[8192];
+            }
+            int numBytes;
+            do {
+                numBytes = deflater.deflate(encodeBuf, 0, encodeBuf.length, Deflater.SYNC_FLUSH);
+                out.writeBytes(encodeBuf, 0, numBytes);
+            } while (numBytes > 0);
+        }
+    }
+
+    private void releaseDeflater() {
+        Deflater deflater = this.deflater;
+        if (deflater == null) {
+            return;
+        }
+        this.deflater = null;
+        if (pooled) {
+            JdkZlibPool.releaseDeflater(deflater, wrapper != ZlibWrapper.ZLIB);
+        } else {
+            deflater.end();
+        }
     }
 
     @Override
     public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
         this.ctx = ctx;
     }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        if (!finished) {
+            // The stream was never finished, so the Deflater can not be used anymore.
+            finished = true;
+            releaseDeflater();
+        }
+    }
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.compression;
+
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.internal.SystemPropertyUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Pools {@link Deflater}s and {@link Inflater}s per thread, so that codecs which only live for a short time, like the
+ * ones {@code HttpContentCompressor} creates for every response, do not need to allocate and free the native zlib
+ * memory each time. As every {@link io.netty.channel.EventLoop} runs in its own thread, each of them ends up with its
+ * own pool, which is never accessed concurrently.
+ *
+ * At most {@code io.netty.jdkzlib.maxPooledPerThread} instances of each kind are kept per thread. Instances
+ * which are released to a full pool are {@link Deflater#end() ended} right away.
+ */
+final class JdkZlibPool {
+
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(JdkZlibPool.class);
+
+    private static final int MAX_POOLED_PER_THREAD;
+
+    static {
+        MAX_POOLED_PER_THREAD = Math.max(0, SystemPropertyUtil.getInt("io.netty.jdkzlib.maxPooledPerThread", 8));
+        logger.debug("-Dio.netty.jdkzlib.maxPooledPerThread: {}", MAX_POOLED_PER_THREAD);
+    }
+
+    private static final FastThreadLocal<JdkZlibPool> POOL = new FastThreadLocal<JdkZlibPool>() {
+        @Override
+        protected JdkZlibPool initialValue() {
+            return new JdkZlibPool();
+        }
+    };
+
+    // Index 0 holds the instances which use the zlib wrapper, index 1 the ones which use no wrapper (nowrap).
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<Deflater>[] deflaters = new ArrayDeque[] {
+            new ArrayDeque<Deflater>(), new ArrayDeque<Deflater>() };
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<Inflater>[] inflaters = new ArrayDeque[] {
+            new ArrayDeque<Inflater>(), new ArrayDeque<Inflater>() };
+
+    /**
+     * Returns a {@link Deflater} in its initial state from the pool of the current thread, or a new one if the pool
+     * is empty.
+     */
+    static Deflater acquireDeflater(int compressionLevel, boolean nowrap) {
+        Deflater deflater = MAX_POOLED_PER_THREAD == 0 ? null : POOL.get().deflaters[index(nowrap)].pollLast();
+        if (deflater == null) {
+            return new Deflater(compressionLevel, nowrap);
+        }
+        deflater.setLevel(compressionLevel);
+        return deflater;
+    }
+
+    /**
+     * Resets the given {@link Deflater} and returns it to the pool of the current thread. It must not be used by the
+     * caller anymore.
+     */
+    static void releaseDeflater(Deflater deflater, boolean nowrap) {
+        if (MAX_POOLED_PER_THREAD != 0) {
+            ArrayDeque<Deflater> pool = POOL.get().deflaters[index(nowrap)];
+            if (pool.size() < MAX_POOLED_PER_THREAD) {
+                deflater.reset();
+                pool.addLast(deflater);
+                return;
+            }
+        }
+        deflater.end();
+    }
+
+    /**
+     * Returns an {@link Inflater} in its initial state from the pool of the current thread, or a new one if the pool
+     * is empty.
+     */
+    static Inflater acquireInflater(boolean nowrap) {
+        Inflater inflater = MAX_POOLED_PER_THREAD == 0 ? null : POOL.get().inflaters[index(nowrap)].pollLast();
+        if (inflater == null) {
+            return new Inflater(nowrap);
+        }
+        return inflater;
+    }
+
+    /**
+     * Resets the given {@link Inflater} and returns it to the pool of the current thread. It must not be used by the
+     * caller anymore.
+     */
+    static void releaseInflater(Inflater inflater, boolean nowrap) {
+        if (MAX_POOLED_PER_THREAD != 0) {
+            ArrayDeque<Inflater> pool = POOL.get().inflaters[index(nowrap)];
+            if (pool.size() < MAX_POOLED_PER_THREAD) {
+                inflater.reset();
+                pool.addLast(inflater);
+                return;
+            }
+        }
+        inflater.end();
+    }
+
+    private static int index(boolean nowrap) {
+        return nowrap ? 1 : 0;
+    }
+
+    private JdkZlibPool() { }
+}
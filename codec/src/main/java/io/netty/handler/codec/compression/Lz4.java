@@ -0,0 +1,374 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.compression;
+
+import java.util.Arrays;
+
+import static io.netty.handler.codec.compression.CompressionUtil.*;
+
+/**
+ * Compresses and uncompresses single blocks of the
+ * <a href="https://code.google.com/p/lz4/">LZ4</a> block format.
+ *
+ * Both directions operate on {@code byte[]}s so that the hot loops are free of any {@link io.netty.buffer.ByteBuf}
+ * bounds checks. When {@code sun.misc.Unsafe} is available, the match finder reads 4 and 8 bytes at once.
+ *
+ * An instance holds the hash table of the compressor and so must not be shared between threads.
+ */
+final class Lz4 {
+
+    // Constants of the frame format, see
+    // https://docs.google.com/document/d/1cl8N1bmkTdIpPLtnlzbBSFAdUeyNo5fwfHbHU7VRNWY
+
+    static final int MAGIC = 0x184D2204;
+    static final int SKIPPABLE_MAGIC = 0x184D2A50;
+    static final int SKIPPABLE_MAGIC_MASK = 0xFFFFFFF0;
+    static final int VERSION = 1;
+
+    static final int FLAG_BLOCK_INDEPENDENCE = 0x20;
+    static final int FLAG_BLOCK_CHECKSUM = 0x10;
+    static final int FLAG_CONTENT_SIZE = 0x08;
+    static final int FLAG_CONTENT_CHECKSUM = 0x04;
+    static final int FLAG_RESERVED = 0x02;
+    static final int FLAG_DICT_ID = 0x01;
+
+    /**
+     * Set in the size of a block which is stored uncompressed.
+     */
+    static final int UNCOMPRESSED_FLAG = 0x80000000;
+
+    static final int MIN_BLOCK_SIZE_ID = 4;
+    static final int MAX_BLOCK_SIZE_ID = 7;
+    static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+    static final int MAX_BLOCK_SIZE = 1 << 22;
+
+    // Constants of the block format
+
+    static final int MIN_MATCH = 4;
+
+    /**
+     * The last 5 bytes of a block are always encoded as literals.
+     */
+    static final int LAST_LITERALS = 5;
+
+    /**
+     * The last match must start at least 12 bytes before the end of a block.
+     */
+    static final int MF_LIMIT = 12;
+
+    /**
+     * Blocks which are smaller than this are always encoded as literals only.
+     */
+    static final int MIN_LENGTH = MF_LIMIT + 1;
+
+    static final int MAX_DISTANCE = 65535;
+
+    /**
+     * The number of bytes a block may refer back to, which is also the longest usable part of a dictionary.
+     */
+    static final int HISTORY_SIZE = MAX_DISTANCE + 1;
+
+    private static final int ML_BITS = 4;
+    private static final int ML_MASK = (1 << ML_BITS) - 1;
+    private static final int RUN_MASK = (1 << 8 - ML_BITS) - 1;
+
+    private static final int MIN_HASH_LOG = 6;
+    private static final int MAX_HASH_LOG = 12;
+    private static final int SKIP_STRENGTH = 6;
+
+    private final int[] hashTable = new int[1 << MAX_HASH_LOG];
+
+    /**
+     * The hash table of the loaded dictionary, which is copied into the {@link #hashTable} for every block.
+     */
+    private int[] dictionaryTable;
+    private int dictionaryLength;
+
+    /**
+     * Returns the maximum length of the compressed form of {@code length} bytes, for incompressible input.
+     */
+    static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compresses {@code srcLen} bytes of {@code src} into {@code dst}, which must have at least
+     * {@link #maxCompressedLength(int)} bytes of room starting at {@code dstOff}.
+     *
+     * @return the number of bytes written to {@code dst}
+     */
+    int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff) {
+        int hashShift = 0;
+        if (srcLen >= MIN_LENGTH) {
+            hashShift = 32 - hashLog(srcLen);
+            // Only clear the part of the table which is used for the current block so that compressing many small
+            // blocks stays cheap.
+            Arrays.fill(hashTable, 0, 1 << 32 - hashShift, -1);
+        }
+        return compress(src, srcOff, srcOff, srcLen, dst, dstOff, hashShift);
+    }
+
+    /**
+     * Indexes the dictionary which occupies the first {@code length} bytes of the arrays which will be passed to
+     * {@link #compressWithDictionary(byte[], int, byte[], int)}.
+     */
+    void loadDictionary(byte[] dictionary, int length) {
+        int[] table = dictionaryTable;
+        if (table == null) {
+            dictionaryTable = table = new int[1 << MAX_HASH_LOG];
+        }
+        Arrays.fill(table, -1);
+        for (int i = 0; i <= length - MIN_MATCH; i ++) {
+            table[hash(getInt(dictionary, i), 32 - MAX_HASH_LOG)] = i;
+        }
+        dictionaryLength = length;
+    }
+
+    /**
+     * Compresses {@code srcLen} bytes of {@code src} which follow the dictionary that was loaded with
+     * {@link #loadDictionary(byte[], int)}, so matches may refer back into the dictionary.
+     *
+     * @return the number of bytes written to {@code dst}
+     */
+    int compressWithDictionary(byte[] src, int srcLen, byte[] dst, int dstOff) {
+        if (dictionaryTable == null) {
+            throw new IllegalStateException("no dictionary loaded");
+        }
+        if (srcLen >= MIN_LENGTH) {
+            System.arraycopy(dictionaryTable, 0, hashTable, 0, hashTable.length);
+        }
+        return compress(src, 0, dictionaryLength, srcLen, dst, dstOff, 32 - MAX_HASH_LOG);
+    }
+
+    /**
+     * Compresses the block at {@code srcOff}, which may refer back to the data down to {@code srcBase}. The hash
+     * table must have been prepared for the specified {@code hashShift} already.
+     */
+    private int compress(byte[] src, int srcBase, int srcOff, int srcLen, byte[] dst, int dstOff, int hashShift) {
+        final int srcEnd = srcOff + srcLen;
+        int dOff = dstOff;
+        int anchor = srcOff;
+
+        if (srcLen >= MIN_LENGTH) {
+            final int[] table = hashTable;
+            final int mfLimit = srcEnd - MF_LIMIT;
+            final int matchLimit = srcEnd - LAST_LITERALS;
+            int sOff = srcOff;
+
+            main:
+            while (sOff <= mfLimit) {
+                int seq = getInt(src, sOff);
+                int h = hash(seq, hashShift);
+                int ref = table[h];
+                table[h] = sOff;
+                if (ref < 0 || sOff - ref > MAX_DISTANCE || getInt(src, ref) != seq) {
+                    // The longer we do not find a match, the faster we skip forward.
+                    sOff += 1 + (sOff - anchor >>> SKIP_STRENGTH);
+                    continue;
+                }
+
+                // Extend the match backwards.
+                while (sOff > anchor && ref > srcBase && src[sOff - 1] == src[ref - 1]) {
+                    sOff --;
+                    ref --;
+                }
+
+                int tokenOff = dOff ++;
+                int token;
+                final int literals = sOff - anchor;
+                if (literals >= RUN_MASK) {
+                    token = RUN_MASK << ML_BITS;
+                    dOff = writeLength(dst, dOff, literals - RUN_MASK);
+                } else {
+                    token = literals << ML_BITS;
+                }
+                System.arraycopy(src, anchor, dst, dOff, literals);
+                dOff += literals;
+
+                for (;;) {
+                    final int offset = sOff - ref;
+                    dst[dOff ++] = (byte) offset;
+                    dst[dOff ++] = (byte) (offset >>> 8);
+
+                    final int matchLen = commonBytes(src, ref + MIN_MATCH, sOff + MIN_MATCH, matchLimit);
+                    sOff += MIN_MATCH + matchLen;
+                    if (matchLen >= ML_MASK) {
+                        token |= ML_MASK;
+                        dOff = writeLength(dst, dOff, matchLen - ML_MASK);
+                    } else {
+                        token |= matchLen;
+                    }
+                    dst[tokenOff] = (byte) token;
+                    anchor = sOff;
+
+                    if (sOff > mfLimit) {
+                        break main;
+                    }
+
+                    table[hash(getInt(src, sOff - 2), hashShift)] = sOff - 2;
+
+                    // Check if the next sequence starts with a match immediately.
+                    seq = getInt(src, sOff);
+                    h = hash(seq, hashShift);
+                    ref = table[h];
+                    table[h] = sOff;
+                    if (ref < 0 || sOff - ref > MAX_DISTANCE || getInt(src, ref) != seq) {
+                        break;
+                    }
+                    tokenOff = dOff ++;
+                    token = 0;
+                }
+                sOff ++;
+            }
+        }
+
+        final int literals = srcEnd - anchor;
+        final int tokenOff = dOff ++;
+        if (literals >= RUN_MASK) {
+            dst[tokenOff] = (byte) (RUN_MASK << ML_BITS);
+            dOff = writeLength(dst, dOff, literals - RUN_MASK);
+        } else {
+            dst[tokenOff] = (byte) (literals << ML_BITS);
+        }
+        System.arraycopy(src, anchor, dst, dOff, literals);
+        dOff += literals;
+
+        return dOff - dstOff;
+    }
+
+    /**
+     * Uncompresses the block of {@code srcLen} bytes into {@code dst} starting at {@code dstOff}. Matches may refer
+     * back to already uncompressed data down to {@code dstBase}, which allows to use the previous blocks as a
+     * dictionary.
+     *
+     * @return the number of bytes written to {@code dst}
+     * @throws DecompressionException if the block is malformed or would exceed {@code dstEnd}
+     */
+    static int decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstBase, int dstOff, int dstEnd) {
+        final int srcEnd = srcOff + srcLen;
+        int sOff = srcOff;
+        int dOff = dstOff;
+
+        for (;;) {
+            if (sOff >= srcEnd) {
+                throw new DecompressionException("malformed LZ4 block: missing token");
+            }
+            final int token = src[sOff ++] & 0xFF;
+
+            int literals = token >>> ML_BITS;
+            if (literals == RUN_MASK) {
+                int b;
+                do {
+                    if (sOff >= srcEnd) {
+                        throw new DecompressionException("malformed LZ4 block: truncated literal length");
+                    }
+                    b = src[sOff ++] & 0xFF;
+                    literals += b;
+                } while (b == 255 && literals > 0);
+                if (literals < 0) {
+                    throw new DecompressionException("malformed LZ4 block: literal length overflow");
+                }
+            }
+            if (literals > srcEnd - sOff || literals > dstEnd - dOff) {
+                throw new DecompressionException("malformed LZ4 block: literals out of bounds");
+            }
+            System.arraycopy(src, sOff, dst, dOff, literals);
+            sOff += literals;
+            dOff += literals;
+
+            if (sOff == srcEnd) {
+                // The last sequence only contains literals.
+                break;
+            }
+
+            if (srcEnd - sOff < 2) {
+                throw new DecompressionException("malformed LZ4 block: truncated match offset");
+            }
+            final int offset = src[sOff] & 0xFF | (src[sOff + 1] & 0xFF) << 8;
+            sOff += 2;
+            final int ref = dOff - offset;
+            if (offset == 0 || ref < dstBase) {
+                throw new DecompressionException("malformed LZ4 block: invalid match offset: " + offset);
+            }
+
+            int matchLen = token & ML_MASK;
+            if (matchLen == ML_MASK) {
+                int b;
+                do {
+                    if (sOff >= srcEnd) {
+                        throw new DecompressionException("malformed LZ4 block: truncated match length");
+                    }
+                    b = src[sOff ++] & 0xFF;
+                    matchLen += b;
+                } while (b == 255 && matchLen > 0);
+                if (matchLen < 0) {
+                    throw new DecompressionException("malformed LZ4 block: match length overflow");
+                }
+            }
+            matchLen += MIN_MATCH;
+            if (matchLen > dstEnd - dOff) {
+                throw new DecompressionException("malformed LZ4 block: match out of bounds");
+            }
+
+            final int matchEnd = dOff + matchLen;
+            if (offset >= matchLen) {
+                System.arraycopy(dst, ref, dst, dOff, matchLen);
+                dOff = matchEnd;
+            } else {
+                // Overlapping match: the already copied part repeats the pattern, so the chunks can double in size.
+                while (dOff < matchEnd) {
+                    final int n = Math.min(matchEnd - dOff, dOff - ref);
+                    System.arraycopy(dst, ref, dst, dOff, n);
+                    dOff += n;
+                }
+            }
+        }
+
+        return dOff - dstOff;
+    }
+
+    /**
+     * Returns the maximum block size for the block size id of a frame descriptor.
+     */
+    static int blockSize(int blockSizeId) {
+        return 1 << (blockSizeId << 1) + 8;
+    }
+
+    /**
+     * Returns the header checksum of the frame descriptor, which is the second byte of its xxHash32.
+     */
+    static int headerChecksum(byte[] descriptor, int length) {
+        return XxHash32.hash(descriptor, 0, length, 0) >>> 8 & 0xFF;
+    }
+
+    private static int hashLog(int length) {
+        final int log = 32 - Integer.numberOfLeadingZeros(length - 1) - 2;
+        return Math.max(MIN_HASH_LOG, Math.min(MAX_HASH_LOG, log));
+    }
+
+    private static int hash(int seq, int shift) {
+        return seq * -1640531535 >>> shift;
+    }
+
+    private static int writeLength(byte[] dst, int dOff, int length) {
+        while (length >= 255) {
+            dst[dOff ++] = (byte) 255;
+            length -= 255;
+        }
+        dst[dOff ++] = (byte) length;
+        return dOff;
+    }
+}
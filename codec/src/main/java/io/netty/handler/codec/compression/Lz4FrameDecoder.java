@@ -0,0 +1,364 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+
+import java.util.List;
+
+import static io.netty.handler.codec.compression.CompressionUtil.*;
+import static io.netty.handler.codec.compression.Lz4.*;
+
+/**
+ * Uncompresses a {@link ByteBuf} encoded with the <a href="https://code.google.com/p/lz4/">LZ4</a> frame format.
+ *
+ * Every block is emitted as soon as it was received completely. Blocks which are stored uncompressed are passed on
+ * as a retained slice of the input. Both independent and linked blocks are supported, as well as concatenated and
+ * skippable frames. Frames which require a dictionary are rejected unless the dictionary is found in the
+ * {@link PresetDictionaryRegistry} which was passed to {@link #Lz4FrameDecoder(boolean, PresetDictionaryRegistry)}.
+ *
+ * Note that by default, validation of the block and content checksums is DISABLED for performance improvements.
+ * Please use the {@link #Lz4FrameDecoder(boolean)} constructor with the argument set to {@code true} to enable it.
+ *
+ * See https://docs.google.com/document/d/1cl8N1bmkTdIpPLtnlzbBSFAdUeyNo5fwfHbHU7VRNWY
+ */
+public class Lz4FrameDecoder extends ByteToMessageDecoder {
+
+    private enum State {
+        MAGIC,
+        HEADER,
+        BLOCK_SIZE,
+        BLOCK,
+        CONTENT_CHECKSUM,
+        SKIP,
+        CORRUPTED
+    }
+
+    /**
+     * The longest frame descriptor, including the header checksum.
+     */
+    private static final int MAX_DESCRIPTOR_LENGTH = 15;
+
+    private final boolean validateChecksums;
+    private final PresetDictionaryRegistry dictionaries;
+    private final byte[] descriptor = new byte[MAX_DESCRIPTOR_LENGTH];
+
+    private State state = State.MAGIC;
+
+    // The properties of the current frame.
+    private int blockMaxSize;
+    private boolean independentBlocks;
+    private boolean blockChecksums;
+    private boolean hasContentChecksum;
+    private XxHash32 contentChecksum;
+
+    // The current block.
+    private int blockLength;
+    private boolean blockUncompressed;
+
+    private long skipRemaining;
+
+    /**
+     * Holds the compressed block if the input is not backed by an array.
+     */
+    private byte[] inputBuf;
+
+    /**
+     * Holds the uncompressed block, preceded by the history which linked blocks may refer to.
+     */
+    private byte[] window;
+    private int windowPos;
+
+    /**
+     * Creates a new LZ4 frame decoder with validation of checksums turned OFF. To turn checksum validation on,
+     * please use the alternate {@link #Lz4FrameDecoder(boolean)} constructor.
+     */
+    public Lz4FrameDecoder() {
+        this(false);
+    }
+
+    /**
+     * Creates a new LZ4 frame decoder with validation of checksums as specified.
+     *
+     * @param validateChecksums
+     *        If true, the block and content checksums, if present in the frame, will be validated against the
+     *        actual data, and if the checksums do not match, a suitable {@link DecompressionException} will be
+     *        thrown
+     */
+    public Lz4FrameDecoder(boolean validateChecksums) {
+        this(validateChecksums, null);
+    }
+
+    /**
+     * Creates a new LZ4 frame decoder which also accepts frames which were compressed with a dictionary, as long as
+     * the dictionary with the ID in the frame header is found in the specified registry.
+     *
+     * @see #Lz4FrameDecoder(boolean)
+     */
+    public Lz4FrameDecoder(boolean validateChecksums, PresetDictionaryRegistry dictionaries) {
+        this.validateChecksums = validateChecksums;
+        this.dictionaries = dictionaries;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        try {
+            switch (state) {
+                case CORRUPTED:
+                    in.skipBytes(in.readableBytes());
+                    break;
+                case MAGIC:
+                    decodeMagic(in);
+                    break;
+                case SKIP:
+                    int n = (int) Math.min(skipRemaining, in.readableBytes());
+                    in.skipBytes(n);
+                    skipRemaining -= n;
+                    if (skipRemaining == 0) {
+                        state = State.MAGIC;
+                    }
+                    break;
+                case HEADER:
+                    decodeHeader(in);
+                    break;
+                case BLOCK_SIZE:
+                    if (in.readableBytes() < 4) {
+                        break;
+                    }
+                    final int size = ByteBufUtil.swapInt(in.readInt());
+                    if (size == 0) {
+                        // EndMark
+                        state = hasContentChecksum ? State.CONTENT_CHECKSUM : State.MAGIC;
+                        break;
+                    }
+                    blockUncompressed = (size & UNCOMPRESSED_FLAG) != 0;
+                    blockLength = size & ~UNCOMPRESSED_FLAG;
+                    if (blockLength > blockMaxSize) {
+                        throw new DecompressionException(
+                                "block length exceeds the maximum block size: " + blockLength + " (expected: <= " +
+                                blockMaxSize + ')');
+                    }
+                    if (blockLength == 0 && !blockChecksums) {
+                        // Skip an empty block right away, as decodeBlock() would not consume any bytes.
+                        break;
+                    }
+                    state = State.BLOCK;
+                    break;
+                case BLOCK:
+                    decodeBlock(ctx, in, out);
+                    break;
+                case CONTENT_CHECKSUM:
+                    if (in.readableBytes() < 4) {
+                        break;
+                    }
+                    final int checksum = ByteBufUtil.swapInt(in.readInt());
+                    if (contentChecksum != null) {
+                        validateChecksum(checksum, (int) contentChecksum.getValue());
+                    }
+                    state = State.MAGIC;
+                    break;
+            }
+        } catch (Exception e) {
+            state = State.CORRUPTED;
+            throw e;
+        }
+    }
+
+    private void decodeMagic(ByteBuf in) {
+        if (in.readableBytes() < 4) {
+            return;
+        }
+        final int idx = in.readerIndex();
+        final int magic = ByteBufUtil.swapInt(in.getInt(idx));
+        if (magic == MAGIC) {
+            in.skipBytes(4);
+            state = State.HEADER;
+        } else if ((magic & SKIPPABLE_MAGIC_MASK) == SKIPPABLE_MAGIC) {
+            if (in.readableBytes() < 8) {
+                return;
+            }
+            skipRemaining = ByteBufUtil.swapInt(in.getInt(idx + 4)) & 0xFFFFFFFFL;
+            in.skipBytes(8);
+            state = skipRemaining == 0 ? State.MAGIC : State.SKIP;
+        } else {
+            throw new DecompressionException("unexpected magic number: 0x" + Integer.toHexString(magic));
+        }
+    }
+
+    private void decodeHeader(ByteBuf in) {
+        final int idx = in.readerIndex();
+        if (in.readableBytes() < 3) {
+            return;
+        }
+        final int flg = in.getUnsignedByte(idx);
+        int descriptorLength = 2;
+        if ((flg & FLAG_CONTENT_SIZE) != 0) {
+            descriptorLength += 8;
+        }
+        if ((flg & FLAG_DICT_ID) != 0) {
+            descriptorLength += 4;
+        }
+        if (in.readableBytes() < descriptorLength + 1) {
+            return;
+        }
+
+        if (flg >>> 6 != VERSION) {
+            throw new DecompressionException("unsupported frame version: " + (flg >>> 6));
+        }
+        if ((flg & FLAG_RESERVED) != 0) {
+            throw new DecompressionException("reserved flag is set in frame descriptor");
+        }
+        if ((flg & FLAG_DICT_ID) != 0 && dictionaries == null) {
+            throw new DecompressionException("frames which require a dictionary are not supported");
+        }
+
+        in.readBytes(descriptor, 0, descriptorLength);
+        final int headerChecksum = in.readUnsignedByte();
+        if (headerChecksum != headerChecksum(descriptor, descriptorLength)) {
+            throw new DecompressionException("mismatching frame descriptor checksum");
+        }
+
+        final int bd = descriptor[1] & 0xFF;
+        final int blockSizeId = bd >>> 4 & 0x07;
+        if ((bd & 0x8F) != 0 || blockSizeId < MIN_BLOCK_SIZE_ID) {
+            throw new DecompressionException("invalid block size descriptor: 0x" + Integer.toHexString(bd));
+        }
+
+        blockMaxSize = blockSize(blockSizeId);
+        independentBlocks = (flg & FLAG_BLOCK_INDEPENDENCE) != 0;
+        blockChecksums = (flg & FLAG_BLOCK_CHECKSUM) != 0;
+        hasContentChecksum = (flg & FLAG_CONTENT_CHECKSUM) != 0;
+
+        if (validateChecksums && hasContentChecksum) {
+            if (contentChecksum == null) {
+                contentChecksum = new XxHash32();
+            } else {
+                contentChecksum.reset();
+            }
+        } else {
+            contentChecksum = null;
+        }
+
+        byte[] dictionary = null;
+        int dictionaryLength = 0;
+        if ((flg & FLAG_DICT_ID) != 0) {
+            final int dictionaryId = getIntLE(descriptor, descriptorLength - 4);
+            final PresetDictionary presetDictionary = dictionaries.get(dictionaryId);
+            if (presetDictionary == null) {
+                throw new DecompressionException("unknown dictionary: 0x" + Integer.toHexString(dictionaryId));
+            }
+            dictionary = presetDictionary.array();
+            dictionaryLength = Math.min(dictionary.length, HISTORY_SIZE);
+        }
+
+        // Independent blocks are always uncompressed right after the dictionary, if any, while linked blocks
+        // start after it and then keep the history.
+        final int windowSize = (independentBlocks ? dictionaryLength : HISTORY_SIZE) + blockMaxSize;
+        if (window == null || window.length < windowSize) {
+            window = new byte[windowSize];
+        }
+        if (dictionary != null) {
+            System.arraycopy(dictionary, dictionary.length - dictionaryLength, window, 0, dictionaryLength);
+        }
+        windowPos = dictionaryLength;
+
+        state = State.BLOCK_SIZE;
+    }
+
+    private void decodeBlock(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        final int blockLength = this.blockLength;
+        if (in.readableBytes() < blockLength + (blockChecksums ? 4 : 0)) {
+            return;
+        }
+
+        final boolean validateBlockChecksum = validateChecksums && blockChecksums;
+        final int idx = in.readerIndex();
+        byte[] src = null;
+        int srcOff = 0;
+        if (!blockUncompressed || validateBlockChecksum || contentChecksum != null || !independentBlocks) {
+            if (in.hasArray()) {
+                src = in.array();
+                srcOff = in.arrayOffset() + idx;
+            } else {
+                if (inputBuf == null || inputBuf.length < blockMaxSize) {
+                    inputBuf = new byte[blockMaxSize];
+                }
+                src = inputBuf;
+                in.getBytes(idx, src, 0, blockLength);
+            }
+        }
+
+        if (validateBlockChecksum) {
+            validateChecksum(ByteBufUtil.swapInt(in.getInt(idx + blockLength)),
+                    XxHash32.hash(src, srcOff, blockLength, 0));
+        }
+
+        if (blockUncompressed) {
+            if (contentChecksum != null) {
+                contentChecksum.update(src, srcOff, blockLength);
+            }
+            if (!independentBlocks) {
+                prepareWindow();
+                System.arraycopy(src, srcOff, window, windowPos, blockLength);
+                windowPos += blockLength;
+            }
+            if (blockLength > 0) {
+                out.add(in.readSlice(blockLength).retain());
+            }
+        } else {
+            prepareWindow();
+            final int n = Lz4.decompress(src, srcOff, blockLength, window, 0, windowPos, windowPos + blockMaxSize);
+            in.skipBytes(blockLength);
+            if (contentChecksum != null) {
+                contentChecksum.update(window, windowPos, n);
+            }
+            if (n > 0) {
+                ByteBuf uncompressed = ctx.alloc().buffer(n);
+                uncompressed.writeBytes(window, windowPos, n);
+                out.add(uncompressed);
+            }
+            if (!independentBlocks) {
+                windowPos += n;
+            }
+        }
+
+        if (blockChecksums) {
+            in.skipBytes(4);
+        }
+        state = State.BLOCK_SIZE;
+    }
+
+    /**
+     * Makes room for the next block in the window, keeping the history which a linked block may refer to.
+     */
+    private void prepareWindow() {
+        if (windowPos > window.length - blockMaxSize) {
+            System.arraycopy(window, windowPos - HISTORY_SIZE, window, 0, HISTORY_SIZE);
+            windowPos = HISTORY_SIZE;
+        }
+    }
+
+    private static void validateChecksum(int expected, int actual) {
+        if (expected != actual) {
+            throw new DecompressionException(
+                    "mismatching checksum: " + Integer.toHexString(actual) +
+                    " (expected: " + Integer.toHexString(expected) + ')');
+        }
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.ChannelPromiseNotifier;
+import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.util.concurrent.EventExecutor;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.netty.handler.codec.compression.Lz4.*;
+
+/**
+ * Compresses a {@link ByteBuf} using the <a href="https://code.google.com/p/lz4/">LZ4</a> frame format.
+ *
+ * Like the {@link SnappyFramedEncoder}, every written {@link ByteBuf} is compressed immediately into one or more
+ * independent blocks of at most {@code blockSize} bytes, so no data is held back between writes. Blocks which do not
+ * shrink are written uncompressed. The frame is terminated by {@link #close()}, which writes the end mark and the
+ * optional content checksum.
+ *
+ * Small messages compress much better if every block can refer to a {@link PresetDictionary}, which can be specified
+ * with {@link #Lz4FrameEncoder(int, boolean, boolean, PresetDictionary)}.
+ *
+ * See https://docs.google.com/document/d/1cl8N1bmkTdIpPLtnlzbBSFAdUeyNo5fwfHbHU7VRNWY
+ */
+public class Lz4FrameEncoder extends MessageToByteEncoder<ByteBuf> {
+
+    /**
+     * The number of seconds after which {@link #close(ChannelHandlerContext, ChannelPromise)} closes the channel even
+     * if the end mark was not written yet.
+     */
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    private final Lz4 lz4 = new Lz4();
+    private final int blockSize;
+    private final int blockSizeId;
+    private final boolean blockChecksums;
+    private final XxHash32 contentChecksum;
+    private final int dictionaryId;
+
+    /**
+     * Holds the used part of the dictionary, followed by the block which is compressed, if a dictionary is used.
+     */
+    private final byte[] dictionaryWindow;
+    private final int dictionaryLength;
+
+    /**
+     * Reused for input which is not backed by an array and for output which is not backed by an array.
+     */
+    private byte[] inputBuf;
+    private byte[] outputBuf;
+
+    private boolean started;
+    private volatile boolean finished;
+    private volatile ChannelHandlerContext ctx;
+
+    /**
+     * Creates a new encoder which uses blocks of 64 KiB and no checksums.
+     */
+    public Lz4FrameEncoder() {
+        this(DEFAULT_BLOCK_SIZE, false, false);
+    }
+
+    /**
+     * Creates a new encoder.
+     *
+     * @param blockSize
+     *        the maximum number of uncompressed bytes per block, up to 4 MiB. The frame header announces the
+     *        smallest of the LZ4 block sizes (64 KiB, 256 KiB, 1 MiB and 4 MiB) which can hold it.
+     * @param blockChecksums
+     *        {@code true} if a checksum of each block should be written
+     * @param contentChecksum
+     *        {@code true} if a checksum of the whole uncompressed content should be written when the frame is closed
+     */
+    public Lz4FrameEncoder(int blockSize, boolean blockChecksums, boolean contentChecksum) {
+        this(blockSize, blockChecksums, contentChecksum, null);
+    }
+
+    /**
+     * Creates a new encoder which compresses every block with the specified {@link PresetDictionary}, or without a
+     * dictionary if it is {@code null}. The {@link PresetDictionary#id()} is written to the frame header, so that
+     * a {@link Lz4FrameDecoder} can look the dictionary up in its {@link PresetDictionaryRegistry}.
+     *
+     * @see #Lz4FrameEncoder(int, boolean, boolean)
+     */
+    public Lz4FrameEncoder(int blockSize, boolean blockChecksums, boolean contentChecksum,
+                           PresetDictionary dictionary) {
+        if (blockSize <= 0 || blockSize > MAX_BLOCK_SIZE) {
+            throw new IllegalArgumentException(
+                    "blockSize: " + blockSize + " (expected: 1-" + MAX_BLOCK_SIZE + ')');
+        }
+        this.blockSize = blockSize;
+        int id = MIN_BLOCK_SIZE_ID;
+        while (blockSize(id) < blockSize) {
+            id ++;
+        }
+        blockSizeId = id;
+        this.blockChecksums = blockChecksums;
+        this.contentChecksum = contentChecksum ? new XxHash32() : null;
+
+        if (dictionary != null) {
+            final byte[] content = dictionary.array();
+            dictionaryId = dictionary.id();
+            dictionaryLength = Math.min(content.length, HISTORY_SIZE);
+            dictionaryWindow = new byte[dictionaryLength + blockSize];
+            System.arraycopy(content, content.length - dictionaryLength, dictionaryWindow, 0, dictionaryLength);
+            lz4.loadDictionary(dictionaryWindow, dictionaryLength);
+        } else {
+            dictionaryId = 0;
+            dictionaryLength = 0;
+            dictionaryWindow = null;
+        }
+    }
+
+    /**
+     * Close this {@link Lz4FrameEncoder} and so finish the encoding.
+     *
+     * The returned {@link ChannelFuture} will be notified once the operation completes.
+     */
+    public ChannelFuture close() {
+        return close(ctx().newPromise());
+    }
+
+    /**
+     * Close this {@link Lz4FrameEncoder} and so finish the encoding.
+     * The given {@link ChannelFuture} will be notified once the operation
+     * completes and will also be returned.
+     */
+    public ChannelFuture close(final ChannelPromise promise) {
+        ChannelHandlerContext ctx = ctx();
+        EventExecutor executor = ctx.executor();
+        if (executor.inEventLoop()) {
+            return finishEncode(ctx, promise);
+        } else {
+            final ChannelPromise p = ctx.newPromise();
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    ChannelFuture f = finishEncode(ctx(), p);
+                    f.addListener(new ChannelPromiseNotifier(promise));
+                }
+            });
+            return p;
+        }
+    }
+
+    /**
+     * Returns {@code true} if and only if the end of the compressed stream has been reached.
+     */
+    public boolean isClosed() {
+        return finished;
+    }
+
+    private ChannelHandlerContext ctx() {
+        ChannelHandlerContext ctx = this.ctx;
+        if (ctx == null) {
+            throw new IllegalStateException("not added to a pipeline");
+        }
+        return ctx;
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ByteBuf in, ByteBuf out) throws Exception {
+        if (finished) {
+            out.writeBytes(in);
+            return;
+        }
+
+        if (!in.isReadable()) {
+            return;
+        }
+
+        if (!started) {
+            started = true;
+            writeHeader(out);
+        }
+
+        int dataLength = in.readableBytes();
+        while (dataLength > 0) {
+            final int length = Math.min(dataLength, blockSize);
+            writeBlock(in, length, out);
+            dataLength -= length;
+        }
+    }
+
+    private void writeBlock(ByteBuf in, int length, ByteBuf out) {
+        final byte[] src;
+        final int srcOff;
+        if (dictionaryWindow != null) {
+            src = dictionaryWindow;
+            srcOff = dictionaryLength;
+            in.getBytes(in.readerIndex(), src, srcOff, length);
+        } else if (in.hasArray()) {
+            src = in.array();
+            srcOff = in.arrayOffset() + in.readerIndex();
+        } else {
+            if (inputBuf == null) {
+                inputBuf = new byte[blockSize];
+            }
+            src = inputBuf;
+            srcOff = 0;
+            in.getBytes(in.readerIndex(), src, 0, length);
+        }
+
+        if (contentChecksum != null) {
+            contentChecksum.update(src, srcOff, length);
+        }
+
+        final int maxCompressedLength = Lz4.maxCompressedLength(length);
+        out.ensureWritable(4 + maxCompressedLength + (blockChecksums ? 4 : 0));
+
+        final int sizeIdx = out.writerIndex();
+        final byte[] dst;
+        final int dstOff;
+        if (out.hasArray()) {
+            dst = out.array();
+            dstOff = out.arrayOffset() + sizeIdx + 4;
+        } else {
+            if (outputBuf == null) {
+                outputBuf = new byte[Lz4.maxCompressedLength(blockSize)];
+            }
+            dst = outputBuf;
+            dstOff = 0;
+        }
+
+        final int compressedLength = dictionaryWindow != null ?
+                lz4.compressWithDictionary(src, length, dst, dstOff) : lz4.compress(src, srcOff, length, dst, dstOff);
+        if (compressedLength >= length) {
+            // Not worth it, store the block as it is.
+            out.writeInt(ByteBufUtil.swapInt(length | UNCOMPRESSED_FLAG));
+            out.writeBytes(src, srcOff, length);
+            if (blockChecksums) {
+                out.writeInt(ByteBufUtil.swapInt(XxHash32.hash(src, srcOff, length, 0)));
+            }
+        } else {
+            out.writeInt(ByteBufUtil.swapInt(compressedLength));
+            if (dst == outputBuf) {
+                out.writeBytes(dst, 0, compressedLength);
+            } else {
+                out.writerIndex(sizeIdx + 4 + compressedLength);
+            }
+            if (blockChecksums) {
+                out.writeInt(ByteBufUtil.swapInt(XxHash32.hash(dst, dstOff, compressedLength, 0)));
+            }
+        }
+        in.skipBytes(length);
+    }
+
+    private void writeHeader(ByteBuf out) {
+        int flg = VERSION << 6 | FLAG_BLOCK_INDEPENDENCE;
+        if (blockChecksums) {
+            flg |= FLAG_BLOCK_CHECKSUM;
+        }
+        if (contentChecksum != null) {
+            flg |= FLAG_CONTENT_CHECKSUM;
+        }
+        final byte[] descriptor;
+        if (dictionaryWindow != null) {
+            flg |= FLAG_DICT_ID;
+            descriptor = new byte[] {
+                    (byte) flg, (byte) (blockSizeId << 4),
+                    (byte) dictionaryId, (byte) (dictionaryId >>> 8),
+                    (byte) (dictionaryId >>> 16), (byte) (dictionaryId >>> 24) };
+        } else {
+            descriptor = new byte[] { (byte) flg, (byte) (blockSizeId << 4) };
+        }
+
+        out.writeInt(ByteBufUtil.swapInt(MAGIC));
+        out.writeBytes(descriptor);
+        out.writeByte(headerChecksum(descriptor, descriptor.length));
+    }
+
+    @Override
+    public void close(final ChannelHandlerContext ctx, final ChannelPromise promise) throws Exception {
+        ChannelFuture f = finishEncode(ctx, ctx.newPromise());
+        f.addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture f) throws Exception {
+                ctx.close(promise);
+            }
+        });
+
+        if (!f.isDone()) {
+            // Ensure the channel is closed even if the write operation completes in time.
+            ctx.executor().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    ctx.close(promise);
+                }
+            }, CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private ChannelFuture finishEncode(final ChannelHandlerContext ctx, ChannelPromise promise) {
+        if (finished) {
+            promise.setSuccess();
+            return promise;
+        }
+
+        finished = true;
+
+        ByteBuf footer = ctx.alloc().buffer(19);
+        if (!started) {
+            // Write the header first if not written yet. (i.e. user wrote nothing.)
+            started = true;
+            writeHeader(footer);
+        }
+        footer.writeInt(0);
+        if (contentChecksum != null) {
+            footer.writeInt(ByteBufUtil.swapInt((int) contentChecksum.getValue()));
+        }
+        return ctx.writeAndFlush(footer, promise);
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        this.ctx = ctx;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.compression;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.Adler32;
+
+/**
+ * A preset dictionary which primes the compressor with content that is likely to occur in the compressed data,
+ * like the field names of a JSON protocol. This improves the compression ratio of small messages a lot, as the
+ * compressor can refer to the dictionary instead of having to learn the repeated content from each message first.
+ *
+ * The {@link #id()} of a dictionary is the Adler-32 checksum of its content, which is what the zlib format carries
+ * in its header, and is also used as the dictionary ID of the LZ4 frame format. A decoder can therefore look up the
+ * dictionary which was used to compress a stream in a {@link PresetDictionaryRegistry}.
+ *
+ * Only the last 32 KiB of the dictionary can be used by zlib, and only the last 64 KiB by LZ4, so the most common
+ * content should be placed at the end.
+ */
+public final class PresetDictionary {
+
+    private final byte[] content;
+    private final int id;
+
+    /**
+     * Loads a dictionary from a file, for example one which was built offline from sample messages.
+     */
+    public static PresetDictionary load(File file) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("file");
+        }
+        InputStream in = new FileInputStream(file);
+        try {
+            return load(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Loads a dictionary from the remaining content of an {@link InputStream}, which is not closed.
+     */
+    public static PresetDictionary load(InputStream in) throws IOException {
+        if (in == null) {
+            throw new NullPointerException("in");
+        }
+        byte[] buf = new byte[4096];
+        int length = 0;
+        for (;;) {
+            int n = in.read(buf, length, buf.length - length);
+            if (n < 0) {
+                break;
+            }
+            length += n;
+            if (length == buf.length) {
+                buf = Arrays.copyOf(buf, buf.length << 1);
+            }
+        }
+        return new PresetDictionary(Arrays.copyOf(buf, length), false);
+    }
+
+    /**
+     * Creates a new dictionary with a copy of the specified content.
+     */
+    public PresetDictionary(byte[] content) {
+        this(content, true);
+    }
+
+    private PresetDictionary(byte[] content, boolean copy) {
+        if (content == null) {
+            throw new NullPointerException("content");
+        }
+        if (content.length == 0) {
+            throw new IllegalArgumentException("empty dictionary");
+        }
+        this.content = copy ? content.clone() : content;
+        Adler32 adler = new Adler32();
+        adler.update(content, 0, content.length);
+        id = (int) adler.getValue();
+    }
+
+    /**
+     * Returns the ID of this dictionary, which is the Adler-32 checksum of its content.
+     */
+    public int id() {
+        return id;
+    }
+
+    /**
+     * Returns the length of this dictionary in bytes.
+     */
+    public int length() {
+        return content.length;
+    }
+
+    /**
+     * Returns a copy of the content of this dictionary.
+     */
+    public byte[] content() {
+        return content.clone();
+    }
+
+    /**
+     * Returns the content of this dictionary without copying it, so it must not be modified.
+     */
+    byte[] array() {
+        return content;
+    }
+
+    @Override
+    public int hashCode() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PresetDictionary)) {
+            return false;
+        }
+        PresetDictionary that = (PresetDictionary) o;
+        return id == that.id && Arrays.equals(content, that.content);
+    }
+
+    @Override
+    public String toString() {
+        return "PresetDictionary(id: 0x" + Integer.toHexString(id) + ", length: " + content.length + ')';
+    }
+}
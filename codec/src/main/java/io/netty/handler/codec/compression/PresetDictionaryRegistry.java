@@ -0,0 +1,82 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.compression;
+
+import io.netty.util.internal.PlatformDependent;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A thread-safe registry of {@link PresetDictionary}s which is usually shared by the decoders of all connections.
+ *
+ * Decoders which were created with a registry read the ID of the dictionary which was used to compress a stream
+ * from its header and look it up here, so a sender can choose between multiple dictionaries, or roll out a newly
+ * trained one, without the receiver having to know in advance which one is used. This works with the
+ * {@link ZlibWrapper#ZLIB} format of {@link JdkZlibDecoder} and {@link JZlibDecoder}, and with the
+ * {@link Lz4FrameDecoder}.
+ */
+public final class PresetDictionaryRegistry {
+
+    private final ConcurrentMap<Integer, PresetDictionary> dictionaries = PlatformDependent.newConcurrentHashMap();
+
+    /**
+     * Registers the specified dictionary.
+     *
+     * @return the specified dictionary, or the equal dictionary which was registered before
+     * @throws IllegalArgumentException if a different dictionary with the same ID is registered already
+     */
+    public PresetDictionary register(PresetDictionary dictionary) {
+        if (dictionary == null) {
+            throw new NullPointerException("dictionary");
+        }
+        PresetDictionary old = dictionaries.putIfAbsent(dictionary.id(), dictionary);
+        if (old == null) {
+            return dictionary;
+        }
+        if (!old.equals(dictionary)) {
+            throw new IllegalArgumentException(
+                    "dictionary: " + dictionary + " (expected: an ID different from " + old + ')');
+        }
+        return old;
+    }
+
+    /**
+     * Loads a dictionary from the specified file and registers it.
+     *
+     * @see #register(PresetDictionary)
+     */
+    public PresetDictionary register(File file) throws IOException {
+        return register(PresetDictionary.load(file));
+    }
+
+    /**
+     * Removes the dictionary with the specified ID.
+     *
+     * @return the removed dictionary, or {@code null} if there was no such dictionary
+     */
+    public PresetDictionary unregister(int id) {
+        return dictionaries.remove(id);
+    }
+
+    /**
+     * Returns the dictionary with the specified ID, or {@code null} if there is no such dictionary.
+     */
+    public PresetDictionary get(int id) {
+        return dictionaries.get(id);
+    }
+}
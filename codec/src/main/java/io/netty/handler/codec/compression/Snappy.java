@@ -18,6 +18,10 @@ package io.netty.handler.codec.compression;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
 
+import java.util.Arrays;
+
+import static io.netty.handler.codec.compression.CompressionUtil.*;
+
 /**
  * Uncompresses an input {@link ByteBuf} encoded with Snappy compression into an
  * output {@link ByteBuf}.
@@ -39,6 +43,9 @@ public class Snappy {
     private static final int COPY_2_BYTE_OFFSET = 2;
     private static final int COPY_4_BYTE_OFFSET = 3;
 
+    private short[] hashTable;
+    private byte[] inputBuf;
+
     private State state = State.READY;
     private byte tag;
     private int written;
@@ -69,17 +76,33 @@ public class Snappy {
             }
         }
 
-        int inIndex = in.readerIndex();
-        final int baseIndex = in.readerIndex();
-        final int maxIndex = length;
+        final byte[] src;
+        final int baseIndex;
+        if (in.hasArray()) {
+            src = in.array();
+            baseIndex = in.arrayOffset() + in.readerIndex();
+        } else {
+            byte[] inputBuf = this.inputBuf;
+            if (inputBuf == null || inputBuf.length < length) {
+                this.inputBuf = inputBuf = new byte[length];
+            }
+            in.getBytes(in.readerIndex(), inputBuf, 0, length);
+            src = inputBuf;
+            baseIndex = 0;
+        }
+        in.skipBytes(length);
+
+        int inIndex = baseIndex;
+        final int maxIndex = baseIndex + length;
 
-        final short[] table = getHashTable(maxIndex);
-        final int shift = 32 - (int) Math.floor(Math.log(table.length) / Math.log(2));
+        final int tableSize = hashTableSize(length);
+        final short[] table = getHashTable(tableSize);
+        final int shift = 32 - Integer.numberOfTrailingZeros(tableSize);
 
         int nextEmit = inIndex;
 
         if (maxIndex - inIndex >= MIN_COMPRESSIBLE_BYTES) {
-            int nextHash = hash(in, ++inIndex, shift);
+            int nextHash = hash(src, ++inIndex, shift);
             outer: while (true) {
                 int skip = 32;
 
@@ -96,46 +119,45 @@ public class Snappy {
                         break outer;
                     }
 
-                    nextHash = hash(in, nextIndex, shift);
+                    nextHash = hash(src, nextIndex, shift);
 
                     candidate = baseIndex + table[hash];
 
                     table[hash] = (short) (inIndex - baseIndex);
                 }
-                while (in.getInt(inIndex) != in.getInt(candidate));
+                while (getInt(src, inIndex) != getInt(src, candidate));
 
-                encodeLiteral(in, out, inIndex - nextEmit);
+                encodeLiteral(src, nextEmit, out, inIndex - nextEmit);
 
                 int insertTail;
                 do {
                     int base = inIndex;
-                    int matched = 4 + findMatchingLength(in, candidate + 4, inIndex + 4, maxIndex);
+                    int matched = 4 + commonBytes(src, candidate + 4, inIndex + 4, maxIndex);
                     inIndex += matched;
                     int offset = base - candidate;
                     encodeCopy(out, offset, matched);
-                    in.readerIndex(in.readerIndex() + matched);
                     insertTail = inIndex - 1;
                     nextEmit = inIndex;
                     if (inIndex >= maxIndex - 4) {
                         break outer;
                     }
 
-                    int prevHash = hash(in, insertTail, shift);
+                    int prevHash = hash(src, insertTail, shift);
                     table[prevHash] = (short) (inIndex - baseIndex - 1);
-                    int currentHash = hash(in, insertTail + 1, shift);
+                    int currentHash = hash(src, insertTail + 1, shift);
                     candidate = baseIndex + table[currentHash];
                     table[currentHash] = (short) (inIndex - baseIndex);
                 }
-                while (in.getInt(insertTail + 1) == in.getInt(candidate));
+                while (getInt(src, insertTail + 1) == getInt(src, candidate));
 
-                nextHash = hash(in, insertTail + 2, shift);
+                nextHash = hash(src, insertTail + 2, shift);
                 ++inIndex;
             }
         }
 
         // If there are any remaining characters, write them out as a literal
         if (nextEmit < maxIndex) {
-            encodeLiteral(in, out, maxIndex - nextEmit);
+            encodeLiteral(src, nextEmit, out, maxIndex - nextEmit);
         }
     }
 
@@ -143,64 +165,45 @@ public class Snappy {
      * Hashes the 4 bytes located at index, shifting the resulting hash into
      * the appropriate range for our hash table.
      *
-     * @param in The input buffer to read 4 bytes from
+     * @param in The input array to read 4 bytes from
      * @param index The index to read at
      * @param shift The shift value, for ensuring that the resulting value is
      *     withing the range of our hash table size
      * @return A 32-bit hash of 4 bytes located at index
      */
-    private static int hash(ByteBuf in, int index, int shift) {
-        return in.getInt(index) + 0x1e35a7bd >>> shift;
+    private static int hash(byte[] in, int index, int shift) {
+        return getIntBE(in, index) + 0x1e35a7bd >>> shift;
     }
 
     /**
-     * Creates an appropriately sized hashtable for the given input size
+     * Calculates the size of the hash table for the given input size
      *
      * @param inputSize The size of our input, ie. the number of bytes we need to encode
-     * @return An appropriately sized empty hashtable
+     * @return The number of hash table entries to use
      */
-    private static short[] getHashTable(int inputSize) {
+    private static int hashTableSize(int inputSize) {
         int htSize = 256;
         while (htSize < MAX_HT_SIZE && htSize < inputSize) {
             htSize <<= 1;
         }
-
-        short[] table;
-        if (htSize <= 256) {
-            table = new short[256];
-        } else {
-            table = new short[MAX_HT_SIZE];
-        }
-
-        return table;
+        return htSize <= 256 ? 256 : MAX_HT_SIZE;
     }
 
     /**
-     * Iterates over the supplied input buffer between the supplied minIndex and
-     * maxIndex to find how long our matched copy overlaps with an already-written
-     * literal value.
+     * Returns the hash table of this instance with its first {@code size} entries cleared. The table is reused
+     * across calls so that encoding does not allocate.
      *
-     * @param in The input buffer to scan over
-     * @param minIndex The index in the input buffer to start scanning from
-     * @param inIndex The index of the start of our copy
-     * @param maxIndex The length of our input buffer
-     * @return The number of bytes for which our candidate copy is a repeat of
+     * @param size The number of hash table entries to use
+     * @return An appropriately sized empty hashtable
      */
-    private static int findMatchingLength(ByteBuf in, int minIndex, int inIndex, int maxIndex) {
-        int matched = 0;
-
-        while (inIndex <= maxIndex - 4 &&
-                in.getInt(inIndex) == in.getInt(minIndex + matched)) {
-            inIndex += 4;
-            matched += 4;
-        }
-
-        while (inIndex < maxIndex && in.getByte(minIndex + matched) == in.getByte(inIndex)) {
-            ++inIndex;
-            ++matched;
+    private short[] getHashTable(int size) {
+        short[] table = hashTable;
+        if (table == null) {
+            hashTable = table = new short[MAX_HT_SIZE];
+        } else {
+            Arrays.fill(table, 0, size, (short) 0);
         }
-
-        return matched;
+        return table;
     }
 
     /**
@@ -223,14 +226,14 @@ public class Snappy {
 
     /**
      * Writes a literal to the supplied output buffer by directly copying from
-     * the input buffer.  The literal is taken from the current readerIndex
-     * up to the supplied length.
+     * the input array.
      *
-     * @param in The input buffer to copy from
+     * @param in The input array to copy from
+     * @param index The index of the literal in the input array
      * @param out The output buffer to copy to
      * @param length The length of the literal to copy
      */
-    private static void encodeLiteral(ByteBuf in, ByteBuf out, int length) {
+    private static void encodeLiteral(byte[] in, int index, ByteBuf out, int length) {
         if (length < 61) {
             out.writeByte(length - 1 << 2);
         } else {
@@ -242,7 +245,7 @@ public class Snappy {
             }
         }
 
-        out.writeBytes(in, length);
+        out.writeBytes(in, index, length);
     }
 
     private static void encodeCopyWithOffset(ByteBuf out, int offset, int length) {
@@ -612,19 +615,8 @@ public class Snappy {
      */
     public static int calculateChecksum(ByteBuf data, int offset, int length) {
         Crc32c crc32 = new Crc32c();
-        try {
-            if (data.hasArray()) {
-                crc32.update(data.array(), data.arrayOffset() + offset, length);
-            } else {
-                byte[] array = new byte[length];
-                data.getBytes(offset, array);
-                crc32.update(array, 0, length);
-            }
-
-            return maskChecksum((int) crc32.getValue());
-        } finally {
-            crc32.reset();
-        }
+        crc32.update(data, offset, length);
+        return maskChecksum((int) crc32.getValue());
     }
 
     /**
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.compression;
+
+import java.util.zip.Checksum;
+
+import static io.netty.handler.codec.compression.CompressionUtil.*;
+
+/**
+ * Implements the 32-bit <a href="https://code.google.com/p/xxhash/">xxHash</a> checksum which is used by the
+ * LZ4 frame format for block and content checksums.
+ *
+ * Instances can be used to calculate the checksum of a stream incrementally, while {@link #hash(byte[], int, int,
+ * int)} calculates the checksum of a single array region at once.
+ */
+final class XxHash32 implements Checksum {
+
+    private static final int PRIME1 = 0x9E3779B1;
+    private static final int PRIME2 = 0x85EBCA77;
+    private static final int PRIME3 = 0xC2B2AE3D;
+    private static final int PRIME4 = 0x27D4EB2F;
+    private static final int PRIME5 = 0x165667B1;
+
+    private final int seed;
+    private final byte[] memory = new byte[16];
+    private int memorySize;
+    private long totalLength;
+    private int v1;
+    private int v2;
+    private int v3;
+    private int v4;
+
+    XxHash32() {
+        this(0);
+    }
+
+    XxHash32(int seed) {
+        this.seed = seed;
+        reset();
+    }
+
+    @Override
+    public void update(int b) {
+        memory[memorySize ++] = (byte) b;
+        totalLength ++;
+        if (memorySize == 16) {
+            consumeStripe(memory, 0);
+            memorySize = 0;
+        }
+    }
+
+    @Override
+    public void update(byte[] b, int off, int len) {
+        if (b == null) {
+            throw new NullPointerException("b");
+        }
+        if (off < 0 || len < 0 || off > b.length - len) {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+
+        totalLength += len;
+        final int end = off + len;
+
+        if (memorySize > 0) {
+            int n = Math.min(16 - memorySize, len);
+            System.arraycopy(b, off, memory, memorySize, n);
+            memorySize += n;
+            off += n;
+            if (memorySize < 16) {
+                return;
+            }
+            consumeStripe(memory, 0);
+            memorySize = 0;
+        }
+
+        for (; off <= end - 16; off += 16) {
+            consumeStripe(b, off);
+        }
+
+        if (off < end) {
+            memorySize = end - off;
+            System.arraycopy(b, off, memory, 0, memorySize);
+        }
+    }
+
+    private void consumeStripe(byte[] b, int off) {
+        v1 = round(v1, getIntLE(b, off));
+        v2 = round(v2, getIntLE(b, off + 4));
+        v3 = round(v3, getIntLE(b, off + 8));
+        v4 = round(v4, getIntLE(b, off + 12));
+    }
+
+    @Override
+    public long getValue() {
+        int h32;
+        if (totalLength >= 16) {
+            h32 = Integer.rotateLeft(v1, 1) + Integer.rotateLeft(v2, 7) +
+                  Integer.rotateLeft(v3, 12) + Integer.rotateLeft(v4, 18);
+        } else {
+            h32 = seed + PRIME5;
+        }
+        h32 += (int) totalLength;
+        return finish(h32, memory, 0, memorySize) & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public void reset() {
+        memorySize = 0;
+        totalLength = 0;
+        v1 = seed + PRIME1 + PRIME2;
+        v2 = seed + PRIME2;
+        v3 = seed;
+        v4 = seed - PRIME1;
+    }
+
+    /**
+     * Calculates the xxHash32 of the given array region.
+     */
+    static int hash(byte[] b, int off, int len, int seed) {
+        final int end = off + len;
+        int h32;
+        if (len >= 16) {
+            int v1 = seed + PRIME1 + PRIME2;
+            int v2 = seed + PRIME2;
+            int v3 = seed;
+            int v4 = seed - PRIME1;
+            final int limit = end - 16;
+            do {
+                v1 = round(v1, getIntLE(b, off));
+                v2 = round(v2, getIntLE(b, off + 4));
+                v3 = round(v3, getIntLE(b, off + 8));
+                v4 = round(v4, getIntLE(b, off + 12));
+                off += 16;
+            } while (off <= limit);
+            h32 = Integer.rotateLeft(v1, 1) + Integer.rotateLeft(v2, 7) +
+                  Integer.rotateLeft(v3, 12) + Integer.rotateLeft(v4, 18);
+        } else {
+            h32 = seed + PRIME5;
+        }
+        h32 += len;
+        return finish(h32, b, off, end - off);
+    }
+
+    private static int finish(int h32, byte[] b, int off, int len) {
+        final int end = off + len;
+        for (; off <= end - 4; off += 4) {
+            h32 += getIntLE(b, off) * PRIME3;
+            h32 = Integer.rotateLeft(h32, 17) * PRIME4;
+        }
+        for (; off < end; off ++) {
+            h32 += (b[off] & 0xFF) * PRIME5;
+            h32 = Integer.rotateLeft(h32, 11) * PRIME1;
+        }
+
+        h32 ^= h32 >>> 15;
+        h32 *= PRIME2;
+        h32 ^= h32 >>> 13;
+        h32 *= PRIME3;
+        h32 ^= h32 >>> 16;
+        return h32;
+    }
+
+    private static int round(int v, int lane) {
+        return Integer.rotateLeft(v + lane * PRIME2, 13) * PRIME1;
+    }
+}
@@ -22,6 +22,12 @@ import io.netty.util.internal.logging.InternalLoggerFactory;
 
 /**
  * Creates a new {@link ZlibEncoder} and a new {@link ZlibDecoder}.
+ *
+ * The {@link JdkZlibEncoder}s and {@link JdkZlibDecoder}s created by this factory take their {@link
+ * java.util.zip.Deflater} or {@link java.util.zip.Inflater} from a pool of the current thread, which is usually an
+ * {@link io.netty.channel.EventLoop}, and return it once they were closed or removed from the pipeline. This avoids
+ * allocating the native zlib memory for every short-lived codec, like the ones used by {@code HttpContentCompressor}.
+ * The size of the pool can be set with {@code -Dio.netty.jdkzlib.maxPooledPerThread}, and {@code 0} disables it.
  */
 public final class ZlibCodecFactory {
     private static final InternalLogger logger = InternalLoggerFactory.getInstance(ZlibCodecFactory.class);
@@ -37,7 +43,7 @@ public final class ZlibCodecFactory {
         if (PlatformDependent.javaVersion() < 7) {
             return new JZlibEncoder(compressionLevel);
         } else {
-            return new JdkZlibEncoder(compressionLevel);
+            return new JdkZlibEncoder(ZlibWrapper.ZLIB, compressionLevel, true);
         }
     }
 
@@ -45,7 +51,7 @@ public final class ZlibCodecFactory {
         if (PlatformDependent.javaVersion() < 7) {
             return new JZlibEncoder(wrapper);
         } else {
-            return new JdkZlibEncoder(wrapper);
+            return new JdkZlibEncoder(wrapper, 6, true);
         }
     }
 
@@ -53,7 +59,7 @@ public final class ZlibCodecFactory {
         if (PlatformDependent.javaVersion() < 7) {
             return new JZlibEncoder(wrapper, compressionLevel);
         } else {
-            return new JdkZlibEncoder(wrapper, compressionLevel);
+            return new JdkZlibEncoder(wrapper, compressionLevel, true);
         }
     }
 
@@ -61,7 +67,7 @@ public final class ZlibCodecFactory {
         if (PlatformDependent.javaVersion() < 7) {
             return new JZlibEncoder(wrapper, compressionLevel, windowBits, memLevel);
         } else {
-            return new JdkZlibEncoder(wrapper, compressionLevel);
+            return new JdkZlibEncoder(wrapper, compressionLevel, true);
         }
     }
 
@@ -69,7 +75,7 @@ public final class ZlibCodecFactory {
         if (PlatformDependent.javaVersion() < 7) {
             return new JZlibEncoder(dictionary);
         } else {
-            return new JdkZlibEncoder(dictionary);
+            return new JdkZlibEncoder(6, dictionary, true);
         }
     }
 
@@ -77,7 +83,7 @@ public final class ZlibCodecFactory {
         if (PlatformDependent.javaVersion() < 7) {
             return new JZlibEncoder(compressionLevel, dictionary);
         } else {
-            return new JdkZlibEncoder(compressionLevel, dictionary);
+            return new JdkZlibEncoder(compressionLevel, dictionary, true);
         }
     }
 
@@ -85,15 +91,27 @@ public final class ZlibCodecFactory {
         if (PlatformDependent.javaVersion() < 7) {
             return new JZlibEncoder(compressionLevel, windowBits, memLevel, dictionary);
         } else {
-            return new JdkZlibEncoder(compressionLevel, dictionary);
+            return new JdkZlibEncoder(compressionLevel, dictionary, true);
         }
     }
 
+    /**
+     * Creates a new {@link ZlibEncoder} which uses the specified {@link PresetDictionary}. Its ID is written to the
+     * header of the stream, so that a {@link ZlibDecoder} created by {@link #newZlibDecoder(PresetDictionaryRegistry)}
+     * can find it.
+     */
+    public static ZlibEncoder newZlibEncoder(int compressionLevel, PresetDictionary dictionary) {
+        if (dictionary == null) {
+            throw new NullPointerException("dictionary");
+        }
+        return newZlibEncoder(compressionLevel, dictionary.array());
+    }
+
     public static ZlibDecoder newZlibDecoder() {
         if (PlatformDependent.javaVersion() < 7 || noJdkZlibDecoder) {
             return new JZlibDecoder();
         } else {
-            return new JdkZlibDecoder();
+            return new JdkZlibDecoder(ZlibWrapper.ZLIB, null, true);
         }
     }
 
@@ -101,7 +119,7 @@ public final class ZlibCodecFactory {
         if (PlatformDependent.javaVersion() < 7 || noJdkZlibDecoder) {
             return new JZlibDecoder(wrapper);
         } else {
-            return new JdkZlibDecoder(wrapper);
+            return new JdkZlibDecoder(wrapper, null, true);
         }
     }
 
@@ -109,7 +127,22 @@ public final class ZlibCodecFactory {
         if (PlatformDependent.javaVersion() < 7 || noJdkZlibDecoder) {
             return new JZlibDecoder(dictionary);
         } else {
-            return new JdkZlibDecoder(dictionary);
+            return new JdkZlibDecoder(ZlibWrapper.ZLIB, dictionary, true);
+        }
+    }
+
+    /**
+     * Creates a new {@link ZlibDecoder} which looks up the {@link PresetDictionary} that is required by the stream
+     * in the specified registry.
+     */
+    public static ZlibDecoder newZlibDecoder(PresetDictionaryRegistry dictionaries) {
+        if (dictionaries == null) {
+            throw new NullPointerException("dictionaries");
+        }
+        if (PlatformDependent.javaVersion() < 7 || noJdkZlibDecoder) {
+            return new JZlibDecoder(dictionaries);
+        } else {
+            return new JdkZlibDecoder(ZlibWrapper.ZLIB, null, dictionaries, true);
         }
     }
 
@@ -15,10 +15,12 @@
  */
 package io.netty.handler.codec.protobuf;
 
+import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.ExtensionRegistry;
 import com.google.protobuf.Message;
 import com.google.protobuf.MessageLite;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
 import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
@@ -26,7 +28,9 @@ import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
 import io.netty.handler.codec.MessageToMessageDecoder;
+import io.netty.util.concurrent.FastThreadLocal;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -77,6 +81,19 @@ public class ProtobufDecoder extends MessageToMessageDecoder<ByteBuf> {
         HAS_PARSER = hasParser;
     }
 
+    /**
+     * Messages which are not backed by an array and not longer than this are copied into a thread-local array
+     * before they are parsed.
+     */
+    private static final int MAX_SCRATCH_LENGTH = 8192;
+
+    private static final FastThreadLocal<byte[]> SCRATCH = new FastThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[1024];
+        }
+    };
+
     private final MessageLite prototype;
     private final ExtensionRegistry extensionRegistry;
 
@@ -97,29 +114,56 @@ public class ProtobufDecoder extends MessageToMessageDecoder<ByteBuf> {
 
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) throws Exception {
-        final byte[] array;
-        final int offset;
         final int length = msg.readableBytes();
         if (msg.hasArray()) {
-            array = msg.array();
-            offset = msg.arrayOffset() + msg.readerIndex();
-        } else {
-            array = new byte[length];
+            out.add(parse(msg.array(), msg.arrayOffset() + msg.readerIndex(), length));
+        } else if (length <= MAX_SCRATCH_LENGTH) {
+            // The parsed message copies what it keeps, so the bytes of small messages can be parsed from an array
+            // which is reused by the thread.
+            byte[] array = SCRATCH.get();
+            if (array.length < length) {
+                array = new byte[Math.max(length, array.length << 1)];
+                SCRATCH.set(array);
+            }
             msg.getBytes(msg.readerIndex(), array, 0, length);
-            offset = 0;
+            out.add(parse(array, 0, length));
+        } else {
+            // Stream larger messages from the direct or composite buffer instead of copying them as a whole.
+            CodedInputStream in = CodedInputStream.newInstance(new ByteBufInputStream(msg, length));
+            out.add(parse(in));
+        }
+    }
+
+    private MessageLite parse(byte[] array, int offset, int length) throws IOException {
+        if (extensionRegistry == null) {
+            if (HAS_PARSER) {
+                return prototype.getParserForType().parseFrom(array, offset, length);
+            } else {
+                return prototype.newBuilderForType().mergeFrom(array, offset, length).build();
+            }
+        } else {
+            if (HAS_PARSER) {
+                return prototype.getParserForType().parseFrom(array, offset, length, extensionRegistry);
+            } else {
+                return prototype.newBuilderForType().mergeFrom(array, offset, length, extensionRegistry).build();
+            }
         }
+    }
 
+    private MessageLite parse(CodedInputStream in) throws IOException {
+        // Allow messages larger than the default limit of 64 MiB, as their size was limited by the frame decoder.
+        in.setSizeLimit(Integer.MAX_VALUE);
         if (extensionRegistry == null) {
             if (HAS_PARSER) {
-                out.add(prototype.getParserForType().parseFrom(array, offset, length));
+                return prototype.getParserForType().parseFrom(in);
             } else {
-                out.add(prototype.newBuilderForType().mergeFrom(array, offset, length).build());
+                return prototype.newBuilderForType().mergeFrom(in).build();
             }
         } else {
             if (HAS_PARSER) {
-                out.add(prototype.getParserForType().parseFrom(array, offset, length, extensionRegistry));
+                return prototype.getParserForType().parseFrom(in, extensionRegistry);
             } else {
-                out.add(prototype.newBuilderForType().mergeFrom(array, offset, length, extensionRegistry).build());
+                return prototype.newBuilderForType().mergeFrom(in, extensionRegistry).build();
             }
         }
     }
@@ -16,11 +16,7 @@
 package io.netty.handler.codec.protobuf;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ByteToMessageDecoder;
-import io.netty.handler.codec.CorruptedFrameException;
-
-import java.util.List;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 
 import com.google.protobuf.CodedInputStream;
 
@@ -36,42 +32,30 @@ import com.google.protobuf.CodedInputStream;
  * | 0xAC02 |  (300 bytes)  |      |  (300 bytes)  |
  * +--------+---------------+      +---------------+
  * </pre>
+ * This is a {@link LengthFieldBasedFrameDecoder} which uses
+ * {@link LengthFieldBasedFrameDecoder#VARINT32_LENGTH_FIELD}, so it supports
+ * a maximum frame length and can emit slices instead of copies.
  *
  * @see CodedInputStream
  */
-public class ProtobufVarint32FrameDecoder extends ByteToMessageDecoder {
-
-    // TODO maxFrameLength + safe skip + fail-fast option
-    //      (just like LengthFieldBasedFrameDecoder)
-
-    @Override
-    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
-        in.markReaderIndex();
-        final byte[] buf = new byte[5];
-        for (int i = 0; i < buf.length; i ++) {
-            if (!in.isReadable()) {
-                in.resetReaderIndex();
-                return;
-            }
+public class ProtobufVarint32FrameDecoder extends LengthFieldBasedFrameDecoder {
 
-            buf[i] = in.readByte();
-            if (buf[i] >= 0) {
-                int length = CodedInputStream.newInstance(buf, 0, i + 1).readRawVarint32();
-                if (length < 0) {
-                    throw new CorruptedFrameException("negative length: " + length);
-                }
-
-                if (in.readableBytes() < length) {
-                    in.resetReaderIndex();
-                    return;
-                } else {
-                    out.add(in.readBytes(length));
-                    return;
-                }
-            }
-        }
+    /**
+     * Creates a new instance which does not limit the length of a frame.
+     */
+    public ProtobufVarint32FrameDecoder() {
+        this(Integer.MAX_VALUE);
+    }
 
-        // Couldn't find the byte whose MSB is off.
-        throw new CorruptedFrameException("length wider than 32-bit");
+    /**
+     * Creates a new instance.
+     *
+     * @param maxFrameLength
+     *        the maximum length of the frame including the length field.  If
+     *        the length of the frame is greater than this value,
+     *        {@link io.netty.handler.codec.TooLongFrameException} will be thrown.
+     */
+    public ProtobufVarint32FrameDecoder(int maxFrameLength) {
+        super(maxFrameLength, 0, VARINT32_LENGTH_FIELD, 0, STRIP_HEADER, true);
     }
 }
@@ -16,6 +16,7 @@
 package io.netty.handler.codec;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.embedded.EmbeddedChannel;
@@ -119,4 +120,67 @@ public class ByteToMessageDecoderTest {
         Assert.assertEquals(channel.readInbound(), Unpooled.wrappedBuffer(new byte[] {'b'}));
         Assert.assertNull(channel.readInbound());
     }
+
+    @Test
+    public void testCompositeCumulator() {
+        FixedLengthFrameDecoder decoder = new FixedLengthFrameDecoder(8);
+        decoder.setCumulator(ByteToMessageDecoder.COMPOSITE_CUMULATOR);
+        EmbeddedChannel channel = new EmbeddedChannel(decoder);
+
+        Assert.assertFalse(channel.writeInbound(Unpooled.wrappedBuffer(new byte[] { 0, 1, 2 })));
+        Assert.assertFalse(channel.writeInbound(Unpooled.wrappedBuffer(new byte[] { 3, 4, 5 })));
+        Assert.assertTrue(decoder.internalBuffer() instanceof CompositeByteBuf);
+        Assert.assertTrue(channel.writeInbound(Unpooled.wrappedBuffer(new byte[] { 6, 7, 8 })));
+
+        ByteBuf b = channel.readInbound();
+        Assert.assertEquals(Unpooled.wrappedBuffer(new byte[] { 0, 1, 2, 3, 4, 5, 6, 7 }), b);
+        b.release();
+        Assert.assertEquals(1, decoder.actualReadableBytes());
+        Assert.assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testAdaptiveCumulator() {
+        FixedLengthFrameDecoder decoder = new FixedLengthFrameDecoder(32);
+        decoder.setCumulator(ByteToMessageDecoder.adaptiveCumulator(16));
+        EmbeddedChannel channel = new EmbeddedChannel(decoder);
+
+        byte[] bytes = new byte[32];
+        for (int i = 0; i < bytes.length; i ++) {
+            bytes[i] = (byte) i;
+        }
+        Assert.assertFalse(channel.writeInbound(Unpooled.wrappedBuffer(bytes, 0, 4)));
+        Assert.assertFalse(channel.writeInbound(Unpooled.wrappedBuffer(bytes, 4, 4)));
+        // Less than 16 bytes are cumulated, so they are merged.
+        Assert.assertFalse(decoder.internalBuffer() instanceof CompositeByteBuf);
+        Assert.assertFalse(channel.writeInbound(Unpooled.wrappedBuffer(bytes, 8, 16)));
+        Assert.assertTrue(decoder.internalBuffer() instanceof CompositeByteBuf);
+        Assert.assertTrue(channel.writeInbound(Unpooled.wrappedBuffer(bytes, 24, 8)));
+
+        ByteBuf b = channel.readInbound();
+        Assert.assertEquals(Unpooled.wrappedBuffer(bytes), b);
+        b.release();
+        Assert.assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testDiscardAfterReads() {
+        Assert.assertEquals(0, readerIndexAfterTwoReads(2));
+        Assert.assertEquals(8, readerIndexAfterTwoReads(3));
+    }
+
+    private static int readerIndexAfterTwoReads(int discardAfterReads) {
+        FixedLengthFrameDecoder decoder = new FixedLengthFrameDecoder(8);
+        decoder.setDiscardAfterReads(discardAfterReads);
+        EmbeddedChannel channel = new EmbeddedChannel(decoder);
+
+        Assert.assertTrue(channel.writeInbound(Unpooled.buffer(16).writeBytes(new byte[10])));
+        ByteBuf b = channel.readInbound();
+        b.release();
+        Assert.assertFalse(channel.writeInbound(Unpooled.wrappedBuffer(new byte[3])));
+        int readerIndex = decoder.internalBuffer().readerIndex();
+        Assert.assertEquals(5, decoder.actualReadableBytes());
+        channel.finish();
+        return readerIndex;
+    }
 }
@@ -21,6 +21,8 @@ import io.netty.channel.embedded.EmbeddedChannel;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.nio.ByteOrder;
+
 import static io.netty.util.ReferenceCountUtil.*;
 
 public class LengthFieldBasedFrameDecoderTest {
@@ -82,4 +84,91 @@ public class LengthFieldBasedFrameDecoderTest {
         Assert.assertNull(channel.readInbound());
         channel.finish();
     }
+
+    @Test
+    public void testSliceFrames() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeShort(3);
+        buf.writeBytes(new byte[] { 'a', 'b', 'c' });
+        buf.writeShort(1);
+        buf.writeByte('d');
+        LengthFieldBasedFrameDecoder decoder = new LengthFieldBasedFrameDecoder(16, 0, 2, 0, 2);
+        decoder.setSliceFrames(true);
+        EmbeddedChannel channel = new EmbeddedChannel(decoder);
+        Assert.assertTrue(channel.writeInbound(buf));
+
+        ByteBuf b = channel.readInbound();
+        Assert.assertSame(buf, b.unwrap());
+        Assert.assertEquals(Unpooled.wrappedBuffer(new byte[] { 'a', 'b', 'c' }), b);
+        b.release();
+
+        b = channel.readInbound();
+        Assert.assertEquals(Unpooled.wrappedBuffer(new byte[] { 'd' }), b);
+        b.release();
+
+        Assert.assertEquals(0, buf.refCnt());
+        Assert.assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testVarintLengthField() {
+        ByteBuf buf = releaseLater(Unpooled.buffer());
+        buf.writeByte(0xCA);
+        buf.writeByte(0xAC).writeByte(0x02);
+        for (int i = 0; i < 300; i++) {
+            buf.writeByte(i);
+        }
+        EmbeddedChannel channel = new EmbeddedChannel(new LengthFieldBasedFrameDecoder(
+                1024, 1, LengthFieldBasedFrameDecoder.VARINT32_LENGTH_FIELD, 0,
+                LengthFieldBasedFrameDecoder.STRIP_HEADER, true));
+        Assert.assertFalse(channel.writeInbound(buf.readSlice(2).retain()));
+        Assert.assertFalse(channel.writeInbound(buf.readSlice(100).retain()));
+        Assert.assertTrue(channel.writeInbound(buf.readSlice(buf.readableBytes()).retain()));
+
+        ByteBuf b = channel.readInbound();
+        Assert.assertEquals(300, b.readableBytes());
+        for (int i = 0; i < 300; i++) {
+            Assert.assertEquals((byte) i, b.getByte(i));
+        }
+        b.release();
+        Assert.assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testVarintLengthFieldTooWide() {
+        EmbeddedChannel channel = new EmbeddedChannel(new LengthFieldBasedFrameDecoder(
+                1024, 0, LengthFieldBasedFrameDecoder.VARINT32_LENGTH_FIELD, 0,
+                LengthFieldBasedFrameDecoder.STRIP_HEADER, true));
+        try {
+            channel.writeInbound(Unpooled.wrappedBuffer(new byte[] { -1, -1, -1, -1, -1, 1, 'a' }));
+            Assert.fail();
+        } catch (CorruptedFrameException e) {
+            // expected
+        }
+        // The malformed length field was discarded, so the next frame is decoded.
+        Assert.assertTrue(channel.finish());
+        ByteBuf b = channel.readInbound();
+        Assert.assertEquals(Unpooled.wrappedBuffer(new byte[] { 'a' }), b);
+        b.release();
+    }
+
+    @Test
+    public void testFixedLengthField() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeByte(3).writeByte(0);
+        buf.writeBytes(new byte[] { 'a', 'b', 'c' });
+        EmbeddedChannel channel = new EmbeddedChannel(new LengthFieldBasedFrameDecoder(
+                16, 0, LengthFieldBasedFrameDecoder.fixedLengthField(2, ByteOrder.LITTLE_ENDIAN), 0, 2, true));
+        Assert.assertTrue(channel.writeInbound(buf));
+
+        ByteBuf b = channel.readInbound();
+        Assert.assertEquals(Unpooled.wrappedBuffer(new byte[] { 'a', 'b', 'c' }), b);
+        b.release();
+        Assert.assertFalse(channel.finish());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedFixedLengthField() {
+        LengthFieldBasedFrameDecoder.fixedLengthField(5, ByteOrder.BIG_ENDIAN);
+    }
 }
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.CharsetUtil;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MessageBatchTest {
+
+    @Test
+    public void testByteToMessageDecoderBatchOutput() {
+        FixedLengthFrameDecoder decoder = new FixedLengthFrameDecoder(2);
+        decoder.setBatchOutput(true);
+        assertTrue(decoder.isBatchOutput());
+        EmbeddedChannel channel = new EmbeddedChannel(decoder);
+
+        assertTrue(channel.writeInbound(Unpooled.wrappedBuffer(new byte[] { 0, 1, 2, 3, 4, 5, 6 })));
+        MessageBatch batch = channel.readInbound();
+        assertEquals(3, batch.size());
+        for (int i = 0; i < batch.size(); i ++) {
+            ByteBuf frame = (ByteBuf) batch.get(i);
+            assertEquals(Unpooled.wrappedBuffer(new byte[] { (byte) (i * 2), (byte) (i * 2 + 1) }), frame);
+            frame.release();
+        }
+        assertTrue(batch.recycle());
+
+        // A single decoded message is passed on as it is.
+        assertTrue(channel.writeInbound(Unpooled.wrappedBuffer(new byte[] { 7 })));
+        ByteBuf frame = channel.readInbound();
+        assertEquals(Unpooled.wrappedBuffer(new byte[] { 6, 7 }), frame);
+        frame.release();
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testMessageToMessageDecoderBatchOutput() {
+        MessageToMessageDecoder<String> decoder = new MessageToMessageDecoder<String>() {
+            @Override
+            protected void decode(ChannelHandlerContext ctx, String msg, List<Object> out) throws Exception {
+                for (String s: msg.split(",")) {
+                    out.add(s);
+                }
+            }
+        };
+        decoder.setBatchOutput(true);
+        EmbeddedChannel channel = new EmbeddedChannel(decoder);
+
+        assertTrue(channel.writeInbound("a,b"));
+        MessageBatch batch = channel.readInbound();
+        assertEquals("a", batch.get(0));
+        assertEquals("b", batch.get(1));
+        batch.recycle();
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testUnpacker() {
+        FixedLengthFrameDecoder decoder = new FixedLengthFrameDecoder(1);
+        decoder.setBatchOutput(true);
+        EmbeddedChannel channel = new EmbeddedChannel(decoder, new MessageBatchUnpacker());
+
+        assertTrue(channel.writeInbound(Unpooled.wrappedBuffer(new byte[] { 0, 1, 2 })));
+        assertTrue(channel.writeInbound("not a batch"));
+        for (int i = 0; i < 3; i ++) {
+            ByteBuf frame = channel.readInbound();
+            assertEquals(i, frame.readByte());
+            frame.release();
+        }
+        assertEquals("not a batch", channel.readInbound());
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testReleasedAtTail() {
+        final List<ByteBuf> frames = new ArrayList<ByteBuf>();
+        MessageToMessageDecoder<String> decoder = new MessageToMessageDecoder<String>() {
+            @Override
+            protected void decode(ChannelHandlerContext ctx, String msg, List<Object> out) throws Exception {
+                for (String s: msg.split(",")) {
+                    ByteBuf frame = Unpooled.copiedBuffer(s, CharsetUtil.US_ASCII);
+                    frames.add(frame);
+                    out.add(frame);
+                }
+            }
+        };
+        decoder.setBatchOutput(true);
+        EmbeddedChannel channel = new EmbeddedChannel(decoder);
+        // Remove the handler which collects the inbound messages so the batch reaches the tail of the pipeline.
+        channel.pipeline().removeLast();
+
+        assertFalse(channel.writeInbound("a,b,c"));
+        assertEquals(3, frames.size());
+        for (ByteBuf frame: frames) {
+            assertEquals(0, frame.refCnt());
+        }
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testRelease() {
+        ByteBuf a = Unpooled.buffer();
+        ByteBuf b = Unpooled.buffer();
+        MessageBatch batch = MessageBatch.newInstance();
+        assertEquals(1, batch.refCnt());
+        batch.add(a);
+        batch.add(b);
+
+        assertSame(batch, batch.retain());
+        assertFalse(batch.release());
+        assertEquals(1, a.refCnt());
+        assertEquals(1, b.refCnt());
+
+        assertTrue(batch.release());
+        assertEquals(0, batch.refCnt());
+        assertTrue(batch.isEmpty());
+        assertEquals(0, a.refCnt());
+        assertEquals(0, b.refCnt());
+
+        // A recycled instance starts with a reference count of 1 again.
+        batch = MessageBatch.newInstance();
+        assertEquals(1, batch.refCnt());
+        assertTrue(batch.release());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testAddNull() {
+        MessageBatch batch = MessageBatch.newInstance();
+        try {
+            batch.add(null);
+        } finally {
+            batch.recycle();
+        }
+    }
+}
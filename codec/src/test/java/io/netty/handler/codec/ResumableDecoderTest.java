@@ -0,0 +1,162 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.CharsetUtil;
+import org.junit.Test;
+
+import java.util.List;
+
+import static io.netty.util.ReferenceCountUtil.*;
+import static org.junit.Assert.*;
+
+public class ResumableDecoderTest {
+
+    @Test
+    public void testFragmentedFrames() {
+        IntegerHeaderFrameDecoder decoder = new IntegerHeaderFrameDecoder();
+        EmbeddedChannel ch = new EmbeddedChannel(decoder);
+
+        ByteBuf frames = Unpooled.buffer();
+        for (int i = 0; i < 3; i ++) {
+            frames.writeInt(16);
+            frames.writeBytes(new byte[16]);
+        }
+        int decodeCalls = 0;
+        while (frames.isReadable()) {
+            ch.writeInbound(frames.readSlice(1).retain());
+            assertTrue(decoder.calls - decodeCalls <= 1);
+            decodeCalls = decoder.calls;
+        }
+        frames.release();
+
+        for (int i = 0; i < 3; i ++) {
+            ByteBuf frame = (ByteBuf) ch.readInbound();
+            assertEquals(16, frame.readableBytes());
+            frame.release();
+        }
+        assertNull(ch.readInbound());
+
+        // Per frame the decoder is called once the header is complete, once the payload is complete and once more
+        // to find that the next header is missing; the calls for the partial header are skipped.
+        assertTrue("too many decode() calls: " + decoder.calls, decoder.calls <= 3 * 6);
+        assertFalse(ch.finish());
+    }
+
+    @Test
+    public void testCheckpoint() {
+        EmbeddedChannel ch = new EmbeddedChannel(new StringPairDecoder());
+
+        ch.writeInbound(Unpooled.wrappedBuffer(new byte[] { 2, 'a', 'b', 3, 'c' }));
+        assertNull(ch.readInbound());
+        ch.writeInbound(Unpooled.wrappedBuffer(new byte[] { 'd' }));
+        assertNull(ch.readInbound());
+        ch.writeInbound(Unpooled.wrappedBuffer(new byte[] { 'e', 1 }));
+        assertEquals("ab:cde", ch.readInbound());
+        assertNull(ch.readInbound());
+        ch.writeInbound(Unpooled.wrappedBuffer(new byte[] { 'f', 0 }));
+        assertEquals("f:", ch.readInbound());
+        assertFalse(ch.finish());
+    }
+
+    @Test
+    public void testTruncatedInput() {
+        EmbeddedChannel ch = new EmbeddedChannel(new IntegerHeaderFrameDecoder());
+
+        ch.writeInbound(Unpooled.wrappedBuffer(new byte[] { 0, 0, 0, 8, 1, 2 }));
+        assertNull(ch.readInbound());
+        assertFalse(ch.finish());
+        assertNull(ch.readInbound());
+    }
+
+    @Test
+    public void testRemoveItself() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ResumableDecoder<Void>() {
+            private boolean removed;
+
+            @Override
+            protected void decode(ChannelHandlerContext ctx, Reader in, List<Object> out) {
+                assertFalse(removed);
+                in.readByte();
+                ctx.pipeline().remove(this);
+                removed = true;
+            }
+        });
+
+        ByteBuf buf = Unpooled.wrappedBuffer(new byte[] { 'a', 'b', 'c' });
+        channel.writeInbound(buf.copy());
+        ByteBuf b = (ByteBuf) channel.readInbound();
+        assertEquals(b, buf.skipBytes(1));
+        release(b);
+        release(buf);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeRequest() {
+        new ResumableDecoder.Reader().request(-1);
+    }
+
+    private static final class IntegerHeaderFrameDecoder extends ResumableDecoder<Void> {
+        int calls;
+
+        @Override
+        protected void decode(ChannelHandlerContext ctx, Reader in, List<Object> out) {
+            calls ++;
+            int length = in.readInt();
+            ByteBuf frame = in.readBytes(length);
+            if (in.isSuspended()) {
+                return;
+            }
+            out.add(frame);
+        }
+    }
+
+    private static final class StringPairDecoder extends ResumableDecoder<StringPairDecoder.State> {
+        private String first;
+
+        StringPairDecoder() {
+            super(State.FIRST);
+        }
+
+        @Override
+        protected void decode(ChannelHandlerContext ctx, Reader in, List<Object> out) {
+            switch (state()) {
+                case FIRST:
+                    first = in.readString(in.readUnsignedByte(), CharsetUtil.US_ASCII);
+                    if (in.isSuspended()) {
+                        return;
+                    }
+                    checkpoint(State.SECOND);
+                case SECOND:
+                    String second = in.readString(in.readUnsignedByte(), CharsetUtil.US_ASCII);
+                    if (in.isSuspended()) {
+                        return;
+                    }
+                    checkpoint(State.FIRST);
+                    out.add(first + ':' + second);
+            }
+        }
+
+        enum State {
+            FIRST,
+            SECOND
+        }
+    }
+}
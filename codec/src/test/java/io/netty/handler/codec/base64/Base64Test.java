@@ -0,0 +1,125 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.base64;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+import org.junit.Test;
+
+import javax.xml.bind.DatatypeConverter;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class Base64Test {
+
+    private static final Random random = new Random();
+
+    @Test
+    public void testEncodeDecode() {
+        for (int len = 0; len < 300; len ++) {
+            testEncodeDecode(len);
+        }
+        testEncodeDecode(65536);
+        testEncodeDecode(100000);
+    }
+
+    private static void testEncodeDecode(int len) {
+        byte[] data = new byte[len];
+        random.nextBytes(data);
+        String expected = DatatypeConverter.printBase64Binary(data);
+
+        for (boolean direct : new boolean[] { false, true }) {
+            ByteBuf src = buffer(data, direct);
+            ByteBuf encoded = Base64.encode(src, false);
+            assertEquals(expected, encoded.toString(CharsetUtil.US_ASCII));
+            assertFalse(src.isReadable());
+
+            ByteBuf decoded = Base64.decode(buffer(encoded, direct));
+            assertEquals(Unpooled.wrappedBuffer(data), decoded);
+            decoded.release();
+
+            // With line breaks.
+            src = buffer(data, direct);
+            encoded = Base64.encode(src, true);
+            String s = encoded.toString(CharsetUtil.US_ASCII);
+            assertEquals(expected, s.replace("\n", ""));
+            String[] lines = s.split("\n");
+            for (int i = 0; i < lines.length - 1; i ++) {
+                assertEquals(76, lines[i].length());
+            }
+            assertEquals(len / 3 / 19, s.length() - expected.length());
+
+            decoded = Base64.decode(buffer(encoded, direct));
+            assertEquals(Unpooled.wrappedBuffer(data), decoded);
+            decoded.release();
+        }
+    }
+
+    @Test
+    public void testUrlSafe() {
+        byte[] data = { (byte) 0xfb, (byte) 0xff, (byte) 0xbf, 0x3e };
+        ByteBuf encoded = Base64.encode(Unpooled.wrappedBuffer(data), Base64Dialect.URL_SAFE);
+        assertEquals("-_-_Pg==", encoded.toString(CharsetUtil.US_ASCII));
+        ByteBuf decoded = Base64.decode(encoded, Base64Dialect.URL_SAFE);
+        assertEquals(Unpooled.wrappedBuffer(data), decoded);
+        decoded.release();
+    }
+
+    @Test
+    public void testDecodeWhitespaceAndPadding() {
+        ByteBuf decoded = Base64.decode(Unpooled.copiedBuffer(" bmV0\r\ndH k=  trailing", CharsetUtil.US_ASCII));
+        assertEquals("netty", decoded.toString(CharsetUtil.US_ASCII));
+        decoded.release();
+
+        // Only the bytes which were given are decoded.
+        ByteBuf src = Unpooled.copiedBuffer("xxbmV0dHk=xx", CharsetUtil.US_ASCII);
+        decoded = Base64.decode(src, 2, 8);
+        assertEquals("netty", decoded.toString(CharsetUtil.US_ASCII));
+        decoded.release();
+    }
+
+    @Test
+    public void testByteOrder() {
+        ByteBuf src = Unpooled.wrappedBuffer(new byte[] { 1, 2, 3 }).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuf encoded = Base64.encode(src);
+        assertEquals(ByteOrder.LITTLE_ENDIAN, encoded.order());
+        ByteBuf decoded = Base64.decode(encoded);
+        assertEquals(ByteOrder.LITTLE_ENDIAN, decoded.order());
+        assertEquals(0x030201, decoded.getUnsignedMedium(0));
+        decoded.release();
+    }
+
+    @Test
+    public void testBadCharacter() {
+        try {
+            Base64.decode(Unpooled.copiedBuffer("bmV0d*Hk=", CharsetUtil.US_ASCII));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("bad Base64 input character at 5: 42 (decimal)", e.getMessage());
+        }
+    }
+
+    private static ByteBuf buffer(byte[] data, boolean direct) {
+        return direct ? Unpooled.directBuffer(data.length).writeBytes(data) : Unpooled.wrappedBuffer(data);
+    }
+
+    private static ByteBuf buffer(ByteBuf data, boolean direct) {
+        return direct ? Unpooled.directBuffer(data.readableBytes()).writeBytes(data) : data;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class Crc32cTest {
+
+    @Test
+    public void testCheckValue() {
+        byte[] data = "123456789".getBytes(CharsetUtil.US_ASCII);
+        Crc32c crc32c = new Crc32c();
+        crc32c.update(data, 0, data.length);
+        assertEquals(0xE3069283, (int) crc32c.getValue());
+    }
+
+    @Test
+    public void testBulkUpdateMatchesSingleByteUpdate() {
+        byte[] data = new byte[1024];
+        new Random().nextBytes(data);
+        ByteBuf direct = Unpooled.directBuffer(data.length).writeBytes(data);
+        try {
+            for (int offset = 0; offset < 9; offset ++) {
+                for (int length = 0; length < 100; length ++) {
+                    Crc32c expected = new Crc32c();
+                    for (int i = offset; i < offset + length; i ++) {
+                        expected.update(data[i]);
+                    }
+
+                    Crc32c array = new Crc32c();
+                    array.update(data, offset, length);
+                    assertEquals(expected.getValue(), array.getValue());
+
+                    Crc32c buffer = new Crc32c();
+                    buffer.update(direct, offset, length);
+                    assertEquals(expected.getValue(), buffer.getValue());
+                }
+            }
+        } finally {
+            direct.release();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.CharsetUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import static io.netty.util.ReferenceCountUtil.*;
+import static org.junit.Assert.*;
+
+public class Lz4FrameDecoderTest {
+
+    private static final byte[] EMPTY_FRAME = {
+        0x04, 0x22, 0x4D, 0x18, 0x64, 0x40, (byte) 0xA7,
+        0x00, 0x00, 0x00, 0x00,
+        0x05, 0x5D, (byte) 0xCC, 0x02
+    };
+
+    private EmbeddedChannel channel;
+
+    @Before
+    public void initChannel() {
+        channel = new EmbeddedChannel(new Lz4FrameDecoder(true));
+    }
+
+    @Test
+    public void testEmptyFrame() throws Exception {
+        assertFalse(channel.writeInbound(Unpooled.wrappedBuffer(EMPTY_FRAME)));
+        assertFalse(channel.finish());
+    }
+
+    @Test(expected = DecompressionException.class)
+    public void testInvalidMagic() throws Exception {
+        channel.writeInbound(Unpooled.wrappedBuffer(new byte[] { 0x04, 0x22, 0x4D, 0x19 }));
+    }
+
+    @Test(expected = DecompressionException.class)
+    public void testInvalidHeaderChecksum() throws Exception {
+        byte[] frame = EMPTY_FRAME.clone();
+        frame[6] ++;
+        channel.writeInbound(Unpooled.wrappedBuffer(frame));
+    }
+
+    @Test(expected = DecompressionException.class)
+    public void testInvalidContentChecksum() throws Exception {
+        byte[] frame = EMPTY_FRAME.clone();
+        frame[frame.length - 1] ++;
+        channel.writeInbound(Unpooled.wrappedBuffer(frame));
+    }
+
+    @Test
+    public void testSkippableFrame() throws Exception {
+        ByteBuf in = Unpooled.buffer();
+        in.writeBytes(new byte[] { 0x5A, 0x2A, 0x4D, 0x18, 0x03, 0x00, 0x00, 0x00, 1, 2, 3 });
+        in.writeBytes(EMPTY_FRAME);
+        assertFalse(channel.writeInbound(in));
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testLinkedBlocks() throws Exception {
+        byte[] descriptor = { 0x40, 0x40 };
+        ByteBuf in = Unpooled.buffer();
+        in.writeBytes(new byte[] { 0x04, 0x22, 0x4D, 0x18 });
+        in.writeBytes(descriptor);
+        in.writeByte(Lz4.headerChecksum(descriptor, descriptor.length));
+
+        // An uncompressed block followed by a compressed block which only refers to the first one.
+        in.writeBytes(new byte[] { 0x10, 0x00, 0x00, (byte) 0x80 });
+        in.writeBytes("0123456789abcdef".getBytes(CharsetUtil.US_ASCII));
+        in.writeBytes(new byte[] { 0x09, 0x00, 0x00, 0x00 });
+        in.writeBytes(new byte[] { 0x0C, 0x10, 0x00, 0x50, 'X', 'X', 'X', 'X', 'X' });
+        in.writeInt(0);
+
+        assertTrue(channel.writeInbound(in));
+        assertEquals(releaseLater(Unpooled.copiedBuffer("0123456789abcdef", CharsetUtil.US_ASCII)),
+                releaseLater(channel.readInbound()));
+        assertEquals(releaseLater(Unpooled.copiedBuffer("0123456789abcdefXXXXX", CharsetUtil.US_ASCII)),
+                releaseLater(channel.readInbound()));
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testEmptyUncompressedBlock() throws Exception {
+        byte[] descriptor = { 0x40, 0x40 };
+        ByteBuf in = Unpooled.buffer();
+        in.writeBytes(new byte[] { 0x04, 0x22, 0x4D, 0x18 });
+        in.writeBytes(descriptor);
+        in.writeByte(Lz4.headerChecksum(descriptor, descriptor.length));
+
+        // An empty uncompressed block must not produce an empty buffer.
+        in.writeBytes(new byte[] { 0x00, 0x00, 0x00, (byte) 0x80 });
+        in.writeBytes(new byte[] { 0x03, 0x00, 0x00, (byte) 0x80, 'a', 'b', 'c' });
+        in.writeInt(0);
+
+        assertTrue(channel.writeInbound(in));
+        assertEquals(releaseLater(Unpooled.copiedBuffer("abc", CharsetUtil.US_ASCII)),
+                releaseLater(channel.readInbound()));
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testInvalidMatchOffset() throws Exception {
+        byte[] descriptor = { 0x60, 0x40 };
+        ByteBuf in = Unpooled.buffer();
+        in.writeBytes(new byte[] { 0x04, 0x22, 0x4D, 0x18 });
+        in.writeBytes(descriptor);
+        in.writeByte(Lz4.headerChecksum(descriptor, descriptor.length));
+        in.writeBytes(new byte[] { 0x0A, 0x00, 0x00, 0x00 });
+        in.writeBytes(new byte[] { 0x10, 'a', 0x02, 0x00, 0x50, 'X', 'X', 'X', 'X', 'X' });
+
+        try {
+            channel.writeInbound(in);
+            fail();
+        } catch (DecompressionException expected) {
+            // expected
+        }
+
+        // Once corrupted, everything is discarded.
+        ByteBuf next = Unpooled.wrappedBuffer(EMPTY_FRAME);
+        assertFalse(channel.writeInbound(next));
+        assertFalse(next.isReadable());
+    }
+
+    @Test
+    public void testXxHash32() {
+        assertEquals(0x02CC5D05, XxHash32.hash(new byte[0], 0, 0, 0));
+        byte[] data = "Nobody inspects the spammish repetition".getBytes(CharsetUtil.US_ASCII);
+        assertEquals(0xE2293B2F, XxHash32.hash(data, 0, data.length, 0));
+
+        XxHash32 checksum = new XxHash32();
+        for (int i = 0; i < data.length; i += 3) {
+            checksum.update(data, i, Math.min(3, data.length - i));
+        }
+        assertEquals(0xE2293B2FL, checksum.getValue());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import static io.netty.util.ReferenceCountUtil.*;
+import static org.junit.Assert.*;
+
+public class Lz4FrameEncoderTest {
+
+    @Test
+    public void testEmptyFrame() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel(new Lz4FrameEncoder(1 << 16, false, true));
+        assertTrue(channel.finish());
+
+        // The same frame as written by the lz4 command line tool for empty input.
+        ByteBuf expected = Unpooled.wrappedBuffer(new byte[] {
+            0x04, 0x22, 0x4D, 0x18, 0x64, 0x40, (byte) 0xA7,
+            0x00, 0x00, 0x00, 0x00,
+            0x05, 0x5D, (byte) 0xCC, 0x02
+        });
+        assertEquals(releaseLater(expected), releaseLater(channel.readOutbound()));
+        assertNull(channel.readOutbound());
+    }
+
+    @Test
+    public void testSmallAmountOfDataIsUncompressed() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel(new Lz4FrameEncoder());
+        channel.writeOutbound(Unpooled.wrappedBuffer(new byte[] { 'n', 'e', 't', 't', 'y' }));
+        assertTrue(channel.finish());
+
+        ByteBuf out = releaseLater((ByteBuf) channel.readOutbound());
+        // Skip the magic number and the frame descriptor.
+        out.skipBytes(7);
+        assertEquals(0x80000005, ByteBufUtil.swapInt(out.readInt()));
+        assertEquals(Unpooled.wrappedBuffer(new byte[] { 'n', 'e', 't', 't', 'y' }), out);
+
+        // EndMark
+        assertEquals(releaseLater(Unpooled.wrappedBuffer(new byte[4])), releaseLater(channel.readOutbound()));
+    }
+
+    @Test
+    public void testLargeAmountOfDataIsCompressedInBlocks() throws Exception {
+        final int blockSize = 1 << 16;
+        EmbeddedChannel channel = new EmbeddedChannel(new Lz4FrameEncoder(blockSize, true, false));
+        byte[] data = new byte[blockSize * 3];
+        for (int i = 0; i < data.length; i ++) {
+            data[i] = (byte) (i % 100);
+        }
+        channel.writeOutbound(Unpooled.wrappedBuffer(data));
+        assertTrue(channel.finish());
+
+        ByteBuf out = releaseLater((ByteBuf) channel.readOutbound());
+        out.skipBytes(7);
+        int blocks = 0;
+        while (out.isReadable()) {
+            int size = ByteBufUtil.swapInt(out.readInt());
+            assertEquals(0, size & 0x80000000);
+            assertTrue(size < blockSize / 10);
+            out.skipBytes(size + 4);
+            blocks ++;
+        }
+        assertEquals(3, blocks);
+    }
+
+    @Test
+    public void testDataAfterCloseIsPassedThrough() throws Exception {
+        Lz4FrameEncoder encoder = new Lz4FrameEncoder();
+        EmbeddedChannel channel = new EmbeddedChannel(encoder);
+        assertTrue(encoder.close().isSuccess());
+        assertTrue(encoder.isClosed());
+        releaseLater(channel.readOutbound());
+
+        ByteBuf data = Unpooled.wrappedBuffer(new byte[] { 'n', 'e', 't', 't', 'y' });
+        channel.writeOutbound(data.copy());
+        assertEquals(releaseLater(data), releaseLater(channel.readOutbound()));
+        assertFalse(channel.finish());
+    }
+}
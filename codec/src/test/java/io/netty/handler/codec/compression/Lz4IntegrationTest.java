@@ -0,0 +1,141 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.CharsetUtil;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static io.netty.buffer.Unpooled.*;
+import static org.junit.Assert.*;
+
+public class Lz4IntegrationTest {
+
+    private static final Random rnd = new Random();
+
+    @Test
+    public void testText() throws Exception {
+        testIdentity(copiedBuffer(
+                "Netty has been designed carefully with the experiences earned from the implementation of a lot of " +
+                        "protocols such as FTP, SMTP, HTTP, and various binary and text-based legacy protocols",
+                CharsetUtil.US_ASCII), new Lz4FrameEncoder());
+    }
+
+    @Test
+    public void testRandom() throws Exception {
+        byte[] data = new byte[4 * 1048576];
+        rnd.nextBytes(data);
+        testIdentity(wrappedBuffer(data), new Lz4FrameEncoder());
+    }
+
+    @Test
+    public void testCompressible() throws Exception {
+        testIdentity(wrappedBuffer(compressibleData(4 * 1048576)), new Lz4FrameEncoder(1 << 20, true, true));
+    }
+
+    @Test
+    public void testDirectBuffer() throws Exception {
+        byte[] data = compressibleData(300000);
+        ByteBuf in = directBuffer(data.length);
+        in.writeBytes(data);
+        testIdentity(in, new Lz4FrameEncoder(100000, true, true));
+    }
+
+    @Test
+    public void testSmallBlocks() throws Exception {
+        for (int length = 0; length < 100; length ++) {
+            testIdentity(wrappedBuffer(compressibleData(length)), new Lz4FrameEncoder(1 << 16, true, true));
+        }
+    }
+
+    /**
+     * Returns data which repeats a random pattern with random variations, so it is compressible but still contains
+     * matches of various lengths and offsets.
+     */
+    private static byte[] compressibleData(int length) {
+        byte[] data = new byte[length];
+        byte[] pattern = new byte[1 + rnd.nextInt(512)];
+        rnd.nextBytes(pattern);
+        for (int i = 0; i < length; i ++) {
+            data[i] = rnd.nextInt(16) == 0 ? (byte) rnd.nextInt() : pattern[i % pattern.length];
+        }
+        return data;
+    }
+
+    private static void testIdentity(ByteBuf in, Lz4FrameEncoder encoder) {
+        EmbeddedChannel encoderChannel = new EmbeddedChannel(encoder);
+        EmbeddedChannel decoderChannel = new EmbeddedChannel(new Lz4FrameDecoder(true));
+        try {
+            encoderChannel.writeOutbound(in.copy());
+            encoderChannel.finish();
+
+            CompositeByteBuf compressed = compositeBuffer(Integer.MAX_VALUE);
+            for (;;) {
+                ByteBuf msg = encoderChannel.readOutbound();
+                if (msg == null) {
+                    break;
+                }
+                compressed.addComponent(msg);
+                compressed.writerIndex(compressed.writerIndex() + msg.readableBytes());
+            }
+
+            // Feed the decoder in random fragments to test the streaming.
+            while (compressed.isReadable()) {
+                int length = Math.min(compressed.readableBytes(), 1 + rnd.nextInt(100000));
+                decoderChannel.writeInbound(compressed.readBytes(length));
+            }
+            compressed.release();
+            decoderChannel.finish();
+
+            CompositeByteBuf decompressed = compositeBuffer(Integer.MAX_VALUE);
+            for (;;) {
+                ByteBuf msg = decoderChannel.readInbound();
+                if (msg == null) {
+                    break;
+                }
+                decompressed.addComponent(msg);
+                decompressed.writerIndex(decompressed.writerIndex() + msg.readableBytes());
+            }
+            assertEquals(in, decompressed);
+            decompressed.release();
+            in.release();
+        } finally {
+            encoderChannel.close();
+            decoderChannel.close();
+
+            for (;;) {
+                Object msg = encoderChannel.readOutbound();
+                if (msg == null) {
+                    break;
+                }
+                ReferenceCountUtil.release(msg);
+            }
+
+            for (;;) {
+                Object msg = decoderChannel.readInbound();
+                if (msg == null) {
+                    break;
+                }
+                ReferenceCountUtil.release(msg);
+            }
+        }
+    }
+}
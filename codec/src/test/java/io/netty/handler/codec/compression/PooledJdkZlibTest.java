@@ -0,0 +1,93 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.CharsetUtil;
+import org.junit.Test;
+
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the {@link ZlibTest}s with codecs which take their {@link Deflater}s and {@link Inflater}s from the
+ * {@link JdkZlibPool}, so every test also verifies that the pooled instances were reset properly.
+ */
+public class PooledJdkZlibTest extends ZlibTest {
+
+    @Override
+    protected ZlibEncoder createEncoder(ZlibWrapper wrapper) {
+        return new JdkZlibEncoder(wrapper, 6, true);
+    }
+
+    @Override
+    protected ZlibDecoder createDecoder(ZlibWrapper wrapper) {
+        return new JdkZlibDecoder(wrapper, null, true);
+    }
+
+    @Test(expected = DecompressionException.class)
+    public void testZLIB_OR_NONE3() throws Exception {
+        super.testZLIB_OR_NONE3();
+    }
+
+    @Test
+    public void testReleasedInstancesAreReused() {
+        Deflater deflater = JdkZlibPool.acquireDeflater(6, true);
+        JdkZlibPool.releaseDeflater(deflater, true);
+        assertSame(deflater, JdkZlibPool.acquireDeflater(1, true));
+        assertNotSame(deflater, JdkZlibPool.acquireDeflater(6, true));
+        JdkZlibPool.releaseDeflater(deflater, true);
+        assertNotSame(deflater, JdkZlibPool.acquireDeflater(6, false));
+
+        Inflater inflater = JdkZlibPool.acquireInflater(false);
+        JdkZlibPool.releaseInflater(inflater, false);
+        assertSame(inflater, JdkZlibPool.acquireInflater(false));
+    }
+
+    @Test
+    public void testEncoderReleasesDeflaterOnClose() {
+        ByteBuf data = Unpooled.copiedBuffer("netty netty netty netty netty", CharsetUtil.US_ASCII);
+        EmbeddedChannel channel = new EmbeddedChannel(new JdkZlibEncoder(ZlibWrapper.GZIP, 6, true));
+        channel.writeOutbound(data.copy());
+        assertTrue(channel.finish());
+
+        EmbeddedChannel decoder = new EmbeddedChannel(new JdkZlibDecoder(ZlibWrapper.GZIP, null, true));
+        for (;;) {
+            ByteBuf buf = channel.readOutbound();
+            if (buf == null) {
+                break;
+            }
+            decoder.writeInbound(buf);
+        }
+        assertTrue(decoder.finish());
+        ByteBuf decoded = decoder.readInbound();
+        assertEquals(data, decoded);
+        decoded.release();
+        data.release();
+
+        // Both the Deflater and the Inflater were returned to the pool of this thread.
+        Deflater deflater = JdkZlibPool.acquireDeflater(6, true);
+        Inflater inflater = JdkZlibPool.acquireInflater(true);
+        assertEquals(0, deflater.getBytesRead());
+        assertEquals(0, inflater.getBytesRead());
+        JdkZlibPool.releaseDeflater(deflater, true);
+        JdkZlibPool.releaseInflater(inflater, true);
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.CharsetUtil;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Adler32;
+
+import static org.junit.Assert.*;
+
+public class PresetDictionaryTest {
+
+    private static final PresetDictionary DICTIONARY = new PresetDictionary((
+            "{\"id\":,\"type\":\"order\",\"status\":\"pending\",\"customer\":{\"name\":\"\",\"email\":\"\"}," +
+            "\"items\":[{\"sku\":\"\",\"quantity\":,\"price\":}],\"currency\":\"EUR\",\"createdAt\":\"2014-")
+            .getBytes(CharsetUtil.US_ASCII));
+
+    private static final byte[] MESSAGE = (
+            "{\"id\":4711,\"type\":\"order\",\"status\":\"pending\",\"customer\":{\"name\":\"Jane Doe\"," +
+            "\"email\":\"jane@example.com\"},\"items\":[{\"sku\":\"A-42\",\"quantity\":3,\"price\":9.99}]," +
+            "\"currency\":\"EUR\",\"createdAt\":\"2014-06-01T12:00:00Z\"}").getBytes(CharsetUtil.US_ASCII);
+
+    @Test
+    public void testIdIsAdler32() {
+        Adler32 adler = new Adler32();
+        adler.update(DICTIONARY.content());
+        assertEquals((int) adler.getValue(), DICTIONARY.id());
+    }
+
+    @Test
+    public void testRegistry() throws Exception {
+        File file = File.createTempFile("netty-", ".dict");
+        file.deleteOnExit();
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(DICTIONARY.content());
+        } finally {
+            out.close();
+        }
+
+        PresetDictionaryRegistry registry = new PresetDictionaryRegistry();
+        PresetDictionary loaded = registry.register(file);
+        assertEquals(DICTIONARY, loaded);
+        assertSame(loaded, registry.register(DICTIONARY));
+        assertSame(loaded, registry.get(DICTIONARY.id()));
+        assertNull(registry.get(DICTIONARY.id() + 1));
+        assertSame(loaded, registry.unregister(DICTIONARY.id()));
+        assertNull(registry.get(DICTIONARY.id()));
+    }
+
+    @Test
+    public void testJdkZlib() throws Exception {
+        testZlib(new JdkZlibDecoder(registry()));
+    }
+
+    @Test
+    public void testJZlib() throws Exception {
+        testZlib(new JZlibDecoder(registry()));
+    }
+
+    private static void testZlib(ZlibDecoder decoder) {
+        ByteBuf compressed = encode(new JdkZlibEncoder(6, DICTIONARY.content()));
+        ByteBuf plain = encode(new JdkZlibEncoder(ZlibWrapper.ZLIB, 6));
+        assertTrue(compressed.readableBytes() < plain.readableBytes());
+        plain.release();
+        assertDecoded(decoder, compressed);
+    }
+
+    @Test(expected = DecompressionException.class)
+    public void testJdkZlibUnknownDictionary() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel(new JdkZlibDecoder(new PresetDictionaryRegistry()));
+        channel.writeInbound(encode(new JdkZlibEncoder(6, DICTIONARY.content())));
+    }
+
+    @Test
+    public void testLz4() throws Exception {
+        ByteBuf compressed = encode(new Lz4FrameEncoder(1 << 16, true, true, DICTIONARY));
+        ByteBuf plain = encode(new Lz4FrameEncoder(1 << 16, true, true));
+        assertTrue(compressed.readableBytes() < plain.readableBytes());
+        plain.release();
+        assertDecoded(new Lz4FrameDecoder(true, registry()), compressed);
+    }
+
+    @Test
+    public void testLz4SmallBlocks() throws Exception {
+        // Every block refers to the dictionary on its own.
+        assertDecoded(new Lz4FrameDecoder(true, registry()), encode(new Lz4FrameEncoder(64, true, true, DICTIONARY)));
+    }
+
+    @Test
+    public void testLz4LinkedBlocks() throws Exception {
+        // Only the first of the linked blocks refers to the dictionary, the second one may refer to the first.
+        byte[] dictionary = DICTIONARY.content();
+        byte[] first = Arrays.copyOf(MESSAGE, 100);
+        byte[] second = Arrays.copyOfRange(MESSAGE, 100, MESSAGE.length);
+
+        Lz4 lz4 = new Lz4();
+        byte[] window = new byte[dictionary.length + first.length];
+        System.arraycopy(dictionary, 0, window, 0, dictionary.length);
+        System.arraycopy(first, 0, window, dictionary.length, first.length);
+        lz4.loadDictionary(window, dictionary.length);
+        byte[] block = new byte[Lz4.maxCompressedLength(first.length)];
+        int blockLength = lz4.compressWithDictionary(window, first.length, block, 0);
+
+        int id = DICTIONARY.id();
+        byte[] descriptor = {
+                (byte) (Lz4.VERSION << 6 | Lz4.FLAG_DICT_ID), 0x40,
+                (byte) id, (byte) (id >>> 8), (byte) (id >>> 16), (byte) (id >>> 24) };
+        ByteBuf frame = Unpooled.buffer();
+        frame.writeInt(ByteBufUtil.swapInt(Lz4.MAGIC));
+        frame.writeBytes(descriptor);
+        frame.writeByte(Lz4.headerChecksum(descriptor, descriptor.length));
+        frame.writeInt(ByteBufUtil.swapInt(blockLength));
+        frame.writeBytes(block, 0, blockLength);
+        frame.writeInt(ByteBufUtil.swapInt(second.length | Lz4.UNCOMPRESSED_FLAG));
+        frame.writeBytes(second);
+        frame.writeInt(0);
+
+        assertDecoded(new Lz4FrameDecoder(true, registry()), frame);
+    }
+
+    @Test(expected = DecompressionException.class)
+    public void testLz4UnknownDictionary() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel(new Lz4FrameDecoder(true, new PresetDictionaryRegistry()));
+        channel.writeInbound(encode(new Lz4FrameEncoder(1 << 16, false, false, DICTIONARY)));
+    }
+
+    private static PresetDictionaryRegistry registry() {
+        PresetDictionaryRegistry registry = new PresetDictionaryRegistry();
+        registry.register(new PresetDictionary("unrelated".getBytes(CharsetUtil.US_ASCII)));
+        registry.register(DICTIONARY);
+        return registry;
+    }
+
+    private static ByteBuf encode(ChannelHandler encoder) {
+        EmbeddedChannel channel = new EmbeddedChannel(encoder);
+        channel.writeOutbound(Unpooled.wrappedBuffer(MESSAGE));
+        channel.finish();
+        return readAll(channel, false);
+    }
+
+    private static void assertDecoded(ChannelHandler decoder, ByteBuf compressed) {
+        EmbeddedChannel channel = new EmbeddedChannel(decoder);
+        channel.writeInbound(compressed);
+        channel.finish();
+        ByteBuf decoded = readAll(channel, true);
+        assertEquals(Unpooled.wrappedBuffer(MESSAGE), decoded);
+        decoded.release();
+    }
+
+    private static ByteBuf readAll(EmbeddedChannel channel, boolean inbound) {
+        CompositeByteBuf all = Unpooled.compositeBuffer();
+        for (;;) {
+            Object msg = inbound ? channel.readInbound() : channel.readOutbound();
+            if (msg == null) {
+                break;
+            }
+            all.addComponent((ByteBuf) msg);
+            all.writerIndex(all.writerIndex() + ((ByteBuf) msg).readableBytes());
+        }
+        return all;
+    }
+}
@@ -170,6 +170,34 @@ public class SnappyTest {
         assertEquals("Encoded result was incorrect", expected, out);
     }
 
+    @Test
+    public void encodeReusesHashTableAndAcceptsDirectBuffers() throws Exception {
+        byte[] data = new byte[20000];
+        for (int i = 0; i < data.length; i ++) {
+            data[i] = (byte) (i % 251 * (i % 7));
+        }
+
+        ByteBuf expected = Unpooled.buffer();
+        snappy.encode(Unpooled.wrappedBuffer(data), expected, data.length);
+
+        // The second call must not see the hash table entries of the first one.
+        ByteBuf heapOut = Unpooled.buffer();
+        snappy.encode(Unpooled.wrappedBuffer(data), heapOut, data.length);
+        assertEquals(expected, heapOut);
+
+        ByteBuf direct = Unpooled.directBuffer(data.length).writeBytes(data);
+        ByteBuf directOut = Unpooled.buffer();
+        snappy.encode(direct, directOut, data.length);
+        assertFalse(direct.isReadable());
+        assertEquals(expected, directOut);
+
+        ByteBuf decoded = Unpooled.buffer();
+        snappy.decode(expected, decoded);
+        assertEquals(Unpooled.wrappedBuffer(data), decoded);
+
+        direct.release();
+    }
+
     @Test
     public void testCalculateChecksum() {
         ByteBuf input = Unpooled.wrappedBuffer(new byte[] {
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.protobuf;
+
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Before;
+import org.junit.Test;
+
+import static io.netty.buffer.Unpooled.*;
+import static org.junit.Assert.*;
+
+public class ProtobufDecoderTest {
+
+    private EmbeddedChannel ch;
+
+    @Before
+    public void setUp() {
+        ch = new EmbeddedChannel(new ProtobufDecoder(FileDescriptorProto.getDefaultInstance()));
+    }
+
+    static FileDescriptorProto newMessage(int types) {
+        FileDescriptorProto.Builder builder = FileDescriptorProto.newBuilder().setName("netty.proto");
+        for (int i = 0; i < types; i ++) {
+            builder.addMessageType(DescriptorProto.newBuilder().setName("Type" + i));
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void testHeapBuffer() {
+        FileDescriptorProto msg = newMessage(10);
+        ch.writeInbound(wrappedBuffer(msg.toByteArray()));
+        assertEquals(msg, ch.readInbound());
+    }
+
+    @Test
+    public void testDirectBuffer() {
+        // Smaller and larger than the thread-local array.
+        for (int types : new int[] { 0, 10, 100, 5000 }) {
+            FileDescriptorProto msg = newMessage(types);
+            byte[] data = msg.toByteArray();
+            ByteBuf buf = directBuffer(data.length);
+            buf.writeBytes(data);
+            ch.writeInbound(buf);
+            assertEquals(msg, ch.readInbound());
+            assertEquals(0, buf.refCnt());
+        }
+    }
+
+    @Test
+    public void testCompositeBuffer() {
+        for (int types : new int[] { 10, 5000 }) {
+            FileDescriptorProto msg = newMessage(types);
+            byte[] data = msg.toByteArray();
+            int half = data.length / 2;
+            ByteBuf direct = directBuffer(data.length - half);
+            direct.writeBytes(data, half, data.length - half);
+            CompositeByteBuf buf = compositeBuffer();
+            buf.addComponent(wrappedBuffer(data, 0, half));
+            buf.addComponent(direct);
+            buf.writerIndex(data.length);
+            ch.writeInbound(buf);
+            assertEquals(msg, ch.readInbound());
+        }
+    }
+
+    @Test
+    public void testSlice() {
+        FileDescriptorProto msg = newMessage(10);
+        byte[] data = msg.toByteArray();
+        ByteBuf buf = directBuffer(data.length + 8);
+        buf.writeLong(0);
+        buf.writeBytes(data);
+        buf.skipBytes(8);
+        ch.writeInbound(buf.slice());
+        assertEquals(msg, ch.readInbound());
+    }
+}
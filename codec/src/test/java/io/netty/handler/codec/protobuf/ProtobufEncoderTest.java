@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.codec.protobuf;
+
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import static io.netty.buffer.Unpooled.*;
+import static org.junit.Assert.*;
+
+public class ProtobufEncoderTest {
+
+    @Test
+    public void testHeapBuffer() {
+        testEncode(new UnpooledByteBufAllocator(false));
+    }
+
+    @Test
+    public void testDirectBuffer() {
+        testEncode(new UnpooledByteBufAllocator(true));
+    }
+
+    private static void testEncode(ByteBufAllocator alloc) {
+        EmbeddedChannel ch = new EmbeddedChannel(new ProtobufEncoder());
+        ch.config().setOption(ChannelOption.ALLOCATOR, alloc);
+        for (int types : new int[] { 0, 10, 5000 }) {
+            FileDescriptorProto msg = ProtobufDecoderTest.newMessage(types);
+            ch.writeOutbound(msg);
+            ByteBuf buf = (ByteBuf) ch.readOutbound();
+            assertEquals(msg.getSerializedSize(), buf.capacity());
+            assertEquals(wrappedBuffer(msg.toByteArray()), buf);
+            buf.release();
+
+            ch.writeOutbound(msg.toBuilder());
+            buf = (ByteBuf) ch.readOutbound();
+            assertEquals(wrappedBuffer(msg.toByteArray()), buf);
+            buf.release();
+        }
+        assertFalse(ch.finish());
+    }
+}
@@ -17,6 +17,8 @@ package io.netty.handler.codec.protobuf;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.TooLongFrameException;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -63,4 +65,15 @@ public class ProtobufVarint32FrameDecoderTest {
         ch.writeInbound(wrappedBuffer(b, 727, b.length - 727));
         assertThat(releaseLater((ByteBuf) ch.readInbound()), is(releaseLater(wrappedBuffer(b, 2, b.length - 2))));
     }
+
+    @Test(expected = CorruptedFrameException.class)
+    public void testLengthWiderThan32Bit() {
+        ch.writeInbound(wrappedBuffer(new byte[] { -1, -1, -1, -1, -1, 1 }));
+    }
+
+    @Test(expected = TooLongFrameException.class)
+    public void testMaxFrameLength() {
+        ch = new EmbeddedChannel(new ProtobufVarint32FrameDecoder(128));
+        ch.writeInbound(wrappedBuffer(new byte[] { -2, 15 }));
+    }
 }
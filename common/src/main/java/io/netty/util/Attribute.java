@@ -49,8 +49,9 @@ public interface Attribute<T> {
     T setIfAbsent(T value);
 
     /**
-     * Removes this attribute from the {@link AttributeMap} and returns the old value..  Subsequent {@link #get()}
-     * calls will return @{code null}.
+     * Clears the value of this attribute and returns the old value.  Subsequent {@link #get()} calls will return
+     * {@code null}.  The attribute itself stays in its {@link AttributeMap}, so a later
+     * {@link AttributeMap#attr(AttributeKey)} call with the same {@link AttributeKey} returns this same instance.
      */
     T getAndRemove();
 
@@ -61,7 +62,9 @@ public interface Attribute<T> {
     boolean compareAndSet(T oldValue, T newValue);
 
     /**
-     * Removes this attribute from the {@link AttributeMap}.  Subsequent {@link #get()} calls will return @{code null}.
+     * Clears the value of this attribute.  Subsequent {@link #get()} calls will return {@code null}.  The attribute
+     * itself stays in its {@link AttributeMap}, so a later {@link AttributeMap#attr(AttributeKey)} call with the same
+     * {@link AttributeKey} returns this same instance.
      */
     void remove();
 }
@@ -17,53 +17,87 @@ package io.netty.util;
 
 import io.netty.util.internal.PlatformDependent;
 
-import java.util.IdentityHashMap;
-import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
- * Default {@link AttributeMap} implementation which use simple synchronization to keep the memory overhead
- * as low as possible.
+ * Default {@link AttributeMap} implementation which is lock-free and keeps the memory overhead as low as possible.
+ * <p>
+ * The {@link Attribute}s are stored in a small array which is indexed by the {@link AttributeKey#id()}, so the first
+ * {@link AttributeKey}s which were created, like the ones in {@code static} fields, have a slot of their own.
+ * {@link AttributeKey}s whose ids map to the same slot are chained in an append-only list.  An {@link Attribute} is
+ * never taken out of its map, so {@link Attribute#remove()} only clears its value and {@link #attr(AttributeKey)}
+ * keeps returning the same {@link Attribute} for the same {@link AttributeKey}.
  */
 public class DefaultAttributeMap implements AttributeMap {
 
+    private static final int BUCKET_SIZE = 16;
+    private static final int MASK = BUCKET_SIZE - 1;
+
     @SuppressWarnings("rawtypes")
-    private static final AtomicReferenceFieldUpdater<DefaultAttributeMap, Map> updater;
+    private static final AtomicReferenceFieldUpdater<DefaultAttributeMap, AtomicReferenceArray> updater;
 
     static {
         @SuppressWarnings("rawtypes")
-        AtomicReferenceFieldUpdater<DefaultAttributeMap, Map> referenceFieldUpdater =
-                PlatformDependent.newAtomicReferenceFieldUpdater(DefaultAttributeMap.class, "map");
+        AtomicReferenceFieldUpdater<DefaultAttributeMap, AtomicReferenceArray> referenceFieldUpdater =
+                PlatformDependent.newAtomicReferenceFieldUpdater(DefaultAttributeMap.class, "attributes");
         if (referenceFieldUpdater == null) {
-            referenceFieldUpdater = AtomicReferenceFieldUpdater.newUpdater(DefaultAttributeMap.class, Map.class, "map");
+            referenceFieldUpdater = AtomicReferenceFieldUpdater.newUpdater(
+                    DefaultAttributeMap.class, AtomicReferenceArray.class, "attributes");
         }
         updater = referenceFieldUpdater;
     }
 
     // Initialize lazily to reduce memory consumption; updated by AtomicReferenceFieldUpdater above.
     @SuppressWarnings("UnusedDeclaration")
-    private volatile Map<AttributeKey<?>, Attribute<?>> map;
+    private volatile AtomicReferenceArray<DefaultAttribute<?>> attributes;
 
+    @SuppressWarnings("unchecked")
     @Override
     public <T> Attribute<T> attr(AttributeKey<T> key) {
-        Map<AttributeKey<?>, Attribute<?>> map = this.map;
-        if (map == null) {
-            // Not using ConcurrentHashMap due to high memory consumption.
-            map = new IdentityHashMap<AttributeKey<?>, Attribute<?>>(2);
-            if (!updater.compareAndSet(this, null, map)) {
-                map = this.map;
+        if (key == null) {
+            throw new NullPointerException("key");
+        }
+
+        AtomicReferenceArray<DefaultAttribute<?>> attributes = this.attributes;
+        if (attributes == null) {
+            // A fixed array of slots whose collisions are chained lock-free, which is much smaller than a
+            // ConcurrentHashMap for the few attributes a map usually holds.
+            attributes = new AtomicReferenceArray<DefaultAttribute<?>>(BUCKET_SIZE);
+            if (!updater.compareAndSet(this, null, attributes)) {
+                attributes = this.attributes;
             }
         }
 
-        synchronized (map) {
-            @SuppressWarnings("unchecked")
-            Attribute<T> attr = (Attribute<T>) map.get(key);
-            if (attr == null) {
-                attr = new DefaultAttribute<T>(map, key);
-                map.put(key, attr);
+        int i = key.id() & MASK;
+        DefaultAttribute<?> attr = attributes.get(i);
+        if (attr == null) {
+            DefaultAttribute<T> newAttr = new DefaultAttribute<T>(key);
+            if (attributes.compareAndSet(i, null, newAttr)) {
+                return newAttr;
+            }
+            attr = attributes.get(i);
+        }
+
+        DefaultAttribute<T> newAttr = null;
+        for (;;) {
+            if (attr.key == key) {
+                return (Attribute<T>) attr;
+            }
+
+            DefaultAttribute<?> next = attr.next;
+            if (next == null) {
+                if (newAttr == null) {
+                    newAttr = new DefaultAttribute<T>(key);
+                }
+                if (DefaultAttribute.NEXT_UPDATER.compareAndSet(attr, null, newAttr)) {
+                    return newAttr;
+                }
+                // Another attribute was appended in the meantime, which may be the one for the same key.
+                next = attr.next;
             }
-            return attr;
+            attr = next;
         }
     }
 
@@ -71,11 +105,26 @@ public class DefaultAttributeMap implements AttributeMap {
 
         private static final long serialVersionUID = -2661411462200283011L;
 
-        private final Map<AttributeKey<?>, Attribute<?>> map;
-        private final AttributeKey<T> key;
+        @SuppressWarnings("rawtypes")
+        static final AtomicReferenceFieldUpdater<DefaultAttribute, DefaultAttribute> NEXT_UPDATER;
+
+        static {
+            @SuppressWarnings("rawtypes")
+            AtomicReferenceFieldUpdater<DefaultAttribute, DefaultAttribute> nextUpdater =
+                    PlatformDependent.newAtomicReferenceFieldUpdater(DefaultAttribute.class, "next");
+            if (nextUpdater == null) {
+                nextUpdater = AtomicReferenceFieldUpdater.newUpdater(
+                        DefaultAttribute.class, DefaultAttribute.class, "next");
+            }
+            NEXT_UPDATER = nextUpdater;
+        }
+
+        final AttributeKey<T> key;
 
-        DefaultAttribute(Map<AttributeKey<?>, Attribute<?>> map, AttributeKey<T> key) {
-            this.map = map;
+        // The next attribute in the same slot; appended once by NEXT_UPDATER and never changed after that.
+        volatile DefaultAttribute<?> next;
+
+        DefaultAttribute(AttributeKey<T> key) {
             this.key = key;
         }
 
@@ -97,21 +146,12 @@ public class DefaultAttributeMap implements AttributeMap {
 
         @Override
         public T getAndRemove() {
-            T oldValue = getAndSet(null);
-            remove0();
-            return oldValue;
+            return getAndSet(null);
         }
 
         @Override
         public void remove() {
             set(null);
-            remove0();
-        }
-
-        private void remove0() {
-            synchronized (map) {
-                map.remove(key);
-            }
         }
     }
 }
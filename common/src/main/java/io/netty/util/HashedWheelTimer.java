@@ -20,19 +20,18 @@ import io.netty.util.internal.StringUtil;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.List;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A {@link Timer} optimized for approximated I/O timeout scheduling.
@@ -58,6 +57,15 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * (i.e. the size of the wheel) is 512.  You could specify a larger value
  * if you are going to schedule a lot of timeouts.
  *
+ * <h3>Pending Timeouts</h3>
+ *
+ * New and cancelled timeouts are handed to the worker thread via lock-free queues
+ * and every slot of the wheel is a doubly linked list, so neither
+ * {@link #newTimeout(TimerTask, long, TimeUnit)} nor {@link Timeout#cancel()}
+ * need to take a lock or hash anything.  The number of timeouts which were
+ * not expired or cancelled yet can be obtained via {@link #pendingTimeouts()}
+ * and may be bounded by specifying {@code maxPendingTimeouts} in the constructor.
+ *
  * <h3>Do not create many instances.</h3>
  *
  * {@link HashedWheelTimer} creates a new thread whenever it is instantiated and
@@ -80,6 +88,17 @@ public class HashedWheelTimer implements Timer {
     static final InternalLogger logger =
             InternalLoggerFactory.getInstance(HashedWheelTimer.class);
 
+    private static final AtomicIntegerFieldUpdater<HashedWheelTimeout> STATE_UPDATER;
+
+    static {
+        AtomicIntegerFieldUpdater<HashedWheelTimeout> updater =
+                PlatformDependent.newAtomicIntegerFieldUpdater(HashedWheelTimeout.class, "state");
+        if (updater == null) {
+            updater = AtomicIntegerFieldUpdater.newUpdater(HashedWheelTimeout.class, "state");
+        }
+        STATE_UPDATER = updater;
+    }
+
     private static final ResourceLeakDetector<HashedWheelTimer> leakDetector =
             new ResourceLeakDetector<HashedWheelTimer>(
                     HashedWheelTimer.class, 1, Runtime.getRuntime().availableProcessors() * 4);
@@ -94,12 +113,14 @@ public class HashedWheelTimer implements Timer {
     final AtomicInteger workerState = new AtomicInteger(); // 0 - init, 1 - started, 2 - shut down
 
     final long tickDuration;
-    final Set<HashedWheelTimeout>[] wheel;
+    final HashedWheelBucket[] wheel;
     final int mask;
-    final ReadWriteLock lock = new ReentrantReadWriteLock();
     final CountDownLatch startTimeInitialized = new CountDownLatch(1);
+    final Queue<HashedWheelTimeout> timeouts = PlatformDependent.newMpscQueue();
+    final Queue<HashedWheelTimeout> cancelledTimeouts = PlatformDependent.newMpscQueue();
+    final AtomicLong pendingTimeouts = new AtomicLong();
+    final long maxPendingTimeouts;
     volatile long startTime;
-    volatile long tick;
 
     /**
      * Creates a new timer with the default thread factory
@@ -182,6 +203,28 @@ public class HashedWheelTimer implements Timer {
     public HashedWheelTimer(
             ThreadFactory threadFactory,
             long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        this(threadFactory, tickDuration, unit, ticksPerWheel, 0);
+    }
+
+    /**
+     * Creates a new timer.
+     *
+     * @param threadFactory       a {@link ThreadFactory} that creates a
+     *                            background {@link Thread} which is dedicated to
+     *                            {@link TimerTask} execution.
+     * @param tickDuration        the duration between tick
+     * @param unit                the time unit of the {@code tickDuration}
+     * @param ticksPerWheel       the size of the wheel
+     * @param maxPendingTimeouts  the maximum number of pending timeouts after which
+     *                            {@link #newTimeout(TimerTask, long, TimeUnit)} will
+     *                            throw a {@link RejectedExecutionException}.
+     *                            A value of {@code 0} or less means unbounded.
+     * @throws NullPointerException     if either of {@code threadFactory} and {@code unit} is {@code null}
+     * @throws IllegalArgumentException if either of {@code tickDuration} and {@code ticksPerWheel} is <= 0
+     */
+    public HashedWheelTimer(
+            ThreadFactory threadFactory,
+            long tickDuration, TimeUnit unit, int ticksPerWheel, long maxPendingTimeouts) {
 
         if (threadFactory == null) {
             throw new NullPointerException("threadFactory");
@@ -210,12 +253,12 @@ public class HashedWheelTimer implements Timer {
                     tickDuration, Long.MAX_VALUE / wheel.length));
         }
 
+        this.maxPendingTimeouts = maxPendingTimeouts;
         workerThread = threadFactory.newThread(worker);
         leak = leakDetector.open(this);
     }
 
-    @SuppressWarnings("unchecked")
-    private static Set<HashedWheelTimeout>[] createWheel(int ticksPerWheel) {
+    private static HashedWheelBucket[] createWheel(int ticksPerWheel) {
         if (ticksPerWheel <= 0) {
             throw new IllegalArgumentException(
                     "ticksPerWheel must be greater than 0: " + ticksPerWheel);
@@ -226,10 +269,9 @@ public class HashedWheelTimer implements Timer {
         }
 
         ticksPerWheel = normalizeTicksPerWheel(ticksPerWheel);
-        Set<HashedWheelTimeout>[] wheel = new Set[ticksPerWheel];
+        HashedWheelBucket[] wheel = new HashedWheelBucket[ticksPerWheel];
         for (int i = 0; i < wheel.length; i ++) {
-            wheel[i] = Collections.newSetFromMap(
-                    PlatformDependent.<HashedWheelTimeout, Boolean>newConcurrentHashMap());
+            wheel[i] = new HashedWheelBucket();
         }
         return wheel;
     }
@@ -312,46 +354,55 @@ public class HashedWheelTimer implements Timer {
             leak.close();
         }
 
-        Set<Timeout> unprocessedTimeouts = new HashSet<Timeout>();
-        for (Set<HashedWheelTimeout> bucket: wheel) {
-            unprocessedTimeouts.addAll(bucket);
-            bucket.clear();
-        }
-
-        return Collections.unmodifiableSet(unprocessedTimeouts);
+        return worker.unprocessedTimeouts();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @throws RejectedExecutionException if the maximum number of pending timeouts was reached
+     */
     @Override
     public Timeout newTimeout(TimerTask task, long delay, TimeUnit unit) {
-        start();
-
         if (task == null) {
             throw new NullPointerException("task");
         }
         if (unit == null) {
             throw new NullPointerException("unit");
         }
+        start();
 
-        long deadline = System.nanoTime() + unit.toNanos(delay) - startTime;
-
-        // Add the timeout to the wheel.
-        HashedWheelTimeout timeout;
-        lock.readLock().lock();
-        try {
-            timeout = new HashedWheelTimeout(task, deadline);
-            if (workerState.get() == WORKER_STATE_SHUTDOWN) {
-                throw new IllegalStateException("Cannot enqueue after shutdown");
-            }
-            wheel[timeout.stopIndex].add(timeout);
-        } finally {
-            lock.readLock().unlock();
+        long pendingTimeoutsCount = pendingTimeouts.incrementAndGet();
+        if (maxPendingTimeouts > 0 && pendingTimeoutsCount > maxPendingTimeouts) {
+            pendingTimeouts.decrementAndGet();
+            throw new RejectedExecutionException("Number of pending timeouts (" + pendingTimeoutsCount +
+                    ") is greater than or equal to maximum allowed pending timeouts (" + maxPendingTimeouts + ')');
         }
 
+        // Add the timeout to the timeout queue which will be processed on the next tick.
+        // During processing all the queued timeouts will be added to the correct bucket.
+        long deadline = System.nanoTime() + unit.toNanos(delay) - startTime;
+        HashedWheelTimeout timeout = new HashedWheelTimeout(task, deadline);
+        timeouts.add(timeout);
         return timeout;
     }
 
+    /**
+     * Returns the number of timeouts which were scheduled but are neither expired nor cancelled yet.
+     */
+    public long pendingTimeouts() {
+        return pendingTimeouts.get();
+    }
+
     private final class Worker implements Runnable {
 
+        // Limits the number of new timeouts which are transferred per tick so a busy producer cannot stall the worker.
+        private static final int MAX_TRANSFERRED_TIMEOUTS_PER_TICK = 100000;
+
+        private final Set<Timeout> unprocessedTimeouts = new HashSet<Timeout>();
+
+        private long tick;
+
         Worker() {
         }
 
@@ -367,66 +418,61 @@ public class HashedWheelTimer implements Timer {
             // Notify the other threads waiting for the initialization at start().
             startTimeInitialized.countDown();
 
-            List<HashedWheelTimeout> expiredTimeouts = new ArrayList<HashedWheelTimeout>();
-
             do {
                 final long deadline = waitForNextTick();
                 if (deadline > 0) {
-                    fetchExpiredTimeouts(expiredTimeouts, deadline);
-                    notifyExpiredTimeouts(expiredTimeouts);
+                    processCancelledTimeouts();
+                    transferTimeoutsToBuckets();
+                    wheel[(int) (tick & mask)].expireTimeouts(deadline);
+                    tick ++;
                 }
             } while (workerState.get() == WORKER_STATE_STARTED);
-        }
-
-        private void fetchExpiredTimeouts(
-                List<HashedWheelTimeout> expiredTimeouts, long deadline) {
 
-            // Find the expired timeouts and decrease the round counter
-            // if necessary.  Note that we don't send the notification
-            // immediately to make sure the listeners are called without
-            // an exclusive lock.
-            lock.writeLock().lock();
-            try {
-                fetchExpiredTimeouts(expiredTimeouts, wheel[(int) (tick & mask)].iterator(), deadline);
-            } finally {
-                // Note that the tick is updated only while the writer lock is held,
-                // so that newTimeout() and consequently new HashedWheelTimeout() never see an old value
-                // while the reader lock is held.
-                tick ++;
-                lock.writeLock().unlock();
+            // Collect all the timeouts which were not processed yet so they can be returned by stop().
+            for (HashedWheelBucket bucket: wheel) {
+                bucket.clearTimeouts(unprocessedTimeouts);
+            }
+            for (;;) {
+                HashedWheelTimeout timeout = timeouts.poll();
+                if (timeout == null) {
+                    break;
+                }
+                if (!timeout.isCancelled()) {
+                    unprocessedTimeouts.add(timeout);
+                }
             }
+            processCancelledTimeouts();
         }
 
-        private void fetchExpiredTimeouts(
-                List<HashedWheelTimeout> expiredTimeouts,
-                Iterator<HashedWheelTimeout> i, long deadline) {
-
-            while (i.hasNext()) {
-                HashedWheelTimeout timeout = i.next();
-                if (timeout.remainingRounds <= 0) {
-                    i.remove();
-                    if (timeout.deadline <= deadline) {
-                        expiredTimeouts.add(timeout);
-                    } else {
-                        // The timeout was placed into a wrong slot. This should never happen.
-                        throw new Error(String.format(
-                                "timeout.deadline (%d) > deadline (%d)", timeout.deadline, deadline));
-                    }
-                } else {
-                    timeout.remainingRounds --;
+        private void transferTimeoutsToBuckets() {
+            for (int i = 0; i < MAX_TRANSFERRED_TIMEOUTS_PER_TICK; i ++) {
+                HashedWheelTimeout timeout = timeouts.poll();
+                if (timeout == null) {
+                    // all processed
+                    break;
+                }
+                if (timeout.isCancelled()) {
+                    // Was cancelled in the meantime, the cancellation queue takes care of it.
+                    continue;
                 }
+
+                long calculated = timeout.deadline / tickDuration;
+                timeout.remainingRounds = (calculated - tick) / wheel.length;
+
+                final long ticks = Math.max(calculated, tick); // Ensure we don't schedule for past.
+                wheel[(int) (ticks & mask)].addTimeout(timeout);
             }
         }
 
-        private void notifyExpiredTimeouts(
-                List<HashedWheelTimeout> expiredTimeouts) {
-            // Notify the expired timeouts.
-            for (int i = expiredTimeouts.size() - 1; i >= 0; i --) {
-                expiredTimeouts.get(i).expire();
+        private void processCancelledTimeouts() {
+            for (;;) {
+                HashedWheelTimeout timeout = cancelledTimeouts.poll();
+                if (timeout == null) {
+                    // all processed
+                    break;
+                }
+                timeout.remove();
             }
-
-            // Clean up the temporary list.
-            expiredTimeouts.clear();
         }
 
         /**
@@ -468,6 +514,10 @@ public class HashedWheelTimer implements Timer {
                 }
             }
         }
+
+        Set<Timeout> unprocessedTimeouts() {
+            return Collections.unmodifiableSet(unprocessedTimeouts);
+        }
     }
 
     private final class HashedWheelTimeout implements Timeout {
@@ -478,18 +528,24 @@ public class HashedWheelTimer implements Timer {
 
         private final TimerTask task;
         final long deadline;
-        final int stopIndex;
-        volatile long remainingRounds;
-        private final AtomicInteger state = new AtomicInteger(ST_INIT);
+
+        volatile int state = ST_INIT;
+
+        // remainingRounds will be calculated and set by Worker.transferTimeoutsToBuckets() before the
+        // HashedWheelTimeout will be added to the correct HashedWheelBucket.
+        long remainingRounds;
+
+        // This will be used to chain timeouts in HashedWheelBucket via a doubly linked list.
+        // As only the workerThread will act on it there is no need for synchronization / volatile.
+        HashedWheelTimeout next;
+        HashedWheelTimeout prev;
+
+        // The bucket to which the timeout was added
+        HashedWheelBucket bucket;
 
         HashedWheelTimeout(TimerTask task, long deadline) {
             this.task = task;
             this.deadline = deadline;
-
-            long calculated = deadline / tickDuration;
-            final long ticks = Math.max(calculated, tick); // Ensure we don't schedule for past.
-            stopIndex = (int) (ticks & mask);
-            remainingRounds = (calculated - tick) / wheel.length;
         }
 
         @Override
@@ -504,29 +560,41 @@ public class HashedWheelTimer implements Timer {
 
         @Override
         public boolean cancel() {
-            if (!state.compareAndSet(ST_INIT, ST_CANCELLED)) {
+            // only update the state it will be removed from HashedWheelBucket on next tick.
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_CANCELLED)) {
                 return false;
             }
-
-            wheel[stopIndex].remove(this);
+            // If a task should be cancelled we put this to another queue which will be processed on each tick.
+            // So this means that we will have a GC latency of max. 1 tick duration which is good enough. This way
+            // we can make again use of our MpscLinkedQueue and so minimize the locking / overhead as much as possible.
+            cancelledTimeouts.add(this);
             return true;
         }
 
+        void remove() {
+            HashedWheelBucket bucket = this.bucket;
+            if (bucket != null) {
+                bucket.remove(this);
+            }
+            pendingTimeouts.decrementAndGet();
+        }
+
         @Override
         public boolean isCancelled() {
-            return state.get() == ST_CANCELLED;
+            return state == ST_CANCELLED;
         }
 
         @Override
         public boolean isExpired() {
-            return state.get() != ST_INIT;
+            return state != ST_INIT;
         }
 
         public void expire() {
-            if (!state.compareAndSet(ST_INIT, ST_EXPIRED)) {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_EXPIRED)) {
                 return;
             }
 
+            pendingTimeouts.decrementAndGet();
             try {
                 task.run(this);
             } catch (Throwable t) {
@@ -566,4 +634,121 @@ public class HashedWheelTimer implements Timer {
             return buf.append(')').toString();
         }
     }
+
+    /**
+     * Bucket that stores HashedWheelTimeouts. These are stored in a linked-list like datastructure to allow easy
+     * removal of HashedWheelTimeouts in the middle. Also the HashedWheelTimeout act as nodes themself and so no
+     * extra object creation is needed.
+     */
+    private static final class HashedWheelBucket {
+        // Used for the linked-list datastructure
+        private HashedWheelTimeout head;
+        private HashedWheelTimeout tail;
+
+        /**
+         * Add {@link HashedWheelTimeout} to this bucket.
+         */
+        void addTimeout(HashedWheelTimeout timeout) {
+            assert timeout.bucket == null;
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        /**
+         * Expire all {@link HashedWheelTimeout}s for the given {@code deadline}.
+         */
+        void expireTimeouts(long deadline) {
+            HashedWheelTimeout timeout = head;
+
+            // process all timeouts
+            while (timeout != null) {
+                HashedWheelTimeout next = timeout.next;
+                if (timeout.isCancelled()) {
+                    // Will be removed once the cancellation queue is processed.
+                } else if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    if (timeout.deadline <= deadline) {
+                        timeout.expire();
+                    } else {
+                        // The timeout was placed into a wrong slot. This should never happen.
+                        throw new IllegalStateException(String.format(
+                                "timeout.deadline (%d) > deadline (%d)", timeout.deadline, deadline));
+                    }
+                } else {
+                    timeout.remainingRounds --;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(HashedWheelTimeout timeout) {
+            HashedWheelTimeout next = timeout.next;
+            // remove timeout that was either processed or cancelled by updating the linked-list
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+
+            if (timeout == head) {
+                // if timeout is also the tail we need to adjust the entry too
+                if (timeout == tail) {
+                    tail = null;
+                    head = null;
+                } else {
+                    head = next;
+                }
+            } else if (timeout == tail) {
+                // if the timeout is the tail modify the tail to be the prev node.
+                tail = timeout.prev;
+            }
+            // null out prev, next and bucket to allow for GC.
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        /**
+         * Clear this bucket and add all not expired / cancelled {@link Timeout}s to the given {@link Set}.
+         */
+        void clearTimeouts(Set<Timeout> set) {
+            for (;;) {
+                HashedWheelTimeout timeout = pollTimeout();
+                if (timeout == null) {
+                    return;
+                }
+                if (timeout.isExpired() || timeout.isCancelled()) {
+                    continue;
+                }
+                set.add(timeout);
+            }
+        }
+
+        private HashedWheelTimeout pollTimeout() {
+            HashedWheelTimeout head = this.head;
+            if (head == null) {
+                return null;
+            }
+            HashedWheelTimeout next = head.next;
+            if (next == null) {
+                tail = this.head = null;
+            } else {
+                this.head = next;
+                next.prev = null;
+            }
+
+            // null out prev and next to allow for GC.
+            head.next = null;
+            head.prev = null;
+            head.bucket = null;
+            return head;
+        }
+    }
 }
@@ -13,18 +13,28 @@
  * License for the specific language governing permissions and limitations
  * under the License.
  */
-
 package io.netty.util;
 
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.SystemPropertyUtil;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
-import java.util.IdentityHashMap;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * Light-weight object pool based on a thread-local stack.
+ * <p>
+ * An object may be recycled by any thread. If it is recycled by a thread other than the one which allocated it,
+ * it is put into a queue which belongs to the pair of the recycling thread and the pool of the allocating thread,
+ * and is moved back to that pool when the allocating thread runs out of recycled objects.
  *
  * @param <T> the type of the pooled object
  */
@@ -32,9 +42,16 @@ public abstract class Recycler<T> {
 
     private static final InternalLogger logger = InternalLoggerFactory.getInstance(Recycler.class);
 
+    private static final AtomicInteger ID_GENERATOR = new AtomicInteger(Integer.MIN_VALUE);
+    private static final int OWN_THREAD_ID = ID_GENERATOR.getAndIncrement();
     private static final int DEFAULT_MAX_CAPACITY;
     private static final int INITIAL_CAPACITY;
 
+    /**
+     * The number of {@link #get()} calls after which a thread adds its counts to the metrics of the {@link Recycler}.
+     */
+    private static final int METRICS_FLUSH_INTERVAL = 256;
+
     static {
         // In the future, we might have different maxCapacity for different object types.
         // e.g. io.netty.recycler.maxCapacity.writeTask
@@ -53,15 +70,32 @@ public abstract class Recycler<T> {
         INITIAL_CAPACITY = Math.min(DEFAULT_MAX_CAPACITY, 256);
     }
 
+    /**
+     * The {@link WeakOrderQueue}s of the current thread, one per {@link Stack} it recycled objects to.
+     */
+    private static final FastThreadLocal<Map<Stack<?>, WeakOrderQueue>> DELAYED_RECYCLED =
+            new FastThreadLocal<Map<Stack<?>, WeakOrderQueue>>() {
+        @Override
+        protected Map<Stack<?>, WeakOrderQueue> initialValue() {
+            return new WeakHashMap<Stack<?>, WeakOrderQueue>();
+        }
+    };
+
     private final int maxCapacity;
 
-    private final ThreadLocal<Stack<T>> threadLocal = new ThreadLocal<Stack<T>>() {
+    // The Stack of a thread is released by FastThreadLocal.removeAll() when the thread finishes.
+    private final FastThreadLocal<Stack<T>> threadLocal = new FastThreadLocal<Stack<T>>() {
         @Override
         protected Stack<T> initialValue() {
             return new Stack<T>(Recycler.this, Thread.currentThread(), maxCapacity);
         }
     };
 
+    private final AtomicLong gets = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong crossThreadRecycles = new AtomicLong();
+    private final AtomicLong drops = new AtomicLong();
+
     protected Recycler() {
         this(DEFAULT_MAX_CAPACITY);
     }
@@ -73,106 +107,467 @@ public abstract class Recycler<T> {
         this.maxCapacity = maxCapacity;
     }
 
+    @SuppressWarnings("unchecked")
     public final T get() {
         Stack<T> stack = threadLocal.get();
-        T o = stack.pop();
-        if (o == null) {
-            o = newObject(stack);
+        DefaultHandle handle = stack.pop();
+        if (handle == null) {
+            handle = new DefaultHandle(stack);
+            handle.value = newObject(handle);
         }
-        return o;
+        return (T) handle.value;
     }
 
     public final boolean recycle(T o, Handle<T> handle) {
-        @SuppressWarnings("unchecked")
-        Stack<T> stack = (Stack<T>) handle;
-        if (stack.parent != this) {
-            return false;
+        DefaultHandle h = (DefaultHandle) handle;
+        Stack<?> stack = h.stack;
+        if (stack == null) {
+            throw new IllegalStateException("recycled already");
         }
-
-        if (Thread.currentThread() != stack.thread) {
+        if (stack.parent != this) {
             return false;
         }
 
-        stack.push(o);
+        h.recycle(o);
         return true;
     }
 
+    /**
+     * Returns the number of {@link #get()} calls.
+     * <p>
+     * The metrics of this {@link Recycler} are updated by each thread every {@value #METRICS_FLUSH_INTERVAL}
+     * {@link #get()} calls to keep their overhead low, so they may lag behind by that many calls per thread.
+     */
+    public final long gets() {
+        return gets.get();
+    }
+
+    /**
+     * Returns the number of {@link #get()} calls which were served by a recycled object.
+     */
+    public final long hits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the ratio of {@link #hits()} to {@link #gets()}, or {@code 0} if {@link #get()} was not called yet.
+     */
+    public final double hitRate() {
+        // Read the hits first as they never exceed the gets.
+        long hits = this.hits.get();
+        long gets = this.gets.get();
+        return gets == 0 ? 0 : (double) hits / gets;
+    }
+
+    /**
+     * Returns the number of objects which were recycled by a thread other than the one which allocated them and
+     * were moved back to the pool of the allocating thread.
+     */
+    public final long crossThreadRecycles() {
+        return crossThreadRecycles.get();
+    }
+
+    /**
+     * Returns the number of recycled objects which were dropped because the pool was full.
+     */
+    public final long drops() {
+        return drops.get();
+    }
+
     protected abstract T newObject(Handle<T> handle);
 
     public interface Handle<T> {
         void recycle(T object);
     }
 
-    static final class Stack<T> implements Handle<T> {
+    @SuppressWarnings("rawtypes")
+    static final class DefaultHandle implements Handle {
+        // The ID of the WeakOrderQueue the object was last added to, or OWN_THREAD_ID if it was recycled by the
+        // allocating thread.
+        private int lastRecycledId;
+        // Set to lastRecycledId once the object is back in its Stack and reset to 0 when it is taken out again,
+        // so recycling an object which is in the pool already is detected without a lookup.
+        private int recycleId;
+
+        // Cleared while the object sits in a WeakOrderQueue so that the queue does not keep the Stack alive.
+        private Stack<?> stack;
+        private Object value;
+
+        DefaultHandle(Stack<?> stack) {
+            this.stack = stack;
+        }
 
-        private T[] elements;
-        private int size;
-        private final int maxCapacity;
+        @Override
+        public void recycle(Object object) {
+            if (object != value) {
+                throw new IllegalArgumentException("object does not belong to handle");
+            }
+            Stack<?> stack = this.stack;
+            if (stack == null) {
+                throw new IllegalStateException("recycled already");
+            }
+
+            Thread thread = Thread.currentThread();
+            if (thread == stack.thread) {
+                stack.push(this);
+                return;
+            }
+
+            // Recycled by another thread, so hand it over via the queue of this thread for the stack.
+            Map<Stack<?>, WeakOrderQueue> delayedRecycled = DELAYED_RECYCLED.get();
+            WeakOrderQueue queue = delayedRecycled.get(stack);
+            if (queue == null) {
+                queue = WeakOrderQueue.allocate(stack, thread);
+                if (queue == null) {
+                    // The queues of the stack hold as many objects as the stack may hold already - drop the object.
+                    stack.parent.drops.incrementAndGet();
+                    return;
+                }
+                delayedRecycled.put(stack, queue);
+            }
+            queue.add(this);
+        }
+    }
+
+    /**
+     * A single-producer single-consumer queue of the objects a thread recycled to the {@link Stack} of another
+     * thread. The producer appends to fixed-size {@link Link}s, publishing each element with a lazy set of the
+     * write index of its {@link Link}, and the owner of the {@link Stack} harvests them when it runs out of objects.
+     * <p>
+     * Every {@link Link} takes its capacity from {@link Stack#availableSharedCapacity} and gives it back once it was
+     * harvested, so all queues of a {@link Stack} together never hold more than its maximum capacity, even if the
+     * owner of the {@link Stack} rarely runs out of objects.
+     */
+    private static final class WeakOrderQueue {
+        private static final int LINK_CAPACITY = 16;
+
+        // Let Link extend AtomicInteger for intrinsics. The Link itself will be used as writerIndex.
+        @SuppressWarnings("serial")
+        private static final class Link extends AtomicInteger {
+            private final DefaultHandle[] elements = new DefaultHandle[LINK_CAPACITY];
+
+            private int readIndex;
+            private Link next;
+        }
+
+        // chain of data items
+        private Link head, tail;
+        // pointer to another queue of delayed items for the same stack
+        private WeakOrderQueue next;
+        private final WeakReference<Thread> owner;
+        private final int id = ID_GENERATOR.getAndIncrement();
+        // Shared with the stack instead of referencing it, so the queue does not keep the stack alive.
+        private final AtomicInteger availableSharedCapacity;
+        private final AtomicLong drops;
+
+        /**
+         * Creates a new queue for the given {@link Stack} or returns {@code null} if the queues of the {@link Stack}
+         * are full.
+         */
+        static WeakOrderQueue allocate(Stack<?> stack, Thread thread) {
+            if (!reserveSpace(stack.availableSharedCapacity)) {
+                return null;
+            }
+            return new WeakOrderQueue(stack, thread);
+        }
+
+        private static boolean reserveSpace(AtomicInteger availableSharedCapacity) {
+            for (;;) {
+                int available = availableSharedCapacity.get();
+                if (available < LINK_CAPACITY) {
+                    return false;
+                }
+                if (availableSharedCapacity.compareAndSet(available, available - LINK_CAPACITY)) {
+                    return true;
+                }
+            }
+        }
+
+        private WeakOrderQueue(Stack<?> stack, Thread thread) {
+            head = tail = new Link();
+            owner = new WeakReference<Thread>(thread);
+            availableSharedCapacity = stack.availableSharedCapacity;
+            drops = stack.parent.drops;
+            stack.addQueue(this);
+        }
+
+        void add(DefaultHandle handle) {
+            Link tail = this.tail;
+            int writeIndex;
+            if ((writeIndex = tail.get()) == LINK_CAPACITY) {
+                if (!reserveSpace(availableSharedCapacity)) {
+                    // The queues of the stack are full - drop the object.
+                    drops.incrementAndGet();
+                    return;
+                }
+                this.tail = tail = tail.next = new Link();
+                writeIndex = tail.get();
+            }
+            handle.lastRecycledId = id;
+            tail.elements[writeIndex] = handle;
+            handle.stack = null;
+            // we lazy set to ensure that setting stack to null appears before we unnull it in the owning thread;
+            // this also means we guarantee visibility of an element in the queue if we see the index updated
+            tail.lazySet(writeIndex + 1);
+        }
+
+        boolean hasFinalData() {
+            return tail.readIndex != tail.get();
+        }
+
+        // transfer as many items as we can from this queue to the stack, returning true if any were transferred
+        boolean transfer(Stack<?> to) {
+            Link head = this.head;
+            if (head == null) {
+                return false;
+            }
+
+            if (head.readIndex == LINK_CAPACITY) {
+                if (head.next == null) {
+                    return false;
+                }
+                this.head = head = head.next;
+                reclaimSpace(1);
+            }
+
+            int start = head.readIndex;
+            int end = head.get();
+            if (start == end) {
+                return false;
+            }
+
+            int count = end - start;
+            int size = to.size;
+            if (size + count > to.elements.length) {
+                to.elements = Arrays.copyOf(to.elements, Math.min(Math.max(size + count, size << 1), to.maxCapacity));
+            }
+
+            DefaultHandle[] src = head.elements;
+            DefaultHandle[] trg = to.elements;
+            int dropped = 0;
+            for (; start < end; start ++) {
+                DefaultHandle element = src[start];
+                src[start] = null;
+                if (element.recycleId == 0) {
+                    element.recycleId = element.lastRecycledId;
+                } else if (element.recycleId != element.lastRecycledId) {
+                    throw new IllegalStateException("recycled already");
+                }
+                element.stack = to;
+                if (size == trg.length) {
+                    // Hit the maximum capacity - drop the object.
+                    dropped ++;
+                    element.recycleId = element.lastRecycledId = 0;
+                    continue;
+                }
+                trg[size ++] = element;
+            }
+            to.size = size;
+            to.crossThreadRecycles += count - dropped;
+            to.drops += dropped;
+
+            head.readIndex = end;
+            if (end == LINK_CAPACITY && head.next != null) {
+                this.head = head.next;
+                reclaimSpace(1);
+            }
+            return true;
+        }
+
+        /**
+         * Gives the capacity of all remaining {@link Link}s back to the stack.  Called once the queue was unlinked.
+         */
+        void reclaimAllSpace() {
+            int links = 0;
+            for (Link link = head; link != null; link = link.next) {
+                links ++;
+            }
+            head = null;
+            reclaimSpace(links);
+        }
+
+        private void reclaimSpace(int links) {
+            availableSharedCapacity.addAndGet(links * LINK_CAPACITY);
+        }
+    }
+
+    static final class Stack<T> {
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Stack, WeakOrderQueue> HEAD_UPDATER;
 
-        private final Map<T, Boolean> map;
+        static {
+            @SuppressWarnings("rawtypes")
+            AtomicReferenceFieldUpdater<Stack, WeakOrderQueue> headUpdater =
+                    PlatformDependent.newAtomicReferenceFieldUpdater(Stack.class, "head");
+            if (headUpdater == null) {
+                headUpdater = AtomicReferenceFieldUpdater.newUpdater(Stack.class, WeakOrderQueue.class, "head");
+            }
+            HEAD_UPDATER = headUpdater;
+        }
 
+        // we keep a queue of per-thread queues, which is appended to once only, each time a new thread other
+        // than the stack owner recycles: when we run out of items in our stack we iterate this collection
+        // to scavenge those that can be reused. this permits us to incur minimal thread synchronisation whilst
+        // still recycling all items.
         final Recycler<T> parent;
         final Thread thread;
+        private DefaultHandle[] elements;
+        private final int maxCapacity;
+        private int size;
+        // The number of objects the WeakOrderQueues of this stack may still hold, reserved per Link.
+        final AtomicInteger availableSharedCapacity;
+
+        // Only the head is shared with the recycling threads, which push new queues with a CAS. The owner only
+        // ever unlinks queues behind the head, so it does not race with them.
+        private volatile WeakOrderQueue head;
+        private WeakOrderQueue cursor, prev;
+
+        // Counts of the owner thread which are added to the metrics of the parent every METRICS_FLUSH_INTERVAL gets.
+        private int gets;
+        private int hits;
+        private int crossThreadRecycles;
+        private int drops;
 
-        @SuppressWarnings("AssertWithSideEffects")
         Stack(Recycler<T> parent, Thread thread, int maxCapacity) {
             this.parent = parent;
             this.thread = thread;
             this.maxCapacity = maxCapacity;
-            elements = newArray(INITIAL_CAPACITY);
-
-            // *assigns* true if assertions are on.
-            @SuppressWarnings("UnusedAssignment")
-            boolean assertionEnabled = false;
-            assert assertionEnabled = true;
+            availableSharedCapacity = new AtomicInteger(maxCapacity);
+            elements = new DefaultHandle[Math.min(INITIAL_CAPACITY, maxCapacity)];
+        }
 
-            if (assertionEnabled) {
-                map = new IdentityHashMap<T, Boolean>(INITIAL_CAPACITY);
-            } else {
-                map = null;
+        void addQueue(WeakOrderQueue queue) {
+            for (;;) {
+                WeakOrderQueue head = this.head;
+                queue.next = head;
+                if (HEAD_UPDATER.compareAndSet(this, head, queue)) {
+                    return;
+                }
             }
         }
 
-        @Override
-        public void recycle(T object) {
-            parent.recycle(object, this);
-        }
+        DefaultHandle pop() {
+            if (gets == METRICS_FLUSH_INTERVAL) {
+                flushMetrics();
+            }
+            gets ++;
 
-        T pop() {
             int size = this.size;
             if (size == 0) {
-                return null;
+                if (!scavenge()) {
+                    return null;
+                }
+                size = this.size;
             }
             size --;
-            T ret = elements[size];
+            DefaultHandle ret = elements[size];
             elements[size] = null;
-            assert map == null || map.remove(ret) != null;
+            if (ret.lastRecycledId != ret.recycleId) {
+                throw new IllegalStateException("recycled multiple times");
+            }
+            ret.recycleId = 0;
+            ret.lastRecycledId = 0;
             this.size = size;
+            hits ++;
             return ret;
         }
 
-        void push(T o) {
-            assert map == null || map.put(o, Boolean.TRUE) == null: "recycled already";
+        private void flushMetrics() {
+            Recycler<T> parent = this.parent;
+            parent.gets.addAndGet(gets);
+            parent.hits.addAndGet(hits);
+            if (crossThreadRecycles != 0) {
+                parent.crossThreadRecycles.addAndGet(crossThreadRecycles);
+                crossThreadRecycles = 0;
+            }
+            if (drops != 0) {
+                parent.drops.addAndGet(drops);
+                drops = 0;
+            }
+            gets = 0;
+            hits = 0;
+        }
+
+        boolean scavenge() {
+            // continue an existing scavenge, if any
+            if (scavengeSome()) {
+                return true;
+            }
+
+            // reset our scavenge cursor
+            prev = null;
+            cursor = head;
+            return false;
+        }
+
+        boolean scavengeSome() {
+            WeakOrderQueue cursor = this.cursor;
+            if (cursor == null) {
+                cursor = head;
+                if (cursor == null) {
+                    return false;
+                }
+            }
+
+            boolean success = false;
+            WeakOrderQueue prev = this.prev;
+            do {
+                if (cursor.transfer(this)) {
+                    success = true;
+                    break;
+                }
+
+                WeakOrderQueue next = cursor.next;
+                if (cursor.owner.get() == null) {
+                    // If the thread associated with the queue is gone, unlink it, after
+                    // performing a volatile read to confirm there is no data left to collect.
+                    // We never unlink the first queue, as we don't want to synchronize on updating the head.
+                    if (cursor.hasFinalData()) {
+                        for (;;) {
+                            if (cursor.transfer(this)) {
+                                success = true;
+                            } else {
+                                break;
+                            }
+                        }
+                    }
+                    if (prev != null) {
+                        prev.next = next;
+                        cursor.reclaimAllSpace();
+                    }
+                } else {
+                    prev = cursor;
+                }
+
+                cursor = next;
+
+            } while (cursor != null && !success);
+
+            this.prev = prev;
+            this.cursor = cursor;
+            return success;
+        }
+
+        void push(DefaultHandle item) {
+            if ((item.recycleId | item.lastRecycledId) != 0) {
+                throw new IllegalStateException("recycled already");
+            }
+            item.recycleId = item.lastRecycledId = OWN_THREAD_ID;
 
             int size = this.size;
             if (size == elements.length) {
                 if (size == maxCapacity) {
                     // Hit the maximum capacity - drop the possibly youngest object.
+                    item.recycleId = item.lastRecycledId = 0;
+                    drops ++;
                     return;
                 }
-
-                T[] newElements = newArray(Math.min(maxCapacity, size << 1));
-                System.arraycopy(elements, 0, newElements, 0, size);
-                elements = newElements;
+                elements = Arrays.copyOf(elements, Math.min(size << 1, maxCapacity));
             }
 
-            elements[size] = o;
+            elements[size] = item;
             this.size = size + 1;
         }
-
-        @SuppressWarnings({ "unchecked", "SuspiciousArrayCast" })
-        private static <T> T[] newArray(int length) {
-            return (T[]) new Object[length];
-        }
     }
 }
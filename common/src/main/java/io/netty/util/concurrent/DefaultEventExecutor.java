@@ -15,8 +15,12 @@
  */
 package io.netty.util.concurrent;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Default {@link SingleThreadEventExecutor} implementation which just execute all submitted task in a
@@ -25,6 +29,14 @@ import java.util.concurrent.ThreadFactory;
  */
 public final class DefaultEventExecutor extends SingleThreadEventExecutor {
 
+    // Only set if the parent is a DefaultEventExecutorGroup in work-stealing mode.
+    private final DefaultEventExecutorGroup stealingParent;
+    // The tasks which were submitted via the parent and so may be run by any of its executors.
+    final Queue<Runnable> stealableTasks;
+    final AtomicBoolean idle;
+    private final Runnable runStealableTask;
+    private final Runnable stealTask;
+
     public DefaultEventExecutor() {
         this((EventExecutorGroup) null);
     }
@@ -42,17 +54,97 @@ public final class DefaultEventExecutor extends SingleThreadEventExecutor {
     }
 
     public DefaultEventExecutor(EventExecutorGroup parent, ThreadFactory threadFactory) {
-        super(parent, threadFactory, true);
+        this(parent, new ThreadPerTaskExecutor(threadFactory));
     }
 
     public DefaultEventExecutor(EventExecutorGroup parent, Executor executor) {
         super(parent, executor, true);
+        stealingParent = null;
+        stealableTasks = null;
+        idle = null;
+        runStealableTask = null;
+        stealTask = null;
+    }
+
+    DefaultEventExecutor(DefaultEventExecutorGroup parent, Executor executor, boolean workStealing) {
+        super(parent, executor, true);
+        if (!workStealing) {
+            stealingParent = null;
+            stealableTasks = null;
+            idle = null;
+            runStealableTask = null;
+            stealTask = null;
+            return;
+        }
+
+        stealingParent = parent;
+        stealableTasks = new ConcurrentLinkedQueue<Runnable>();
+        idle = new AtomicBoolean();
+        runStealableTask = new Runnable() {
+            @Override
+            public void run() {
+                // The task may have been stolen by another executor already.
+                Runnable task = stealableTasks.poll();
+                if (task != null) {
+                    task.run();
+                }
+            }
+        };
+        stealTask = new Runnable() {
+            @Override
+            public void run() {
+                Runnable task = stealingParent.steal();
+                if (task != null) {
+                    task.run();
+                }
+            }
+        };
+    }
+
+    /**
+     * Adds a task which may also be run by the other executors of the parent.
+     */
+    void executeStealable(Runnable task) {
+        stealableTasks.add(task);
+        try {
+            execute(runStealableTask);
+        } catch (RejectedExecutionException e) {
+            if (stealableTasks.remove(task)) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Makes this executor look for tasks to steal, if it is not busy by then.
+     */
+    void wakeUpToSteal() {
+        try {
+            execute(stealTask);
+        } catch (RejectedExecutionException ignored) {
+            // Shutting down.
+        }
     }
 
     @Override
     protected void run() {
         for (;;) {
-            Runnable task = takeTask();
+            Runnable task;
+            if (stealingParent != null && !hasTasks()) {
+                task = stealingParent.steal();
+                if (task == null) {
+                    // Let the parent wake us up once a task is submitted, and check once more before blocking
+                    // as a task may have been submitted before we were marked as idle.
+                    stealingParent.idle(this);
+                    task = stealingParent.steal();
+                    if (task == null) {
+                        task = takeTask();
+                    }
+                }
+            } else {
+                task = takeTask();
+            }
+
             if (task != null) {
                 task.run();
                 updateLastExecutionTime();
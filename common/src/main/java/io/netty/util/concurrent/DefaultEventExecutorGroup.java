@@ -15,15 +15,31 @@
  */
 package io.netty.util.concurrent;
 
+import io.netty.util.internal.ThreadLocalRandom;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
 
 /**
  * Default implementation of {@link MultithreadEventExecutorGroup} which will use {@link DefaultEventExecutor} instances
  * to handle the tasks.
+ * <p>
+ * In work-stealing mode, the tasks which are submitted to the group itself via {@link #execute(Runnable)} and
+ * {@link #submit(Callable)} are not bound to the {@link EventExecutor} chosen by {@link #next()} anymore; an idle
+ * {@link EventExecutor} of the group steals them from the busy ones. Such tasks are not run in the order they
+ * were submitted, which is fine as they were spread over several {@link EventExecutor}s anyway. Tasks which are
+ * submitted to an {@link EventExecutor} of the group directly, like the ones of the {@link EventExecutor} of a
+ * {@code ChannelHandler}, are never stolen and so keep their order and thread affinity.
  */
 public class DefaultEventExecutorGroup extends MultithreadEventExecutorGroup {
 
+    private final boolean workStealing;
+    private final DefaultEventExecutor[] executors;
+    private final Queue<DefaultEventExecutor> idleExecutors;
+
     /**
      * @see {@link #DefaultEventExecutorGroup(int, ThreadFactory)}
      */
@@ -38,11 +54,132 @@ public class DefaultEventExecutorGroup extends MultithreadEventExecutorGroup {
      * @param threadFactory     the ThreadFactory to use, or {@code null} if the default should be used.
      */
     public DefaultEventExecutorGroup(int nThreads, ThreadFactory threadFactory) {
-        super(nThreads, threadFactory);
+        this(nThreads, threadFactory, DefaultEventExecutorChooserFactory.INSTANCE);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param nThreads          the number of threads that will be used by this instance.
+     * @param threadFactory     the ThreadFactory to use, or {@code null} if the default should be used.
+     * @param chooserFactory    the {@link EventExecutorChooserFactory} which creates the chooser used by
+     *                          {@link #next()}
+     */
+    public DefaultEventExecutorGroup(
+            int nThreads, ThreadFactory threadFactory, EventExecutorChooserFactory chooserFactory) {
+        this(nThreads, threadFactory, chooserFactory, false);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param nThreads          the number of threads that will be used by this instance.
+     * @param threadFactory     the ThreadFactory to use, or {@code null} if the default should be used.
+     * @param chooserFactory    the {@link EventExecutorChooserFactory} which creates the chooser used by
+     *                          {@link #next()}
+     * @param workStealing      {@code true} if idle {@link EventExecutor}s should steal the tasks which were
+     *                          submitted to this group from the busy ones
+     */
+    public DefaultEventExecutorGroup(
+            int nThreads, ThreadFactory threadFactory, EventExecutorChooserFactory chooserFactory,
+            boolean workStealing) {
+        super(nThreads, threadFactory, chooserFactory, workStealing);
+        this.workStealing = workStealing;
+        if (workStealing) {
+            executors = children().toArray(new DefaultEventExecutor[executorCount()]);
+            idleExecutors = new ConcurrentLinkedQueue<DefaultEventExecutor>();
+        } else {
+            executors = null;
+            idleExecutors = null;
+        }
     }
 
     @Override
     protected EventExecutor newChild(Executor executor, Object... args) throws Exception {
-        return new DefaultEventExecutor(this, executor);
+        return new DefaultEventExecutor(this, executor, (Boolean) args[0]);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (!workStealing) {
+            super.execute(command);
+            return;
+        }
+        if (command == null) {
+            throw new NullPointerException("command");
+        }
+        executeStealable((DefaultEventExecutor) next(), command);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return submit(task, null);
+    }
+
+    @Override
+    public <T> Future<T> submit(Runnable task, T result) {
+        if (!workStealing) {
+            return super.submit(task, result);
+        }
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        DefaultEventExecutor executor = (DefaultEventExecutor) next();
+        PromiseTask<T> future = new PromiseTask<T>(executor, task, result);
+        executeStealable(executor, future);
+        return future;
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        if (!workStealing) {
+            return super.submit(task);
+        }
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        DefaultEventExecutor executor = (DefaultEventExecutor) next();
+        PromiseTask<T> future = new PromiseTask<T>(executor, task);
+        executeStealable(executor, future);
+        return future;
+    }
+
+    private void executeStealable(DefaultEventExecutor executor, Runnable task) {
+        executor.executeStealable(task);
+
+        // Let an idle executor steal the task if the chosen one is busy.
+        DefaultEventExecutor idle = idleExecutors.poll();
+        if (idle != null) {
+            idle.idle.set(false);
+            if (idle != executor) {
+                idle.wakeUpToSteal();
+            }
+        }
+    }
+
+    /**
+     * Marks the given executor as idle so it is woken up to steal the next task which is submitted.
+     */
+    void idle(DefaultEventExecutor executor) {
+        if (executor.idle.compareAndSet(false, true)) {
+            idleExecutors.add(executor);
+        }
+    }
+
+    /**
+     * Returns a task which was submitted to this group and is not run yet, or {@code null} if there is none.
+     */
+    Runnable steal() {
+        final DefaultEventExecutor[] executors = this.executors;
+        final int length = executors.length;
+        final int start = ThreadLocalRandom.current().nextInt(length);
+        for (int i = 0; i < length; i ++) {
+            DefaultEventExecutor victim = executors[(start + i) % length];
+            Runnable task = victim.stealableTasks.poll();
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
     }
 }
@@ -17,6 +17,7 @@ package io.netty.util.concurrent;
 
 import io.netty.util.Signal;
 import io.netty.util.internal.EmptyArrays;
+import io.netty.util.internal.OneTimeTask;
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.StringUtil;
 import io.netty.util.internal.logging.InternalLogger;
@@ -25,6 +26,7 @@ import io.netty.util.internal.logging.InternalLoggerFactory;
 import java.util.ArrayDeque;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import static java.util.concurrent.TimeUnit.*;
 
@@ -35,7 +37,7 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
             InternalLoggerFactory.getInstance(DefaultPromise.class.getName() + ".rejectedExecution");
 
     private static final int MAX_LISTENER_STACK_DEPTH = 8;
-    private static final ThreadLocal<Integer> LISTENER_STACK_DEPTH = new ThreadLocal<Integer>() {
+    private static final FastThreadLocal<Integer> LISTENER_STACK_DEPTH = new FastThreadLocal<Integer>() {
         @Override
         protected Integer initialValue() {
             return 0;
@@ -45,19 +47,54 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
     private static final Signal UNCANCELLABLE = Signal.valueOf(DefaultPromise.class.getName() + ".UNCANCELLABLE");
     private static final CauseHolder CANCELLATION_CAUSE_HOLDER = new CauseHolder(new CancellationException());
 
+    /**
+     * Marks the listeners of a promise which is done and whose listeners are being notified.
+     */
+    private static final Object NOTIFYING = new Object();
+
+    /**
+     * Marks the listeners of a promise which is done and whose listeners were all notified.
+     */
+    private static final Object NOTIFIED = new Object();
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<DefaultPromise, Object> RESULT_UPDATER;
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<DefaultPromise, Object> LISTENERS_UPDATER;
+
     static {
         CANCELLATION_CAUSE_HOLDER.cause.setStackTrace(EmptyArrays.EMPTY_STACK_TRACE);
+
+        @SuppressWarnings("rawtypes")
+        AtomicReferenceFieldUpdater<DefaultPromise, Object> resultUpdater =
+                PlatformDependent.newAtomicReferenceFieldUpdater(DefaultPromise.class, "result");
+        if (resultUpdater == null) {
+            resultUpdater = AtomicReferenceFieldUpdater.newUpdater(DefaultPromise.class, Object.class, "result");
+        }
+        RESULT_UPDATER = resultUpdater;
+
+        @SuppressWarnings("rawtypes")
+        AtomicReferenceFieldUpdater<DefaultPromise, Object> listenersUpdater =
+                PlatformDependent.newAtomicReferenceFieldUpdater(DefaultPromise.class, "listeners");
+        if (listenersUpdater == null) {
+            listenersUpdater = AtomicReferenceFieldUpdater.newUpdater(DefaultPromise.class, Object.class, "listeners");
+        }
+        LISTENERS_UPDATER = listenersUpdater;
     }
 
     private final EventExecutor executor;
 
+    // Updated by RESULT_UPDATER.
     private volatile Object result;
 
     /**
-     * One or more listeners. Can be a {@link GenericFutureListener} or a {@link DefaultFutureListeners}.
-     * If {@code null}, it means either 1) no listeners were added yet or 2) all listeners were notified.
+     * The listeners added before this promise was done.  Can be {@code null}, a {@link GenericFutureListener} or a
+     * {@link GenericFutureListener} array in the order the listeners were added.  An array is never modified once
+     * it was published, but replaced by a copy.  Once this promise is done it is replaced by {@link #NOTIFYING} and
+     * then {@link #NOTIFIED}, so a listener which is added after that is handled as a late listener.  Updated by
+     * {@link #LISTENERS_UPDATER}.
      */
-    private Object listeners;
+    private volatile Object listeners;
 
     /**
      * The list of the listeners that were added after the promise is done.  Initially {@code null} and lazily
@@ -66,7 +103,8 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
      */
     private LateListeners lateListeners;
 
-    private short waiters;
+    // Only modified while holding the monitor of this promise, but read without it when this promise is completed.
+    private volatile short waiters;
 
     /**
      * Creates a new instance.
@@ -139,31 +177,29 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
             throw new NullPointerException("listener");
         }
 
-        if (isDone()) {
-            notifyLateListener(listener);
-            return this;
-        }
-
-        synchronized (this) {
-            if (!isDone()) {
-                if (listeners == null) {
-                    listeners = listener;
-                } else {
-                    if (listeners instanceof DefaultFutureListeners) {
-                        ((DefaultFutureListeners) listeners).add(listener);
-                    } else {
-                        @SuppressWarnings("unchecked")
-                        final GenericFutureListener<? extends Future<V>> firstListener =
-                                (GenericFutureListener<? extends Future<V>>) listeners;
-                        listeners = new DefaultFutureListeners(firstListener, listener);
-                    }
-                }
+        for (;;) {
+            Object listeners = this.listeners;
+            if (listeners == NOTIFYING || listeners == NOTIFIED) {
+                // The promise is done already.
+                notifyLateListener(listener);
+                return this;
+            }
+            Object newListeners;
+            if (listeners == null) {
+                newListeners = listener;
+            } else if (listeners instanceof GenericFutureListener[]) {
+                GenericFutureListener<?>[] array = (GenericFutureListener<?>[]) listeners;
+                GenericFutureListener<?>[] newArray = new GenericFutureListener[array.length + 1];
+                System.arraycopy(array, 0, newArray, 0, array.length);
+                newArray[array.length] = listener;
+                newListeners = newArray;
+            } else {
+                newListeners = new GenericFutureListener[] { (GenericFutureListener<?>) listeners, listener };
+            }
+            if (LISTENERS_UPDATER.compareAndSet(this, listeners, newListeners)) {
                 return this;
             }
         }
-
-        notifyLateListener(listener);
-        return this;
     }
 
     @Override
@@ -187,21 +223,40 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
             throw new NullPointerException("listener");
         }
 
-        if (isDone()) {
-            return this;
-        }
-
-        synchronized (this) {
-            if (!isDone()) {
-                if (listeners instanceof DefaultFutureListeners) {
-                    ((DefaultFutureListeners) listeners).remove(listener);
-                } else if (listeners == listener) {
-                    listeners = null;
+        for (;;) {
+            Object listeners = this.listeners;
+            Object newListeners;
+            if (listeners == listener) {
+                newListeners = null;
+            } else if (listeners instanceof GenericFutureListener[]) {
+                // Remove the listener which was added first.
+                GenericFutureListener<?>[] array = (GenericFutureListener<?>[]) listeners;
+                int index = -1;
+                for (int i = 0; i < array.length; i ++) {
+                    if (array[i] == listener) {
+                        index = i;
+                        break;
+                    }
                 }
+                if (index < 0) {
+                    return this;
+                }
+                if (array.length == 2) {
+                    newListeners = array[1 - index];
+                } else {
+                    GenericFutureListener<?>[] newArray = new GenericFutureListener[array.length - 1];
+                    System.arraycopy(array, 0, newArray, 0, index);
+                    System.arraycopy(array, index + 1, newArray, index, newArray.length - index);
+                    newListeners = newArray;
+                }
+            } else {
+                // Not found or the promise is done already.
+                return this;
+            }
+            if (LISTENERS_UPDATER.compareAndSet(this, listeners, newListeners)) {
+                return this;
             }
         }
-
-        return this;
     }
 
     @Override
@@ -257,7 +312,11 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
                 checkDeadLock();
                 incWaiters();
                 try {
-                    wait();
+                    // Check again as the promise may have been completed without notifying us before we were
+                    // counted as a waiter.
+                    if (!isDone()) {
+                        wait();
+                    }
                 } finally {
                     decWaiters();
                 }
@@ -289,7 +348,11 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
                 checkDeadLock();
                 incWaiters();
                 try {
-                    wait();
+                    // Check again as the promise may have been completed without notifying us before we were
+                    // counted as a waiter.
+                    if (!isDone()) {
+                        wait();
+                    }
                 } catch (InterruptedException e) {
                     // Interrupted while waiting.
                     interrupted = true;
@@ -357,6 +420,12 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
                 incWaiters();
                 try {
                     for (;;) {
+                        // Check again as the promise may have been completed without notifying us before we were
+                        // counted as a waiter.
+                        if (isDone()) {
+                            return true;
+                        }
+
                         try {
                             wait(waitTime / 1000000, (int) (waitTime % 1000000));
                         } catch (InterruptedException e) {
@@ -435,86 +504,55 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
 
     @Override
     public boolean cancel(boolean mayInterruptIfRunning) {
-        Object result = this.result;
-        if (isDone0(result) || result == UNCANCELLABLE) {
-            return false;
-        }
-
-        synchronized (this) {
-            // Allow only once.
-            result = this.result;
-            if (isDone0(result) || result == UNCANCELLABLE) {
-                return false;
-            }
-
-            this.result = CANCELLATION_CAUSE_HOLDER;
-            if (hasWaiters()) {
-                notifyAll();
-            }
+        // Only a promise which is not uncancellable yet can be cancelled.
+        if (RESULT_UPDATER.compareAndSet(this, null, CANCELLATION_CAUSE_HOLDER)) {
+            notifyWaiters();
+            notifyListeners();
+            return true;
         }
-
-        notifyListeners();
-        return true;
+        return false;
     }
 
     @Override
     public boolean setUncancellable() {
-        Object result = this.result;
-        if (isDone0(result)) {
-            return !isCancelled0(result);
-        }
-
-        synchronized (this) {
-            // Allow only once.
-            result = this.result;
-            if (isDone0(result)) {
-                return !isCancelled0(result);
-            }
-
-            this.result = UNCANCELLABLE;
+        if (RESULT_UPDATER.compareAndSet(this, null, UNCANCELLABLE)) {
+            return true;
         }
-        return true;
+        Object result = this.result;
+        return !isDone0(result) || !isCancelled0(result);
     }
 
     private boolean setFailure0(Throwable cause) {
-        if (isDone()) {
-            return false;
-        }
-
-        synchronized (this) {
-            // Allow only once.
-            if (isDone()) {
-                return false;
-            }
-
-            result = new CauseHolder(cause);
-            if (hasWaiters()) {
-                notifyAll();
-            }
-        }
-        return true;
+        return setValue0(new CauseHolder(cause));
     }
 
     private boolean setSuccess0(V result) {
-        if (isDone()) {
-            return false;
-        }
+        return setValue0(result == null ? SUCCESS : result);
+    }
 
-        synchronized (this) {
-            // Allow only once.
-            if (isDone()) {
+    private boolean setValue0(Object value) {
+        for (;;) {
+            Object result = this.result;
+            if (isDone0(result)) {
+                // Allow only once.
                 return false;
             }
-            if (result == null) {
-                this.result = SUCCESS;
-            } else {
-                this.result = result;
+            // result is either null or UNCANCELLABLE.
+            if (RESULT_UPDATER.compareAndSet(this, result, value)) {
+                notifyWaiters();
+                return true;
             }
-            if (hasWaiters()) {
+        }
+    }
+
+    private void notifyWaiters() {
+        // The waiters are counted before they check the result again, so either they see the new result or we see
+        // them here.
+        if (hasWaiters()) {
+            synchronized (this) {
                 notifyAll();
             }
         }
-        return true;
     }
 
     @Override
@@ -543,16 +581,19 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
     }
 
     private void notifyListeners() {
-        // This method doesn't need synchronization because:
-        // 1) This method is always called after synchronized (this) block.
-        //    Hence any listener list modification happens-before this method.
-        // 2) This method is called only when 'done' is true.  Once 'done'
-        //    becomes true, the listener list is never modified - see add/removeListener()
-
-        Object listeners = this.listeners;
+        // Close the listeners so all listeners which are added from now on are handled as late listeners.
+        Object listeners;
+        for (;;) {
+            listeners = this.listeners;
+            assert listeners != NOTIFYING && listeners != NOTIFIED;
+            if (LISTENERS_UPDATER.compareAndSet(this, listeners, listeners == null ? NOTIFIED : NOTIFYING)) {
+                break;
+            }
+        }
         if (listeners == null) {
             return;
         }
+        final Object snapshot = listeners;
 
         EventExecutor executor = executor();
         if (executor.inEventLoop()) {
@@ -560,62 +601,44 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
             if (stackDepth < MAX_LISTENER_STACK_DEPTH) {
                 LISTENER_STACK_DEPTH.set(stackDepth + 1);
                 try {
-                    if (listeners instanceof DefaultFutureListeners) {
-                        notifyListeners0(this, (DefaultFutureListeners) listeners);
-                    } else {
-                        @SuppressWarnings("unchecked")
-                        final GenericFutureListener<? extends Future<V>> l =
-                                (GenericFutureListener<? extends Future<V>>) listeners;
-                        notifyListener0(this, l);
-                    }
+                    notifyListeners0(this, snapshot);
                 } finally {
-                    this.listeners = null;
+                    this.listeners = NOTIFIED;
                     LISTENER_STACK_DEPTH.set(stackDepth);
                 }
                 return;
             }
         }
 
-        if (listeners instanceof DefaultFutureListeners) {
-            final DefaultFutureListeners dfl = (DefaultFutureListeners) listeners;
-            execute(executor, new Runnable() {
-                @Override
-                public void run() {
-                    notifyListeners0(DefaultPromise.this, dfl);
-                    DefaultPromise.this.listeners = null;
-                }
-            });
-        } else {
-            @SuppressWarnings("unchecked")
-            final GenericFutureListener<? extends Future<V>> l =
-                    (GenericFutureListener<? extends Future<V>>) listeners;
-            execute(executor, new Runnable() {
-                @Override
-                public void run() {
-                    notifyListener0(DefaultPromise.this, l);
-                    DefaultPromise.this.listeners = null;
-                }
-            });
-        }
+        execute(executor, new OneTimeTask() {
+            @Override
+            public void run() {
+                notifyListeners0(DefaultPromise.this, snapshot);
+                DefaultPromise.this.listeners = NOTIFIED;
+            }
+        });
     }
 
-    private static void notifyListeners0(Future<?> future, DefaultFutureListeners listeners) {
-        final GenericFutureListener<?>[] a = listeners.listeners();
-        final int size = listeners.size();
-        for (int i = 0; i < size; i ++) {
-            notifyListener0(future, a[i]);
+    private static void notifyListeners0(Future<?> future, Object listeners) {
+        if (listeners instanceof GenericFutureListener[]) {
+            for (GenericFutureListener<?> l: (GenericFutureListener<?>[]) listeners) {
+                notifyListener0(future, l);
+            }
+        } else if (listeners != null) {
+            notifyListener0(future, (GenericFutureListener<?>) listeners);
         }
     }
 
     /**
      * Notifies the specified listener which were added after this promise is already done.
-     * This method ensures that the specified listener is not notified until {@link #listeners} becomes {@code null}
-     * to avoid the case where the late listeners are notified even before the early listeners are notified.
+     * This method ensures that the specified listener is not notified until {@link #listeners} becomes
+     * {@link #NOTIFIED} to avoid the case where the late listeners are notified even before the early listeners are
+     * notified.
      */
     private void notifyLateListener(final GenericFutureListener<?> l) {
         final EventExecutor executor = executor();
         if (executor.inEventLoop()) {
-            if (listeners == null && lateListeners == null) {
+            if (listeners == NOTIFIED && lateListeners == null) {
                 final Integer stackDepth = LISTENER_STACK_DEPTH.get();
                 if (stackDepth < MAX_LISTENER_STACK_DEPTH) {
                     LISTENER_STACK_DEPTH.set(stackDepth + 1);
@@ -624,15 +647,16 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
                     } finally {
                         LISTENER_STACK_DEPTH.set(stackDepth);
                     }
+                    return;
                 }
-            } else {
-                LateListeners lateListeners = this.lateListeners;
-                if (lateListeners == null) {
-                    this.lateListeners = lateListeners = new LateListeners();
-                }
-                lateListeners.add(l);
-                execute(executor, lateListeners);
             }
+
+            LateListeners lateListeners = this.lateListeners;
+            if (lateListeners == null) {
+                this.lateListeners = lateListeners = new LateListeners();
+            }
+            lateListeners.add(l);
+            execute(executor, lateListeners);
         } else {
             // Add the late listener to lateListeners in the executor thread for thread safety.
             // We could just make LateListeners extend ConcurrentLinkedQueue, but it's an overkill considering
@@ -688,45 +712,44 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
      * Returns a {@link GenericProgressiveFutureListener}, an array of {@link GenericProgressiveFutureListener}, or
      * {@code null}.
      */
-    private synchronized Object progressiveListeners() {
+    private Object progressiveListeners() {
         Object listeners = this.listeners;
-        if (listeners == null) {
-            // No listeners added
+        if (listeners == null || listeners == NOTIFYING || listeners == NOTIFIED) {
+            // No listeners added or done already, so no progress is reported anymore.
             return null;
         }
 
-        if (listeners instanceof DefaultFutureListeners) {
-            // Copy DefaultFutureListeners into an array of listeners.
-            DefaultFutureListeners dfl = (DefaultFutureListeners) listeners;
-            int progressiveSize = dfl.progressiveSize();
-            switch (progressiveSize) {
-                case 0:
-                    return null;
-                case 1:
-                    for (GenericFutureListener<?> l: dfl.listeners()) {
-                        if (l instanceof GenericProgressiveFutureListener) {
-                            return l;
-                        }
-                    }
-                    return null;
-            }
+        if (!(listeners instanceof GenericFutureListener[])) {
+            return listeners instanceof GenericProgressiveFutureListener ? listeners : null;
+        }
 
-            GenericFutureListener<?>[] array = dfl.listeners();
-            GenericProgressiveFutureListener<?>[] copy = new GenericProgressiveFutureListener[progressiveSize];
-            for (int i = 0, j = 0; j < progressiveSize; i ++) {
-                GenericFutureListener<?> l = array[i];
-                if (l instanceof GenericProgressiveFutureListener) {
-                    copy[j ++] = (GenericProgressiveFutureListener<?>) l;
-                }
+        // The array is never modified once published, so no lock is needed.
+        GenericFutureListener<?>[] array = (GenericFutureListener<?>[]) listeners;
+        int progressiveSize = 0;
+        GenericFutureListener<?> last = null;
+        for (GenericFutureListener<?> l: array) {
+            if (l instanceof GenericProgressiveFutureListener) {
+                progressiveSize ++;
+                last = l;
             }
+        }
 
-            return copy;
-        } else if (listeners instanceof GenericProgressiveFutureListener) {
-            return listeners;
-        } else {
-            // Only one listener was added and it's not a progressive listener.
-            return null;
+        switch (progressiveSize) {
+            case 0:
+                return null;
+            case 1:
+                return last;
         }
+
+        GenericProgressiveFutureListener<?>[] progressiveListeners =
+                new GenericProgressiveFutureListener[progressiveSize];
+        int j = 0;
+        for (GenericFutureListener<?> l: array) {
+            if (l instanceof GenericProgressiveFutureListener) {
+                progressiveListeners[j ++] = (GenericProgressiveFutureListener<?>) l;
+            }
+        }
+        return progressiveListeners;
     }
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
@@ -835,7 +858,7 @@ public class DefaultPromise<V> extends AbstractFuture<V> implements Promise<V> {
 
         @Override
         public void run() {
-            if (listeners == null) {
+            if (listeners == NOTIFIED) {
                 for (;;) {
                     GenericFutureListener<?> l = poll();
                     if (l == null) {
@@ -23,7 +23,8 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * A {@link ThreadFactory} implementation with a simple naming rule.
+ * A {@link ThreadFactory} implementation with a simple naming rule. The created threads are
+ * {@link FastThreadLocalThread}s so that they can access {@link FastThreadLocal} variables quickly.
  */
 public class DefaultThreadFactory implements ThreadFactory {
 
@@ -98,7 +99,7 @@ public class DefaultThreadFactory implements ThreadFactory {
 
     @Override
     public Thread newThread(Runnable r) {
-        Thread t = new Thread(r, prefix + nextId.incrementAndGet());
+        Thread t = newThread(new DefaultRunnableDecorator(r), prefix + nextId.incrementAndGet());
         try {
             if (t.isDaemon()) {
                 if (!daemon) {
@@ -118,4 +119,27 @@ public class DefaultThreadFactory implements ThreadFactory {
         }
         return t;
     }
+
+    protected Thread newThread(Runnable r, String name) {
+        return new FastThreadLocalThread(r, name);
+    }
+
+    private static final class DefaultRunnableDecorator implements Runnable {
+
+        private final Runnable r;
+
+        DefaultRunnableDecorator(Runnable r) {
+            this.r = r;
+        }
+
+        @Override
+        public void run() {
+            try {
+                r.run();
+            } finally {
+                // Release the thread-local values right away instead of when the thread is collected.
+                FastThreadLocal.removeAll();
+            }
+        }
+    }
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+/**
+ * Factory that creates new {@link EventExecutorChooser}s which are used by a {@link MultithreadEventExecutorGroup}
+ * to pick the {@link EventExecutor} returned by {@link EventExecutorGroup#next()}.
+ */
+public interface EventExecutorChooserFactory {
+
+    /**
+     * Returns a new {@link EventExecutorChooser} which chooses from the given {@link EventExecutor}s.
+     * The array must not be modified by the returned {@link EventExecutorChooser}.
+     */
+    EventExecutorChooser newChooser(EventExecutor[] executors);
+
+    /**
+     * Chooses the next {@link EventExecutor} to use.
+     */
+    interface EventExecutorChooser {
+
+        /**
+         * Returns the new {@link EventExecutor} to use. This method may be called by any thread at the same time.
+         */
+        EventExecutor next();
+    }
+}
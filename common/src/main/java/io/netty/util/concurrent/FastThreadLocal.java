@@ -0,0 +1,179 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.internal.InternalThreadLocalMap;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * A special variant of {@link ThreadLocal} that yields higher access performance when accessed from a
+ * {@link FastThreadLocalThread}.
+ * <p>
+ * Internally, a {@link FastThreadLocal} uses a constant index in an array, instead of using hash code and hash
+ * table, to look for a variable.  Although seemingly very subtle, it yields slight performance advantage over
+ * using a hash table, and it is useful when accessed frequently.
+ * </p><p>
+ * To take advantage of this thread-local variable, your thread must be a {@link FastThreadLocalThread} or its
+ * subtype. By default, all threads created by {@link DefaultThreadFactory} are {@link FastThreadLocalThread} due to
+ * this reason.
+ * </p><p>
+ * Note that the fast path is only possible on threads that extend {@link FastThreadLocalThread}, because it
+ * requires a special field to store the necessary state.  An access by any other kind of thread falls back to a
+ * regular {@link ThreadLocal}.
+ * </p><p>
+ * Each instance takes an index which is never released, and every thread holds its value strongly until
+ * {@link #remove()} or {@link #removeAll()} is called or the thread terminates.  {@link #removeAll()} passes every
+ * value of the thread to {@link #onRemoval(Object)}, so a {@link FastThreadLocal} which belongs to a long-lived
+ * object, such as an allocator or an object pool, can release the per-thread state it created.  Threads created by
+ * {@link DefaultThreadFactory} call {@link #removeAll()} when they finish.  Do not create a {@link FastThreadLocal}
+ * per short-lived object.
+ * </p>
+ *
+ * @param <V> the type of the thread-local variable
+ * @see ThreadLocal
+ */
+public class FastThreadLocal<V> {
+
+    // Holds the set of the variables which have a value in the current thread, so removeAll() can find them.
+    private static final int VARIABLES_TO_REMOVE_INDEX = InternalThreadLocalMap.nextVariableIndex();
+
+    /**
+     * Removes the values of all {@link FastThreadLocal}s of the current thread and passes each of them to
+     * {@link #onRemoval(Object)}.  Call it when a thread which is not going to use them anymore is returned to a
+     * pool or is about to terminate.
+     */
+    @SuppressWarnings("unchecked")
+    public static void removeAll() {
+        InternalThreadLocalMap threadLocalMap = InternalThreadLocalMap.getIfSet();
+        if (threadLocalMap == null) {
+            return;
+        }
+
+        try {
+            Object v = threadLocalMap.indexedVariable(VARIABLES_TO_REMOVE_INDEX);
+            if (v != InternalThreadLocalMap.UNSET) {
+                Set<FastThreadLocal<?>> variablesToRemove = (Set<FastThreadLocal<?>>) v;
+                // Copy as remove() modifies the set.
+                for (FastThreadLocal<?> tlv: variablesToRemove.toArray(new FastThreadLocal[variablesToRemove.size()])) {
+                    tlv.remove(threadLocalMap);
+                }
+            }
+        } finally {
+            InternalThreadLocalMap.remove();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addToVariablesToRemove(InternalThreadLocalMap threadLocalMap, FastThreadLocal<?> variable) {
+        Object v = threadLocalMap.indexedVariable(VARIABLES_TO_REMOVE_INDEX);
+        Set<FastThreadLocal<?>> variablesToRemove;
+        if (v == InternalThreadLocalMap.UNSET) {
+            variablesToRemove = Collections.newSetFromMap(new IdentityHashMap<FastThreadLocal<?>, Boolean>());
+            threadLocalMap.setIndexedVariable(VARIABLES_TO_REMOVE_INDEX, variablesToRemove);
+        } else {
+            variablesToRemove = (Set<FastThreadLocal<?>>) v;
+        }
+        variablesToRemove.add(variable);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void removeFromVariablesToRemove(
+            InternalThreadLocalMap threadLocalMap, FastThreadLocal<?> variable) {
+        Object v = threadLocalMap.indexedVariable(VARIABLES_TO_REMOVE_INDEX);
+        if (v != InternalThreadLocalMap.UNSET) {
+            ((Set<FastThreadLocal<?>>) v).remove(variable);
+        }
+    }
+
+    private final int index;
+
+    public FastThreadLocal() {
+        index = InternalThreadLocalMap.nextVariableIndex();
+    }
+
+    /**
+     * Returns the current value for the current thread.
+     */
+    @SuppressWarnings("unchecked")
+    public V get() {
+        InternalThreadLocalMap threadLocalMap = InternalThreadLocalMap.get();
+        Object v = threadLocalMap.indexedVariable(index);
+        if (v != InternalThreadLocalMap.UNSET) {
+            return (V) v;
+        }
+
+        V value = initialValue();
+        set(threadLocalMap, value);
+        return value;
+    }
+
+    /**
+     * Sets the value for the current thread.
+     */
+    public void set(V value) {
+        set(InternalThreadLocalMap.get(), value);
+    }
+
+    private void set(InternalThreadLocalMap threadLocalMap, V value) {
+        if (threadLocalMap.setIndexedVariable(index, value)) {
+            addToVariablesToRemove(threadLocalMap, this);
+        }
+    }
+
+    /**
+     * Returns {@code true} if and only if this thread-local variable is set.
+     */
+    public boolean isSet() {
+        InternalThreadLocalMap threadLocalMap = InternalThreadLocalMap.getIfSet();
+        return threadLocalMap != null && threadLocalMap.isIndexedVariableSet(index);
+    }
+
+    /**
+     * Sets the value to uninitialized and passes the old value, if any, to {@link #onRemoval(Object)}; a proceeding
+     * call to {@link #get()} will trigger a call to {@link #initialValue()}.
+     */
+    public void remove() {
+        InternalThreadLocalMap threadLocalMap = InternalThreadLocalMap.getIfSet();
+        if (threadLocalMap != null) {
+            remove(threadLocalMap);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void remove(InternalThreadLocalMap threadLocalMap) {
+        Object v = threadLocalMap.removeIndexedVariable(index);
+        removeFromVariablesToRemove(threadLocalMap, this);
+        if (v != InternalThreadLocalMap.UNSET) {
+            onRemoval((V) v);
+        }
+    }
+
+    /**
+     * Returns the initial value for this thread-local variable.
+     */
+    protected V initialValue() {
+        return null;
+    }
+
+    /**
+     * Invoked by the thread which owns the value when it was removed by {@link #remove()} or {@link #removeAll()}.
+     * Override it to release the resources which were acquired by {@link #initialValue()}.
+     */
+    protected void onRemoval(@SuppressWarnings("UnusedParameters") V value) { }
+}
@@ -18,8 +18,6 @@ package io.netty.util.concurrent;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
-import java.util.Iterator;
-import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
@@ -46,7 +44,7 @@ public final class GlobalEventExecutor extends AbstractEventExecutor {
     public static final GlobalEventExecutor INSTANCE = new GlobalEventExecutor();
 
     final Queue<Runnable> taskQueue = new LinkedBlockingQueue<Runnable>();
-    final Queue<ScheduledFutureTask<?>> delayedTaskQueue = new PriorityQueue<ScheduledFutureTask<?>>();
+    final ScheduledFutureTaskQueue delayedTaskQueue = new ScheduledFutureTaskQueue();
     final ScheduledFutureTask<Void> purgeTask = new ScheduledFutureTask<Void>(
             this, delayedTaskQueue, Executors.<Void>callable(new PurgeTask(), null),
             ScheduledFutureTask.deadlineNanos(SCHEDULE_PURGE_INTERVAL), -SCHEDULE_PURGE_INTERVAL);
@@ -343,11 +341,12 @@ public final class GlobalEventExecutor extends AbstractEventExecutor {
     private final class PurgeTask implements Runnable {
         @Override
         public void run() {
-            Iterator<ScheduledFutureTask<?>> i = delayedTaskQueue.iterator();
-            while (i.hasNext()) {
-                ScheduledFutureTask<?> task = i.next();
+            // Cancelled tasks are removed from the queue when they are cancelled already, so this is only a safety
+            // net in case the removal did not happen.
+            for (ScheduledFutureTask<?> task:
+                    delayedTaskQueue.toArray(new ScheduledFutureTask<?>[delayedTaskQueue.size()])) {
                 if (task.isCancelled()) {
-                    i.remove();
+                    delayedTaskQueue.remove(task);
                 }
             }
         }
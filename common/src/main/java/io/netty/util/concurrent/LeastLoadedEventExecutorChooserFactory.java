@@ -0,0 +1,74 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Skeletal {@link EventExecutorChooserFactory} whose {@link EventExecutorChooser}s choose the {@link EventExecutor}
+ * with the lowest {@link #load(EventExecutor)}.
+ * <p>
+ * Each {@link EventExecutorChooser#next()} call looks at the load of all {@link EventExecutor}s, starting at a
+ * different one every time so that {@link EventExecutor}s with the same load are chosen in a round-robin fashion.
+ * The load is only sampled, so a burst of calls may still choose the same {@link EventExecutor} before its load
+ * goes up.
+ */
+public abstract class LeastLoadedEventExecutorChooserFactory implements EventExecutorChooserFactory {
+
+    @Override
+    public EventExecutorChooser newChooser(EventExecutor[] executors) {
+        return new LeastLoadedEventExecutorChooser(executors);
+    }
+
+    /**
+     * Returns the current load of the given {@link EventExecutor}, or a negative value if it is unknown.
+     * {@link EventExecutor}s whose load is unknown are only chosen, in round-robin order, if the load of none of
+     * the {@link EventExecutor}s is known.
+     * This method may be called by any thread at the same time.
+     */
+    protected abstract int load(EventExecutor executor);
+
+    private final class LeastLoadedEventExecutorChooser implements EventExecutorChooser {
+        private final AtomicInteger idx = new AtomicInteger();
+        private final EventExecutor[] executors;
+
+        LeastLoadedEventExecutorChooser(EventExecutor[] executors) {
+            this.executors = executors;
+        }
+
+        @Override
+        public EventExecutor next() {
+            final EventExecutor[] executors = this.executors;
+            final int length = executors.length;
+            final int start = Math.abs(idx.getAndIncrement() % length);
+
+            EventExecutor best = executors[start];
+            int bestLoad = load(best);
+            if (bestLoad < 0) {
+                bestLoad = Integer.MAX_VALUE;
+            }
+            for (int i = 1; i < length && bestLoad > 0; i ++) {
+                EventExecutor e = executors[(start + i) % length];
+                int load = load(e);
+                if (load >= 0 && load < bestLoad) {
+                    best = e;
+                    bestLoad = load;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+/**
+ * {@link EventExecutorChooserFactory} which chooses the {@link SingleThreadEventExecutor} with the fewest
+ * {@link SingleThreadEventExecutor#pendingTasks()}, so that executors which are kept busy by a few heavy users
+ * are not handed more work.
+ * <p>
+ * Be aware that {@link SingleThreadEventExecutor#pendingTasks()} may need to traverse the task queue, depending on
+ * its implementation, so this is best suited for groups whose executors do not queue up many tasks, or for
+ * {@link DefaultEventExecutorGroup}s whose task queues know their size.
+ */
+public final class LeastPendingTasksEventExecutorChooserFactory extends LeastLoadedEventExecutorChooserFactory {
+
+    public static final LeastPendingTasksEventExecutorChooserFactory INSTANCE =
+            new LeastPendingTasksEventExecutorChooserFactory();
+
+    private LeastPendingTasksEventExecutorChooserFactory() { }
+
+    @Override
+    protected int load(EventExecutor executor) {
+        if (executor instanceof SingleThreadEventExecutor) {
+            return ((SingleThreadEventExecutor) executor).pendingTasks();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+/**
+ * Handles the tasks which could not be added to the task queue of a {@link SingleThreadEventExecutor} because it is
+ * full.
+ *
+ * @see RejectedExecutionHandlers
+ */
+public interface RejectedExecutionHandler {
+
+    /**
+     * Called when {@code task} could not be added to the task queue of the given {@link SingleThreadEventExecutor}
+     * because it has reached its {@code maxPendingTasks}. This method may be called by any thread, including the
+     * thread of the {@link SingleThreadEventExecutor} itself.
+     */
+    void rejected(Runnable task, SingleThreadEventExecutor executor);
+}
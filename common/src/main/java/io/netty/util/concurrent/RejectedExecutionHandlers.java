@@ -0,0 +1,104 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Expose helper methods which create different {@link RejectedExecutionHandler}s.
+ */
+public final class RejectedExecutionHandlers {
+
+    private static final RejectedExecutionHandler REJECT = new RejectedExecutionHandler() {
+        @Override
+        public void rejected(Runnable task, SingleThreadEventExecutor executor) {
+            throw new RejectedExecutionException("event executor task queue full");
+        }
+    };
+
+    private static final RejectedExecutionHandler CALLER_RUNS = new RejectedExecutionHandler() {
+        @Override
+        public void rejected(Runnable task, SingleThreadEventExecutor executor) {
+            if (executor.isShutdown()) {
+                SingleThreadEventExecutor.reject();
+            }
+            task.run();
+        }
+    };
+
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private RejectedExecutionHandlers() { }
+
+    /**
+     * Returns a {@link RejectedExecutionHandler} that always throws a {@link RejectedExecutionException}.
+     */
+    public static RejectedExecutionHandler reject() {
+        return REJECT;
+    }
+
+    /**
+     * Returns a {@link RejectedExecutionHandler} that runs the task in the thread which tried to submit it, unless the
+     * {@link SingleThreadEventExecutor} was shut down. Only use it if the submitted tasks do not depend on being run
+     * by the thread of the {@link SingleThreadEventExecutor}, which is not true for most tasks of a
+     * {@link io.netty.util.concurrent.EventExecutor} that handles I/O.
+     */
+    public static RejectedExecutionHandler callerRuns() {
+        return CALLER_RUNS;
+    }
+
+    /**
+     * Returns a {@link RejectedExecutionHandler} that blocks the submitting thread for up to the given time until the
+     * task could be added to the task queue, and throws a {@link RejectedExecutionException} if the time elapsed.
+     * The thread of the {@link SingleThreadEventExecutor} itself is never blocked as it is the only one that can
+     * make room in the task queue, so tasks submitted by it are rejected right away.
+     */
+    public static RejectedExecutionHandler block(long timeout, TimeUnit unit) {
+        if (unit == null) {
+            throw new NullPointerException("unit");
+        }
+        if (timeout < 0) {
+            throw new IllegalArgumentException("timeout: " + timeout + " (expected: >= 0)");
+        }
+        final long timeoutNanos = unit.toNanos(timeout);
+        return new RejectedExecutionHandler() {
+            @Override
+            public void rejected(Runnable task, SingleThreadEventExecutor executor) {
+                if (!executor.inEventLoop()) {
+                    final long deadline = System.nanoTime() + timeoutNanos;
+                    for (;;) {
+                        // Make sure the executor is not sleeping while we wait for it to make room.
+                        executor.wakeup(false);
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        LockSupport.parkNanos(Math.min(remaining, MAX_PARK_NANOS));
+                        if (executor.offerTask(task)) {
+                            return;
+                        }
+                        if (Thread.currentThread().isInterrupted()) {
+                            break;
+                        }
+                    }
+                }
+                REJECT.rejected(task, executor);
+            }
+        };
+    }
+}
@@ -16,9 +16,11 @@
 
 package io.netty.util.concurrent;
 
-import java.util.Queue;
+import io.netty.util.internal.OneTimeTask;
+
 import java.util.concurrent.Callable;
 import java.util.concurrent.Delayed;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -27,6 +29,8 @@ final class ScheduledFutureTask<V> extends PromiseTask<V> implements ScheduledFu
     private static final AtomicLong nextTaskId = new AtomicLong();
     private static final long START_TIME = System.nanoTime();
 
+    static final int INDEX_NOT_IN_QUEUE = -1;
+
     static long nanoTime() {
         return System.nanoTime() - START_TIME;
     }
@@ -36,20 +40,22 @@ final class ScheduledFutureTask<V> extends PromiseTask<V> implements ScheduledFu
     }
 
     private final long id = nextTaskId.getAndIncrement();
-    private final Queue<ScheduledFutureTask<?>> delayedTaskQueue;
+    private final ScheduledFutureTaskQueue delayedTaskQueue;
     private long deadlineNanos;
     /* 0 - no repeat, >0 - repeat at fixed rate, <0 - repeat with fixed delay */
     private final long periodNanos;
+    // The position in the delayedTaskQueue, only accessed from the EventExecutor thread.
+    private int queueIndex = INDEX_NOT_IN_QUEUE;
 
     ScheduledFutureTask(
-            EventExecutor executor, Queue<ScheduledFutureTask<?>> delayedTaskQueue,
+            EventExecutor executor, ScheduledFutureTaskQueue delayedTaskQueue,
             Runnable runnable, V result, long nanoTime) {
 
         this(executor, delayedTaskQueue, toCallable(runnable, result), nanoTime);
     }
 
     ScheduledFutureTask(
-            EventExecutor executor, Queue<ScheduledFutureTask<?>> delayedTaskQueue,
+            EventExecutor executor, ScheduledFutureTaskQueue delayedTaskQueue,
             Callable<V> callable, long nanoTime, long period) {
 
         super(executor, callable);
@@ -62,7 +68,7 @@ final class ScheduledFutureTask<V> extends PromiseTask<V> implements ScheduledFu
     }
 
     ScheduledFutureTask(
-            EventExecutor executor, Queue<ScheduledFutureTask<?>> delayedTaskQueue,
+            EventExecutor executor, ScheduledFutureTaskQueue delayedTaskQueue,
             Callable<V> callable, long nanoTime) {
 
         super(executor, callable);
@@ -76,6 +82,14 @@ final class ScheduledFutureTask<V> extends PromiseTask<V> implements ScheduledFu
         return super.executor();
     }
 
+    int queueIndex() {
+        return queueIndex;
+    }
+
+    void queueIndex(int queueIndex) {
+        this.queueIndex = queueIndex;
+    }
+
     public long deadlineNanos() {
         return deadlineNanos;
     }
@@ -145,6 +159,36 @@ final class ScheduledFutureTask<V> extends PromiseTask<V> implements ScheduledFu
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * A cancelled task is removed from the delayed task queue right away, so it does not occupy it until its
+     * deadline.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (!super.cancel(mayInterruptIfRunning)) {
+            return false;
+        }
+
+        EventExecutor executor = executor();
+        if (executor.inEventLoop()) {
+            delayedTaskQueue.remove(this);
+        } else {
+            try {
+                executor.execute(new OneTimeTask() {
+                    @Override
+                    public void run() {
+                        delayedTaskQueue.remove(ScheduledFutureTask.this);
+                    }
+                });
+            } catch (RejectedExecutionException ignore) {
+                // The executor was shut down and so will discard all delayed tasks anyway.
+            }
+        }
+        return true;
+    }
+
     @Override
     protected StringBuilder toStringBuilder() {
         StringBuilder buf = super.toStringBuilder();
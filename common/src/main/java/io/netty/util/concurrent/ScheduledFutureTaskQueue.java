@@ -0,0 +1,210 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary heap of {@link ScheduledFutureTask}s ordered by their deadline. Every task stores its own position in the
+ * heap, so a cancelled task can be removed in {@code O(log n)} instead of staying in the queue until its deadline.
+ * <p>
+ * This class is not thread-safe and must only be used by the thread of the owning {@link EventExecutor}.
+ */
+final class ScheduledFutureTaskQueue extends AbstractQueue<ScheduledFutureTask<?>> {
+
+    private static final ScheduledFutureTask<?>[] EMPTY = new ScheduledFutureTask<?>[0];
+    private static final int INITIAL_CAPACITY = 16;
+
+    private ScheduledFutureTask<?>[] queue = EMPTY;
+    private int size;
+
+    @Override
+    public boolean offer(ScheduledFutureTask<?> task) {
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        if (task.queueIndex() != ScheduledFutureTask.INDEX_NOT_IN_QUEUE) {
+            throw new IllegalArgumentException("task already queued: " + task);
+        }
+
+        if (size == queue.length) {
+            queue = Arrays.copyOf(queue, Math.max(INITIAL_CAPACITY, size << 1));
+        }
+        siftUp(size ++, task);
+        return true;
+    }
+
+    @Override
+    public ScheduledFutureTask<?> poll() {
+        if (size == 0) {
+            return null;
+        }
+        ScheduledFutureTask<?> result = queue[0];
+        result.queueIndex(ScheduledFutureTask.INDEX_NOT_IN_QUEUE);
+
+        ScheduledFutureTask<?> last = queue[-- size];
+        queue[size] = null;
+        if (size != 0) {
+            siftDown(0, last);
+        }
+        return result;
+    }
+
+    @Override
+    public ScheduledFutureTask<?> peek() {
+        return size == 0 ? null : queue[0];
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof ScheduledFutureTask)) {
+            return false;
+        }
+        ScheduledFutureTask<?> task = (ScheduledFutureTask<?>) o;
+        int i = task.queueIndex();
+        if (i < 0 || i >= size || queue[i] != task) {
+            return false;
+        }
+
+        task.queueIndex(ScheduledFutureTask.INDEX_NOT_IN_QUEUE);
+        if (-- size == i) {
+            queue[i] = null;
+            return true;
+        }
+
+        // Move the last task into the free slot and restore the heap property.
+        ScheduledFutureTask<?> moved = queue[size];
+        queue[size] = null;
+        siftDown(i, moved);
+        if (queue[i] == moved) {
+            siftUp(i, moved);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof ScheduledFutureTask)) {
+            return false;
+        }
+        int i = ((ScheduledFutureTask<?>) o).queueIndex();
+        return i >= 0 && i < size && queue[i] == o;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i ++) {
+            queue[i].queueIndex(ScheduledFutureTask.INDEX_NOT_IN_QUEUE);
+            queue[i] = null;
+        }
+        size = 0;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return Arrays.copyOf(queue, size);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T[] toArray(T[] a) {
+        if (a.length < size) {
+            return (T[]) Arrays.copyOf(queue, size, a.getClass());
+        }
+        System.arraycopy(queue, 0, a, 0, size);
+        if (a.length > size) {
+            a[size] = null;
+        }
+        return a;
+    }
+
+    /**
+     * Returns an {@link Iterator} over the tasks in no particular order. The queue must not be modified during the
+     * iteration.
+     */
+    @Override
+    public Iterator<ScheduledFutureTask<?>> iterator() {
+        return new Iterator<ScheduledFutureTask<?>>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public ScheduledFutureTask<?> next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                return queue[index ++];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("remove");
+            }
+        };
+    }
+
+    private void siftUp(int k, ScheduledFutureTask<?> task) {
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            ScheduledFutureTask<?> p = queue[parent];
+            if (task.compareTo(p) >= 0) {
+                break;
+            }
+            queue[k] = p;
+            p.queueIndex(k);
+            k = parent;
+        }
+        queue[k] = task;
+        task.queueIndex(k);
+    }
+
+    private void siftDown(int k, ScheduledFutureTask<?> task) {
+        int half = size >>> 1;
+        while (k < half) {
+            int child = (k << 1) + 1;
+            ScheduledFutureTask<?> c = queue[child];
+            int right = child + 1;
+            if (right < size && c.compareTo(queue[right]) > 0) {
+                c = queue[child = right];
+            }
+            if (task.compareTo(c) <= 0) {
+                break;
+            }
+            queue[k] = c;
+            c.queueIndex(k);
+            k = child;
+        }
+        queue[k] = task;
+        task.queueIndex(k);
+    }
+}
@@ -16,14 +16,13 @@
 package io.netty.util.concurrent;
 
 import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.SystemPropertyUtil;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
@@ -46,6 +45,9 @@ public abstract class SingleThreadEventExecutor extends AbstractEventExecutor {
     private static final InternalLogger logger =
             InternalLoggerFactory.getInstance(SingleThreadEventExecutor.class);
 
+    protected static final int DEFAULT_MAX_PENDING_EXECUTOR_TASKS =
+            Math.max(16, SystemPropertyUtil.getInt("io.netty.eventexecutor.maxPendingTasks", Integer.MAX_VALUE));
+
     private static final int ST_NOT_STARTED = 1;
     private static final int ST_STARTED = 2;
     private static final int ST_SHUTTING_DOWN = 3;
@@ -68,10 +70,14 @@ public abstract class SingleThreadEventExecutor extends AbstractEventExecutor {
             updater = AtomicIntegerFieldUpdater.newUpdater(SingleThreadEventExecutor.class, "state");
         }
         STATE_UPDATER = updater;
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("-Dio.netty.eventexecutor.maxPendingTasks: {}", DEFAULT_MAX_PENDING_EXECUTOR_TASKS);
+        }
     }
 
     private final Queue<Runnable> taskQueue;
-    final Queue<ScheduledFutureTask<?>> delayedTaskQueue = new PriorityQueue<ScheduledFutureTask<?>>();
+    final ScheduledFutureTaskQueue delayedTaskQueue = new ScheduledFutureTaskQueue();
 
     private volatile Thread thread;
     private final Executor executor;
@@ -79,6 +85,8 @@ public abstract class SingleThreadEventExecutor extends AbstractEventExecutor {
     private final Semaphore threadLock = new Semaphore(0);
     private final Set<Runnable> shutdownHooks = new LinkedHashSet<Runnable>();
     private final boolean addTaskWakesUp;
+    private final int maxPendingTasks;
+    private final RejectedExecutionHandler rejectedExecutionHandler;
 
     private long lastExecutionTime;
 
@@ -104,6 +112,22 @@ public abstract class SingleThreadEventExecutor extends AbstractEventExecutor {
         this(parent, new ThreadPerTaskExecutor(threadFactory), addTaskWakesUp);
     }
 
+    /**
+     * Create a new instance
+     *
+     * @param parent            the {@link EventExecutorGroup} which is the parent of this instance and belongs to it
+     * @param threadFactory     the {@link ThreadFactory} which will be used for the used {@link Thread}
+     * @param addTaskWakesUp    {@code true} if and only if invocation of {@link #addTask(Runnable)} will wake up the
+     *                          executor thread
+     * @param maxPendingTasks   the maximum number of pending tasks before new tasks will be rejected.
+     * @param rejectedHandler   the {@link RejectedExecutionHandler} to use.
+     */
+    protected SingleThreadEventExecutor(
+            EventExecutorGroup parent, ThreadFactory threadFactory, boolean addTaskWakesUp,
+            int maxPendingTasks, RejectedExecutionHandler rejectedHandler) {
+        this(parent, new ThreadPerTaskExecutor(threadFactory), addTaskWakesUp, maxPendingTasks, rejectedHandler);
+    }
+
     /**
      * Create a new instance
      *
@@ -113,15 +137,38 @@ public abstract class SingleThreadEventExecutor extends AbstractEventExecutor {
      *                          executor thread
      */
     protected SingleThreadEventExecutor(EventExecutorGroup parent, Executor executor, boolean addTaskWakesUp) {
+        this(parent, executor, addTaskWakesUp, DEFAULT_MAX_PENDING_EXECUTOR_TASKS, RejectedExecutionHandlers.reject());
+    }
+
+    /**
+     * Create a new instance
+     *
+     * @param parent            the {@link EventExecutorGroup} which is the parent of this instance and belongs to it
+     * @param executor          the {@link Executor} which will be used for executing
+     * @param addTaskWakesUp    {@code true} if and only if invocation of {@link #addTask(Runnable)} will wake up the
+     *                          executor thread
+     * @param maxPendingTasks   the maximum number of pending tasks before new tasks will be rejected.
+     * @param rejectedHandler   the {@link RejectedExecutionHandler} to use.
+     */
+    protected SingleThreadEventExecutor(EventExecutorGroup parent, Executor executor, boolean addTaskWakesUp,
+                                        int maxPendingTasks, RejectedExecutionHandler rejectedHandler) {
         super(parent);
 
         if (executor == null) {
             throw new NullPointerException("executor");
         }
+        if (maxPendingTasks <= 0) {
+            throw new IllegalArgumentException("maxPendingTasks: " + maxPendingTasks + " (expected: > 0)");
+        }
+        if (rejectedHandler == null) {
+            throw new NullPointerException("rejectedHandler");
+        }
 
         this.addTaskWakesUp = addTaskWakesUp;
         this.executor = executor;
-        taskQueue = newTaskQueue();
+        this.maxPendingTasks = maxPendingTasks;
+        rejectedExecutionHandler = rejectedHandler;
+        taskQueue = newTaskQueue(maxPendingTasks);
     }
 
     /**
@@ -129,9 +176,13 @@ public abstract class SingleThreadEventExecutor extends AbstractEventExecutor {
      * {@link LinkedBlockingQueue} but if your sub-class of {@link SingleThreadEventExecutor} will not do any blocking
      * calls on the this {@link Queue} it may make sense to {@code @Override} this and return some more performant
      * implementation that does not support blocking operations at all.
+     *
+     * @param maxPendingTasks   the maximum number of tasks the returned {@link Queue} should hold, or
+     *                          {@link Integer#MAX_VALUE} if it should be unbounded. When the {@link Queue} is full,
+     *                          new tasks are handed to the {@link RejectedExecutionHandler} of this executor.
      */
-    protected Queue<Runnable> newTaskQueue() {
-        return new LinkedBlockingQueue<Runnable>();
+    protected Queue<Runnable> newTaskQueue(int maxPendingTasks) {
+        return new LinkedBlockingQueue<Runnable>(maxPendingTasks);
     }
 
     /**
@@ -164,7 +215,12 @@ public abstract class SingleThreadEventExecutor extends AbstractEventExecutor {
      * Take the next {@link Runnable} from the task queue and so will block if no task is currently present.
      * <p>
      * Be aware that this method will throw an {@link UnsupportedOperationException} if the task queue, which was
-     * created via {@link #newTaskQueue()}, does not implement {@link BlockingQueue}.
+     * created via {@link #newTaskQueue(int)}, does not implement {@link BlockingQueue}.
+     * </p>
+     * <p>
+     * If a limit was set via {@code maxPendingTasks}, the task queue is bounded to {@link #maxPendingTasks()} tasks.
+     * This method still only blocks while the task queue is empty; it is {@link #execute(Runnable)} that hands a
+     * task to the {@link RejectedExecutionHandler} instead of blocking when the task queue is full.
      * </p>
      *
      * @return {@code null} if the executor thread has been interrupted or waken up.
@@ -228,8 +284,11 @@ public abstract class SingleThreadEventExecutor extends AbstractEventExecutor {
             }
 
             if (delayedTask.deadlineNanos() <= nanoTime) {
+                if (!taskQueue.offer(delayedTask)) {
+                    // No space left in the task queue, keep the task in the delayed queue for the next round.
+                    break;
+                }
                 delayedTaskQueue.remove();
-                taskQueue.add(delayedTask);
             } else {
                 break;
             }
@@ -262,18 +321,45 @@ public abstract class SingleThreadEventExecutor extends AbstractEventExecutor {
         return taskQueue.size();
     }
 
+    /**
+     * Return the number of scheduled tasks which are neither executed nor cancelled yet.
+     *
+     * <strong>The scheduled tasks are only maintained by the thread of this executor, so the returned value may be
+     * slightly outdated if this method is called from another thread.</strong>
+     */
+    public final int scheduledTasks() {
+        return delayedTaskQueue.size();
+    }
+
+    /**
+     * Return the maximum number of tasks the task queue may hold, or {@link Integer#MAX_VALUE} if it is unbounded.
+     */
+    public final int maxPendingTasks() {
+        return maxPendingTasks;
+    }
+
     /**
      * Add a task to the task queue, or throws a {@link RejectedExecutionException} if this instance was shutdown
-     * before.
+     * before. If the task queue is full the task is handed to the {@link RejectedExecutionHandler}.
      */
     protected void addTask(Runnable task) {
         if (task == null) {
             throw new NullPointerException("task");
         }
+        if (!offerTask(task)) {
+            rejectedExecutionHandler.rejected(task, this);
+        }
+    }
+
+    /**
+     * Try to add a task to the task queue and return {@code false} if it is full, or throws a
+     * {@link RejectedExecutionException} if this instance was shutdown before.
+     */
+    final boolean offerTask(Runnable task) {
         if (isShutdown()) {
             reject();
         }
-        taskQueue.add(task);
+        return taskQueue.offer(task);
     }
 
     /**
@@ -362,7 +448,7 @@ public abstract class SingleThreadEventExecutor extends AbstractEventExecutor {
     protected long delayNanos(long currentTimeNanos) {
         ScheduledFutureTask<?> delayedTask = delayedTaskQueue.peek();
         if (delayedTask == null) {
-            return SCHEDULE_PURGE_INTERVAL;
+            return DEFAULT_DELAY_NANOS;
         }
 
         return delayedTask.delayNanos(currentTimeNanos);
@@ -393,7 +479,8 @@ public abstract class SingleThreadEventExecutor extends AbstractEventExecutor {
 
     protected void wakeup(boolean inEventLoop) {
         if (!inEventLoop || STATE_UPDATER.get(this) == ST_SHUTTING_DOWN) {
-            taskQueue.add(WAKEUP_TASK);
+            // If the task queue is full there are enough tasks to wake up the executor thread anyway.
+            taskQueue.offer(WAKEUP_TASK);
         }
     }
 
@@ -699,7 +786,7 @@ public abstract class SingleThreadEventExecutor extends AbstractEventExecutor {
 
     // ScheduledExecutorService implementation
 
-    private static final long SCHEDULE_PURGE_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    private static final long DEFAULT_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
 
     @Override
     public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
@@ -799,9 +886,6 @@ public abstract class SingleThreadEventExecutor extends AbstractEventExecutor {
     private void startThread() {
         if (STATE_UPDATER.get(this) == ST_NOT_STARTED) {
             if (STATE_UPDATER.compareAndSet(this, ST_NOT_STARTED, ST_STARTED)) {
-                delayedTaskQueue.add(new ScheduledFutureTask<Void>(
-                        this, delayedTaskQueue, Executors.<Void>callable(new PurgeTask(), null),
-                        ScheduledFutureTask.deadlineNanos(SCHEDULE_PURGE_INTERVAL), -SCHEDULE_PURGE_INTERVAL));
                 doStartThread();
             }
         }
@@ -866,17 +950,4 @@ public abstract class SingleThreadEventExecutor extends AbstractEventExecutor {
             }
         });
     }
-
-    private final class PurgeTask implements Runnable {
-        @Override
-        public void run() {
-            Iterator<ScheduledFutureTask<?>> i = delayedTaskQueue.iterator();
-            while (i.hasNext()) {
-                ScheduledFutureTask<?> task = i.next();
-                if (task.isCancelled()) {
-                    i.remove();
-                }
-            }
-        }
-    }
 }
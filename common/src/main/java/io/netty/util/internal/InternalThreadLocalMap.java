@@ -0,0 +1,178 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal;
+
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.concurrent.FastThreadLocalThread;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The internal data structure that stores the thread-local variables of {@link FastThreadLocal}s. Note that this
+ * class is for internal use only. Use {@link FastThreadLocal} unless you know what you are doing.
+ */
+public final class InternalThreadLocalMap {
+
+    /**
+     * The value of an indexed variable which was not set yet.
+     */
+    public static final Object UNSET = new Object();
+
+    private static final ThreadLocal<InternalThreadLocalMap> slowThreadLocalMap =
+            new ThreadLocal<InternalThreadLocalMap>();
+    private static final AtomicInteger nextIndex = new AtomicInteger();
+    private static final int INITIAL_SIZE = 32;
+
+    private Object[] indexedVariables;
+
+    /**
+     * Returns the map of the current thread or {@code null} if it has none yet.
+     */
+    public static InternalThreadLocalMap getIfSet() {
+        Thread thread = Thread.currentThread();
+        if (thread instanceof FastThreadLocalThread) {
+            return ((FastThreadLocalThread) thread).threadLocalMap();
+        }
+        return slowThreadLocalMap.get();
+    }
+
+    /**
+     * Returns the map of the current thread and creates it if necessary.
+     */
+    public static InternalThreadLocalMap get() {
+        Thread thread = Thread.currentThread();
+        if (thread instanceof FastThreadLocalThread) {
+            return fastGet((FastThreadLocalThread) thread);
+        } else {
+            return slowGet();
+        }
+    }
+
+    private static InternalThreadLocalMap fastGet(FastThreadLocalThread thread) {
+        InternalThreadLocalMap threadLocalMap = thread.threadLocalMap();
+        if (threadLocalMap == null) {
+            thread.setThreadLocalMap(threadLocalMap = new InternalThreadLocalMap());
+        }
+        return threadLocalMap;
+    }
+
+    private static InternalThreadLocalMap slowGet() {
+        InternalThreadLocalMap ret = slowThreadLocalMap.get();
+        if (ret == null) {
+            ret = new InternalThreadLocalMap();
+            slowThreadLocalMap.set(ret);
+        }
+        return ret;
+    }
+
+    /**
+     * Removes the map of the current thread and so all values of all {@link FastThreadLocal}s.
+     */
+    public static void remove() {
+        Thread thread = Thread.currentThread();
+        if (thread instanceof FastThreadLocalThread) {
+            ((FastThreadLocalThread) thread).setThreadLocalMap(null);
+        } else {
+            slowThreadLocalMap.remove();
+        }
+    }
+
+    /**
+     * Returns a new index for an indexed variable. Indexes are never reused.
+     */
+    public static int nextVariableIndex() {
+        int index = nextIndex.getAndIncrement();
+        if (index < 0) {
+            nextIndex.decrementAndGet();
+            throw new IllegalStateException("too many thread-local indexed variables");
+        }
+        return index;
+    }
+
+    private InternalThreadLocalMap() {
+        indexedVariables = newIndexedVariableTable(INITIAL_SIZE);
+    }
+
+    private static Object[] newIndexedVariableTable(int size) {
+        Object[] array = new Object[size];
+        Arrays.fill(array, UNSET);
+        return array;
+    }
+
+    /**
+     * Returns the value of the variable with the given index or {@link #UNSET} if it was not set.
+     */
+    public Object indexedVariable(int index) {
+        Object[] lookup = indexedVariables;
+        return index < lookup.length ? lookup[index] : UNSET;
+    }
+
+    /**
+     * Sets the value of the variable with the given index.
+     *
+     * @return {@code true} if and only if a new thread-local variable has been created
+     */
+    public boolean setIndexedVariable(int index, Object value) {
+        Object[] lookup = indexedVariables;
+        if (index < lookup.length) {
+            Object oldValue = lookup[index];
+            lookup[index] = value;
+            return oldValue == UNSET;
+        } else {
+            expandIndexedVariableTableAndSet(index, value);
+            return true;
+        }
+    }
+
+    private void expandIndexedVariableTableAndSet(int index, Object value) {
+        Object[] oldArray = indexedVariables;
+        final int oldCapacity = oldArray.length;
+        int newCapacity = oldCapacity;
+        while (newCapacity <= index) {
+            newCapacity <<= 1;
+        }
+
+        Object[] newArray = Arrays.copyOf(oldArray, newCapacity);
+        Arrays.fill(newArray, oldCapacity, newArray.length, UNSET);
+        newArray[index] = value;
+        indexedVariables = newArray;
+    }
+
+    /**
+     * Removes the value of the variable with the given index.
+     *
+     * @return the old value or {@link #UNSET} if it was not set
+     */
+    public Object removeIndexedVariable(int index) {
+        Object[] lookup = indexedVariables;
+        if (index < lookup.length) {
+            Object v = lookup[index];
+            lookup[index] = UNSET;
+            return v;
+        } else {
+            return UNSET;
+        }
+    }
+
+    /**
+     * Returns {@code true} if the variable with the given index was set.
+     */
+    public boolean isIndexedVariableSet(int index) {
+        Object[] lookup = indexedVariables;
+        return index < lookup.length && lookup[index] != UNSET;
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock-free, bounded {@link java.util.Queue} implementation for the multiple-producer single-consumer pattern.
+ * <strong>It's important that it is only used by one consumer thread as otherwise it is not thread-safe.</strong>
+ *
+ * The elements are stored in a pre-allocated ring buffer, so neither {@link #offer(Object)} nor {@link #poll()}
+ * allocates. The producer and the consumer index are padded to live on different cache lines, so producers and the
+ * consumer do not invalidate each others cache line on every operation.
+ *
+ * This implementation is based on the {@code MpscArrayQueue} of
+ * <a href="https://github.com/JCTools/JCTools">JCTools</a>.
+ */
+final class MpscArrayQueue<E> extends MpscArrayQueueConsumerField<E> {
+
+    // Padding to keep the consumer index away from whatever is allocated next to this queue.
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+
+    MpscArrayQueue(int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    public boolean offer(E e) {
+        if (e == null) {
+            throw new NullPointerException("e");
+        }
+
+        final int mask = this.mask;
+        final long capacity = mask + 1;
+        long producerLimit = this.producerLimit;
+        long producerIndex;
+        do {
+            producerIndex = this.producerIndex;
+            if (producerIndex >= producerLimit) {
+                // The cached limit was reached, so refresh it from the consumer index which is more expensive to
+                // read as the consumer writes to it all the time.
+                producerLimit = consumerIndex + capacity;
+                if (producerIndex >= producerLimit) {
+                    // Full.
+                    return false;
+                }
+                lazySetProducerLimit(producerLimit);
+            }
+        } while (!casProducerIndex(producerIndex, producerIndex + 1));
+
+        // The slot is claimed, publish the element. The consumer spins until it becomes visible.
+        buffer.lazySet((int) producerIndex & mask, e);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        final long consumerIndex = this.consumerIndex;
+        final int offset = (int) consumerIndex & mask;
+        E e = buffer.get(offset);
+        if (e == null) {
+            if (consumerIndex == producerIndex) {
+                // Empty.
+                return null;
+            }
+            // A producer claimed the slot already but did not publish the element yet.
+            do {
+                e = buffer.get(offset);
+            } while (e == null);
+        }
+        buffer.lazySet(offset, null);
+        lazySetConsumerIndex(consumerIndex + 1);
+        return e;
+    }
+
+    @Override
+    public E peek() {
+        final long consumerIndex = this.consumerIndex;
+        final int offset = (int) consumerIndex & mask;
+        E e = buffer.get(offset);
+        if (e == null && consumerIndex != producerIndex) {
+            do {
+                e = buffer.get(offset);
+            } while (e == null);
+        }
+        return e;
+    }
+
+    @Override
+    public int size() {
+        // Read the consumer index before and after the producer index until both reads are the same, so the size is
+        // never negative or greater than the capacity.
+        long after = consumerIndex;
+        for (;;) {
+            final long before = after;
+            final long producerIndex = this.producerIndex;
+            after = consumerIndex;
+            if (before == after) {
+                return (int) (producerIndex - after);
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return consumerIndex == producerIndex;
+    }
+
+    /**
+     * Returns the maximal number of elements this queue can hold.
+     */
+    int capacity() {
+        return mask + 1;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        // Removing an element from the middle is not supported by this queue.
+        return false;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        throw new UnsupportedOperationException();
+    }
+}
+
+abstract class MpscArrayQueueBase<E> extends AbstractQueue<E> {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    final AtomicReferenceArray<E> buffer;
+    final int mask;
+
+    MpscArrayQueueBase(int capacity) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException(
+                    "capacity: " + capacity + " (expected: 1-" + MAX_CAPACITY + ')');
+        }
+        // Round up to the next power of two, so the index of a slot can be computed with a mask.
+        int actualCapacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        buffer = new AtomicReferenceArray<E>(actualCapacity);
+        mask = actualCapacity - 1;
+    }
+}
+
+abstract class MpscArrayQueueL1Pad<E> extends MpscArrayQueueBase<E> {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+
+    MpscArrayQueueL1Pad(int capacity) {
+        super(capacity);
+    }
+}
+
+abstract class MpscArrayQueueProducerFields<E> extends MpscArrayQueueL1Pad<E> {
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<MpscArrayQueueProducerFields> PRODUCER_INDEX_UPDATER;
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<MpscArrayQueueProducerFields> PRODUCER_LIMIT_UPDATER;
+
+    static {
+        @SuppressWarnings("rawtypes")
+        AtomicLongFieldUpdater<MpscArrayQueueProducerFields> updater =
+                PlatformDependent.newAtomicLongFieldUpdater(MpscArrayQueueProducerFields.class, "producerIndex");
+        if (updater == null) {
+            updater = AtomicLongFieldUpdater.newUpdater(MpscArrayQueueProducerFields.class, "producerIndex");
+        }
+        PRODUCER_INDEX_UPDATER = updater;
+
+        updater = PlatformDependent.newAtomicLongFieldUpdater(MpscArrayQueueProducerFields.class, "producerLimit");
+        if (updater == null) {
+            updater = AtomicLongFieldUpdater.newUpdater(MpscArrayQueueProducerFields.class, "producerLimit");
+        }
+        PRODUCER_LIMIT_UPDATER = updater;
+    }
+
+    volatile long producerIndex;
+
+    // Cached upper bound of producerIndex, so producers do not need to read consumerIndex on every offer.
+    volatile long producerLimit;
+
+    MpscArrayQueueProducerFields(int capacity) {
+        super(capacity);
+        producerLimit = mask + 1;
+    }
+
+    final boolean casProducerIndex(long expect, long update) {
+        return PRODUCER_INDEX_UPDATER.compareAndSet(this, expect, update);
+    }
+
+    final void lazySetProducerLimit(long limit) {
+        PRODUCER_LIMIT_UPDATER.lazySet(this, limit);
+    }
+}
+
+abstract class MpscArrayQueueL2Pad<E> extends MpscArrayQueueProducerFields<E> {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+
+    MpscArrayQueueL2Pad(int capacity) {
+        super(capacity);
+    }
+}
+
+abstract class MpscArrayQueueConsumerField<E> extends MpscArrayQueueL2Pad<E> {
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<MpscArrayQueueConsumerField> CONSUMER_INDEX_UPDATER;
+
+    static {
+        @SuppressWarnings("rawtypes")
+        AtomicLongFieldUpdater<MpscArrayQueueConsumerField> updater =
+                PlatformDependent.newAtomicLongFieldUpdater(MpscArrayQueueConsumerField.class, "consumerIndex");
+        if (updater == null) {
+            updater = AtomicLongFieldUpdater.newUpdater(MpscArrayQueueConsumerField.class, "consumerIndex");
+        }
+        CONSUMER_INDEX_UPDATER = updater;
+    }
+
+    // Only written by the consumer.
+    volatile long consumerIndex;
+
+    MpscArrayQueueConsumerField(int capacity) {
+        super(capacity);
+    }
+
+    final void lazySetConsumerIndex(long index) {
+        CONSUMER_INDEX_UPDATER.lazySet(this, index);
+    }
+}
@@ -39,7 +39,7 @@ import java.util.concurrent.atomic.AtomicReference;
  *
  */
 @SuppressWarnings("serial")
-final class MpscLinkedQueue extends AtomicReference<OneTimeTask> implements Queue<Runnable> {
+final class MpscLinkedQueue<E> extends AtomicReference<OneTimeTask> implements Queue<E> {
     private static final long tailOffset;
 
     static {
@@ -63,26 +63,26 @@ final class MpscLinkedQueue extends AtomicReference<OneTimeTask> implements Queu
     }
 
     @Override
-    public boolean add(Runnable runnable) {
-        if (runnable instanceof OneTimeTask) {
-            OneTimeTask node = (OneTimeTask) runnable;
+    public boolean add(E e) {
+        if (e instanceof OneTimeTask) {
+            OneTimeTask node = (OneTimeTask) e;
             node.setNext(null);
             getAndSet(node).setNext(node);
         } else {
-            final OneTimeTask n = new OneTimeTaskAdapter(runnable);
+            final OneTimeTask n = new OneTimeTaskAdapter(e);
             getAndSet(n).setNext(n);
         }
         return true;
     }
 
     @Override
-    public boolean offer(Runnable runnable) {
-        return add(runnable);
+    public boolean offer(E e) {
+        return add(e);
     }
 
     @Override
-    public Runnable remove() {
-        Runnable task = poll();
+    public E remove() {
+        E task = poll();
         if (task == null) {
             throw new NoSuchElementException();
         }
@@ -90,7 +90,7 @@ final class MpscLinkedQueue extends AtomicReference<OneTimeTask> implements Queu
     }
 
     @Override
-    public Runnable poll() {
+    public E poll() {
         final OneTimeTask next = peekTask();
         if (next == null) {
             return null;
@@ -101,7 +101,7 @@ final class MpscLinkedQueue extends AtomicReference<OneTimeTask> implements Queu
     }
 
     @Override
-    public Runnable element() {
+    public E element() {
         final OneTimeTask next = peekTask();
         if (next == null) {
             throw new NoSuchElementException();
@@ -110,7 +110,7 @@ final class MpscLinkedQueue extends AtomicReference<OneTimeTask> implements Queu
     }
 
     @Override
-    public Runnable peek() {
+    public E peek() {
         final OneTimeTask next = peekTask();
         if (next == null) {
             return null;
@@ -164,7 +164,7 @@ final class MpscLinkedQueue extends AtomicReference<OneTimeTask> implements Queu
     }
 
     @Override
-    public Iterator<Runnable> iterator() {
+    public Iterator<E> iterator() {
         throw new UnsupportedOperationException();
     }
 
@@ -194,9 +194,9 @@ final class MpscLinkedQueue extends AtomicReference<OneTimeTask> implements Queu
     }
 
     @Override
-    public boolean addAll(Collection<? extends Runnable> c) {
-        for (Runnable r: c) {
-            add(r);
+    public boolean addAll(Collection<? extends E> c) {
+        for (E e: c) {
+            add(e);
         }
         return false;
     }
@@ -221,25 +221,29 @@ final class MpscLinkedQueue extends AtomicReference<OneTimeTask> implements Queu
     }
 
     /**
-     * Unwrap {@link OneTimeTask} if needed and so return the proper queued task.
+     * Unwrap {@link OneTimeTask} if needed and so return the proper queued element.
      */
-    private static Runnable unwrapIfNeeded(OneTimeTask task) {
+    @SuppressWarnings("unchecked")
+    private E unwrapIfNeeded(OneTimeTask task) {
         if (task instanceof OneTimeTaskAdapter) {
-            return ((OneTimeTaskAdapter) task).task;
+            return (E) ((OneTimeTaskAdapter) task).value;
         }
-        return task;
+        return (E) task;
     }
 
+    /**
+     * Node which is used for all elements which are not a {@link OneTimeTask} themselves.
+     */
     private static final class OneTimeTaskAdapter extends OneTimeTask {
-        private final Runnable task;
+        private final Object value;
 
-        OneTimeTaskAdapter(Runnable task) {
-            this.task = task;
+        OneTimeTaskAdapter(Object value) {
+            this.value = value;
         }
 
         @Override
         public void run() {
-            task.run();
+            ((Runnable) value).run();
         }
     }
 }
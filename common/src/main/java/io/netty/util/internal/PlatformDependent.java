@@ -33,6 +33,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -292,6 +293,22 @@ public final class PlatformDependent {
         return PlatformDependent0.getLong(address);
     }
 
+    /**
+     * Reads an {@code int} in native byte order from the given {@code byte[]}. Must only be used if
+     * {@link #hasUnsafe()} returns {@code true}.
+     */
+    public static int getInt(byte[] data, int index) {
+        return PlatformDependent0.getInt(data, index);
+    }
+
+    /**
+     * Reads a {@code long} in native byte order from the given {@code byte[]}. Must only be used if
+     * {@link #hasUnsafe()} returns {@code true}.
+     */
+    public static long getLong(byte[] data, int index) {
+        return PlatformDependent0.getLong(data, index);
+    }
+
     public static void putOrderedObject(Object object, long address, Object value) {
         PlatformDependent0.putOrderedObject(object, address, value);
     }
@@ -377,16 +394,38 @@ public final class PlatformDependent {
 
     /**
      * Create a new {@link Queue} which is safe to use for multiple producers (different threads) and a single
-     * consumer (one thread!).
+     * consumer (one thread!). Elements which are a {@link OneTimeTask} are linked into the queue directly, without
+     * allocating a node.
+     */
+    public static <T> Queue<T> newMpscQueue() {
+        if (hasUnsafe()) {
+            return new MpscLinkedQueue<T>();
+        } else {
+            return new ConcurrentLinkedQueue<T>();
+        }
+    }
+
+    /**
+     * Create a new {@link Queue} which is safe to use for multiple producers (different threads) and a single
+     * consumer (one thread!) and which holds at most {@code capacity} elements. The capacity may be rounded up to the
+     * next power of two.
      */
-    public static Queue<Runnable> newMpscQueue() {
+    public static <T> Queue<T> newFixedMpscQueue(int capacity) {
         if (hasUnsafe()) {
-            return new MpscLinkedQueue();
+            return new MpscArrayQueue<T>(capacity);
         } else {
-            return new ConcurrentLinkedQueue<Runnable>();
+            return new ArrayBlockingQueue<T>(capacity);
         }
     }
 
+    /**
+     * Create a new {@link Queue} which is safe to use for a single producer (one thread!) and a single
+     * consumer (one thread!).
+     */
+    public static <T> Queue<T> newSpscQueue() {
+        return new SpscLinkedArrayQueue<T>();
+    }
+
     /**
      * Return the {@link ClassLoader} for the given {@link Class}.
      */
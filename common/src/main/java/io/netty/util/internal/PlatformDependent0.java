@@ -41,6 +41,7 @@ final class PlatformDependent0 {
     private static final Unsafe UNSAFE;
     private static final boolean BIG_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
     private static final long ADDRESS_FIELD_OFFSET;
+    private static final long BYTE_ARRAY_BASE_OFFSET;
 
     /**
      * {@code true} if and only if the platform supports unaligned access.
@@ -120,9 +121,11 @@ final class PlatformDependent0 {
 
         if (unsafe == null) {
             ADDRESS_FIELD_OFFSET = -1;
+            BYTE_ARRAY_BASE_OFFSET = -1;
             UNALIGNED = false;
         } else {
             ADDRESS_FIELD_OFFSET = objectFieldOffset(addressField);
+            BYTE_ARRAY_BASE_OFFSET = UNSAFE.arrayBaseOffset(byte[].class);
             boolean unaligned;
             try {
                 Class<?> bitsClass = Class.forName("java.nio.Bits", false, ClassLoader.getSystemClassLoader());
@@ -247,6 +250,46 @@ final class PlatformDependent0 {
         }
     }
 
+    static int getInt(byte[] data, int index) {
+        if (UNALIGNED) {
+            return UNSAFE.getInt(data, BYTE_ARRAY_BASE_OFFSET + index);
+        } else if (BIG_ENDIAN) {
+            return data[index] << 24 |
+                  (data[index + 1] & 0xff) << 16 |
+                  (data[index + 2] & 0xff) <<  8 |
+                   data[index + 3] & 0xff;
+        } else {
+            return data[index + 3] << 24 |
+                  (data[index + 2] & 0xff) << 16 |
+                  (data[index + 1] & 0xff) <<  8 |
+                   data[index] & 0xff;
+        }
+    }
+
+    static long getLong(byte[] data, int index) {
+        if (UNALIGNED) {
+            return UNSAFE.getLong(data, BYTE_ARRAY_BASE_OFFSET + index);
+        } else if (BIG_ENDIAN) {
+            return (long) data[index] << 56 |
+                  ((long) data[index + 1] & 0xff) << 48 |
+                  ((long) data[index + 2] & 0xff) << 40 |
+                  ((long) data[index + 3] & 0xff) << 32 |
+                  ((long) data[index + 4] & 0xff) << 24 |
+                  ((long) data[index + 5] & 0xff) << 16 |
+                  ((long) data[index + 6] & 0xff) <<  8 |
+                   (long) data[index + 7] & 0xff;
+        } else {
+            return (long) data[index + 7] << 56 |
+                  ((long) data[index + 6] & 0xff) << 48 |
+                  ((long) data[index + 5] & 0xff) << 40 |
+                  ((long) data[index + 4] & 0xff) << 32 |
+                  ((long) data[index + 3] & 0xff) << 24 |
+                  ((long) data[index + 2] & 0xff) << 16 |
+                  ((long) data[index + 1] & 0xff) <<  8 |
+                   (long) data[index] & 0xff;
+        }
+    }
+
     static void putOrderedObject(Object object, long address, Object value) {
         UNSAFE.putOrderedObject(object, address, value);
     }
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock-free, unbounded {@link java.util.Queue} implementation for the single-producer single-consumer pattern.
+ * <strong>It's important that it is only used by one producer thread and one consumer thread as otherwise it is
+ * not thread-safe.</strong>
+ *
+ * Elements are stored in array chunks which are linked together once a chunk is full, so no node needs to be
+ * allocated per element. The first chunk is small and each following chunk is twice as large as the previous one
+ * up to {@value #MAX_CHUNK_SIZE} elements, so a queue which never holds many elements stays cheap.
+ *
+ * The {@link Iterator} returned by {@link #iterator()} must only be used by the consumer thread and does not
+ * support {@link Iterator#remove()}.
+ */
+final class SpscLinkedArrayQueue<E> extends AbstractQueue<E> {
+
+    private static final int MIN_CHUNK_SIZE = 16;
+    private static final int MAX_CHUNK_SIZE = 1024;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<SpscLinkedArrayQueue> PRODUCED_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(SpscLinkedArrayQueue.class, "produced");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<SpscLinkedArrayQueue> CONSUMED_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(SpscLinkedArrayQueue.class, "consumed");
+
+    // Only accessed by the producer.
+    private Chunk producerChunk;
+    private int producerIndex;
+
+    // Only accessed by the consumer.
+    private Chunk consumerChunk;
+    private int consumerIndex;
+
+    // Only written by the producer / consumer, used to calculate the size.
+    @SuppressWarnings("unused")
+    private volatile long produced;
+    @SuppressWarnings("unused")
+    private volatile long consumed;
+
+    SpscLinkedArrayQueue() {
+        producerChunk = consumerChunk = new Chunk(MIN_CHUNK_SIZE);
+    }
+
+    @Override
+    public boolean offer(E e) {
+        if (e == null) {
+            throw new NullPointerException("e");
+        }
+        Chunk chunk = producerChunk;
+        int index = producerIndex;
+        if (index == chunk.length()) {
+            Chunk next = new Chunk(Math.min(index << 1, MAX_CHUNK_SIZE));
+            chunk.next = next;
+            producerChunk = chunk = next;
+            index = 0;
+        }
+        chunk.lazySet(index, e);
+        producerIndex = index + 1;
+        PRODUCED_UPDATER.lazySet(this, produced + 1);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        Chunk chunk = nextConsumerChunk();
+        if (chunk == null) {
+            return null;
+        }
+        int index = consumerIndex;
+        @SuppressWarnings("unchecked")
+        E e = (E) chunk.get(index);
+        if (e == null) {
+            return null;
+        }
+        chunk.lazySet(index, null);
+        consumerIndex = index + 1;
+        CONSUMED_UPDATER.lazySet(this, consumed + 1);
+        return e;
+    }
+
+    @Override
+    public E peek() {
+        Chunk chunk = nextConsumerChunk();
+        if (chunk == null) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        E e = (E) chunk.get(consumerIndex);
+        return e;
+    }
+
+    private Chunk nextConsumerChunk() {
+        Chunk chunk = consumerChunk;
+        if (consumerIndex == chunk.length()) {
+            Chunk next = chunk.next;
+            if (next == null) {
+                return null;
+            }
+            // Unlink the consumed chunk so it can be collected.
+            chunk.next = null;
+            consumerChunk = chunk = next;
+            consumerIndex = 0;
+        }
+        return chunk;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return produced == consumed;
+    }
+
+    @Override
+    public int size() {
+        // Read consumed first as it is always <= produced.
+        long consumed = this.consumed;
+        long size = produced - consumed;
+        return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Itr();
+    }
+
+    private final class Itr implements Iterator<E> {
+        private Chunk chunk = consumerChunk;
+        private int index = consumerIndex;
+        private E next = fetch();
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public E next() {
+            E e = next;
+            if (e == null) {
+                throw new NoSuchElementException();
+            }
+            next = fetch();
+            return e;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("remove");
+        }
+
+        private E fetch() {
+            if (index == chunk.length()) {
+                Chunk next = chunk.next;
+                if (next == null) {
+                    return null;
+                }
+                chunk = next;
+                index = 0;
+            }
+            @SuppressWarnings("unchecked")
+            E e = (E) chunk.get(index);
+            if (e != null) {
+                index ++;
+            }
+            return e;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class Chunk extends AtomicReferenceArray<Object> {
+        volatile Chunk next;
+
+        Chunk(int size) {
+            super(size);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal.logging;
+
+/**
+ * {@link InternalLogger} which hands the events off to the background thread of an {@link AsyncLoggerFactory}.
+ */
+final class AsyncLogger extends AbstractInternalLogger {
+
+    private static final long serialVersionUID = -5013212433722412418L;
+
+    static final int MSG = 0;
+    static final int ONE_ARG = 1;
+    static final int TWO_ARGS = 2;
+    static final int VAR_ARGS = 3;
+    static final int CAUSE = 4;
+
+    private final transient AsyncLoggerFactory factory;
+    private final transient InternalLogger logger;
+
+    AsyncLogger(AsyncLoggerFactory factory, InternalLogger logger) {
+        super(logger.name());
+        this.factory = factory;
+        this.logger = logger;
+    }
+
+    @Override
+    public boolean isTraceEnabled() {
+        return logger.isTraceEnabled();
+    }
+
+    @Override
+    public void trace(String msg) {
+        if (logger.isTraceEnabled() && !publish(InternalLogLevel.TRACE, MSG, msg, null, null, null, null)) {
+            logger.trace(msg);
+        }
+    }
+
+    @Override
+    public void trace(String format, Object arg) {
+        if (logger.isTraceEnabled() && !publish(InternalLogLevel.TRACE, ONE_ARG, format, arg, null, null, null)) {
+            logger.trace(format, arg);
+        }
+    }
+
+    @Override
+    public void trace(String format, Object argA, Object argB) {
+        if (logger.isTraceEnabled() && !publish(InternalLogLevel.TRACE, TWO_ARGS, format, argA, argB, null, null)) {
+            logger.trace(format, argA, argB);
+        }
+    }
+
+    @Override
+    public void trace(String format, Object... arguments) {
+        if (logger.isTraceEnabled() &&
+                !publish(InternalLogLevel.TRACE, VAR_ARGS, format, null, null, arguments, null)) {
+            logger.trace(format, arguments);
+        }
+    }
+
+    @Override
+    public void trace(String msg, Throwable t) {
+        if (logger.isTraceEnabled() && !publish(InternalLogLevel.TRACE, CAUSE, msg, null, null, null, t)) {
+            logger.trace(msg, t);
+        }
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return logger.isDebugEnabled();
+    }
+
+    @Override
+    public void debug(String msg) {
+        if (logger.isDebugEnabled() && !publish(InternalLogLevel.DEBUG, MSG, msg, null, null, null, null)) {
+            logger.debug(msg);
+        }
+    }
+
+    @Override
+    public void debug(String format, Object arg) {
+        if (logger.isDebugEnabled() && !publish(InternalLogLevel.DEBUG, ONE_ARG, format, arg, null, null, null)) {
+            logger.debug(format, arg);
+        }
+    }
+
+    @Override
+    public void debug(String format, Object argA, Object argB) {
+        if (logger.isDebugEnabled() && !publish(InternalLogLevel.DEBUG, TWO_ARGS, format, argA, argB, null, null)) {
+            logger.debug(format, argA, argB);
+        }
+    }
+
+    @Override
+    public void debug(String format, Object... arguments) {
+        if (logger.isDebugEnabled() &&
+                !publish(InternalLogLevel.DEBUG, VAR_ARGS, format, null, null, arguments, null)) {
+            logger.debug(format, arguments);
+        }
+    }
+
+    @Override
+    public void debug(String msg, Throwable t) {
+        if (logger.isDebugEnabled() && !publish(InternalLogLevel.DEBUG, CAUSE, msg, null, null, null, t)) {
+            logger.debug(msg, t);
+        }
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return logger.isInfoEnabled();
+    }
+
+    @Override
+    public void info(String msg) {
+        if (logger.isInfoEnabled() && !publish(InternalLogLevel.INFO, MSG, msg, null, null, null, null)) {
+            logger.info(msg);
+        }
+    }
+
+    @Override
+    public void info(String format, Object arg) {
+        if (logger.isInfoEnabled() && !publish(InternalLogLevel.INFO, ONE_ARG, format, arg, null, null, null)) {
+            logger.info(format, arg);
+        }
+    }
+
+    @Override
+    public void info(String format, Object argA, Object argB) {
+        if (logger.isInfoEnabled() && !publish(InternalLogLevel.INFO, TWO_ARGS, format, argA, argB, null, null)) {
+            logger.info(format, argA, argB);
+        }
+    }
+
+    @Override
+    public void info(String format, Object... arguments) {
+        if (logger.isInfoEnabled() &&
+                !publish(InternalLogLevel.INFO, VAR_ARGS, format, null, null, arguments, null)) {
+            logger.info(format, arguments);
+        }
+    }
+
+    @Override
+    public void info(String msg, Throwable t) {
+        if (logger.isInfoEnabled() && !publish(InternalLogLevel.INFO, CAUSE, msg, null, null, null, t)) {
+            logger.info(msg, t);
+        }
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return logger.isWarnEnabled();
+    }
+
+    @Override
+    public void warn(String msg) {
+        if (logger.isWarnEnabled() && !publish(InternalLogLevel.WARN, MSG, msg, null, null, null, null)) {
+            logger.warn(msg);
+        }
+    }
+
+    @Override
+    public void warn(String format, Object arg) {
+        if (logger.isWarnEnabled() && !publish(InternalLogLevel.WARN, ONE_ARG, format, arg, null, null, null)) {
+            logger.warn(format, arg);
+        }
+    }
+
+    @Override
+    public void warn(String format, Object argA, Object argB) {
+        if (logger.isWarnEnabled() && !publish(InternalLogLevel.WARN, TWO_ARGS, format, argA, argB, null, null)) {
+            logger.warn(format, argA, argB);
+        }
+    }
+
+    @Override
+    public void warn(String format, Object... arguments) {
+        if (logger.isWarnEnabled() &&
+                !publish(InternalLogLevel.WARN, VAR_ARGS, format, null, null, arguments, null)) {
+            logger.warn(format, arguments);
+        }
+    }
+
+    @Override
+    public void warn(String msg, Throwable t) {
+        if (logger.isWarnEnabled() && !publish(InternalLogLevel.WARN, CAUSE, msg, null, null, null, t)) {
+            logger.warn(msg, t);
+        }
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return logger.isErrorEnabled();
+    }
+
+    @Override
+    public void error(String msg) {
+        if (logger.isErrorEnabled() && !publish(InternalLogLevel.ERROR, MSG, msg, null, null, null, null)) {
+            logger.error(msg);
+        }
+    }
+
+    @Override
+    public void error(String format, Object arg) {
+        if (logger.isErrorEnabled() && !publish(InternalLogLevel.ERROR, ONE_ARG, format, arg, null, null, null)) {
+            logger.error(format, arg);
+        }
+    }
+
+    @Override
+    public void error(String format, Object argA, Object argB) {
+        if (logger.isErrorEnabled() && !publish(InternalLogLevel.ERROR, TWO_ARGS, format, argA, argB, null, null)) {
+            logger.error(format, argA, argB);
+        }
+    }
+
+    @Override
+    public void error(String format, Object... arguments) {
+        if (logger.isErrorEnabled() &&
+                !publish(InternalLogLevel.ERROR, VAR_ARGS, format, null, null, arguments, null)) {
+            logger.error(format, arguments);
+        }
+    }
+
+    @Override
+    public void error(String msg, Throwable t) {
+        if (logger.isErrorEnabled() && !publish(InternalLogLevel.ERROR, CAUSE, msg, null, null, null, t)) {
+            logger.error(msg, t);
+        }
+    }
+
+    /**
+     * Returns {@code true} if the event was published to the {@link AsyncLoggerFactory} or was dropped, and
+     * {@code false} if it needs to be logged by the calling thread.
+     */
+    private boolean publish(InternalLogLevel level, int type,
+                            String msg, Object argA, Object argB, Object[] arguments, Throwable cause) {
+        return factory.publish(logger, level, type, msg, argA, argB, arguments, cause);
+    }
+}
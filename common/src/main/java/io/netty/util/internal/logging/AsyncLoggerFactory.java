@@ -0,0 +1,384 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal.logging;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.internal.PlatformDependent;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logger factory which wraps the {@link InternalLogger}s of another {@link InternalLoggerFactory} and hands the
+ * logging of enabled events off to a background thread.
+ * <p>
+ * The calling thread only stores the raw message and arguments into a ring buffer which is owned by this thread, so
+ * the formatting of the message and the I/O of the wrapped logger never happen in it.  If the ring buffer of a thread
+ * is full the event is handled by the {@link DropPolicy} of this factory, so logging never stalls an event
+ * loop:
+ * <pre>
+ * {@link InternalLoggerFactory}.setDefaultFactory(
+ *         new {@link AsyncLoggerFactory}({@link InternalLoggerFactory}.getDefaultFactory()));
+ * </pre>
+ * Because the message is formatted later, the arguments must not be modified after they were passed to the logger.
+ * The order of the events logged by the same thread is retained, but events of different threads may be reordered.
+ */
+public class AsyncLoggerFactory extends InternalLoggerFactory {
+
+    /**
+     * Defines what happens with an event which is logged while the ring buffer of the logging thread is full.
+     */
+    public enum DropPolicy {
+        /**
+         * Drop the event.
+         */
+        DROP_ALL,
+        /**
+         * Drop {@code TRACE}, {@code DEBUG} and {@code INFO} events, but log {@code WARN} and {@code ERROR} events by
+         * the calling thread, which may block it.
+         */
+        DROP_BELOW_WARN
+    }
+
+    private static final int DEFAULT_RING_BUFFER_SIZE = 1024;
+    private static final long MIN_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(64);
+
+    private final InternalLoggerFactory delegate;
+    private final InternalLogger droppedLogger;
+    private final int ringBufferSize;
+    private final DropPolicy dropPolicy;
+    private final Queue<RingBuffer> ringBuffers = new ConcurrentLinkedQueue<RingBuffer>();
+    private final ThreadLocal<RingBuffer> threadRingBuffer = new ThreadLocal<RingBuffer>() {
+        @Override
+        protected RingBuffer initialValue() {
+            RingBuffer ringBuffer = new RingBuffer(Thread.currentThread(), ringBufferSize);
+            ringBuffers.add(ringBuffer);
+            return ringBuffer;
+        }
+    };
+    private final Thread consumer;
+    private volatile boolean shutdown;
+    private long reportedDrops;
+
+    /**
+     * Creates a new instance which wraps the {@link InternalLogger}s of the given {@link InternalLoggerFactory}, uses
+     * a ring buffer of {@code 1024} events per thread and {@link DropPolicy#DROP_ALL}.
+     */
+    public AsyncLoggerFactory(InternalLoggerFactory delegate) {
+        this(delegate, DEFAULT_RING_BUFFER_SIZE, DropPolicy.DROP_ALL);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param delegate          the {@link InternalLoggerFactory} whose {@link InternalLogger}s log the events
+     * @param ringBufferSize    the maximal number of events per thread which were not logged yet.  It is rounded up
+     *                          to the next power of two.
+     * @param dropPolicy        the {@link DropPolicy} which is used when the ring buffer of a thread is full
+     */
+    public AsyncLoggerFactory(InternalLoggerFactory delegate, int ringBufferSize, DropPolicy dropPolicy) {
+        if (delegate == null) {
+            throw new NullPointerException("delegate");
+        }
+        if (ringBufferSize <= 0 || ringBufferSize > 1 << 30) {
+            throw new IllegalArgumentException(
+                    "ringBufferSize: " + ringBufferSize + " (expected: 1-" + (1 << 30) + ')');
+        }
+        if (dropPolicy == null) {
+            throw new NullPointerException("dropPolicy");
+        }
+        this.delegate = delegate;
+        this.ringBufferSize = ringBufferSize == 1 ? 1 : Integer.highestOneBit(ringBufferSize - 1) << 1;
+        this.dropPolicy = dropPolicy;
+        droppedLogger = delegate.newInstance(AsyncLoggerFactory.class.getName());
+
+        consumer = new DefaultThreadFactory(AsyncLoggerFactory.class, true, Thread.MIN_PRIORITY).newThread(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        consume();
+                    }
+                });
+        consumer.start();
+    }
+
+    @Override
+    public InternalLogger newInstance(String name) {
+        return new AsyncLogger(this, delegate.newInstance(name));
+    }
+
+    /**
+     * Logs all events which were not logged yet and stops the background thread.  Events which are logged after
+     * this method was called are logged by the calling thread.
+     */
+    public void shutdown() throws InterruptedException {
+        shutdown = true;
+        LockSupport.unpark(consumer);
+        consumer.join();
+
+        // Pick up the events which were published while the background thread was stopping.
+        for (RingBuffer ringBuffer: ringBuffers) {
+            ringBuffer.drain();
+        }
+    }
+
+    /**
+     * Returns the number of events which were dropped so far as the ring buffer of the logging thread was full.
+     */
+    public long droppedEvents() {
+        long dropped = 0;
+        for (RingBuffer ringBuffer: ringBuffers) {
+            dropped += ringBuffer.dropped;
+        }
+        return dropped;
+    }
+
+    /**
+     * Publishes an event to the ring buffer of the current thread and returns {@code false} if it needs to be logged
+     * by the caller.
+     */
+    boolean publish(InternalLogger logger, InternalLogLevel level, int type,
+                    String msg, Object argA, Object argB, Object[] arguments, Throwable cause) {
+        if (shutdown) {
+            return false;
+        }
+        RingBuffer ringBuffer = threadRingBuffer.get();
+        if (ringBuffer.offer(logger, level, type, msg, argA, argB, arguments, cause)) {
+            if (shutdown) {
+                // shutdown() was called while the event was published, so the background thread and shutdown()
+                // may both have missed it.  Drain the ring buffer here to make sure the event is not lost.
+                ringBuffer.drain();
+            } else if (ringBuffer.isHalfFull()) {
+                // Do not wait for the background thread to wake up by itself before the ring buffer is full.
+                LockSupport.unpark(consumer);
+            }
+            return true;
+        }
+        // The ring buffer is full.
+        return dropPolicy == DropPolicy.DROP_ALL || level.compareTo(InternalLogLevel.WARN) < 0;
+    }
+
+    private void consume() {
+        long parkNanos = MIN_IDLE_PARK_NANOS;
+        for (;;) {
+            boolean shutdown = this.shutdown;
+            int logged = 0;
+            for (Iterator<RingBuffer> i = ringBuffers.iterator(); i.hasNext();) {
+                RingBuffer ringBuffer = i.next();
+                int drained = ringBuffer.drain();
+                if (drained == 0 && ringBuffer.owner.get() == null) {
+                    // The owning thread was collected, so no new events can arrive.
+                    i.remove();
+                }
+                logged += drained;
+            }
+
+            reportDrops();
+
+            if (shutdown) {
+                // Read the flag before draining so that no event published before shutdown() is lost.
+                break;
+            }
+            if (logged == 0) {
+                // Back off while there is nothing to log.  Producers wake up the thread when a ring buffer is
+                // half full.
+                LockSupport.parkNanos(this, parkNanos);
+                parkNanos = Math.min(parkNanos << 1, MAX_IDLE_PARK_NANOS);
+            } else {
+                parkNanos = MIN_IDLE_PARK_NANOS;
+            }
+        }
+    }
+
+    private void reportDrops() {
+        long dropped = droppedEvents();
+        if (dropped != reportedDrops) {
+            droppedLogger.warn("Dropped {} log event(s) because the ring buffer of the logging thread was full.",
+                    dropped - reportedDrops);
+            reportedDrops = dropped;
+        }
+    }
+
+    /**
+     * A single-producer single-consumer ring buffer of pre-allocated {@link Event}s, written by its owning thread
+     * and read by the background thread.
+     */
+    private static final class RingBuffer {
+
+        private static final AtomicLongFieldUpdater<RingBuffer> PRODUCER_INDEX_UPDATER;
+        private static final AtomicLongFieldUpdater<RingBuffer> CONSUMER_INDEX_UPDATER;
+        private static final AtomicLongFieldUpdater<RingBuffer> DROPPED_UPDATER;
+
+        static {
+            AtomicLongFieldUpdater<RingBuffer> updater =
+                    PlatformDependent.newAtomicLongFieldUpdater(RingBuffer.class, "producerIndex");
+            if (updater == null) {
+                updater = AtomicLongFieldUpdater.newUpdater(RingBuffer.class, "producerIndex");
+            }
+            PRODUCER_INDEX_UPDATER = updater;
+
+            updater = PlatformDependent.newAtomicLongFieldUpdater(RingBuffer.class, "consumerIndex");
+            if (updater == null) {
+                updater = AtomicLongFieldUpdater.newUpdater(RingBuffer.class, "consumerIndex");
+            }
+            CONSUMER_INDEX_UPDATER = updater;
+
+            updater = PlatformDependent.newAtomicLongFieldUpdater(RingBuffer.class, "dropped");
+            if (updater == null) {
+                updater = AtomicLongFieldUpdater.newUpdater(RingBuffer.class, "dropped");
+            }
+            DROPPED_UPDATER = updater;
+        }
+
+        final WeakReference<Thread> owner;
+        private final Event[] events;
+        private final int mask;
+
+        // Only written by the owning thread.
+        @SuppressWarnings("unused")
+        private volatile long producerIndex;
+        @SuppressWarnings("unused")
+        private volatile long dropped;
+        // Only accessed by the owning thread.
+        private long consumerIndexCache;
+
+        // Only written by the background thread.
+        @SuppressWarnings("unused")
+        private volatile long consumerIndex;
+
+        RingBuffer(Thread owner, int size) {
+            this.owner = new WeakReference<Thread>(owner);
+            events = new Event[size];
+            for (int i = 0; i < size; i ++) {
+                events[i] = new Event();
+            }
+            mask = size - 1;
+        }
+
+        boolean offer(InternalLogger logger, InternalLogLevel level, int type,
+                      String msg, Object argA, Object argB, Object[] arguments, Throwable cause) {
+            final long producerIndex = this.producerIndex;
+            if (producerIndex - consumerIndexCache >= events.length) {
+                consumerIndexCache = consumerIndex;
+                if (producerIndex - consumerIndexCache >= events.length) {
+                    DROPPED_UPDATER.lazySet(this, dropped + 1);
+                    return false;
+                }
+            }
+
+            Event event = events[(int) producerIndex & mask];
+            event.logger = logger;
+            event.level = level;
+            event.type = type;
+            event.msg = msg;
+            event.argA = argA;
+            event.argB = argB;
+            event.arguments = arguments;
+            event.cause = cause;
+
+            // Publish the event to the background thread.  This must not be a lazySet() as the caller reads the
+            // shutdown flag afterwards, which must not be reordered before this store.
+            PRODUCER_INDEX_UPDATER.set(this, producerIndex + 1);
+            return true;
+        }
+
+        /**
+         * Returns {@code true} if the last offered event filled the ring buffer to the half.  Must only be called by
+         * the owning thread.
+         */
+        boolean isHalfFull() {
+            return producerIndex - consumerIndexCache == events.length >>> 1;
+        }
+
+        /**
+         * Logs all published events.  Usually only called by the background thread, but the owning thread and
+         * {@link AsyncLoggerFactory#shutdown()} may drain concurrently while shutting down.
+         */
+        synchronized int drain() {
+            final long producerIndex = this.producerIndex;
+            long consumerIndex = this.consumerIndex;
+            if (consumerIndex == producerIndex) {
+                return 0;
+            }
+            final int drained = (int) (producerIndex - consumerIndex);
+            do {
+                Event event = events[(int) consumerIndex & mask];
+                try {
+                    event.log();
+                } catch (Throwable t) {
+                    // Never let a misbehaving logger kill the background thread.
+                } finally {
+                    event.clear();
+                }
+                consumerIndex ++;
+            } while (consumerIndex != producerIndex);
+
+            // Hand the slots back to the owning thread.
+            CONSUMER_INDEX_UPDATER.lazySet(this, consumerIndex);
+            return drained;
+        }
+    }
+
+    private static final class Event {
+        InternalLogger logger;
+        InternalLogLevel level;
+        int type;
+        String msg;
+        Object argA;
+        Object argB;
+        Object[] arguments;
+        Throwable cause;
+
+        void log() {
+            switch (type) {
+            case AsyncLogger.MSG:
+                logger.log(level, msg);
+                break;
+            case AsyncLogger.ONE_ARG:
+                logger.log(level, msg, argA);
+                break;
+            case AsyncLogger.TWO_ARGS:
+                logger.log(level, msg, argA, argB);
+                break;
+            case AsyncLogger.VAR_ARGS:
+                logger.log(level, msg, arguments);
+                break;
+            case AsyncLogger.CAUSE:
+                logger.log(level, msg, cause);
+                break;
+            default:
+                throw new Error();
+            }
+        }
+
+        void clear() {
+            // Release the references so the arguments can be collected.
+            logger = null;
+            level = null;
+            msg = null;
+            argA = null;
+            argB = null;
+            arguments = null;
+            cause = null;
+        }
+    }
+}
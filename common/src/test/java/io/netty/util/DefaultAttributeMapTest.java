@@ -18,6 +18,11 @@ package io.netty.util;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 import static org.junit.Assert.*;
 
 public class DefaultAttributeMapTest {
@@ -67,4 +72,81 @@ public class DefaultAttributeMapTest {
         one.remove();
         assertNull(one.get());
     }
+
+    @Test
+    public void testManyKeys() {
+        List<AttributeKey<Integer>> keys = new ArrayList<AttributeKey<Integer>>();
+        List<Attribute<Integer>> attrs = new ArrayList<Attribute<Integer>>();
+        for (int i = 0; i < 100; i ++) {
+            AttributeKey<Integer> key = AttributeKey.valueOf("testManyKeys" + i);
+            Attribute<Integer> attr = map.attr(key);
+            attr.set(i);
+            keys.add(key);
+            attrs.add(attr);
+        }
+
+        for (int i = 0; i < keys.size(); i ++) {
+            Attribute<Integer> attr = map.attr(keys.get(i));
+            assertSame(attrs.get(i), attr);
+            assertSame(keys.get(i), attr.key());
+            assertEquals(Integer.valueOf(i), attr.get());
+        }
+    }
+
+    @Test
+    public void testGetAfterRemove() {
+        AttributeKey<String> key = AttributeKey.valueOf("testGetAfterRemove");
+        Attribute<String> attr = map.attr(key);
+        attr.set("value");
+
+        assertEquals("value", attr.getAndRemove());
+        assertNull(attr.get());
+        assertSame(attr, map.attr(key));
+        assertNull(map.attr(key).setIfAbsent("other"));
+        assertEquals("other", attr.get());
+    }
+
+    @Test
+    public void testConcurrentAttr() throws Exception {
+        final int threads = 4;
+        final List<AttributeKey<Integer>> keys = new ArrayList<AttributeKey<Integer>>();
+        for (int i = 0; i < 64; i ++) {
+            keys.add(AttributeKey.<Integer>valueOf("testConcurrentAttr" + i));
+        }
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<AtomicReferenceArray<Attribute<Integer>>> results =
+                new ArrayList<AtomicReferenceArray<Attribute<Integer>>>();
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int i = 0; i < threads; i ++) {
+            final AtomicReferenceArray<Attribute<Integer>> result =
+                    new AtomicReferenceArray<Attribute<Integer>>(keys.size());
+            results.add(result);
+            Thread t = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < keys.size(); j ++) {
+                        result.set(j, map.attr(keys.get(j)));
+                    }
+                }
+            });
+            t.start();
+            workers.add(t);
+        }
+        start.countDown();
+        for (Thread t: workers) {
+            t.join();
+        }
+
+        for (int j = 0; j < keys.size(); j ++) {
+            Attribute<Integer> attr = map.attr(keys.get(j));
+            for (AtomicReferenceArray<Attribute<Integer>> result: results) {
+                assertSame(attr, result.get(j));
+            }
+        }
+    }
 }
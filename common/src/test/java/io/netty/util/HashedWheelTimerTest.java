@@ -17,8 +17,10 @@ package io.netty.util;
 
 import org.junit.Test;
 
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -123,4 +125,84 @@ public class HashedWheelTimerTest {
         Thread.sleep(3500);
         assertEquals(3, counter.get());
     }
+
+    @Test
+    public void testRejectedExecutionExceptionWhenTooManyTimeoutsAreAddedBackToBack() {
+        HashedWheelTimer timer = new HashedWheelTimer(Executors.defaultThreadFactory(), 100,
+                TimeUnit.MILLISECONDS, 32, 2);
+        timer.newTimeout(createNoOpTimerTask(), 5, TimeUnit.SECONDS);
+        timer.newTimeout(createNoOpTimerTask(), 5, TimeUnit.SECONDS);
+        try {
+            timer.newTimeout(createNoOpTimerTask(), 1, TimeUnit.MILLISECONDS);
+            fail("Timer allowed adding 3 timeouts when maxPendingTimeouts was 2");
+        } catch (RejectedExecutionException e) {
+            // Expected
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testNewTimeoutShouldStopThrowingRejectedExecutionExceptionWhenExistingTimeoutIsCancelled()
+            throws InterruptedException {
+        final int tickDurationMs = 100;
+        final HashedWheelTimer timer = new HashedWheelTimer(Executors.defaultThreadFactory(), tickDurationMs,
+                TimeUnit.MILLISECONDS, 32, 2);
+        timer.newTimeout(createNoOpTimerTask(), 5, TimeUnit.SECONDS);
+        Timeout timeoutToCancel = timer.newTimeout(createNoOpTimerTask(), 5, TimeUnit.SECONDS);
+        assertTrue(timeoutToCancel.cancel());
+        assertFalse(timeoutToCancel.cancel());
+
+        // The cancellation is processed by the worker on the next tick.
+        Thread.sleep(tickDurationMs * 5);
+        assertEquals(1, timer.pendingTimeouts());
+
+        timer.newTimeout(createNoOpTimerTask(), 1, TimeUnit.MILLISECONDS);
+        timer.stop();
+    }
+
+    @Test
+    public void testPendingTimeouts() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final HashedWheelTimer timer = new HashedWheelTimer();
+        final Timeout t1 = timer.newTimeout(createNoOpTimerTask(), 100, TimeUnit.MINUTES);
+        final Timeout t2 = timer.newTimeout(createNoOpTimerTask(), 100, TimeUnit.MINUTES);
+        timer.newTimeout(new TimerTask() {
+            @Override
+            public void run(Timeout timeout) throws Exception {
+                latch.countDown();
+            }
+        }, 90, TimeUnit.MILLISECONDS);
+
+        assertEquals(3, timer.pendingTimeouts());
+        t1.cancel();
+        t2.cancel();
+        latch.await();
+
+        // Give the worker a chance to process the cancellations.
+        Thread.sleep(500);
+        assertEquals(0, timer.pendingTimeouts());
+        assertTrue(timer.stop().isEmpty());
+    }
+
+    @Test
+    public void testCancelledTimeoutIsNotReturnedOnStop() throws InterruptedException {
+        final HashedWheelTimer timer = new HashedWheelTimer();
+        final Timeout cancelled = timer.newTimeout(createNoOpTimerTask(), 10, TimeUnit.SECONDS);
+        final Timeout pending = timer.newTimeout(createNoOpTimerTask(), 10, TimeUnit.SECONDS);
+        Thread.sleep(300);
+        cancelled.cancel();
+
+        Set<Timeout> unprocessed = timer.stop();
+        assertEquals(1, unprocessed.size());
+        assertTrue(unprocessed.contains(pending));
+    }
+
+    private static TimerTask createNoOpTimerTask() {
+        return new TimerTask() {
+            @Override
+            public void run(final Timeout timeout) throws Exception {
+            }
+        };
+    }
 }
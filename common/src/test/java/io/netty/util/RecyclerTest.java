@@ -0,0 +1,191 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class RecyclerTest {
+
+    private static final Recycler<RecyclableObject> RECYCLER = newRecycler(256);
+
+    private static Recycler<RecyclableObject> newRecycler(int maxCapacity) {
+        return new Recycler<RecyclableObject>(maxCapacity) {
+            @Override
+            protected RecyclableObject newObject(Handle<RecyclableObject> handle) {
+                return new RecyclableObject(handle);
+            }
+        };
+    }
+
+    static final class RecyclableObject {
+
+        private final Recycler.Handle<RecyclableObject> handle;
+
+        RecyclableObject(Recycler.Handle<RecyclableObject> handle) {
+            this.handle = handle;
+        }
+
+        void recycle() {
+            handle.recycle(this);
+        }
+    }
+
+    @Test
+    public void testRecycle() {
+        RecyclableObject object = RECYCLER.get();
+        object.recycle();
+        assertSame(object, RECYCLER.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMultipleRecycle() {
+        RecyclableObject object = RECYCLER.get();
+        object.recycle();
+        object.recycle();
+    }
+
+    @Test
+    public void testRecycleAtDifferentThread() throws Exception {
+        final RecyclableObject object = RECYCLER.get();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                object.recycle();
+            }
+        });
+        thread.start();
+        thread.join();
+
+        assertSame(object, RECYCLER.get());
+    }
+
+    @Test
+    public void testRecycleAtDifferentThreadAfterItIsGone() throws Exception {
+        final Recycler<RecyclableObject> recycler = newRecycler(256);
+        final RecyclableObject[] objects = new RecyclableObject[40];
+        for (int i = 0; i < objects.length; i ++) {
+            objects[i] = recycler.get();
+        }
+
+        // Recycle the objects by two threads which are gone before the objects are harvested.
+        for (int i = 0; i < 2; i ++) {
+            final int start = i * objects.length / 2;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = start; j < start + objects.length / 2; j ++) {
+                        objects[j].recycle();
+                    }
+                }
+            });
+            thread.start();
+            thread.join();
+        }
+
+        Set<RecyclableObject> recycled = Collections.newSetFromMap(new IdentityHashMap<RecyclableObject, Boolean>());
+        for (int i = 0; i < objects.length; i ++) {
+            recycled.add(recycler.get());
+        }
+        assertEquals(new HashSet<RecyclableObject>(Arrays.asList(objects)), recycled);
+    }
+
+    @Test
+    public void testMaxCapacity() {
+        Recycler<RecyclableObject> recycler = newRecycler(4);
+        RecyclableObject[] objects = new RecyclableObject[8];
+        for (int i = 0; i < objects.length; i ++) {
+            objects[i] = recycler.get();
+        }
+        for (RecyclableObject object: objects) {
+            object.recycle();
+        }
+
+        for (int i = 0; i < 4; i ++) {
+            assertSame(objects[3 - i], recycler.get());
+        }
+        assertNotSame(objects[4], recycler.get());
+    }
+
+    @Test
+    public void testMaxCapacityOfQueuesOfOtherThreads() throws Exception {
+        final Recycler<RecyclableObject> recycler = newRecycler(32);
+        final RecyclableObject[] objects = new RecyclableObject[100];
+        for (int i = 0; i < objects.length; i ++) {
+            objects[i] = recycler.get();
+        }
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (RecyclableObject object: objects) {
+                    object.recycle();
+                }
+            }
+        });
+        thread.start();
+        thread.join();
+
+        // The queue of the other thread only kept as many objects as the pool may hold.
+        assertEquals(objects.length - 32, recycler.drops());
+        Set<RecyclableObject> expected = new HashSet<RecyclableObject>(Arrays.asList(objects).subList(0, 32));
+        Set<RecyclableObject> recycled = Collections.newSetFromMap(new IdentityHashMap<RecyclableObject, Boolean>());
+        for (int i = 0; i < 32; i ++) {
+            recycled.add(recycler.get());
+        }
+        assertEquals(expected, recycled);
+        assertFalse(expected.contains(recycler.get()));
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        final Recycler<RecyclableObject> recycler = newRecycler(256);
+        // Run on a new thread so the metrics of the Recycler are flushed at a known point.
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                // 128 misses followed by 128 hits.
+                RecyclableObject[] objects = new RecyclableObject[128];
+                for (int i = 0; i < objects.length; i ++) {
+                    objects[i] = recycler.get();
+                }
+                for (RecyclableObject object: objects) {
+                    object.recycle();
+                }
+                for (int i = 0; i < objects.length; i ++) {
+                    recycler.get();
+                }
+                // Flushes the counts of the first 256 gets.
+                recycler.get();
+            }
+        });
+        thread.start();
+        thread.join();
+
+        assertEquals(256, recycler.gets());
+        assertEquals(128, recycler.hits());
+        assertEquals(0.5, recycler.hitRate(), 0.0);
+        assertEquals(0, recycler.crossThreadRecycles());
+        assertEquals(0, recycler.drops());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class DefaultEventExecutorGroupTest {
+
+    @Test(timeout = 10000)
+    public void testLeastPendingTasksChooser() throws Exception {
+        DefaultEventExecutorGroup group =
+                new DefaultEventExecutorGroup(2, null, LeastPendingTasksEventExecutorChooserFactory.INSTANCE);
+        try {
+            EventExecutor busy = group.next();
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+            busy.execute(new BlockingTask(started, release));
+            started.await();
+            for (int i = 0; i < 4; i ++) {
+                busy.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        // NOOP
+                    }
+                });
+            }
+
+            for (int i = 0; i < 8; i ++) {
+                assertNotSame(busy, group.next());
+            }
+            release.countDown();
+        } finally {
+            group.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testWorkStealing() throws Exception {
+        DefaultEventExecutorGroup group =
+                new DefaultEventExecutorGroup(2, null, DefaultEventExecutorChooserFactory.INSTANCE, true);
+        try {
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+            Future<?> blocking = group.submit(new BlockingTask(started, release));
+            started.await();
+
+            // Half of the tasks are queued to the blocked executor, so they are only run if they are stolen.
+            final CountDownLatch done = new CountDownLatch(16);
+            for (int i = 0; i < 16; i ++) {
+                group.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        done.countDown();
+                    }
+                });
+            }
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertFalse(blocking.isDone());
+
+            release.countDown();
+            assertTrue(blocking.await(5, TimeUnit.SECONDS));
+            assertTrue(blocking.isSuccess());
+        } finally {
+            group.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    private static final class BlockingTask implements Runnable {
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        BlockingTask(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        public void run() {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
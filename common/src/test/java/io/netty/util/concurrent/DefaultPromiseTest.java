@@ -18,11 +18,13 @@ package io.netty.util.concurrent;
 
 import org.junit.Test;
 
+import java.lang.reflect.Field;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
@@ -176,6 +178,90 @@ public class DefaultPromiseTest {
         executor.shutdownGracefully().sync();
     }
 
+    @Test(timeout = 10000)
+    public void testConcurrentAddListenerAndComplete() throws Exception {
+        final EventExecutor executor = new TestEventExecutor();
+        final int numThreads = 4;
+        final int numListeners = 1000;
+        for (int run = 0; run < 20; run ++) {
+            final Promise<Void> promise = new DefaultPromise<Void>(executor);
+            final AtomicInteger notified = new AtomicInteger();
+            final CountDownLatch start = new CountDownLatch(1);
+            final CountDownLatch latch = new CountDownLatch(numThreads * numListeners);
+            final FutureListener<Void> listener = new FutureListener<Void>() {
+                @Override
+                public void operationComplete(Future<Void> future) throws Exception {
+                    assertTrue(future.isDone());
+                    notified.incrementAndGet();
+                    latch.countDown();
+                }
+            };
+
+            Thread[] threads = new Thread[numThreads];
+            for (int i = 0; i < numThreads; i ++) {
+                threads[i] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        for (int j = 0; j < numListeners; j ++) {
+                            promise.addListener(listener);
+                        }
+                    }
+                });
+                threads[i].start();
+            }
+            start.countDown();
+            promise.setSuccess(null);
+            for (Thread t: threads) {
+                t.join();
+            }
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            // Give a duplicated notification the chance to show up.
+            promise.addListener(listener).await();
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    // Flush the tasks which were scheduled before.
+                }
+            }).sync();
+            assertEquals(numThreads * numListeners + 1, notified.get());
+        }
+        executor.shutdownGracefully().sync();
+    }
+
+    @Test
+    public void testRemoveListener() throws Exception {
+        final BlockingQueue<Integer> notified = new LinkedBlockingQueue<Integer>();
+        final FutureListener<Void> listener1 = new FutureListener<Void>() {
+            @Override
+            public void operationComplete(Future<Void> future) throws Exception {
+                notified.add(1);
+            }
+        };
+        final FutureListener<Void> listener2 = new FutureListener<Void>() {
+            @Override
+            public void operationComplete(Future<Void> future) throws Exception {
+                notified.add(2);
+            }
+        };
+
+        Promise<Void> promise = new DefaultPromise<Void>(ImmediateEventExecutor.INSTANCE);
+        promise.addListener(listener1);
+        promise.addListener(listener2);
+        promise.addListener(listener1);
+        promise.removeListener(listener1);
+        promise.setSuccess(null);
+
+        assertEquals(Integer.valueOf(2), notified.poll());
+        assertEquals(Integer.valueOf(1), notified.poll());
+        assertTrue(notified.isEmpty());
+    }
+
     private static final class TestEventExecutor extends SingleThreadEventExecutor {
         TestEventExecutor() {
             super(null, Executors.defaultThreadFactory(), true);
@@ -196,4 +282,36 @@ public class DefaultPromiseTest {
             }
         }
     }
+
+    @Test
+    public void testAddAndRemoveListenerManyTimes() throws Exception {
+        final AtomicInteger notified = new AtomicInteger();
+        final FutureListener<Void> listener1 = new FutureListener<Void>() {
+            @Override
+            public void operationComplete(Future<Void> future) throws Exception {
+                notified.incrementAndGet();
+            }
+        };
+        final FutureListener<Void> listener2 = new FutureListener<Void>() {
+            @Override
+            public void operationComplete(Future<Void> future) throws Exception {
+                fail("removed listener notified");
+            }
+        };
+
+        Promise<Void> promise = new DefaultPromise<Void>(ImmediateEventExecutor.INSTANCE);
+        promise.addListener(listener1);
+        for (int i = 0; i < 100000; i ++) {
+            promise.addListener(listener2);
+            promise.removeListener(listener2);
+        }
+
+        // Nothing must be left behind by the removed listeners.
+        Field listeners = DefaultPromise.class.getDeclaredField("listeners");
+        listeners.setAccessible(true);
+        assertSame(listener1, listeners.get(promise));
+
+        promise.setSuccess(null);
+        assertEquals(1, notified.get());
+    }
 }
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class FastThreadLocalTest {
+
+    @Test
+    public void testDefaultThreadFactoryCreatesFastThreadLocalThread() {
+        Thread t = new DefaultThreadFactory(FastThreadLocalTest.class).newThread(new Runnable() {
+            @Override
+            public void run() { }
+        });
+        assertTrue(t instanceof FastThreadLocalThread);
+    }
+
+    @Test(timeout = 10000)
+    public void testFastThreadLocalThread() throws Exception {
+        final AtomicReference<Throwable> cause = new AtomicReference<Throwable>();
+        Thread t = new FastThreadLocalThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    testGetSetRemove();
+                } catch (Throwable t) {
+                    cause.set(t);
+                }
+            }
+        });
+        t.start();
+        t.join();
+        if (cause.get() != null) {
+            throw new AssertionError(cause.get());
+        }
+    }
+
+    @Test
+    public void testFallbackThread() {
+        testGetSetRemove();
+    }
+
+    private static void testGetSetRemove() {
+        FastThreadLocal<String> local = new FastThreadLocal<String>() {
+            @Override
+            protected String initialValue() {
+                return "initial";
+            }
+        };
+        FastThreadLocal<String> nullLocal = new FastThreadLocal<String>();
+
+        assertFalse(local.isSet());
+        assertEquals("initial", local.get());
+        assertTrue(local.isSet());
+
+        local.set("value");
+        assertEquals("value", local.get());
+
+        local.remove();
+        assertFalse(local.isSet());
+        assertEquals("initial", local.get());
+
+        assertNull(nullLocal.get());
+        assertTrue(nullLocal.isSet());
+        nullLocal.set("value");
+        assertEquals("value", nullLocal.get());
+        nullLocal.set(null);
+        assertNull(nullLocal.get());
+    }
+
+    @Test
+    public void testManyVariables() {
+        // Creates more variables than the initial size of the table to trigger expansion.
+        FastThreadLocal<?>[] locals = new FastThreadLocal<?>[128];
+        for (int i = 0; i < locals.length; i ++) {
+            final int value = i;
+            locals[i] = new FastThreadLocal<Integer>() {
+                @Override
+                protected Integer initialValue() {
+                    return value;
+                }
+            };
+        }
+        for (int i = locals.length - 1; i >= 0; i --) {
+            assertEquals(i, locals[i].get());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testValuesAreNotShared() throws Exception {
+        final FastThreadLocal<String> local = new FastThreadLocal<String>();
+        local.set("main");
+        final AtomicReference<Object> other = new AtomicReference<Object>("unset");
+        Thread t = new FastThreadLocalThread(new Runnable() {
+            @Override
+            public void run() {
+                other.set(local.get());
+            }
+        });
+        t.start();
+        t.join();
+        assertNull(other.get());
+        assertEquals("main", local.get());
+    }
+
+    @Test
+    public void testRemoveAll() {
+        FastThreadLocal<String> var = new FastThreadLocal<String>();
+        var.set("foo");
+        assertTrue(var.isSet());
+        FastThreadLocal.removeAll();
+        assertFalse(var.isSet());
+        assertNull(var.get());
+    }
+
+    @Test(timeout = 10000)
+    public void testDefaultThreadFactoryRemovesAllOnExit() throws Exception {
+        final FastThreadLocal<String> var = new FastThreadLocal<String>();
+        final AtomicReference<FastThreadLocalThread> thread = new AtomicReference<FastThreadLocalThread>();
+        Thread t = new DefaultThreadFactory(FastThreadLocalTest.class).newThread(new Runnable() {
+            @Override
+            public void run() {
+                var.set("foo");
+                thread.set((FastThreadLocalThread) Thread.currentThread());
+            }
+        });
+        t.start();
+        t.join();
+        assertNull(thread.get().threadLocalMap());
+    }
+
+    @Test(timeout = 10000)
+    public void testOnRemoval() throws Exception {
+        final List<String> removed = new ArrayList<String>();
+        final FastThreadLocal<String> var = new FastThreadLocal<String>() {
+            @Override
+            protected String initialValue() {
+                return "initial";
+            }
+
+            @Override
+            protected void onRemoval(String value) {
+                removed.add(value);
+            }
+        };
+
+        var.remove();
+        assertTrue(removed.isEmpty());
+        var.get();
+        var.remove();
+        assertEquals(Collections.singletonList("initial"), removed);
+
+        // Values of threads created by DefaultThreadFactory are removed when the thread finishes.
+        removed.clear();
+        Thread t = new DefaultThreadFactory(FastThreadLocalTest.class).newThread(new Runnable() {
+            @Override
+            public void run() {
+                var.set("foo");
+            }
+        });
+        t.start();
+        t.join();
+        assertEquals(Collections.singletonList("foo"), removed);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ScheduledFutureTaskQueueTest {
+
+    private static final Callable<Void> NOOP = new Callable<Void>() {
+        @Override
+        public Void call() {
+            return null;
+        }
+    };
+
+    @Test
+    public void testOrderAndRemoval() {
+        ScheduledFutureTaskQueue queue = new ScheduledFutureTaskQueue();
+        Random random = new Random(42);
+        List<ScheduledFutureTask<?>> tasks = new ArrayList<ScheduledFutureTask<?>>();
+        for (int i = 0; i < 1000; i ++) {
+            ScheduledFutureTask<Void> task = new ScheduledFutureTask<Void>(
+                    ImmediateEventExecutor.INSTANCE, queue, NOOP, random.nextInt(10000));
+            tasks.add(task);
+            assertTrue(queue.offer(task));
+        }
+        assertEquals(tasks.size(), queue.size());
+
+        // Remove every third task.
+        for (int i = 0; i < tasks.size(); i += 3) {
+            assertTrue(queue.remove(tasks.get(i)));
+            assertFalse(queue.contains(tasks.get(i)));
+            assertFalse(queue.remove(tasks.get(i)));
+        }
+        List<ScheduledFutureTask<?>> remaining = new ArrayList<ScheduledFutureTask<?>>();
+        for (int i = 0; i < tasks.size(); i ++) {
+            if (i % 3 != 0) {
+                remaining.add(tasks.get(i));
+            }
+        }
+        Collections.sort(remaining);
+        assertEquals(remaining.size(), queue.size());
+
+        for (ScheduledFutureTask<?> task: remaining) {
+            assertTrue(queue.contains(task));
+            assertSame(task, queue.poll());
+        }
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test(timeout = 10000)
+    public void testCancelRemovesTask() throws Exception {
+        final DefaultEventExecutor executor = new DefaultEventExecutor();
+        try {
+            List<ScheduledFuture<?>> futures = new ArrayList<ScheduledFuture<?>>();
+            for (int i = 0; i < 100; i ++) {
+                futures.add(executor.schedule(NOOP, 1, TimeUnit.HOURS));
+            }
+            // Make sure all tasks were added to the queue.
+            executor.submit(NOOP).sync();
+            assertEquals(100, executor.scheduledTasks());
+
+            for (ScheduledFuture<?> f: futures) {
+                assertTrue(f.cancel(false));
+            }
+            // The removal of tasks cancelled from outside the executor is done by the executor itself.
+            executor.submit(NOOP).sync();
+            assertEquals(0, executor.scheduledTasks());
+
+            // Cancel from within the executor.
+            final ScheduledFuture<?> future = executor.schedule(NOOP, 1, TimeUnit.HOURS);
+            executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    assertEquals(1, executor.scheduledTasks());
+                    assertTrue(future.cancel(false));
+                    assertEquals(0, executor.scheduledTasks());
+                    return null;
+                }
+            }).sync();
+        } finally {
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        }
+    }
+}
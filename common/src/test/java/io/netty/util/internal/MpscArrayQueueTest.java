@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.Assert.*;
+
+public class MpscArrayQueueTest {
+
+    @Test
+    public void testOfferPollUntilFull() {
+        MpscArrayQueue<Integer> queue = new MpscArrayQueue<Integer>(100);
+        assertEquals(128, queue.capacity());
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+
+        // Wrap around the ring buffer a few times.
+        for (int round = 0; round < 3; round ++) {
+            for (int i = 0; i < queue.capacity(); i ++) {
+                assertTrue(queue.offer(i));
+            }
+            assertFalse(queue.offer(-1));
+            assertEquals(queue.capacity(), queue.size());
+            for (int i = 0; i < queue.capacity(); i ++) {
+                assertEquals(Integer.valueOf(i), queue.peek());
+                assertEquals(Integer.valueOf(i), queue.poll());
+            }
+            assertTrue(queue.isEmpty());
+            assertNull(queue.poll());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testProducersConsumer() throws Exception {
+        final Queue<Integer> queue = PlatformDependent.newFixedMpscQueue(1024);
+        final int producers = 4;
+        final int count = 250000;
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int p = 0; p < producers; p ++) {
+            final int producer = p;
+            Thread t = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < count; i ++) {
+                        Integer value = producer * count + i;
+                        while (!queue.offer(value)) {
+                            Thread.yield();
+                        }
+                    }
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+
+        // The elements of each producer must be received in the order they were offered.
+        int[] expected = new int[producers];
+        for (int received = 0; received < producers * count;) {
+            Integer i = queue.poll();
+            if (i != null) {
+                int producer = i / count;
+                assertEquals(expected[producer] ++, i % count);
+                received ++;
+            }
+        }
+        for (Thread t: threads) {
+            t.join();
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testOfferNull() {
+        new MpscArrayQueue<Object>(16).offer(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new MpscArrayQueue<Object>(0);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+import static org.junit.Assert.*;
+
+public class SpscLinkedArrayQueueTest {
+
+    @Test
+    public void testOfferPollAcrossChunks() {
+        Queue<Integer> queue = PlatformDependent.newSpscQueue();
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+
+        int count = 5000;
+        for (int i = 0; i < count; i ++) {
+            assertTrue(queue.offer(i));
+        }
+        assertEquals(count, queue.size());
+        for (int i = 0; i < count; i ++) {
+            assertEquals(Integer.valueOf(i), queue.peek());
+            assertEquals(Integer.valueOf(i), queue.poll());
+        }
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testIterator() {
+        Queue<Integer> queue = PlatformDependent.newSpscQueue();
+        assertEquals("[]", queue.toString());
+        assertFalse(queue.iterator().hasNext());
+
+        int count = 3000;
+        for (int i = 0; i < count; i ++) {
+            queue.offer(i);
+        }
+        // Consume a few elements so the iteration does not start at the beginning of the first chunk.
+        for (int i = 0; i < 10; i ++) {
+            queue.poll();
+        }
+
+        int expected = 10;
+        Iterator<Integer> it = queue.iterator();
+        while (it.hasNext()) {
+            assertEquals(expected ++, it.next().intValue());
+        }
+        assertEquals(count, expected);
+        try {
+            it.next();
+            fail();
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+
+        assertTrue(queue.contains(count - 1));
+        assertFalse(queue.contains(9));
+
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        assertEquals("[]", queue.toString());
+    }
+
+    @Test(timeout = 10000)
+    public void testProducerConsumer() throws Exception {
+        final Queue<Integer> queue = PlatformDependent.newSpscQueue();
+        final int count = 1000000;
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < count; i ++) {
+                    queue.offer(i);
+                }
+            }
+        });
+        producer.start();
+
+        int expected = 0;
+        while (expected < count) {
+            Integer i = queue.poll();
+            if (i != null) {
+                assertEquals(expected ++, i.intValue());
+            }
+        }
+        producer.join();
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testOfferNull() {
+        PlatformDependent.newSpscQueue().offer(null);
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.internal.logging;
+
+import io.netty.util.internal.logging.AsyncLoggerFactory.DropPolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+
+public class AsyncLoggerFactoryTest {
+
+    private static final String NAME = AsyncLoggerFactoryTest.class.getName();
+
+    private final RecordingHandler handler = new RecordingHandler();
+    private Logger jdkLogger;
+    private AsyncLoggerFactory factory;
+
+    @Before
+    public void setUp() {
+        jdkLogger = Logger.getLogger(NAME);
+        jdkLogger.setLevel(Level.ALL);
+        jdkLogger.setUseParentHandlers(false);
+        jdkLogger.addHandler(handler);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        handler.unblock();
+        if (factory != null) {
+            factory.shutdown();
+        }
+        jdkLogger.removeHandler(handler);
+        jdkLogger.setUseParentHandlers(true);
+        jdkLogger.setLevel(null);
+    }
+
+    @Test(timeout = 10000)
+    public void testEventsAreLoggedInOrderByBackgroundThread() throws Exception {
+        factory = new AsyncLoggerFactory(new JdkLoggerFactory());
+        InternalLogger logger = factory.newInstance(NAME);
+        Exception cause = new Exception();
+
+        logger.info("msg");
+        logger.info("{}", 1);
+        logger.info("{} {}", 1, 2);
+        logger.info("{} {} {}", 1, 2, 3);
+        logger.warn("cause", cause);
+        logger.debug("debug");
+        factory.shutdown();
+
+        List<LogRecord> records = handler.records();
+        assertEquals(6, records.size());
+        assertEquals("msg", records.get(0).getMessage());
+        assertEquals("1", records.get(1).getMessage());
+        assertEquals("1 2", records.get(2).getMessage());
+        assertEquals("1 2 3", records.get(3).getMessage());
+        assertEquals("cause", records.get(4).getMessage());
+        assertSame(cause, records.get(4).getThrown());
+        assertEquals(Level.FINE, records.get(5).getLevel());
+        for (LogRecord record: records) {
+            assertFalse(record.getThreadID() == (int) Thread.currentThread().getId());
+        }
+
+        // Logged by the calling thread after shutdown.
+        logger.info("after shutdown");
+        assertEquals("after shutdown", handler.records().get(6).getMessage());
+    }
+
+    @Test(timeout = 10000)
+    public void testDisabledLevelIsNotPublished() throws Exception {
+        jdkLogger.setLevel(Level.INFO);
+        factory = new AsyncLoggerFactory(new JdkLoggerFactory());
+        InternalLogger logger = factory.newInstance(NAME);
+
+        assertFalse(logger.isDebugEnabled());
+        logger.debug("debug {}", 1);
+        logger.info("info");
+        factory.shutdown();
+
+        List<LogRecord> records = handler.records();
+        assertEquals(1, records.size());
+        assertEquals("info", records.get(0).getMessage());
+    }
+
+    @Test(timeout = 10000)
+    public void testDropAll() throws Exception {
+        factory = new AsyncLoggerFactory(new JdkLoggerFactory(), 2, DropPolicy.DROP_ALL);
+        InternalLogger logger = factory.newInstance(NAME);
+
+        fill(logger);
+        logger.info("dropped");
+        logger.error("dropped");
+        assertEquals(2, factory.droppedEvents());
+
+        handler.unblock();
+        factory.shutdown();
+        assertEquals(2, countMessages("event"));
+        assertEquals(0, countMessages("dropped"));
+    }
+
+    @Test(timeout = 10000)
+    public void testDropBelowWarn() throws Exception {
+        factory = new AsyncLoggerFactory(new JdkLoggerFactory(), 2, DropPolicy.DROP_BELOW_WARN);
+        InternalLogger logger = factory.newInstance(NAME);
+
+        fill(logger);
+        logger.info("dropped");
+        assertEquals(1, factory.droppedEvents());
+        logger.warn("not dropped");
+        assertEquals(2, factory.droppedEvents());
+        assertEquals(1, countMessages("not dropped"));
+        handler.unblock();
+
+        factory.shutdown();
+        assertEquals(0, countMessages("dropped"));
+        assertEquals(1, countMessages("not dropped"));
+    }
+
+    @Test(timeout = 10000)
+    public void testNoEventIsLostOnConcurrentShutdown() throws Exception {
+        factory = new AsyncLoggerFactory(new JdkLoggerFactory(), 64, DropPolicy.DROP_BELOW_WARN);
+        final InternalLogger logger = factory.newInstance(NAME);
+        final int events = 10000;
+        final CountDownLatch started = new CountDownLatch(4);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i ++) {
+            Thread t = new Thread() {
+                @Override
+                public void run() {
+                    started.countDown();
+                    for (int i = 0; i < events; i ++) {
+                        logger.warn("event");
+                    }
+                }
+            };
+            threads.add(t);
+            t.start();
+        }
+
+        started.await();
+        factory.shutdown();
+        for (Thread t: threads) {
+            t.join();
+        }
+
+        // Every event was either logged by the background thread, by shutdown() or by the caller itself.
+        assertEquals(4 * events, countMessages("event"));
+    }
+
+    /**
+     * Blocks the background thread while it logs the first event and fills the ring buffer of the current thread.
+     * The slot of the event which is logged is only released once it was logged.
+     */
+    private void fill(InternalLogger logger) throws InterruptedException {
+        handler.block();
+        logger.info("event");
+        handler.awaitBlocked();
+        logger.info("event");
+    }
+
+    private int countMessages(String msg) {
+        int count = 0;
+        for (LogRecord record: handler.records()) {
+            if (msg.equals(record.getMessage())) {
+                count ++;
+            }
+        }
+        return count;
+    }
+
+    private static final class RecordingHandler extends Handler {
+        private final List<LogRecord> records = new ArrayList<LogRecord>();
+        private volatile CountDownLatch blocked;
+        private final CountDownLatch unblocked = new CountDownLatch(1);
+
+        void block() {
+            blocked = new CountDownLatch(1);
+        }
+
+        void awaitBlocked() throws InterruptedException {
+            blocked.await();
+        }
+
+        void unblock() {
+            unblocked.countDown();
+        }
+
+        synchronized List<LogRecord> records() {
+            return new ArrayList<LogRecord>(records);
+        }
+
+        @Override
+        public void publish(LogRecord record) {
+            synchronized (this) {
+                records.add(record);
+            }
+            // Only block the first call after block() was called.
+            CountDownLatch blocked = this.blocked;
+            if (blocked != null && blocked.getCount() > 0) {
+                blocked.countDown();
+                try {
+                    unblocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void flush() { }
+
+        @Override
+        public void close() { }
+    }
+}
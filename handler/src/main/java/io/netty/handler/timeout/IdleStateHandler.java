@@ -91,6 +91,15 @@ import java.util.concurrent.TimeUnit;
  * ...
  * </pre>
  *
+ * <h3>Lazy mode</h3>
+ *
+ * By default every instance schedules its own timeout tasks and reads {@link System#nanoTime()} on every read and
+ * completed write.  If many connections use this handler, create it with {@code lazy} set to {@code true}.  Then a
+ * single sweeper per {@link EventExecutor} checks all lazy handlers of the executor in one batch every 100
+ * milliseconds (see {@code -Dio.netty.handler.timeout.sweepIntervalMillis}) and a read or write only copies the
+ * time of the last sweep into a field.  The price is that idleness is only detected with the accuracy of the sweep
+ * interval and that a write counts as performed once it was passed to this handler instead of when it completed.
+ *
  * @see ReadTimeoutHandler
  * @see WriteTimeoutHandler
  */
@@ -100,18 +109,24 @@ public class IdleStateHandler extends ChannelHandlerAdapter {
     private final long readerIdleTimeNanos;
     private final long writerIdleTimeNanos;
     private final long allIdleTimeNanos;
+    private final boolean lazy;
 
+    // lastReadTime and lastWriteTime are only accessed from the EventExecutor of the channel.
     volatile ScheduledFuture<?> readerIdleTimeout;
-    volatile long lastReadTime;
+    long lastReadTime;
     private boolean firstReaderIdleEvent = true;
 
     volatile ScheduledFuture<?> writerIdleTimeout;
-    volatile long lastWriteTime;
+    long lastWriteTime;
     private boolean firstWriterIdleEvent = true;
 
     volatile ScheduledFuture<?> allIdleTimeout;
     private boolean firstAllIdleEvent = true;
 
+    // Only used in lazy mode.
+    private IdleStateSweeper sweeper;
+    private SweeperEntry sweeperEntry;
+
     private volatile int state; // 0 - none, 1 - initialized, 2 - destroyed
 
     /**
@@ -161,6 +176,35 @@ public class IdleStateHandler extends ChannelHandlerAdapter {
     public IdleStateHandler(
             long readerIdleTime, long writerIdleTime, long allIdleTime,
             TimeUnit unit) {
+        this(false, readerIdleTime, writerIdleTime, allIdleTime, unit);
+    }
+
+    /**
+     * Creates a new instance firing {@link IdleStateEvent}s.
+     *
+     * @param lazy
+     *        {@code true} if idleness should be detected by the sweeper of the
+     *        {@link EventExecutor} instead of per-channel timeout tasks.
+     *        See the class documentation for details.
+     * @param readerIdleTime
+     *        an {@link IdleStateEvent} whose state is {@link IdleState#READER_IDLE}
+     *        will be triggered when no read was performed for the specified
+     *        period of time.  Specify {@code 0} to disable.
+     * @param writerIdleTime
+     *        an {@link IdleStateEvent} whose state is {@link IdleState#WRITER_IDLE}
+     *        will be triggered when no write was performed for the specified
+     *        period of time.  Specify {@code 0} to disable.
+     * @param allIdleTime
+     *        an {@link IdleStateEvent} whose state is {@link IdleState#ALL_IDLE}
+     *        will be triggered when neither read nor write was performed for
+     *        the specified period of time.  Specify {@code 0} to disable.
+     * @param unit
+     *        the {@link TimeUnit} of {@code readerIdleTime},
+     *        {@code writeIdleTime}, and {@code allIdleTime}
+     */
+    public IdleStateHandler(
+            boolean lazy, long readerIdleTime, long writerIdleTime, long allIdleTime,
+            TimeUnit unit) {
         if (unit == null) {
             throw new NullPointerException("unit");
         }
@@ -180,6 +224,7 @@ public class IdleStateHandler extends ChannelHandlerAdapter {
         } else {
             allIdleTimeNanos = Math.max(unit.toNanos(allIdleTime), MIN_TIMEOUT_NANOS);
         }
+        this.lazy = lazy;
     }
 
     /**
@@ -249,13 +294,21 @@ public class IdleStateHandler extends ChannelHandlerAdapter {
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-        lastReadTime = System.nanoTime();
+        IdleStateSweeper sweeper = this.sweeper;
+        lastReadTime = sweeper != null ? sweeper.now() : System.nanoTime();
         firstReaderIdleEvent = firstAllIdleEvent = true;
         ctx.fireChannelRead(msg);
     }
 
     @Override
     public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        IdleStateSweeper sweeper = this.sweeper;
+        if (sweeper != null) {
+            lastWriteTime = sweeper.now();
+            firstWriterIdleEvent = firstAllIdleEvent = true;
+            ctx.write(msg, promise);
+            return;
+        }
         promise.addListener(new ChannelFutureListener() {
             @Override
             public void operationComplete(ChannelFuture future) throws Exception {
@@ -280,6 +333,14 @@ public class IdleStateHandler extends ChannelHandlerAdapter {
         EventExecutor loop = ctx.executor();
 
         lastReadTime = lastWriteTime = System.nanoTime();
+        if (lazy) {
+            if (readerIdleTimeNanos > 0 || writerIdleTimeNanos > 0 || allIdleTimeNanos > 0) {
+                sweeper = IdleStateSweeper.get(loop);
+                sweeperEntry = new SweeperEntry(ctx, lastReadTime);
+                sweeper.add(sweeperEntry);
+            }
+            return;
+        }
         if (readerIdleTimeNanos > 0) {
             readerIdleTimeout = loop.schedule(
                     new ReaderIdleTimeoutTask(ctx),
@@ -300,6 +361,11 @@ public class IdleStateHandler extends ChannelHandlerAdapter {
     private void destroy() {
         state = 2;
 
+        if (sweeper != null) {
+            sweeper.remove(sweeperEntry);
+            sweeper = null;
+            sweeperEntry = null;
+        }
         if (readerIdleTimeout != null) {
             readerIdleTimeout.cancel(false);
             readerIdleTimeout = null;
@@ -322,6 +388,85 @@ public class IdleStateHandler extends ChannelHandlerAdapter {
         ctx.fireUserEventTriggered(evt);
     }
 
+    private void readerIdle(ChannelHandlerContext ctx) {
+        IdleStateEvent event;
+        if (firstReaderIdleEvent) {
+            firstReaderIdleEvent = false;
+            event = IdleStateEvent.FIRST_READER_IDLE_STATE_EVENT;
+        } else {
+            event = IdleStateEvent.READER_IDLE_STATE_EVENT;
+        }
+        notifyIdle(ctx, event);
+    }
+
+    private void writerIdle(ChannelHandlerContext ctx) {
+        IdleStateEvent event;
+        if (firstWriterIdleEvent) {
+            firstWriterIdleEvent = false;
+            event = IdleStateEvent.FIRST_WRITER_IDLE_STATE_EVENT;
+        } else {
+            event = IdleStateEvent.WRITER_IDLE_STATE_EVENT;
+        }
+        notifyIdle(ctx, event);
+    }
+
+    private void allIdle(ChannelHandlerContext ctx) {
+        IdleStateEvent event;
+        if (firstAllIdleEvent) {
+            firstAllIdleEvent = false;
+            event = IdleStateEvent.FIRST_ALL_IDLE_STATE_EVENT;
+        } else {
+            event = IdleStateEvent.ALL_IDLE_STATE_EVENT;
+        }
+        notifyIdle(ctx, event);
+    }
+
+    private void notifyIdle(ChannelHandlerContext ctx, IdleStateEvent event) {
+        try {
+            channelIdle(ctx, event);
+        } catch (Throwable t) {
+            ctx.fireExceptionCaught(t);
+        }
+    }
+
+    private final class SweeperEntry extends IdleStateSweeper.Entry {
+
+        private final ChannelHandlerContext ctx;
+
+        // The time of the last event of each kind, so the events are repeated only once per idle period.
+        private long lastReaderIdleTime;
+        private long lastWriterIdleTime;
+        private long lastAllIdleTime;
+
+        SweeperEntry(ChannelHandlerContext ctx, long initialTime) {
+            this.ctx = ctx;
+            lastReaderIdleTime = lastWriterIdleTime = lastAllIdleTime = initialTime;
+        }
+
+        @Override
+        void sweep(long now) {
+            if (!ctx.channel().isOpen()) {
+                return;
+            }
+
+            if (readerIdleTimeNanos > 0 &&
+                    now - Math.max(lastReadTime, lastReaderIdleTime) >= readerIdleTimeNanos) {
+                lastReaderIdleTime = now;
+                readerIdle(ctx);
+            }
+            if (writerIdleTimeNanos > 0 &&
+                    now - Math.max(lastWriteTime, lastWriterIdleTime) >= writerIdleTimeNanos) {
+                lastWriterIdleTime = now;
+                writerIdle(ctx);
+            }
+            if (allIdleTimeNanos > 0 &&
+                    now - Math.max(Math.max(lastReadTime, lastWriteTime), lastAllIdleTime) >= allIdleTimeNanos) {
+                lastAllIdleTime = now;
+                allIdle(ctx);
+            }
+        }
+    }
+
     private final class ReaderIdleTimeoutTask implements Runnable {
 
         private final ChannelHandlerContext ctx;
@@ -343,18 +488,7 @@ public class IdleStateHandler extends ChannelHandlerAdapter {
                 // Reader is idle - set a new timeout and notify the callback.
                 readerIdleTimeout =
                     ctx.executor().schedule(this, readerIdleTimeNanos, TimeUnit.NANOSECONDS);
-                try {
-                    IdleStateEvent event;
-                    if (firstReaderIdleEvent) {
-                        firstReaderIdleEvent = false;
-                        event = IdleStateEvent.FIRST_READER_IDLE_STATE_EVENT;
-                    } else {
-                        event = IdleStateEvent.READER_IDLE_STATE_EVENT;
-                    }
-                    channelIdle(ctx, event);
-                } catch (Throwable t) {
-                    ctx.fireExceptionCaught(t);
-                }
+                readerIdle(ctx);
             } else {
                 // Read occurred before the timeout - set a new timeout with shorter delay.
                 readerIdleTimeout = ctx.executor().schedule(this, nextDelay, TimeUnit.NANOSECONDS);
@@ -383,18 +517,7 @@ public class IdleStateHandler extends ChannelHandlerAdapter {
                 // Writer is idle - set a new timeout and notify the callback.
                 writerIdleTimeout = ctx.executor().schedule(
                         this, writerIdleTimeNanos, TimeUnit.NANOSECONDS);
-                try {
-                    IdleStateEvent event;
-                    if (firstWriterIdleEvent) {
-                        firstWriterIdleEvent = false;
-                        event = IdleStateEvent.FIRST_WRITER_IDLE_STATE_EVENT;
-                    } else {
-                        event = IdleStateEvent.WRITER_IDLE_STATE_EVENT;
-                    }
-                    channelIdle(ctx, event);
-                } catch (Throwable t) {
-                    ctx.fireExceptionCaught(t);
-                }
+                writerIdle(ctx);
             } else {
                 // Write occurred before the timeout - set a new timeout with shorter delay.
                 writerIdleTimeout = ctx.executor().schedule(this, nextDelay, TimeUnit.NANOSECONDS);
@@ -424,18 +547,7 @@ public class IdleStateHandler extends ChannelHandlerAdapter {
                 // notify the callback.
                 allIdleTimeout = ctx.executor().schedule(
                         this, allIdleTimeNanos, TimeUnit.NANOSECONDS);
-                try {
-                    IdleStateEvent event;
-                    if (firstAllIdleEvent) {
-                        firstAllIdleEvent = false;
-                        event = IdleStateEvent.FIRST_ALL_IDLE_STATE_EVENT;
-                    } else {
-                        event = IdleStateEvent.ALL_IDLE_STATE_EVENT;
-                    }
-                    channelIdle(ctx, event);
-                } catch (Throwable t) {
-                    ctx.fireExceptionCaught(t);
-                }
+                allIdle(ctx);
             } else {
                 // Either read or write occurred before the timeout - set a new
                 // timeout with shorter delay.
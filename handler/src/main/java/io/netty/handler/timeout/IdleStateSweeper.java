@@ -0,0 +1,165 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.timeout;
+
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.netty.util.internal.SystemPropertyUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks all lazy {@link IdleStateHandler}s and {@link ReadTimeoutHandler}s of an {@link EventExecutor} in one batch
+ * per sweep instead of scheduling a task per handler. It also provides a coarse clock which is updated once per sweep,
+ * so recording an I/O event is a plain field write.
+ * <p>
+ * There is one instance per {@link EventExecutor} and it must only be accessed from that {@link EventExecutor}.  The
+ * instances are kept per thread and keyed by their {@link EventExecutor}, as several {@link EventExecutor}s may share
+ * the same thread, like {@code EmbeddedEventLoop}s.  An instance is forgotten once it has no handlers left, so it
+ * does not keep a terminated {@link EventExecutor} alive.
+ */
+final class IdleStateSweeper implements Runnable {
+
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(IdleStateSweeper.class);
+
+    static final long SWEEP_INTERVAL_NANOS;
+
+    static {
+        long sweepIntervalMillis = SystemPropertyUtil.getLong("io.netty.handler.timeout.sweepIntervalMillis", 100);
+        if (sweepIntervalMillis <= 0) {
+            sweepIntervalMillis = 100;
+        }
+        SWEEP_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(sweepIntervalMillis);
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("-Dio.netty.handler.timeout.sweepIntervalMillis: {}", sweepIntervalMillis);
+        }
+    }
+
+    private static final FastThreadLocal<Map<EventExecutor, IdleStateSweeper>> sweepers =
+            new FastThreadLocal<Map<EventExecutor, IdleStateSweeper>>() {
+        @Override
+        protected Map<EventExecutor, IdleStateSweeper> initialValue() {
+            return new IdentityHashMap<EventExecutor, IdleStateSweeper>(4);
+        }
+    };
+
+    /**
+     * Returns the {@link IdleStateSweeper} of the given {@link EventExecutor}. Must be called from the
+     * {@link EventExecutor} itself.
+     */
+    static IdleStateSweeper get(EventExecutor executor) {
+        assert executor.inEventLoop();
+        Map<EventExecutor, IdleStateSweeper> sweepers = IdleStateSweeper.sweepers.get();
+        IdleStateSweeper sweeper = sweepers.get(executor);
+        if (sweeper == null) {
+            sweeper = new IdleStateSweeper(executor);
+            sweepers.put(executor, sweeper);
+        }
+        return sweeper;
+    }
+
+    private final EventExecutor executor;
+    private Entry[] entries = new Entry[16];
+    private int size;
+    private ScheduledFuture<?> sweepFuture;
+    private long now;
+
+    private IdleStateSweeper(EventExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the time of the last sweep in nanoseconds, as returned by {@link System#nanoTime()}.
+     */
+    long now() {
+        return now;
+    }
+
+    void add(Entry entry) {
+        assert entry.index < 0;
+        if (size == 0) {
+            now = System.nanoTime();
+            sweepFuture = executor.scheduleWithFixedDelay(
+                    this, SWEEP_INTERVAL_NANOS, SWEEP_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+        }
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size << 1);
+        }
+        entry.index = size;
+        entries[size ++] = entry;
+    }
+
+    void remove(Entry entry) {
+        int index = entry.index;
+        if (index < 0) {
+            return;
+        }
+        // Move the last entry into the free slot so the removal is O(1).
+        Entry last = entries[-- size];
+        entries[index] = last;
+        last.index = index;
+        entries[size] = null;
+        entry.index = -1;
+
+        if (size == 0) {
+            sweepFuture.cancel(false);
+            sweepFuture = null;
+            Map<EventExecutor, IdleStateSweeper> sweepers = IdleStateSweeper.sweepers.get();
+            if (sweepers.get(executor) == this) {
+                sweepers.remove(executor);
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        final long now = this.now = System.nanoTime();
+        // Iterate backwards as an entry may remove itself and so move the last entry into its slot.
+        for (int i = size - 1; i >= 0; i --) {
+            if (i >= size) {
+                // Entries were removed during the sweep.
+                continue;
+            }
+            Entry entry = entries[i];
+            try {
+                entry.sweep(now);
+            } catch (Throwable t) {
+                logger.warn("An exception was thrown while checking for idleness.", t);
+            }
+        }
+    }
+
+    /**
+     * A handler which is checked by an {@link IdleStateSweeper}.
+     */
+    abstract static class Entry {
+        int index = -1;
+
+        /**
+         * Checks for idleness and notifies the handler if needed.
+         *
+         * @param now the time of this sweep in nanoseconds
+         */
+        abstract void sweep(long now);
+    }
+}
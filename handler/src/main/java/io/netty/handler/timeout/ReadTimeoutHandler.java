@@ -64,9 +64,15 @@ public class ReadTimeoutHandler extends ChannelHandlerAdapter {
     private static final long MIN_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
 
     private final long timeoutNanos;
+    private final boolean lazy;
 
     private volatile ScheduledFuture<?> timeout;
-    private volatile long lastReadTime;
+    // Only accessed from the EventExecutor of the channel.
+    private long lastReadTime;
+
+    // Only used in lazy mode.
+    private IdleStateSweeper sweeper;
+    private SweeperEntry sweeperEntry;
 
     private volatile int state; // 0 - none, 1 - Initialized, 2 - Destroyed;
 
@@ -91,6 +97,23 @@ public class ReadTimeoutHandler extends ChannelHandlerAdapter {
      *        the {@link TimeUnit} of {@code timeout}
      */
     public ReadTimeoutHandler(long timeout, TimeUnit unit) {
+        this(false, timeout, unit);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param lazy
+     *        {@code true} if the timeout should be detected by the sweeper of the
+     *        {@link io.netty.util.concurrent.EventExecutor} instead of a per-channel
+     *        timeout task.  The timeout is then only detected with the accuracy of the
+     *        sweep interval.  See {@link IdleStateHandler} for details.
+     * @param timeout
+     *        read timeout
+     * @param unit
+     *        the {@link TimeUnit} of {@code timeout}
+     */
+    public ReadTimeoutHandler(boolean lazy, long timeout, TimeUnit unit) {
         if (unit == null) {
             throw new NullPointerException("unit");
         }
@@ -100,6 +123,7 @@ public class ReadTimeoutHandler extends ChannelHandlerAdapter {
         } else {
             timeoutNanos = Math.max(unit.toNanos(timeout), MIN_TIMEOUT_NANOS);
         }
+        this.lazy = lazy;
     }
 
     @Override
@@ -145,7 +169,8 @@ public class ReadTimeoutHandler extends ChannelHandlerAdapter {
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-        lastReadTime = System.nanoTime();
+        IdleStateSweeper sweeper = this.sweeper;
+        lastReadTime = sweeper != null ? sweeper.now() : System.nanoTime();
         ctx.fireChannelRead(msg);
     }
 
@@ -161,7 +186,11 @@ public class ReadTimeoutHandler extends ChannelHandlerAdapter {
         state = 1;
 
         lastReadTime = System.nanoTime();
-        if (timeoutNanos > 0) {
+        if (timeoutNanos > 0 && lazy) {
+            sweeper = IdleStateSweeper.get(ctx.executor());
+            sweeperEntry = new SweeperEntry(ctx, lastReadTime);
+            sweeper.add(sweeperEntry);
+        } else if (timeoutNanos > 0) {
             timeout = ctx.executor().schedule(
                     new ReadTimeoutTask(ctx),
                     timeoutNanos, TimeUnit.NANOSECONDS);
@@ -171,6 +200,11 @@ public class ReadTimeoutHandler extends ChannelHandlerAdapter {
     private void destroy() {
         state = 2;
 
+        if (sweeper != null) {
+            sweeper.remove(sweeperEntry);
+            sweeper = null;
+            sweeperEntry = null;
+        }
         if (timeout != null) {
             timeout.cancel(false);
             timeout = null;
@@ -218,4 +252,31 @@ public class ReadTimeoutHandler extends ChannelHandlerAdapter {
             }
         }
     }
+
+    private final class SweeperEntry extends IdleStateSweeper.Entry {
+
+        private final ChannelHandlerContext ctx;
+        private long lastTimeoutTime;
+
+        SweeperEntry(ChannelHandlerContext ctx, long initialTime) {
+            this.ctx = ctx;
+            lastTimeoutTime = initialTime;
+        }
+
+        @Override
+        void sweep(long now) {
+            if (!ctx.channel().isOpen()) {
+                return;
+            }
+
+            if (now - Math.max(lastReadTime, lastTimeoutTime) >= timeoutNanos) {
+                lastTimeoutTime = now;
+                try {
+                    readTimedOut(ctx);
+                } catch (Throwable t) {
+                    ctx.fireExceptionCaught(t);
+                }
+            }
+        }
+    }
 }
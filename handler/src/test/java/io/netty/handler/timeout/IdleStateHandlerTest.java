@@ -0,0 +1,164 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.timeout;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class IdleStateHandlerTest {
+
+    private static EventLoopGroup group;
+
+    @BeforeClass
+    public static void init() {
+        group = new DefaultEventLoopGroup(1);
+    }
+
+    @AfterClass
+    public static void destroy() {
+        group.shutdownGracefully().syncUninterruptibly();
+    }
+
+    @Test(timeout = 10000)
+    public void testIdleStateEvent() throws Exception {
+        testIdleStateEvent(false);
+    }
+
+    @Test(timeout = 10000)
+    public void testIdleStateEventLazy() throws Exception {
+        testIdleStateEvent(true);
+    }
+
+    private static void testIdleStateEvent(boolean lazy) throws Exception {
+        final Queue<IdleStateEvent> events = new LinkedBlockingQueue<IdleStateEvent>();
+        final CountDownLatch latch = new CountDownLatch(2);
+        Channel channel = connect(new IdleStateHandler(lazy, 0, 0, 200, TimeUnit.MILLISECONDS),
+                new ChannelHandlerAdapter() {
+                    @Override
+                    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+                        events.add((IdleStateEvent) evt);
+                        latch.countDown();
+                    }
+                });
+        try {
+            latch.await();
+            assertSame(IdleStateEvent.FIRST_ALL_IDLE_STATE_EVENT, events.poll());
+            assertSame(IdleStateEvent.ALL_IDLE_STATE_EVENT, events.poll());
+        } finally {
+            channel.close().syncUninterruptibly();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testWriteResetsWriterIdleLazy() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Channel channel = connect(new IdleStateHandler(true, 0, 500, 0, TimeUnit.MILLISECONDS),
+                new ChannelHandlerAdapter() {
+                    @Override
+                    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+                        latch.countDown();
+                    }
+                });
+        try {
+            long start = System.nanoTime();
+            // Keep writing for a while so no event must be triggered.
+            for (int i = 0; i < 10; i ++) {
+                channel.writeAndFlush("ping").syncUninterruptibly();
+                Thread.sleep(100);
+            }
+            assertEquals(1, latch.getCount());
+            latch.await();
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(1000));
+        } finally {
+            channel.close().syncUninterruptibly();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testReadTimeoutLazy() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        Channel channel = connect(new ReadTimeoutHandler(true, 200, TimeUnit.MILLISECONDS),
+                new ChannelHandlerAdapter() {
+                    @Override
+                    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+                        if (cause instanceof ReadTimeoutException) {
+                            latch.countDown();
+                        }
+                    }
+                });
+        latch.await();
+        channel.closeFuture().syncUninterruptibly();
+    }
+
+    @Test
+    public void testSweeperPerExecutor() {
+        // Both EmbeddedEventLoops run on the current thread, but each must get its own sweeper.
+        EmbeddedChannel ch1 = new EmbeddedChannel();
+        EmbeddedChannel ch2 = new EmbeddedChannel();
+        try {
+            IdleStateSweeper sweeper = IdleStateSweeper.get(ch1.eventLoop());
+            assertSame(sweeper, IdleStateSweeper.get(ch1.eventLoop()));
+            assertNotSame(sweeper, IdleStateSweeper.get(ch2.eventLoop()));
+        } finally {
+            ch1.finish();
+            ch2.finish();
+        }
+    }
+
+    private static Channel connect(final ChannelHandler... handlers) throws Exception {
+        LocalAddress addr = new LocalAddress(IdleStateHandlerTest.class.getSimpleName());
+        Channel server = new ServerBootstrap()
+                .group(group)
+                .channel(LocalServerChannel.class)
+                .childHandler(new ChannelHandlerAdapter())
+                .bind(addr).sync().channel();
+        try {
+            return new Bootstrap()
+                    .group(group)
+                    .channel(LocalChannel.class)
+                    .handler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) throws Exception {
+                            ch.pipeline().addLast(handlers);
+                        }
+                    })
+                    .connect(addr).sync().channel();
+        } finally {
+            server.close().sync();
+        }
+    }
+}
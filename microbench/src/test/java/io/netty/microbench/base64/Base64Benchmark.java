@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.base64;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.base64.Base64;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.GenerateMicroBenchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+
+/**
+ * This class benchmarks {@link Base64} encoding and decoding of heap and direct buffers of different sizes.
+ */
+public class Base64Benchmark extends AbstractMicrobenchmark {
+
+    @Param({ "00024", "01024", "65536" })
+    public int size;
+
+    @Param({ "true", "false" })
+    public boolean direct;
+
+    private ByteBuf data;
+    private ByteBuf encoded;
+
+    @Setup
+    public void setup() {
+        byte[] bytes = new byte[size];
+        new Random(0).nextBytes(bytes);
+        data = buffer(Unpooled.wrappedBuffer(bytes));
+        ByteBuf tmp = Base64.encode(data.duplicate(), false);
+        encoded = buffer(tmp);
+        tmp.release();
+    }
+
+    private ByteBuf buffer(ByteBuf content) {
+        int length = content.readableBytes();
+        ByteBuf buf = direct ? Unpooled.directBuffer(length) : Unpooled.buffer(length);
+        return buf.writeBytes(content);
+    }
+
+    @TearDown
+    public void teardown() {
+        data.release();
+        encoded.release();
+    }
+
+    @GenerateMicroBenchmark
+    public ByteBuf encode() {
+        ByteBuf buf = Base64.encode(data, data.readerIndex(), data.readableBytes(), false);
+        buf.release();
+        return buf;
+    }
+
+    @GenerateMicroBenchmark
+    public ByteBuf encodeBreakLines() {
+        ByteBuf buf = Base64.encode(data, data.readerIndex(), data.readableBytes(), true);
+        buf.release();
+        return buf;
+    }
+
+    @GenerateMicroBenchmark
+    public ByteBuf decode() {
+        ByteBuf buf = Base64.decode(encoded, encoded.readerIndex(), encoded.readableBytes());
+        buf.release();
+        return buf;
+    }
+}
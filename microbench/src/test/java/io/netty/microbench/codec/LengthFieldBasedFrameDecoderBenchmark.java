@@ -0,0 +1,111 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.protobuf.ProtobufVarint32FrameDecoder;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.GenerateMicroBenchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * This class benchmarks {@link LengthFieldBasedFrameDecoder} with a fixed and a varint length field, emitting copies
+ * or slices of small and large frames.
+ */
+public class LengthFieldBasedFrameDecoderBenchmark extends AbstractMicrobenchmark {
+
+    private static final int STREAM_SIZE = 256 * 1024;
+    private static final int SEGMENT_SIZE = 16 * 1024;
+
+    @Param({ "00016", "65536" })
+    public int frameSize;
+
+    @Param({ "true", "false" })
+    public boolean sliceFrames;
+
+    private ByteBuf fixedStream;
+    private ByteBuf varintStream;
+    private EmbeddedChannel fixed;
+    private EmbeddedChannel varint;
+
+    @Setup
+    public void setup() {
+        fixedStream = Unpooled.buffer(STREAM_SIZE);
+        varintStream = Unpooled.buffer(STREAM_SIZE);
+        int frames = STREAM_SIZE / (frameSize + 4);
+        for (int i = 0; i < frames; i ++) {
+            fixedStream.writeInt(frameSize);
+            fixedStream.writeZero(frameSize);
+            writeVarint32(varintStream, frameSize);
+            varintStream.writeZero(frameSize);
+        }
+
+        LengthFieldBasedFrameDecoder fixedDecoder = new LengthFieldBasedFrameDecoder(Integer.MAX_VALUE, 0, 4, 0, 4);
+        fixedDecoder.setSliceFrames(sliceFrames);
+        fixed = new EmbeddedChannel(fixedDecoder);
+        LengthFieldBasedFrameDecoder varintDecoder = new ProtobufVarint32FrameDecoder();
+        varintDecoder.setSliceFrames(sliceFrames);
+        varint = new EmbeddedChannel(varintDecoder);
+    }
+
+    private static void writeVarint32(ByteBuf buf, int value) {
+        while ((value & ~0x7f) != 0) {
+            buf.writeByte(value & 0x7f | 0x80);
+            value >>>= 7;
+        }
+        buf.writeByte(value);
+    }
+
+    @TearDown
+    public void teardown() {
+        fixed.finish();
+        varint.finish();
+        fixedStream.release();
+        varintStream.release();
+    }
+
+    @GenerateMicroBenchmark
+    public int fixedLengthField() {
+        return decode(fixed, fixedStream);
+    }
+
+    @GenerateMicroBenchmark
+    public int varintLengthField() {
+        return decode(varint, varintStream);
+    }
+
+    private static int decode(EmbeddedChannel channel, ByteBuf stream) {
+        int length = stream.readableBytes();
+        for (int i = 0; i < length; i += SEGMENT_SIZE) {
+            channel.writeInbound(stream.slice(i, Math.min(SEGMENT_SIZE, length - i)).retain());
+        }
+        int decoded = 0;
+        for (;;) {
+            ByteBuf frame = (ByteBuf) channel.readInbound();
+            if (frame == null) {
+                break;
+            }
+            decoded += frame.readableBytes();
+            frame.release();
+        }
+        return decoded;
+    }
+}
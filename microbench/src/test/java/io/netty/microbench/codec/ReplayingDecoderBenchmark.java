@@ -0,0 +1,119 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.ReplayingDecoder;
+import io.netty.handler.codec.ResumableDecoder;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.GenerateMicroBenchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+
+/**
+ * This class benchmarks {@link ReplayingDecoder} against {@link ResumableDecoder} for a stream of small frames
+ * which is received in segments of different sizes.
+ */
+public class ReplayingDecoderBenchmark extends AbstractMicrobenchmark {
+
+    private static final int FRAMES = 32;
+    private static final int PAYLOAD_SIZE = 64;
+
+    @Param({ "0008", "0064", "1460" })
+    public int segmentSize;
+
+    private ByteBuf stream;
+    private EmbeddedChannel replaying;
+    private EmbeddedChannel resumable;
+
+    @Setup
+    public void setup() {
+        stream = Unpooled.buffer();
+        for (int i = 0; i < FRAMES; i ++) {
+            stream.writeShort(1);
+            stream.writeLong(i);
+            stream.writeInt(PAYLOAD_SIZE);
+            stream.writeZero(PAYLOAD_SIZE);
+        }
+        replaying = new EmbeddedChannel(new ReplayingFrameDecoder());
+        resumable = new EmbeddedChannel(new ResumableFrameDecoder());
+    }
+
+    @TearDown
+    public void teardown() {
+        replaying.finish();
+        resumable.finish();
+        stream.release();
+    }
+
+    @GenerateMicroBenchmark
+    public int replayingDecoder() {
+        return decode(replaying);
+    }
+
+    @GenerateMicroBenchmark
+    public int resumableDecoder() {
+        return decode(resumable);
+    }
+
+    private int decode(EmbeddedChannel channel) {
+        ByteBuf stream = this.stream;
+        int segmentSize = this.segmentSize;
+        for (int i = 0; i < stream.readableBytes(); i += segmentSize) {
+            channel.writeInbound(stream.slice(i, Math.min(segmentSize, stream.readableBytes() - i)).retain());
+        }
+        int decoded = 0;
+        for (;;) {
+            ByteBuf frame = (ByteBuf) channel.readInbound();
+            if (frame == null) {
+                break;
+            }
+            decoded += frame.readableBytes();
+            frame.release();
+        }
+        return decoded;
+    }
+
+    private static final class ReplayingFrameDecoder extends ReplayingDecoder<Void> {
+        @Override
+        protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+            in.readShort();
+            in.readLong();
+            int length = in.readInt();
+            out.add(in.readBytes(length));
+        }
+    }
+
+    private static final class ResumableFrameDecoder extends ResumableDecoder<Void> {
+        @Override
+        protected void decode(ChannelHandlerContext ctx, Reader in, List<Object> out) {
+            in.readShort();
+            in.readLong();
+            int length = in.readInt();
+            ByteBuf frame = in.readBytes(length);
+            if (in.isSuspended()) {
+                return;
+            }
+            out.add(frame);
+        }
+    }
+}
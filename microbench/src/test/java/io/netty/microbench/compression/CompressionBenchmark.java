@@ -0,0 +1,160 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.Lz4FrameDecoder;
+import io.netty.handler.codec.compression.Lz4FrameEncoder;
+import io.netty.handler.codec.compression.SnappyFramedDecoder;
+import io.netty.handler.codec.compression.SnappyFramedEncoder;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.GenerateMicroBenchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+
+/**
+ * This class benchmarks the LZ4 frame codec against the Snappy framed codec, using compressible data of different
+ * sizes.
+ */
+public class CompressionBenchmark extends AbstractMicrobenchmark {
+
+    /**
+     * The length of the stream header which is only written once per stream.
+     */
+    private static final int LZ4_HEADER_LENGTH = 7;
+    private static final int SNAPPY_HEADER_LENGTH = 10;
+
+    @Param({ "00256", "04096", "65536" })
+    public int size;
+
+    private ByteBuf data;
+    private ByteBuf lz4Compressed;
+    private ByteBuf snappyCompressed;
+
+    private EmbeddedChannel lz4Encoder;
+    private EmbeddedChannel lz4Decoder;
+    private EmbeddedChannel snappyEncoder;
+    private EmbeddedChannel snappyDecoder;
+
+    @Setup
+    public void setup() {
+        byte[] bytes = new byte[size];
+        Random random = new Random(0);
+        byte[] words = "netty lz4 snappy frame block event loop channel pipeline buffer ".getBytes();
+        for (int i = 0; i < bytes.length; i ++) {
+            bytes[i] = random.nextInt(8) == 0 ? (byte) random.nextInt(128) : words[(i * 7 + i / 64) % words.length];
+        }
+        data = Unpooled.directBuffer(size).writeBytes(bytes);
+
+        lz4Encoder = new EmbeddedChannel(new Lz4FrameEncoder());
+        lz4Decoder = new EmbeddedChannel(new Lz4FrameDecoder());
+        snappyEncoder = new EmbeddedChannel(new SnappyFramedEncoder());
+        snappyDecoder = new EmbeddedChannel(new SnappyFramedDecoder());
+
+        lz4Compressed = compressAndSkipHeader(new Lz4FrameEncoder(), lz4Decoder, LZ4_HEADER_LENGTH);
+        snappyCompressed = compressAndSkipHeader(new SnappyFramedEncoder(), snappyDecoder, SNAPPY_HEADER_LENGTH);
+
+        // Start the streams so that only the blocks are measured.
+        drainOutbound(encode(lz4Encoder));
+        drainOutbound(encode(snappyEncoder));
+    }
+
+    /**
+     * Compresses the data once, passes the stream header to the decoder and returns the remaining blocks.
+     */
+    private ByteBuf compressAndSkipHeader(ChannelHandler encoder, EmbeddedChannel decoder, int headerLength) {
+        EmbeddedChannel channel = new EmbeddedChannel(encoder);
+        channel.writeOutbound(data.duplicate().retain());
+        ByteBuf compressed = channel.readOutbound();
+        channel.close();
+
+        decoder.writeInbound(compressed.readBytes(headerLength));
+        ByteBuf blocks = Unpooled.directBuffer(compressed.readableBytes()).writeBytes(compressed);
+        compressed.release();
+        return blocks;
+    }
+
+    @TearDown
+    public void teardown() {
+        lz4Encoder.close();
+        lz4Decoder.close();
+        snappyEncoder.close();
+        snappyDecoder.close();
+        data.release();
+        lz4Compressed.release();
+        snappyCompressed.release();
+    }
+
+    @GenerateMicroBenchmark
+    public int lz4Encode() {
+        return drainOutbound(encode(lz4Encoder));
+    }
+
+    @GenerateMicroBenchmark
+    public int snappyEncode() {
+        return drainOutbound(encode(snappyEncoder));
+    }
+
+    @GenerateMicroBenchmark
+    public int lz4Decode() {
+        return drainInbound(decode(lz4Decoder, lz4Compressed));
+    }
+
+    @GenerateMicroBenchmark
+    public int snappyDecode() {
+        return drainInbound(decode(snappyDecoder, snappyCompressed));
+    }
+
+    private EmbeddedChannel encode(EmbeddedChannel channel) {
+        channel.writeOutbound(data.duplicate().retain());
+        return channel;
+    }
+
+    private static EmbeddedChannel decode(EmbeddedChannel channel, ByteBuf compressed) {
+        channel.writeInbound(compressed.duplicate().retain());
+        return channel;
+    }
+
+    private static int drainOutbound(EmbeddedChannel channel) {
+        int length = 0;
+        for (;;) {
+            ByteBuf buf = channel.readOutbound();
+            if (buf == null) {
+                return length;
+            }
+            length += buf.readableBytes();
+            buf.release();
+        }
+    }
+
+    private static int drainInbound(EmbeddedChannel channel) {
+        int length = 0;
+        for (;;) {
+            ByteBuf buf = channel.readInbound();
+            if (buf == null) {
+                return length;
+            }
+            length += buf.readableBytes();
+            buf.release();
+        }
+    }
+}
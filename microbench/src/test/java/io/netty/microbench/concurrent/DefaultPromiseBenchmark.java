@@ -0,0 +1,75 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.concurrent;
+
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.concurrent.DefaultPromise;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.FutureListener;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+import io.netty.util.concurrent.Promise;
+import org.openjdk.jmh.annotations.GenerateMicroBenchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * This class benchmarks the registration of listeners to a {@link DefaultPromise} and its completion, both
+ * uncontended and while several threads add listeners to the same promise that is being completed.
+ */
+public class DefaultPromiseBenchmark extends AbstractMicrobenchmark {
+
+    private static final FutureListener<Object> NOOP = new FutureListener<Object>() {
+        @Override
+        public void operationComplete(Future<Object> future) throws Exception {
+            // NOOP
+        }
+    };
+
+    @State(Scope.Group)
+    public static class SharedPromise {
+        volatile Promise<Object> promise = newPromise();
+    }
+
+    private static Promise<Object> newPromise() {
+        return new DefaultPromise<Object>(ImmediateEventExecutor.INSTANCE);
+    }
+
+    @GenerateMicroBenchmark
+    public Promise<Object> addListenersAndComplete() {
+        Promise<Object> promise = newPromise();
+        promise.addListener(NOOP);
+        promise.addListener(NOOP);
+        return promise.setSuccess(null);
+    }
+
+    @GenerateMicroBenchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public Promise<Object> contendedAddListener(SharedPromise shared) {
+        return shared.promise.addListener(NOOP);
+    }
+
+    @GenerateMicroBenchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public boolean contendedComplete(SharedPromise shared) {
+        Promise<Object> promise = shared.promise;
+        shared.promise = newPromise();
+        return promise.trySuccess(null);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.testsuite.transport.socket;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.PercentileRecvByteBufAllocator;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class SocketAutoReadTest extends AbstractSocketTest {
+
+    private static final byte[] data = new byte[1048576];
+
+    @Test(timeout = 30000)
+    public void testAutoReadOffDuringRead() throws Throwable {
+        run();
+    }
+
+    public void testAutoReadOffDuringRead(ServerBootstrap sb, Bootstrap cb) throws Throwable {
+        final AutoReadOffHandler handler = new AutoReadOffHandler();
+        // Read at most 4 KiB per read event, so a burst needs several read events.
+        sb.childOption(ChannelOption.RCVBUF_ALLOCATOR,
+                new PercentileRecvByteBufAllocator(1024, 1024, 1024, 90, 16, 4096));
+        sb.childHandler(handler);
+        cb.handler(new ChannelHandlerAdapter());
+
+        Channel sc = sb.bind().sync().channel();
+        Channel cc = cb.connect().sync().channel();
+        cc.writeAndFlush(Unpooled.wrappedBuffer(data));
+
+        handler.firstRead.await();
+        // Give a read which was scheduled despite autoRead being off a chance to run.
+        Thread.sleep(500);
+        assertEquals(0, handler.readsWhileStopped.get());
+
+        // Reading resumes once autoRead is turned on again.
+        handler.resumed = true;
+        handler.channel.config().setAutoRead(true);
+        while (handler.received.get() < data.length) {
+            if (handler.exception.get() != null) {
+                break;
+            }
+            Thread.sleep(10);
+        }
+
+        handler.channel.close().sync();
+        cc.close().sync();
+        sc.close().sync();
+
+        if (handler.exception.get() != null) {
+            throw handler.exception.get();
+        }
+        assertEquals(data.length, handler.received.get());
+    }
+
+    private static final class AutoReadOffHandler extends ChannelHandlerAdapter {
+        final CountDownLatch firstRead = new CountDownLatch(1);
+        final AtomicInteger received = new AtomicInteger();
+        final AtomicInteger readsWhileStopped = new AtomicInteger();
+        volatile boolean stopped;
+        volatile boolean resumed;
+        final AtomicReference<Throwable> exception = new AtomicReference<Throwable>();
+        volatile Channel channel;
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            channel = ctx.channel();
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            if (stopped && !resumed) {
+                readsWhileStopped.incrementAndGet();
+            }
+            ByteBuf buf = (ByteBuf) msg;
+            received.addAndGet(buf.readableBytes());
+            buf.release();
+            if (firstRead.getCount() > 0) {
+                // Stop reading in the middle of the burst.
+                ctx.channel().config().setAutoRead(false);
+                firstRead.countDown();
+            }
+        }
+
+        @Override
+        public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+            if (!ctx.channel().config().isAutoRead()) {
+                // The read event which turned off autoRead is over, so no more reads must happen.
+                stopped = true;
+            }
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+            if (exception.compareAndSet(null, cause)) {
+                ctx.close();
+            }
+        }
+    }
+}
@@ -19,6 +19,8 @@ import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.SingleThreadEventLoop;
 import io.netty.channel.epoll.AbstractEpollChannel.AbstractEpollUnsafe;
+import io.netty.util.concurrent.RejectedExecutionHandler;
+import io.netty.util.concurrent.RejectedExecutionHandlers;
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
@@ -62,7 +64,12 @@ final class EpollEventLoop extends SingleThreadEventLoop {
     private volatile int ioRatio = 50;
 
     EpollEventLoop(EventLoopGroup parent, Executor executor, int maxEvents) {
-        super(parent, executor, false);
+        this(parent, executor, maxEvents, DEFAULT_MAX_PENDING_EXECUTOR_TASKS, RejectedExecutionHandlers.reject());
+    }
+
+    EpollEventLoop(EventLoopGroup parent, Executor executor, int maxEvents,
+                   int maxPendingTasks, RejectedExecutionHandler rejectedExecutionHandler) {
+        super(parent, executor, false, maxPendingTasks, rejectedExecutionHandler);
         events = new long[maxEvents];
         boolean success = false;
         int epollFd = -1;
@@ -153,9 +160,10 @@ final class EpollEventLoop extends SingleThreadEventLoop {
     }
 
     @Override
-    protected Queue<Runnable> newTaskQueue() {
+    protected Queue<Runnable> newTaskQueue(int maxPendingTasks) {
         // This event loop never calls takeTask()
-        return PlatformDependent.newMpscQueue();
+        return maxPendingTasks == Integer.MAX_VALUE ? PlatformDependent.<Runnable>newMpscQueue()
+                                                    : PlatformDependent.<Runnable>newFixedMpscQueue(maxPendingTasks);
     }
 
     /**
@@ -176,6 +184,11 @@ final class EpollEventLoop extends SingleThreadEventLoop {
         this.ioRatio = ioRatio;
     }
 
+    @Override
+    public int registeredChannels() {
+        return ids.size();
+    }
+
     private int epollWait() {
         int selectCnt = 0;
         long currentTimeNanos = System.nanoTime();
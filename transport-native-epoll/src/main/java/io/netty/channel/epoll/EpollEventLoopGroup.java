@@ -19,6 +19,8 @@ import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.MultithreadEventLoopGroup;
 import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorChooserFactory;
+import io.netty.util.concurrent.RejectedExecutionHandler;
 
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
@@ -58,6 +60,28 @@ public final class EpollEventLoopGroup extends MultithreadEventLoopGroup {
         super(nThreads, threadFactory, maxEventsAtOnce);
     }
 
+    /**
+     * Create a new instance using the specified number of threads, the given {@link ThreadFactory}, the given
+     * {@link EventExecutorChooserFactory} to choose the {@link EpollEventLoop} of a new channel and the given
+     * maximal amount of epoll events to handle per epollWait(...).
+     */
+    public EpollEventLoopGroup(int nThreads, ThreadFactory threadFactory, EventExecutorChooserFactory chooserFactory,
+                               int maxEventsAtOnce) {
+        super(nThreads, threadFactory, chooserFactory, maxEventsAtOnce);
+    }
+
+    /**
+     * Create a new instance using the specified number of threads, the given {@link ThreadFactory}, the given
+     * {@link EventExecutorChooserFactory} and the given maximal amount of epoll events to handle per epollWait(...).
+     * The task queue of each {@link EpollEventLoop} holds at most {@code maxPendingTasks} tasks; tasks submitted
+     * while it is full are handed to the given {@link RejectedExecutionHandler}.
+     */
+    public EpollEventLoopGroup(int nThreads, ThreadFactory threadFactory, EventExecutorChooserFactory chooserFactory,
+                               int maxEventsAtOnce, int maxPendingTasks,
+                               RejectedExecutionHandler rejectedExecutionHandler) {
+        super(nThreads, threadFactory, chooserFactory, maxEventsAtOnce, maxPendingTasks, rejectedExecutionHandler);
+    }
+
     /**
      * Sets the percentage of the desired amount of time spent for I/O in the child event loops.  The default value is
      * {@code 50}, which means the event loop will try to spend the same amount of time for I/O as for non-I/O tasks.
@@ -70,6 +94,10 @@ public final class EpollEventLoopGroup extends MultithreadEventLoopGroup {
 
     @Override
     protected EventLoop newChild(Executor executor, Object... args) throws Exception {
+        if (args.length > 1) {
+            return new EpollEventLoop(this, executor, (Integer) args[0],
+                                      (Integer) args[1], (RejectedExecutionHandler) args[2]);
+        }
         return new EpollEventLoop(this, executor, (Integer) args[0]);
     }
 }
@@ -28,7 +28,9 @@ import io.netty.channel.ChannelPromise;
 import io.netty.channel.ConnectTimeoutException;
 import io.netty.channel.DefaultFileRegion;
 import io.netty.channel.EventLoop;
+import io.netty.channel.MaxBytesRecvByteBufAllocator;
 import io.netty.channel.RecvByteBufAllocator;
+import io.netty.channel.ScratchRecvByteBufAllocator;
 import io.netty.channel.epoll.EpollChannelOutboundBuffer.AddressEntry;
 import io.netty.channel.socket.ChannelInputShutdownEvent;
 import io.netty.channel.socket.ServerSocketChannel;
@@ -364,6 +366,17 @@ public final class EpollSocketChannel extends AbstractEpollChannel implements So
 
     final class EpollSocketUnsafe extends AbstractEpollUnsafe {
         private RecvByteBufAllocator.Handle allocHandle;
+        private final Runnable epollInReadyRunnable = new Runnable() {
+            @Override
+            public void run() {
+                if (config().isAutoRead() || readPending) {
+                    epollInReady();
+                } else {
+                    // autoRead was turned off after this read was scheduled.
+                    clearEpollIn();
+                }
+            }
+        };
 
         private void closeOnRead(ChannelPipeline pipeline) {
             inputShutdown = true;
@@ -603,25 +616,48 @@ public final class EpollSocketChannel extends AbstractEpollChannel implements So
             final ChannelConfig config = config();
             final ChannelPipeline pipeline = pipeline();
             final ByteBufAllocator allocator = config.getAllocator();
+            final RecvByteBufAllocator recvBufAllocator = config.getRecvByteBufAllocator();
+            final int maxBytesPerRead = recvBufAllocator instanceof MaxBytesRecvByteBufAllocator ?
+                    ((MaxBytesRecvByteBufAllocator) recvBufAllocator).maxBytesPerRead() : Integer.MAX_VALUE;
             RecvByteBufAllocator.Handle allocHandle = this.allocHandle;
             if (allocHandle == null) {
-                this.allocHandle = allocHandle = config.getRecvByteBufAllocator().newHandle();
+                this.allocHandle = allocHandle = recvBufAllocator.newHandle();
             }
+            final ScratchRecvByteBufAllocator scratchAllocator =
+                    recvBufAllocator instanceof ScratchRecvByteBufAllocator ?
+                            (ScratchRecvByteBufAllocator) recvBufAllocator : null;
 
             ByteBuf byteBuf = null;
             boolean close = false;
+            boolean maybeMoreDataToRead = false;
             try {
                 int byteBufCapacity = allocHandle.guess();
                 int totalReadAmount = 0;
                 for (;;) {
-                    // we use a direct buffer here as the native implementations only be able
-                    // to handle direct buffers.
-                    byteBuf = allocator.directBuffer(byteBufCapacity);
-                    int writable = byteBuf.writableBytes();
-                    int localReadAmount = doReadBytes(byteBuf);
+                    final int writable;
+                    final int localReadAmount;
+                    if (scratchAllocator == null) {
+                        // we use a direct buffer here as the native implementations only be able
+                        // to handle direct buffers.
+                        byteBuf = allocator.directBuffer(byteBufCapacity);
+                        writable = byteBuf.writableBytes();
+                        localReadAmount = doReadBytes(byteBuf);
+                    } else {
+                        // Read into the (direct) scratch buffer of the EventLoop and only allocate a buffer for
+                        // what was actually read.
+                        ByteBuf scratchBuf = scratchAllocator.scratchBuffer();
+                        writable = scratchBuf.writableBytes();
+                        localReadAmount = doReadBytes(scratchBuf);
+                        if (localReadAmount > 0) {
+                            byteBuf = ScratchRecvByteBufAllocator.copy(allocator, scratchBuf);
+                        }
+                    }
                     if (localReadAmount <= 0) {
                         // not was read release the buffer
-                        byteBuf.release();
+                        if (byteBuf != null) {
+                            byteBuf.release();
+                            byteBuf = null;
+                        }
                         close = localReadAmount < 0;
                         break;
                     }
@@ -643,6 +679,14 @@ public final class EpollSocketChannel extends AbstractEpollChannel implements So
                         // which might mean we drained the recv buffer completely.
                         break;
                     }
+
+                    if (totalReadAmount >= maxBytesPerRead) {
+                        // Read enough for this read event. Because of epoll ET we will not get notified again
+                        // for the data which is still left, so schedule another read to give the other
+                        // channels of this EventLoop a chance first.
+                        maybeMoreDataToRead = true;
+                        break;
+                    }
                 }
                 pipeline.fireChannelReadComplete();
                 allocHandle.record(totalReadAmount);
@@ -650,18 +694,17 @@ public final class EpollSocketChannel extends AbstractEpollChannel implements So
                 if (close) {
                     closeOnRead(pipeline);
                     close = false;
+                } else if (maybeMoreDataToRead && (config.isAutoRead() || readPending)) {
+                    // Only read again if the user still wants to read. Otherwise EPOLLIN is cleared below and
+                    // reading is resumed by the next read() call.
+                    eventLoop().execute(epollInReadyRunnable);
                 }
             } catch (Throwable t) {
                 boolean closed = handleReadException(pipeline, byteBuf, t, close);
                 if (!closed) {
                     // trigger a read again as there may be something left to read and because of epoll ET we
                     // will not get notified again until we read everything from the socket
-                    eventLoop().execute(new Runnable() {
-                        @Override
-                        public void run() {
-                            epollInReady();
-                        }
-                    });
+                    eventLoop().execute(epollInReadyRunnable);
                 }
             } finally {
                 // Check if there is a readPending which was not processed yet.
@@ -37,10 +37,10 @@ public class AdaptiveRecvByteBufAllocator implements RecvByteBufAllocator {
     static final int DEFAULT_INITIAL = 1024;
     static final int DEFAULT_MAXIMUM = 65536;
 
-    private static final int INDEX_INCREMENT = 4;
+    static final int INDEX_INCREMENT = 4;
     private static final int INDEX_DECREMENT = 1;
 
-    private static final int[] SIZE_TABLE;
+    static final int[] SIZE_TABLE;
 
     static {
         List<Integer> sizeTable = new ArrayList<Integer>();
@@ -60,7 +60,7 @@ public class AdaptiveRecvByteBufAllocator implements RecvByteBufAllocator {
 
     public static final AdaptiveRecvByteBufAllocator DEFAULT = new AdaptiveRecvByteBufAllocator();
 
-    private static int getSizeTableIndex(final int size) {
+    static int getSizeTableIndex(final int size) {
         for (int low = 0, high = SIZE_TABLE.length - 1;;) {
             if (high < low) {
                 return low;
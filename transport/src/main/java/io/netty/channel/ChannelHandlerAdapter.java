@@ -16,6 +16,8 @@
 
 package io.netty.channel;
 
+import io.netty.util.concurrent.FastThreadLocal;
+
 import java.net.SocketAddress;
 import java.util.Map;
 import java.util.WeakHashMap;
@@ -27,14 +29,14 @@ public class ChannelHandlerAdapter implements ChannelHandler {
 
     /**
      * Cache the result of {@link Sharable} annotation detection to workaround a condition. We use a
-     * {@link ThreadLocal} and {@link WeakHashMap} to eliminate the volatile write/reads. Using different
+     * {@link FastThreadLocal} and {@link WeakHashMap} to eliminate the volatile write/reads. Using different
      * {@link WeakHashMap} instances per {@link Thread} is good enough for us and the number of
      * {@link Thread}s are quite limited anyway.
      *
      * See <a href="See https://github.com/netty/netty/issues/2289">#2289</a>.
      */
-    private static final ThreadLocal<Map<Class<?>, Boolean>> SHARABLE_CACHE =
-            new ThreadLocal<Map<Class<?>, Boolean>>() {
+    private static final FastThreadLocal<Map<Class<?>, Boolean>> SHARABLE_CACHE =
+            new FastThreadLocal<Map<Class<?>, Boolean>>() {
                 @Override
                 protected Map<Class<?>, Boolean> initialValue() {
                     // Start with small capacity to keep memory overhead as low as possible.
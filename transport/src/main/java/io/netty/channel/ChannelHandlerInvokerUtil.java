@@ -69,7 +69,29 @@ public final class ChannelHandlerInvokerUtil {
         }
     }
 
+    private static HandlerLatencyTracer latencyTracer(ChannelHandlerContext ctx) {
+        if (ctx instanceof DefaultChannelHandlerContext) {
+            // Fast path which avoids the interface calls.
+            return ((DefaultChannelHandlerContext) ctx).pipeline.latencyTracer;
+        }
+        ChannelPipeline pipeline = ctx.pipeline();
+        return pipeline != null ? pipeline.latencyTracer() : null;
+    }
+
     public static void invokeChannelReadNow(final ChannelHandlerContext ctx, final Object msg) {
+        final HandlerLatencyTracer tracer = latencyTracer(ctx);
+        if (tracer != null) {
+            HandlerLatencyTracer.TraceStack stack = tracer.enter();
+            try {
+                ctx.handler().channelRead(ctx, msg);
+            } catch (Throwable t) {
+                notifyHandlerException(ctx, t);
+            } finally {
+                tracer.exit(stack, ctx.name(), true);
+            }
+            return;
+        }
+
         try {
             ctx.handler().channelRead(ctx, msg);
         } catch (Throwable t) {
@@ -136,6 +158,19 @@ public final class ChannelHandlerInvokerUtil {
     }
 
     public static void invokeWriteNow(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        final HandlerLatencyTracer tracer = latencyTracer(ctx);
+        if (tracer != null) {
+            HandlerLatencyTracer.TraceStack stack = tracer.enter();
+            try {
+                ctx.handler().write(ctx, msg, promise);
+            } catch (Throwable t) {
+                notifyOutboundHandlerException(t, promise);
+            } finally {
+                tracer.exit(stack, ctx.name(), false);
+            }
+            return;
+        }
+
         try {
             ctx.handler().write(ctx, msg, promise);
         } catch (Throwable t) {
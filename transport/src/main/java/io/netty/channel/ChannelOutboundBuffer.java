@@ -506,7 +506,8 @@ public class ChannelOutboundBuffer {
         totalPendingSize = 0;
         writable = 1;
 
-        RECYCLER.recycle(this, (Handle<ChannelOutboundBuffer>) handle);
+        // Recycle via the handle as a subclass may be pooled by its own Recycler.
+        ((Handle<ChannelOutboundBuffer>) handle).recycle(this);
     }
 
     /**
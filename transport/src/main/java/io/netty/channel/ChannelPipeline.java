@@ -652,6 +652,18 @@ public interface ChannelPipeline extends Iterable<Entry<String, ChannelHandler>>
      */
     Map<String, ChannelHandler> toMap();
 
+    /**
+     * Enables the tracing of the time the handlers of this pipeline spend handling inbound messages and outbound
+     * writes, using the given {@link HandlerLatencyTracer}. Tracing is disabled if {@code null} is given, which
+     * is the default.
+     */
+    ChannelPipeline latencyTracer(HandlerLatencyTracer tracer);
+
+    /**
+     * Returns the {@link HandlerLatencyTracer} of this pipeline or {@code null} if tracing is disabled.
+     */
+    HandlerLatencyTracer latencyTracer();
+
     /**
      * A {@link Channel} was registered to its {@link EventLoop}.
      *
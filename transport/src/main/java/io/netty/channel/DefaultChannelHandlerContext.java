@@ -181,7 +181,7 @@ final class DefaultChannelHandlerContext implements ChannelHandlerContext, Resou
     volatile DefaultChannelHandlerContext prev;
 
     private final AbstractChannel channel;
-    private final DefaultChannelPipeline pipeline;
+    final DefaultChannelPipeline pipeline;
     private final String name;
     private final ChannelHandler handler;
     private boolean removed;
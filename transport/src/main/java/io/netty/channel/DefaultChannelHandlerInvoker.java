@@ -404,7 +404,8 @@ public class DefaultChannelHandlerInvoker implements ChannelHandlerInvoker {
         }
     }
 
-    static final class WriteTask extends OneTimeTask implements SingleThreadEventLoop.NonWakeupRunnable {
+    // Not a OneTimeTask as it is recycled, possibly by another thread, while the task queue may still link it.
+    static final class WriteTask implements SingleThreadEventLoop.NonWakeupRunnable {
         private ChannelHandlerContext ctx;
         private Object msg;
         private ChannelPromise promise;
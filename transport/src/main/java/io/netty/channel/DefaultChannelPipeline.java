@@ -66,6 +66,8 @@ final class DefaultChannelPipeline implements ChannelPipeline {
     final Map<EventExecutorGroup, ChannelHandlerInvoker> childInvokers =
             new IdentityHashMap<EventExecutorGroup, ChannelHandlerInvoker>();
 
+    volatile HandlerLatencyTracer latencyTracer;
+
     public DefaultChannelPipeline(AbstractChannel channel) {
         if (channel == null) {
             throw new NullPointerException("channel");
@@ -747,6 +749,17 @@ final class DefaultChannelPipeline implements ChannelPipeline {
         }
     }
 
+    @Override
+    public ChannelPipeline latencyTracer(HandlerLatencyTracer tracer) {
+        latencyTracer = tracer;
+        return this;
+    }
+
+    @Override
+    public HandlerLatencyTracer latencyTracer() {
+        return latencyTracer;
+    }
+
     @Override
     public Map<String, ChannelHandler> toMap() {
         Map<String, ChannelHandler> map = new LinkedHashMap<String, ChannelHandler>();
@@ -15,6 +15,8 @@
  */
 package io.netty.channel;
 
+import io.netty.util.concurrent.EventExecutorChooserFactory;
+
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
 
@@ -49,6 +51,19 @@ public class DefaultEventLoopGroup extends MultithreadEventLoopGroup {
         super(nThreads, threadFactory);
     }
 
+    /**
+     * Create a new instance
+     *
+     * @param nThreads          the number of threads to use
+     * @param threadFactory     the {@link ThreadFactory} or {@code null} to use the default
+     * @param chooserFactory    the {@link EventExecutorChooserFactory} which chooses the {@link EventLoop} of a new
+     *                          {@link Channel}
+     */
+    public DefaultEventLoopGroup(int nThreads, ThreadFactory threadFactory,
+                                 EventExecutorChooserFactory chooserFactory) {
+        super(nThreads, threadFactory, chooserFactory);
+    }
+
     @Override
     protected EventLoop newChild(Executor executor, Object... args) throws Exception {
         return new DefaultEventLoop(this, executor);
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of the time a {@link ChannelHandler} spent handling an event, as recorded by a
+ * {@link HandlerLatencyTracer}. The recorded values are grouped into buckets of power-of-two nanoseconds, so the
+ * percentiles reported by this histogram are upper bounds which are at most twice the actual value.
+ */
+public final class HandlerLatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    HandlerLatencyHistogram() { }
+
+    void record(long nanos) {
+        if (nanos < 0) {
+            // System.nanoTime() is not guaranteed to be monotonic on all platforms.
+            nanos = 0;
+        }
+        buckets.incrementAndGet(bucket(nanos));
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        for (;;) {
+            long max = maxNanos.get();
+            if (nanos <= max || maxNanos.compareAndSet(max, nanos)) {
+                break;
+            }
+        }
+    }
+
+    private static int bucket(long nanos) {
+        // Bucket i holds all values in the range of [2^(i-1), 2^i).
+        return BUCKETS - Long.numberOfLeadingZeros(nanos);
+    }
+
+    /**
+     * Returns the number of recorded events.
+     */
+    public long count() {
+        return count.get();
+    }
+
+    /**
+     * Returns the sum of all recorded times in nanoseconds.
+     */
+    public long totalNanos() {
+        return totalNanos.get();
+    }
+
+    /**
+     * Returns the largest recorded time in nanoseconds.
+     */
+    public long maxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns the mean of all recorded times in nanoseconds or {@code 0} if nothing was recorded yet.
+     */
+    public long meanNanos() {
+        long count = count();
+        return count == 0 ? 0 : totalNanos() / count;
+    }
+
+    /**
+     * Returns the upper bound of the given percentile of the recorded times in nanoseconds.
+     *
+     * @param percentile the percentile ({@code 0.0 - 100.0})
+     */
+    public long percentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile: " + percentile + " (expected: 0.0-100.0)");
+        }
+        long count = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i ++) {
+            snapshot[i] = buckets.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i ++) {
+            seen += snapshot[i];
+            if (seen >= rank && seen > 0) {
+                return i == 0 ? 0 : Math.min((1L << i) - 1, maxNanos());
+            }
+        }
+        return maxNanos();
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i ++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "count: " + count() + ", mean: " + meanNanos() + "ns, p50: " + percentileNanos(50) +
+               "ns, p99: " + percentileNanos(99) + "ns, max: " + maxNanos() + "ns";
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.ThreadLocalRandom;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records the time the {@link ChannelHandler}s of a {@link ChannelPipeline} spend in
+ * {@link ChannelHandler#channelRead(ChannelHandlerContext, Object)} and
+ * {@link ChannelHandler#write(ChannelHandlerContext, Object, ChannelPromise)}, aggregated per handler name.
+ * <p>
+ * Tracing is enabled for a pipeline via {@link ChannelPipeline#latencyTracer(HandlerLatencyTracer)}, and the same
+ * tracer may be shared by any number of pipelines to aggregate the timings of all their {@link Channel}s.
+ * The recorded time of a handler does not include the time spent in the handlers it passed the event on to
+ * synchronously, so it is the time added by the handler itself.
+ * <p>
+ * Only one of {@code sampleRate} events which enter a pipeline are timed, including all the handler invocations
+ * they trigger on the same thread.
+ */
+public final class HandlerLatencyTracer {
+
+    /**
+     * The nested handler invocations of each thread, shared by all tracers so a tracer holds no per-thread state.
+     */
+    private static final FastThreadLocal<TraceStack> STACKS = new FastThreadLocal<TraceStack>() {
+        @Override
+        protected TraceStack initialValue() {
+            return new TraceStack();
+        }
+    };
+
+    private final ConcurrentMap<String, HandlerLatencyHistogram> inbound = PlatformDependent.newConcurrentHashMap();
+    private final ConcurrentMap<String, HandlerLatencyHistogram> outbound = PlatformDependent.newConcurrentHashMap();
+    private final int sampleRate;
+
+    /**
+     * Creates a new tracer which times every event.
+     */
+    public HandlerLatencyTracer() {
+        this(1);
+    }
+
+    /**
+     * Creates a new tracer which times one of {@code sampleRate} events on average.
+     */
+    public HandlerLatencyTracer(int sampleRate) {
+        if (sampleRate <= 0) {
+            throw new IllegalArgumentException("sampleRate: " + sampleRate + " (expected: > 0)");
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Returns the sample rate of this tracer.
+     */
+    public int sampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Returns the time spent in {@link ChannelHandler#channelRead(ChannelHandlerContext, Object)} per handler name.
+     */
+    public Map<String, HandlerLatencyHistogram> inboundLatencies() {
+        return Collections.unmodifiableMap(inbound);
+    }
+
+    /**
+     * Returns the time spent in {@link ChannelHandler#write(ChannelHandlerContext, Object, ChannelPromise)} per
+     * handler name.
+     */
+    public Map<String, HandlerLatencyHistogram> outboundLatencies() {
+        return Collections.unmodifiableMap(outbound);
+    }
+
+    /**
+     * Clears all recorded timings.
+     */
+    public void reset() {
+        for (HandlerLatencyHistogram h: inbound.values()) {
+            h.reset();
+        }
+        for (HandlerLatencyHistogram h: outbound.values()) {
+            h.reset();
+        }
+    }
+
+    /**
+     * Must be called before a handler is invoked. The returned stack must be passed to
+     * {@link #exit(TraceStack, String, boolean)} once the handler returned.
+     */
+    TraceStack enter() {
+        TraceStack stack = STACKS.get();
+        int depth = stack.depth ++;
+        if (depth == 0) {
+            // Decide for the whole chain of invocations if it is timed or not.
+            stack.sampled = sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+        }
+        if (stack.sampled) {
+            stack.push(depth, System.nanoTime());
+        }
+        return stack;
+    }
+
+    void exit(TraceStack stack, String name, boolean inbound) {
+        int depth = -- stack.depth;
+        if (!stack.sampled) {
+            return;
+        }
+
+        long elapsed = System.nanoTime() - stack.startTimes[depth];
+        if (depth > 0) {
+            stack.childTimes[depth - 1] += elapsed;
+        }
+        histogram(inbound ? this.inbound : outbound, name).record(elapsed - stack.childTimes[depth]);
+    }
+
+    private static HandlerLatencyHistogram histogram(ConcurrentMap<String, HandlerLatencyHistogram> map, String name) {
+        HandlerLatencyHistogram histogram = map.get(name);
+        if (histogram == null) {
+            histogram = new HandlerLatencyHistogram();
+            HandlerLatencyHistogram old = map.putIfAbsent(name, histogram);
+            if (old != null) {
+                histogram = old;
+            }
+        }
+        return histogram;
+    }
+
+    @Override
+    public String toString() {
+        return "inbound: " + inbound + ", outbound: " + outbound;
+    }
+
+    /**
+     * The nested handler invocations of the current thread.
+     */
+    static final class TraceStack {
+        int depth;
+        boolean sampled;
+        long[] startTimes = new long[8];
+        // The time the invocation at the same depth spent in nested invocations.
+        long[] childTimes = new long[8];
+
+        void push(int depth, long startTime) {
+            if (depth == startTimes.length) {
+                long[] newStartTimes = new long[depth << 1];
+                long[] newChildTimes = new long[depth << 1];
+                System.arraycopy(startTimes, 0, newStartTimes, 0, depth);
+                System.arraycopy(childTimes, 0, newChildTimes, 0, depth);
+                startTimes = newStartTimes;
+                childTimes = newChildTimes;
+            }
+            startTimes[depth] = startTime;
+            childTimes[depth] = 0;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorChooserFactory;
+import io.netty.util.concurrent.LeastLoadedEventExecutorChooserFactory;
+
+/**
+ * {@link EventExecutorChooserFactory} which chooses the {@link SingleThreadEventLoop} with the fewest
+ * {@link SingleThreadEventLoop#registeredChannels()}, so that long-lived {@link Channel}s are spread evenly over the
+ * {@link EventLoop}s of a group even if some of them come and go much faster than others.
+ * <p>
+ * {@link EventLoop}s which do not know the number of their registered {@link Channel}s are chosen in a
+ * round-robin fashion.
+ */
+public final class LeastRegisteredChannelsEventLoopChooserFactory extends LeastLoadedEventExecutorChooserFactory {
+
+    public static final LeastRegisteredChannelsEventLoopChooserFactory INSTANCE =
+            new LeastRegisteredChannelsEventLoopChooserFactory();
+
+    private LeastRegisteredChannelsEventLoopChooserFactory() { }
+
+    @Override
+    protected int load(EventExecutor executor) {
+        if (executor instanceof SingleThreadEventLoop) {
+            return ((SingleThreadEventLoop) executor).registeredChannels();
+        }
+        return -1;
+    }
+}
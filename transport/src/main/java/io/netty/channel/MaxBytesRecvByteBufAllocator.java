@@ -0,0 +1,30 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+/**
+ * A {@link RecvByteBufAllocator} which also limits the number of bytes which are read from a {@link Channel} for a
+ * single read event, in addition to the number of reads limited by {@link ChannelConfig#getMaxMessagesPerRead()}.
+ * This prevents a single busy {@link Channel} from starving the other {@link Channel}s of the same
+ * {@link EventLoop}.
+ */
+public interface MaxBytesRecvByteBufAllocator extends RecvByteBufAllocator {
+
+    /**
+     * Returns the maximum number of bytes to read for a single read event.
+     */
+    int maxBytesPerRead();
+}
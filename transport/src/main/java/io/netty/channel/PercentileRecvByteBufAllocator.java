@@ -0,0 +1,226 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+import static io.netty.channel.AdaptiveRecvByteBufAllocator.*;
+
+/**
+ * The {@link RecvByteBufAllocator} that predicts the buffer size from the statistics of the recent reads of a
+ * {@link Channel}.
+ * <p>
+ * It remembers the number of bytes read by the last {@code window} read events and uses the given
+ * {@code percentile} of them as the next prediction. Unlike {@link AdaptiveRecvByteBufAllocator}, which moves
+ * through its size table in fixed steps, the prediction follows the actual traffic of the {@link Channel}
+ * while a single outlier does not blow up the buffer size. If a read fully filled the allocated buffer it is
+ * recorded as a larger read so the prediction is able to grow.
+ * <p>
+ * In addition, the total number of bytes read for a single read event is limited by {@link #maxBytesPerRead()}.
+ */
+public class PercentileRecvByteBufAllocator implements MaxBytesRecvByteBufAllocator {
+
+    static final int DEFAULT_PERCENTILE = 90;
+    static final int DEFAULT_WINDOW = 16;
+    static final int DEFAULT_MAX_BYTES_PER_READ = 65536;
+
+    public static final PercentileRecvByteBufAllocator DEFAULT = new PercentileRecvByteBufAllocator();
+
+    private static final class HandleImpl implements Handle {
+        private final int minIndex;
+        private final int maxIndex;
+        private final int percentile;
+        // The size table indexes of the recent reads.
+        private final byte[] samples;
+        // The number of recent reads per size table index, relative to minIndex.
+        private final short[] histogram;
+        private int sampleCount;
+        private int nextSample;
+        private int nextReceiveBufferSize;
+
+        HandleImpl(int minIndex, int maxIndex, int initial, int percentile, int window) {
+            this.minIndex = minIndex;
+            this.maxIndex = maxIndex;
+            this.percentile = percentile;
+            samples = new byte[window];
+            histogram = new short[maxIndex - minIndex + 1];
+            nextReceiveBufferSize = SIZE_TABLE[getSizeTableIndex(initial)];
+        }
+
+        @Override
+        public ByteBuf allocate(ByteBufAllocator alloc) {
+            return alloc.ioBuffer(nextReceiveBufferSize);
+        }
+
+        @Override
+        public int guess() {
+            return nextReceiveBufferSize;
+        }
+
+        @Override
+        public void record(int actualReadBytes) {
+            int index = ceilingSizeTableIndex(actualReadBytes);
+            if (actualReadBytes >= nextReceiveBufferSize) {
+                // The buffer was filled completely so we do not know how much more could have been read.
+                index += INDEX_INCREMENT;
+            }
+            index = Math.max(minIndex, Math.min(index, maxIndex));
+
+            byte[] samples = this.samples;
+            if (sampleCount < samples.length) {
+                sampleCount ++;
+            } else {
+                // Evict the oldest read.
+                histogram[samples[nextSample] - minIndex] --;
+            }
+            histogram[index - minIndex] ++;
+            samples[nextSample] = (byte) index;
+            if (++ nextSample == samples.length) {
+                nextSample = 0;
+            }
+
+            nextReceiveBufferSize = SIZE_TABLE[percentileIndex()];
+        }
+
+        /**
+         * Returns the smallest recorded size table index which is greater than or equal to {@link #percentile}
+         * percent of the recorded samples.
+         */
+        private int percentileIndex() {
+            // The number of samples which must be less than or equal to the result (rounded up).
+            final int rank = (sampleCount * percentile + 99) / 100;
+
+            final short[] histogram = this.histogram;
+            int lessOrEqual = 0;
+            for (int i = 0; i < histogram.length; i ++) {
+                lessOrEqual += histogram[i];
+                if (lessOrEqual >= rank) {
+                    return minIndex + i;
+                }
+            }
+            return maxIndex;
+        }
+    }
+
+    /**
+     * Returns the index of the smallest entry of the size table which is greater than or equal to {@code size}.
+     */
+    static int ceilingSizeTableIndex(int size) {
+        int low = 0;
+        int high = SIZE_TABLE.length - 1;
+        while (low < high) {
+            int mid = low + high >>> 1;
+            if (SIZE_TABLE[mid] < size) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private final int minIndex;
+    private final int maxIndex;
+    private final int initial;
+    private final int percentile;
+    private final int window;
+    private final int maxBytesPerRead;
+
+    /**
+     * Creates a new predictor with the default parameters.  With the default
+     * parameters, the expected buffer size starts from {@code 1024}, does not
+     * go down below {@code 64}, does not go up above {@code 65536}, follows the 90th percentile of the last
+     * {@code 16} reads and not more than {@code 65536} bytes are read per read event.
+     */
+    private PercentileRecvByteBufAllocator() {
+        this(DEFAULT_MINIMUM, DEFAULT_INITIAL, DEFAULT_MAXIMUM);
+    }
+
+    /**
+     * Creates a new predictor with the specified parameters, which follows the 90th percentile of the last
+     * {@code 16} reads and does not read more than {@code maximum} bytes per read event.
+     *
+     * @param minimum  the inclusive lower bound of the expected buffer size
+     * @param initial  the initial buffer size when no feed back was received
+     * @param maximum  the inclusive upper bound of the expected buffer size
+     */
+    public PercentileRecvByteBufAllocator(int minimum, int initial, int maximum) {
+        this(minimum, initial, maximum, DEFAULT_PERCENTILE, DEFAULT_WINDOW, Math.max(maximum,
+                DEFAULT_MAX_BYTES_PER_READ));
+    }
+
+    /**
+     * Creates a new predictor with the specified parameters.
+     *
+     * @param minimum           the inclusive lower bound of the expected buffer size
+     * @param initial           the initial buffer size when no feed back was received
+     * @param maximum           the inclusive upper bound of the expected buffer size
+     * @param percentile        the percentile of the recent reads which is used as prediction ({@code 1 - 100})
+     * @param window            the number of recent reads the prediction is calculated from ({@code 1 - 256})
+     * @param maxBytesPerRead   the maximum number of bytes to read for a single read event
+     */
+    public PercentileRecvByteBufAllocator(
+            int minimum, int initial, int maximum, int percentile, int window, int maxBytesPerRead) {
+        if (minimum <= 0) {
+            throw new IllegalArgumentException("minimum: " + minimum);
+        }
+        if (initial < minimum) {
+            throw new IllegalArgumentException("initial: " + initial);
+        }
+        if (maximum < initial) {
+            throw new IllegalArgumentException("maximum: " + maximum);
+        }
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile: " + percentile + " (expected: 1-100)");
+        }
+        if (window <= 0 || window > 256) {
+            throw new IllegalArgumentException("window: " + window + " (expected: 1-256)");
+        }
+        if (maxBytesPerRead <= 0) {
+            throw new IllegalArgumentException("maxBytesPerRead: " + maxBytesPerRead + " (expected: > 0)");
+        }
+
+        int minIndex = getSizeTableIndex(minimum);
+        if (SIZE_TABLE[minIndex] < minimum) {
+            this.minIndex = minIndex + 1;
+        } else {
+            this.minIndex = minIndex;
+        }
+
+        int maxIndex = getSizeTableIndex(maximum);
+        if (SIZE_TABLE[maxIndex] > maximum) {
+            this.maxIndex = maxIndex - 1;
+        } else {
+            this.maxIndex = maxIndex;
+        }
+
+        this.initial = initial;
+        this.percentile = percentile;
+        this.window = window;
+        this.maxBytesPerRead = maxBytesPerRead;
+    }
+
+    @Override
+    public int maxBytesPerRead() {
+        return maxBytesPerRead;
+    }
+
+    @Override
+    public Handle newHandle() {
+        return new HandleImpl(minIndex, maxIndex, initial, percentile, window);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.util.concurrent.FastThreadLocal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The {@link RecvByteBufAllocator} which lets the transport read into a scratch buffer owned by the
+ * {@link EventLoop} first and only then copies the bytes actually read into a buffer which is just large enough
+ * to hold them.
+ * <p>
+ * This trades one memory copy per read for not having to guess the size of the receive buffer at all, which is a
+ * good deal for a large number of mostly idle connections: no oversized buffer is ever passed to the pipeline and
+ * so a decoder which keeps the received bytes until a complete message arrived only holds what was actually
+ * received.
+ * <p>
+ * Transports which do not support reading into a scratch buffer just allocate a buffer of the size of the scratch
+ * buffer on every read.
+ */
+public final class ScratchRecvByteBufAllocator implements MaxBytesRecvByteBufAllocator {
+
+    static final int DEFAULT_SCRATCH_BUFFER_SIZE = 65536;
+
+    public static final ScratchRecvByteBufAllocator DEFAULT =
+            new ScratchRecvByteBufAllocator(DEFAULT_SCRATCH_BUFFER_SIZE, DEFAULT_SCRATCH_BUFFER_SIZE);
+
+    /**
+     * The scratch buffer of each thread.  It is shared by all instances and grown to the largest scratch buffer
+     * size requested, so an instance does not keep a buffer per thread alive.
+     */
+    private static final FastThreadLocal<ByteBuf> SCRATCH_BUFFER = new FastThreadLocal<ByteBuf>();
+
+    private final Handle handle = new Handle() {
+        @Override
+        public ByteBuf allocate(ByteBufAllocator alloc) {
+            return alloc.ioBuffer(scratchBufferSize);
+        }
+
+        @Override
+        public int guess() {
+            return scratchBufferSize;
+        }
+
+        @Override
+        public void record(int actualReadBytes) { }
+    };
+
+    private final int scratchBufferSize;
+    private final int maxBytesPerRead;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param scratchBufferSize the size of the scratch buffer of each {@link EventLoop} and so the maximum number of
+     *                          bytes read by a single read operation
+     * @param maxBytesPerRead   the maximum number of bytes to read for a single read event
+     */
+    public ScratchRecvByteBufAllocator(int scratchBufferSize, int maxBytesPerRead) {
+        if (scratchBufferSize <= 0) {
+            throw new IllegalArgumentException("scratchBufferSize: " + scratchBufferSize + " (expected: > 0)");
+        }
+        if (maxBytesPerRead <= 0) {
+            throw new IllegalArgumentException("maxBytesPerRead: " + maxBytesPerRead + " (expected: > 0)");
+        }
+        this.scratchBufferSize = scratchBufferSize;
+        this.maxBytesPerRead = maxBytesPerRead;
+    }
+
+    /**
+     * Returns the empty scratch buffer of the current thread with exactly {@code scratchBufferSize} writable bytes.
+     * This must only be called from an {@link EventLoop} and the returned buffer must neither be released nor passed
+     * on.
+     */
+    public ByteBuf scratchBuffer() {
+        ByteBuf buf = SCRATCH_BUFFER.get();
+        if (buf == null || buf.capacity() < scratchBufferSize) {
+            // Wrap a ByteBuffer so the scratch buffer is not tracked by the leak detector. It lives as long
+            // as the thread and is collected together with it.
+            buf = Unpooled.wrappedBuffer(ByteBuffer.allocateDirect(scratchBufferSize));
+            SCRATCH_BUFFER.set(buf);
+        }
+        int index = buf.capacity() - scratchBufferSize;
+        return buf.setIndex(index, index);
+    }
+
+    /**
+     * Copies the readable bytes of the given scratch buffer into a new buffer allocated by {@code alloc} which is
+     * just large enough to hold them.
+     */
+    public static ByteBuf copy(ByteBufAllocator alloc, ByteBuf scratchBuffer) {
+        ByteBuf buf = alloc.ioBuffer(scratchBuffer.readableBytes());
+        buf.writeBytes(scratchBuffer);
+        return buf;
+    }
+
+    @Override
+    public int maxBytesPerRead() {
+        return maxBytesPerRead;
+    }
+
+    @Override
+    public Handle newHandle() {
+        return handle;
+    }
+}
@@ -15,6 +15,7 @@
  */
 package io.netty.channel;
 
+import io.netty.util.concurrent.RejectedExecutionHandler;
 import io.netty.util.concurrent.SingleThreadEventExecutor;
 
 import java.util.concurrent.Executor;
@@ -36,6 +37,16 @@ public abstract class SingleThreadEventLoop extends SingleThreadEventExecutor im
         super(parent, executor, addTaskWakesUp);
     }
 
+    protected SingleThreadEventLoop(EventLoopGroup parent, ThreadFactory threadFactory, boolean addTaskWakesUp,
+                                    int maxPendingTasks, RejectedExecutionHandler rejectedExecutionHandler) {
+        super(parent, threadFactory, addTaskWakesUp, maxPendingTasks, rejectedExecutionHandler);
+    }
+
+    protected SingleThreadEventLoop(EventLoopGroup parent, Executor executor, boolean addTaskWakesUp,
+                                    int maxPendingTasks, RejectedExecutionHandler rejectedExecutionHandler) {
+        super(parent, executor, addTaskWakesUp, maxPendingTasks, rejectedExecutionHandler);
+    }
+
     @Override
     public EventLoopGroup parent() {
         return (EventLoopGroup) super.parent();
@@ -51,6 +62,14 @@ public abstract class SingleThreadEventLoop extends SingleThreadEventExecutor im
         return invoker;
     }
 
+    /**
+     * Returns the number of {@link Channel}s registered with this {@link EventLoop}, or {@code -1} if it is not
+     * known. This method may be called by any thread, and the returned value may be slightly out of date.
+     */
+    public int registeredChannels() {
+        return -1;
+    }
+
     @Override
     protected boolean wakesUpForTask(Runnable task) {
         return !(task instanceof NonWakeupRunnable);
@@ -21,19 +21,24 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelId;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoop;
 import io.netty.channel.ServerChannel;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.internal.OneTimeTask;
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.StringUtil;
 
 import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -195,35 +200,26 @@ public class DefaultChannelGroup extends AbstractSet<Channel> implements Channel
     }
 
     // Create a safe duplicate of the message to write it to a channel but not affect other writes.
+    // The reference count is not touched here as the caller already retained the message once per channel.
     // See https://github.com/netty/netty/issues/1461
     private static Object safeDuplicate(Object message) {
         if (message instanceof ByteBuf) {
-            return ((ByteBuf) message).duplicate().retain();
+            return ((ByteBuf) message).duplicate();
         } else if (message instanceof ByteBufHolder) {
-            return ((ByteBufHolder) message).duplicate().retain();
+            return ((ByteBufHolder) message).duplicate();
         } else {
-            return ReferenceCountUtil.retain(message);
+            return message;
         }
     }
 
     @Override
     public ChannelGroupFuture write(Object message, ChannelMatcher matcher) {
-        if (message == null) {
-            throw new NullPointerException("message");
-        }
-        if (matcher == null) {
-            throw new NullPointerException("matcher");
-        }
-
-        Map<Channel, ChannelFuture> futures = new LinkedHashMap<Channel, ChannelFuture>(size());
-        for (Channel c: nonServerChannels.values()) {
-            if (matcher.matches(c)) {
-                futures.put(c, c.write(safeDuplicate(message)));
-            }
-        }
+        return write(message, matcher, false);
+    }
 
-        ReferenceCountUtil.release(message);
-        return new DefaultChannelGroupFuture(this, futures, executor);
+    @Override
+    public ChannelGroupFuture write(Object message, ChannelMatcher matcher, boolean voidPromise) {
+        return broadcast(message, matcher, voidPromise, false);
     }
 
     @Override
@@ -242,17 +238,16 @@ public class DefaultChannelGroup extends AbstractSet<Channel> implements Channel
             throw new NullPointerException("matcher");
         }
 
-        Map<Channel, ChannelFuture> futures =
-                new LinkedHashMap<Channel, ChannelFuture>(size());
+        List<ChannelFuture> futures = new ArrayList<ChannelFuture>(size());
 
         for (Channel c: serverChannels.values()) {
             if (matcher.matches(c)) {
-                futures.put(c, c.disconnect());
+                futures.add(c.disconnect());
             }
         }
         for (Channel c: nonServerChannels.values()) {
             if (matcher.matches(c)) {
-                futures.put(c, c.disconnect());
+                futures.add(c.disconnect());
             }
         }
 
@@ -265,17 +260,16 @@ public class DefaultChannelGroup extends AbstractSet<Channel> implements Channel
             throw new NullPointerException("matcher");
         }
 
-        Map<Channel, ChannelFuture> futures =
-                new LinkedHashMap<Channel, ChannelFuture>(size());
+        List<ChannelFuture> futures = new ArrayList<ChannelFuture>(size());
 
         for (Channel c: serverChannels.values()) {
             if (matcher.matches(c)) {
-                futures.put(c, c.close());
+                futures.add(c.close());
             }
         }
         for (Channel c: nonServerChannels.values()) {
             if (matcher.matches(c)) {
-                futures.put(c, c.close());
+                futures.add(c.close());
             }
         }
 
@@ -294,20 +288,67 @@ public class DefaultChannelGroup extends AbstractSet<Channel> implements Channel
 
     @Override
     public ChannelGroupFuture writeAndFlush(Object message, ChannelMatcher matcher) {
+        return writeAndFlush(message, matcher, false);
+    }
+
+    @Override
+    public ChannelGroupFuture writeAndFlush(Object message, ChannelMatcher matcher, boolean voidPromise) {
+        return broadcast(message, matcher, voidPromise, true);
+    }
+
+    private ChannelGroupFuture broadcast(Object message, ChannelMatcher matcher, boolean voidPromise, boolean flush) {
         if (message == null) {
             throw new NullPointerException("message");
         }
+        if (matcher == null) {
+            throw new NullPointerException("matcher");
+        }
 
-        Map<Channel, ChannelFuture> futures = new LinkedHashMap<Channel, ChannelFuture>(size());
-
+        // Group the matching channels by their EventLoop so only one task needs to be submitted per EventLoop
+        // instead of one per Channel.
+        Map<EventLoop, BroadcastTask> tasks = new IdentityHashMap<EventLoop, BroadcastTask>();
+        List<ChannelFuture> futures = voidPromise ? null : new ArrayList<ChannelFuture>(size());
+        int count = 0;
         for (Channel c: nonServerChannels.values()) {
             if (matcher.matches(c)) {
-                futures.put(c, c.writeAndFlush(safeDuplicate(message)));
+                EventLoop loop = c.eventLoop();
+                BroadcastTask task = tasks.get(loop);
+                if (task == null) {
+                    task = new BroadcastTask(message, flush);
+                    tasks.put(loop, task);
+                }
+                ChannelPromise promise = voidPromise ? c.voidPromise() : c.newPromise();
+                task.add(c, promise);
+                if (futures != null) {
+                    futures.add(promise);
+                }
+                count ++;
+            }
+        }
+
+        if (count > 0) {
+            // A single bulk retain of count references, one for each channel the message is written to.
+            ReferenceCountUtil.retain(message, count);
+            for (Map.Entry<EventLoop, BroadcastTask> e: tasks.entrySet()) {
+                EventLoop loop = e.getKey();
+                BroadcastTask task = e.getValue();
+                if (loop.inEventLoop()) {
+                    task.run();
+                } else {
+                    try {
+                        loop.execute(task);
+                    } catch (RejectedExecutionException cause) {
+                        task.reject(cause);
+                    }
+                }
             }
         }
 
         ReferenceCountUtil.release(message);
 
+        if (voidPromise) {
+            return new VoidChannelGroupFuture(this);
+        }
         return new DefaultChannelGroupFuture(this, futures, executor);
     }
 
@@ -335,4 +376,44 @@ public class DefaultChannelGroup extends AbstractSet<Channel> implements Channel
     public String toString() {
         return StringUtil.simpleClassName(this) + "(name: " + name() + ", size: " + size() + ')';
     }
+
+    /**
+     * Writes a message to all {@link Channel}s of a group which are registered to the same {@link EventLoop}.
+     * Each {@link Channel} already owns one reference of the message when this task is run.
+     */
+    private static final class BroadcastTask extends OneTimeTask {
+        private final List<Channel> channels = new ArrayList<Channel>();
+        private final List<ChannelPromise> promises = new ArrayList<ChannelPromise>();
+        private final Object message;
+        private final boolean flush;
+
+        BroadcastTask(Object message, boolean flush) {
+            this.message = message;
+            this.flush = flush;
+        }
+
+        void add(Channel channel, ChannelPromise promise) {
+            channels.add(channel);
+            promises.add(promise);
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < channels.size(); i ++) {
+                Channel c = channels.get(i);
+                if (flush) {
+                    c.writeAndFlush(safeDuplicate(message), promises.get(i));
+                } else {
+                    c.write(safeDuplicate(message), promises.get(i));
+                }
+            }
+        }
+
+        void reject(Throwable cause) {
+            for (int i = 0; i < channels.size(); i ++) {
+                ReferenceCountUtil.release(message);
+                promises.get(i).tryFailure(cause);
+            }
+        }
+    }
 }
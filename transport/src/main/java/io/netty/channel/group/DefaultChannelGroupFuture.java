@@ -24,47 +24,81 @@ import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GenericFutureListener;
 import io.netty.util.concurrent.ImmediateEventExecutor;
+import io.netty.util.internal.PlatformDependent;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 
 /**
  * The default {@link ChannelGroupFuture} implementation.
+ *
+ * The child futures are kept in a plain array and their completion is tracked with counters only, so a
+ * broadcast to a large group does not need to build a map of all its {@link Channel}s.  The map that backs
+ * {@link #find(Channel)} is only created when {@link #find(Channel)} is called for the first time.
  */
 final class DefaultChannelGroupFuture extends DefaultPromise<Void> implements ChannelGroupFuture {
 
+    private static final ChannelFuture[] EMPTY_FUTURES = new ChannelFuture[0];
+
+    private static final AtomicIntegerFieldUpdater<DefaultChannelGroupFuture> SUCCESS_COUNT_UPDATER;
+    private static final AtomicIntegerFieldUpdater<DefaultChannelGroupFuture> FAILURE_COUNT_UPDATER;
+    private static final AtomicIntegerFieldUpdater<DefaultChannelGroupFuture> DONE_COUNT_UPDATER;
+
+    static {
+        AtomicIntegerFieldUpdater<DefaultChannelGroupFuture> updater =
+                PlatformDependent.newAtomicIntegerFieldUpdater(DefaultChannelGroupFuture.class, "successCount");
+        if (updater == null) {
+            updater = AtomicIntegerFieldUpdater.newUpdater(DefaultChannelGroupFuture.class, "successCount");
+        }
+        SUCCESS_COUNT_UPDATER = updater;
+
+        updater = PlatformDependent.newAtomicIntegerFieldUpdater(DefaultChannelGroupFuture.class, "failureCount");
+        if (updater == null) {
+            updater = AtomicIntegerFieldUpdater.newUpdater(DefaultChannelGroupFuture.class, "failureCount");
+        }
+        FAILURE_COUNT_UPDATER = updater;
+
+        updater = PlatformDependent.newAtomicIntegerFieldUpdater(DefaultChannelGroupFuture.class, "doneCount");
+        if (updater == null) {
+            updater = AtomicIntegerFieldUpdater.newUpdater(DefaultChannelGroupFuture.class, "doneCount");
+        }
+        DONE_COUNT_UPDATER = updater;
+    }
+
     private final ChannelGroup group;
-    private final Map<Channel, ChannelFuture> futures;
-    private int successCount;
-    private int failureCount;
+    private final ChannelFuture[] futures;
+    private volatile Map<Channel, ChannelFuture> futureMap;
+    @SuppressWarnings("UnusedDeclaration")
+    private volatile int successCount;
+    @SuppressWarnings("UnusedDeclaration")
+    private volatile int failureCount;
+    @SuppressWarnings("UnusedDeclaration")
+    private volatile int doneCount;
 
     private final ChannelFutureListener childListener = new ChannelFutureListener() {
         @Override
         public void operationComplete(ChannelFuture future) throws Exception {
-            boolean success = future.isSuccess();
-            boolean callSetDone;
-            synchronized (DefaultChannelGroupFuture.this) {
-                if (success) {
-                    successCount ++;
-                } else {
-                    failureCount ++;
-                }
-
-                callSetDone = successCount + failureCount == futures.size();
-                assert successCount + failureCount <= futures.size();
+            if (future.isSuccess()) {
+                SUCCESS_COUNT_UPDATER.incrementAndGet(DefaultChannelGroupFuture.this);
+            } else {
+                FAILURE_COUNT_UPDATER.incrementAndGet(DefaultChannelGroupFuture.this);
             }
 
-            if (callSetDone) {
+            int done = DONE_COUNT_UPDATER.incrementAndGet(DefaultChannelGroupFuture.this);
+            assert done <= futures.length;
+            if (done == futures.length) {
+                int failureCount = DefaultChannelGroupFuture.this.failureCount;
                 if (failureCount > 0) {
                     List<Map.Entry<Channel, Throwable>> failed =
                             new ArrayList<Map.Entry<Channel, Throwable>>(failureCount);
-                    for (ChannelFuture f: futures.values()) {
+                    for (ChannelFuture f: futures) {
                         if (!f.isSuccess()) {
                             failed.add(new DefaultEntry<Channel, Throwable>(f.channel(), f.cause()));
                         }
@@ -81,6 +115,10 @@ final class DefaultChannelGroupFuture extends DefaultPromise<Void> implements Ch
      * Creates a new instance.
      */
     public DefaultChannelGroupFuture(ChannelGroup group, Collection<ChannelFuture> futures,  EventExecutor executor) {
+        this(group, futures == null ? null : futures.toArray(new ChannelFuture[futures.size()]), executor);
+    }
+
+    DefaultChannelGroupFuture(ChannelGroup group, ChannelFuture[] futures, EventExecutor executor) {
         super(executor);
         if (group == null) {
             throw new NullPointerException("group");
@@ -90,34 +128,14 @@ final class DefaultChannelGroupFuture extends DefaultPromise<Void> implements Ch
         }
 
         this.group = group;
+        this.futures = futures.length == 0 ? EMPTY_FUTURES : futures;
 
-        Map<Channel, ChannelFuture> futureMap = new LinkedHashMap<Channel, ChannelFuture>();
         for (ChannelFuture f: futures) {
-            futureMap.put(f.channel(), f);
-        }
-
-        this.futures = Collections.unmodifiableMap(futureMap);
-
-        for (ChannelFuture f: this.futures.values()) {
             f.addListener(childListener);
         }
 
         // Done on arrival?
-        if (this.futures.isEmpty()) {
-            setSuccess0();
-        }
-    }
-
-    DefaultChannelGroupFuture(ChannelGroup group, Map<Channel, ChannelFuture> futures, EventExecutor executor) {
-        super(executor);
-        this.group = group;
-        this.futures = Collections.unmodifiableMap(futures);
-        for (ChannelFuture f: this.futures.values()) {
-            f.addListener(childListener);
-        }
-
-        // Done on arrival?
-        if (this.futures.isEmpty()) {
+        if (futures.length == 0) {
             setSuccess0();
         }
     }
@@ -129,22 +147,33 @@ final class DefaultChannelGroupFuture extends DefaultPromise<Void> implements Ch
 
     @Override
     public ChannelFuture find(Channel channel) {
-        return futures.get(channel);
+        Map<Channel, ChannelFuture> futureMap = this.futureMap;
+        if (futureMap == null) {
+            // Racy but harmless, every thread builds the same map.
+            futureMap = new HashMap<Channel, ChannelFuture>(futures.length << 1);
+            for (ChannelFuture f: futures) {
+                futureMap.put(f.channel(), f);
+            }
+            this.futureMap = futureMap;
+        }
+        return futureMap.get(channel);
     }
 
     @Override
     public Iterator<ChannelFuture> iterator() {
-        return futures.values().iterator();
+        return Arrays.asList(futures).iterator();
     }
 
     @Override
-    public synchronized boolean isPartialSuccess() {
-        return successCount != 0 && successCount != futures.size();
+    public boolean isPartialSuccess() {
+        int successCount = this.successCount;
+        return successCount != 0 && successCount != futures.length;
     }
 
     @Override
-    public synchronized boolean isPartialFailure() {
-        return failureCount != 0 && failureCount != futures.size();
+    public boolean isPartialFailure() {
+        int failureCount = this.failureCount;
+        return failureCount != 0 && failureCount != futures.length;
     }
 
     @Override
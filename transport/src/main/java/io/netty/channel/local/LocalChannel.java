@@ -27,16 +27,17 @@ import io.netty.channel.DefaultChannelConfig;
 import io.netty.channel.EventLoop;
 import io.netty.channel.SingleThreadEventLoop;
 import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.FastThreadLocal;
 import io.netty.util.concurrent.SingleThreadEventExecutor;
+import io.netty.util.internal.PlatformDependent;
 
 import java.net.SocketAddress;
 import java.nio.channels.AlreadyConnectedException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.ConnectionPendingException;
 import java.nio.channels.NotYetConnectedException;
-import java.util.ArrayDeque;
-import java.util.Collections;
 import java.util.Queue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * A {@link Channel} for the local transport.
@@ -48,15 +49,27 @@ public class LocalChannel extends AbstractChannel {
     private static final ChannelMetadata METADATA = new ChannelMetadata(false);
 
     private static final int MAX_READER_STACK_DEPTH = 8;
-    private static final ThreadLocal<Integer> READER_STACK_DEPTH = new ThreadLocal<Integer>() {
+    private static final FastThreadLocal<Integer> READER_STACK_DEPTH = new FastThreadLocal<Integer>() {
         @Override
         protected Integer initialValue() {
             return 0;
         }
     };
 
+    private static final AtomicIntegerFieldUpdater<LocalChannel> PEER_READ_PENDING_UPDATER;
+
+    static {
+        AtomicIntegerFieldUpdater<LocalChannel> updater =
+                PlatformDependent.newAtomicIntegerFieldUpdater(LocalChannel.class, "peerReadPending");
+        if (updater == null) {
+            updater = AtomicIntegerFieldUpdater.newUpdater(LocalChannel.class, "peerReadPending");
+        }
+        PEER_READ_PENDING_UPDATER = updater;
+    }
+
     private final ChannelConfig config = new DefaultChannelConfig(this);
-    private final Queue<Object> inboundBuffer = new ArrayDeque<Object>();
+    // Only written by the EventLoop of the peer and only read by the EventLoop of this channel.
+    private final Queue<Object> inboundBuffer = PlatformDependent.newSpscQueue();
     private final Runnable readTask = new Runnable() {
         @Override
         public void run() {
@@ -72,6 +85,15 @@ public class LocalChannel extends AbstractChannel {
         }
     };
 
+    private final Runnable finishReadTask = new Runnable() {
+        @Override
+        public void run() {
+            // Clear the flag before draining so a write that happens concurrently will schedule a new task.
+            peerReadPending = 0;
+            finishPeerRead(LocalChannel.this, pipeline());
+        }
+    };
+
     private final Runnable shutdownHook = new Runnable() {
         @Override
         public void run() {
@@ -85,6 +107,7 @@ public class LocalChannel extends AbstractChannel {
     private volatile LocalAddress remoteAddress;
     private volatile ChannelPromise connectPromise;
     private volatile boolean readInProgress;
+    private volatile int peerReadPending;
 
     public LocalChannel(EventLoop eventLoop) {
         super(null, eventLoop);
@@ -269,48 +292,39 @@ public class LocalChannel extends AbstractChannel {
         }
 
         final LocalChannel peer = this.peer;
-        final ChannelPipeline peerPipeline = peer.pipeline();
         final EventLoop peerLoop = peer.eventLoop();
 
-        if (peerLoop == eventLoop()) {
-            for (;;) {
-                Object msg = in.current();
-                if (msg == null) {
-                    break;
-                }
-                peer.inboundBuffer.add(msg);
-                ReferenceCountUtil.retain(msg);
-                in.remove();
-            }
-            finishPeerRead(peer, peerPipeline);
-        } else {
-            // Use a copy because the original msgs will be recycled by AbstractChannel.
-            final Object[] msgsCopy = new Object[in.size()];
-            for (int i = 0; i < msgsCopy.length; i ++) {
-                msgsCopy[i] = ReferenceCountUtil.retain(in.current());
-                in.remove();
+        // The messages are handed over to the inbound queue of the peer directly, no matter on which EventLoop
+        // the peer is registered, as this channel is the only producer of the queue.
+        for (;;) {
+            Object msg = in.current();
+            if (msg == null) {
+                break;
             }
+            peer.inboundBuffer.add(ReferenceCountUtil.retain(msg));
+            in.remove();
+        }
 
-            peerLoop.execute(new Runnable() {
-                @Override
-                public void run() {
-                    Collections.addAll(peer.inboundBuffer, msgsCopy);
-                    finishPeerRead(peer, peerPipeline);
-                }
-            });
+        if (peerLoop == eventLoop()) {
+            finishPeerRead(peer, peer.pipeline());
+        } else if (PEER_READ_PENDING_UPDATER.compareAndSet(peer, 0, 1)) {
+            // Only schedule a new task if there is not one pending already. All messages written until the task
+            // runs are delivered as one batch which is followed by a single channelReadComplete event.
+            peerLoop.execute(peer.finishReadTask);
         }
     }
 
     private static void finishPeerRead(LocalChannel peer, ChannelPipeline peerPipeline) {
         if (peer.readInProgress) {
+            Object received = peer.inboundBuffer.poll();
+            if (received == null) {
+                return;
+            }
             peer.readInProgress = false;
-            for (;;) {
-                Object received = peer.inboundBuffer.poll();
-                if (received == null) {
-                    break;
-                }
+            do {
                 peerPipeline.fireChannelRead(received);
-            }
+                received = peer.inboundBuffer.poll();
+            } while (received != null);
             peerPipeline.fireChannelReadComplete();
         }
     }
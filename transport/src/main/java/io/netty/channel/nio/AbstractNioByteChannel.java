@@ -24,7 +24,9 @@ import io.netty.channel.ChannelOutboundBuffer;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoop;
 import io.netty.channel.FileRegion;
+import io.netty.channel.MaxBytesRecvByteBufAllocator;
 import io.netty.channel.RecvByteBufAllocator;
+import io.netty.channel.ScratchRecvByteBufAllocator;
 import io.netty.channel.socket.ChannelInputShutdownEvent;
 import io.netty.util.internal.StringUtil;
 
@@ -92,10 +94,16 @@ public abstract class AbstractNioByteChannel extends AbstractNioChannel {
             final ChannelPipeline pipeline = pipeline();
             final ByteBufAllocator allocator = config.getAllocator();
             final int maxMessagesPerRead = config.getMaxMessagesPerRead();
+            final RecvByteBufAllocator recvBufAllocator = config.getRecvByteBufAllocator();
+            final int maxBytesPerRead = recvBufAllocator instanceof MaxBytesRecvByteBufAllocator ?
+                    ((MaxBytesRecvByteBufAllocator) recvBufAllocator).maxBytesPerRead() : Integer.MAX_VALUE;
             RecvByteBufAllocator.Handle allocHandle = this.allocHandle;
             if (allocHandle == null) {
-                this.allocHandle = allocHandle = config.getRecvByteBufAllocator().newHandle();
+                this.allocHandle = allocHandle = recvBufAllocator.newHandle();
             }
+            final ScratchRecvByteBufAllocator scratchAllocator =
+                    recvBufAllocator instanceof ScratchRecvByteBufAllocator ?
+                            (ScratchRecvByteBufAllocator) recvBufAllocator : null;
 
             ByteBuf byteBuf = null;
             int messages = 0;
@@ -104,12 +112,28 @@ public abstract class AbstractNioByteChannel extends AbstractNioChannel {
                 int byteBufCapacity = allocHandle.guess();
                 int totalReadAmount = 0;
                 do {
-                    byteBuf = allocator.ioBuffer(byteBufCapacity);
-                    int writable = byteBuf.writableBytes();
-                    int localReadAmount = doReadBytes(byteBuf);
+                    final int writable;
+                    final int localReadAmount;
+                    if (scratchAllocator == null) {
+                        byteBuf = allocator.ioBuffer(byteBufCapacity);
+                        writable = byteBuf.writableBytes();
+                        localReadAmount = doReadBytes(byteBuf);
+                    } else {
+                        // Read into the scratch buffer of the EventLoop and only allocate a buffer for what was
+                        // actually read.
+                        ByteBuf scratchBuf = scratchAllocator.scratchBuffer();
+                        writable = scratchBuf.writableBytes();
+                        localReadAmount = doReadBytes(scratchBuf);
+                        if (localReadAmount > 0) {
+                            byteBuf = ScratchRecvByteBufAllocator.copy(allocator, scratchBuf);
+                        }
+                    }
                     if (localReadAmount <= 0) {
                         // not was read release the buffer
-                        byteBuf.release();
+                        if (byteBuf != null) {
+                            byteBuf.release();
+                            byteBuf = null;
+                        }
                         close = localReadAmount < 0;
                         break;
                     }
@@ -135,6 +159,11 @@ public abstract class AbstractNioByteChannel extends AbstractNioChannel {
                         // which might mean we drained the recv buffer completely.
                         break;
                     }
+
+                    if (totalReadAmount >= maxBytesPerRead) {
+                        // Read enough for this read event, the selector will notify us again for the rest.
+                        break;
+                    }
                 } while (++ messages < maxMessagesPerRead);
 
                 pipeline.fireChannelReadComplete();
@@ -331,6 +331,7 @@ public abstract class AbstractNioChannel extends AbstractChannel {
         for (;;) {
             try {
                 selectionKey = javaChannel().register(eventLoop().selector, 0, this);
+                eventLoop().registeredChannels.incrementAndGet();
                 return;
             } catch (CancelledKeyException e) {
                 if (!selected) {
@@ -19,6 +19,8 @@ import io.netty.channel.Channel;
 import io.netty.channel.EventLoop;
 import io.netty.channel.MultithreadEventLoopGroup;
 import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorChooserFactory;
+import io.netty.util.concurrent.RejectedExecutionHandler;
 
 import java.nio.channels.Selector;
 import java.nio.channels.spi.SelectorProvider;
@@ -72,6 +74,43 @@ public class NioEventLoopGroup extends MultithreadEventLoopGroup {
         super(nThreads, executor, selectorProvider);
     }
 
+    /**
+     * Create a new instance using the specified number of threads, the given {@link ThreadFactory}, the given
+     * {@link EventExecutorChooserFactory} to choose the {@link NioEventLoop} of a new {@link Channel} and the given
+     * {@link SelectorProvider}.
+     */
+    public NioEventLoopGroup(
+            int nThreads, ThreadFactory threadFactory, EventExecutorChooserFactory chooserFactory,
+            final SelectorProvider selectorProvider) {
+        super(nThreads, threadFactory, chooserFactory, selectorProvider);
+    }
+
+    public NioEventLoopGroup(
+            int nThreads, Executor executor, EventExecutorChooserFactory chooserFactory,
+            final SelectorProvider selectorProvider) {
+        super(nThreads, executor, chooserFactory, selectorProvider);
+    }
+
+    /**
+     * Create a new instance using the specified number of threads, the given {@link ThreadFactory}, the given
+     * {@link EventExecutorChooserFactory} and the given {@link SelectorProvider}. The task queue of each
+     * {@link NioEventLoop} holds at most {@code maxPendingTasks} tasks; tasks submitted while it is full are handed
+     * to the given {@link RejectedExecutionHandler}.
+     */
+    public NioEventLoopGroup(
+            int nThreads, ThreadFactory threadFactory, EventExecutorChooserFactory chooserFactory,
+            final SelectorProvider selectorProvider,
+            int maxPendingTasks, RejectedExecutionHandler rejectedExecutionHandler) {
+        super(nThreads, threadFactory, chooserFactory, selectorProvider, maxPendingTasks, rejectedExecutionHandler);
+    }
+
+    public NioEventLoopGroup(
+            int nThreads, Executor executor, EventExecutorChooserFactory chooserFactory,
+            final SelectorProvider selectorProvider,
+            int maxPendingTasks, RejectedExecutionHandler rejectedExecutionHandler) {
+        super(nThreads, executor, chooserFactory, selectorProvider, maxPendingTasks, rejectedExecutionHandler);
+    }
+
     /**
      * Sets the percentage of the desired amount of time spent for I/O in the child event loops.  The default value is
      * {@code 50}, which means the event loop will try to spend the same amount of time for I/O as for non-I/O tasks.
@@ -94,6 +133,10 @@ public class NioEventLoopGroup extends MultithreadEventLoopGroup {
 
     @Override
     protected EventLoop newChild(Executor executor, Object... args) throws Exception {
+        if (args.length > 1) {
+            return new NioEventLoop(this, executor, (SelectorProvider) args[0],
+                                    (Integer) args[1], (RejectedExecutionHandler) args[2]);
+        }
         return new NioEventLoop(this, executor, (SelectorProvider) args[0]);
     }
 }
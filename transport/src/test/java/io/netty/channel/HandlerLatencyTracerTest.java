@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+public class HandlerLatencyTracerTest {
+
+    private static final long SLEEP_MILLIS = 20;
+
+    @Test
+    public void testRecordsSelfTimePerHandler() {
+        ChannelHandler outerHandler = new ChannelHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+                ctx.fireChannelRead(msg);
+            }
+
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+                ctx.write(msg, promise);
+            }
+        };
+        ChannelHandler slowHandler = new ChannelHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+                Thread.sleep(SLEEP_MILLIS);
+                ctx.fireChannelRead(msg);
+            }
+
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+                Thread.sleep(SLEEP_MILLIS);
+                ctx.write(msg, promise);
+            }
+        };
+        EmbeddedChannel ch = new EmbeddedChannel(outerHandler, slowHandler);
+        HandlerLatencyTracer tracer = new HandlerLatencyTracer();
+        ch.pipeline().latencyTracer(tracer);
+        assertSame(tracer, ch.pipeline().latencyTracer());
+        String outerName = ch.pipeline().context(outerHandler).name();
+        String slowName = ch.pipeline().context(slowHandler).name();
+
+        assertTrue(ch.writeInbound("a"));
+        assertTrue(ch.writeInbound("b"));
+        ch.pipeline().write("c");
+
+        HandlerLatencyHistogram slow = tracer.inboundLatencies().get(slowName);
+        HandlerLatencyHistogram outer = tracer.inboundLatencies().get(outerName);
+        assertEquals(2, slow.count());
+        assertEquals(2, outer.count());
+        assertTrue(slow.meanNanos() >= TimeUnit.MILLISECONDS.toNanos(SLEEP_MILLIS));
+        // The time spent in the next handler must not be accounted to the outer handler.
+        assertTrue(outer.maxNanos() < TimeUnit.MILLISECONDS.toNanos(SLEEP_MILLIS));
+        assertTrue(slow.percentileNanos(50) >= TimeUnit.MILLISECONDS.toNanos(SLEEP_MILLIS));
+
+        assertEquals(1, tracer.outboundLatencies().get(slowName).count());
+        assertEquals(1, tracer.outboundLatencies().get(outerName).count());
+        assertTrue(tracer.outboundLatencies().get(outerName).maxNanos() < TimeUnit.MILLISECONDS.toNanos(SLEEP_MILLIS));
+
+        tracer.reset();
+        assertEquals(0, slow.count());
+
+        ch.pipeline().latencyTracer(null);
+        ch.writeInbound("d");
+        assertEquals(0, slow.count());
+        ch.finish();
+    }
+
+    @Test
+    public void testInvokeWithOtherContextImplementation() {
+        final Object[] read = new Object[1];
+        ChannelHandler handler = new ChannelHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                read[0] = msg;
+            }
+        };
+        ChannelHandlerContext ctx = createMock(ChannelHandlerContext.class);
+        expect(ctx.handler()).andReturn(handler).anyTimes();
+        expect(ctx.pipeline()).andReturn(null).anyTimes();
+        replay(ctx);
+
+        ChannelHandlerInvokerUtil.invokeChannelReadNow(ctx, "a");
+        assertEquals("a", read[0]);
+        verify(ctx);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PercentileRecvByteBufAllocatorTest {
+
+    @Test
+    public void testFollowsPercentile() {
+        RecvByteBufAllocator.Handle handle =
+                new PercentileRecvByteBufAllocator(64, 1024, 65536, 90, 10, 65536).newHandle();
+        assertEquals(1024, handle.guess());
+
+        for (int i = 0; i < 10; i ++) {
+            handle.record(1000);
+        }
+        assertEquals(1024, handle.guess());
+
+        // A few small reads must not shrink the prediction.
+        for (int i = 0; i < 8; i ++) {
+            handle.record(100);
+            assertEquals(1024, handle.guess());
+        }
+
+        // But if they become the common case the prediction follows.
+        handle.record(100);
+        assertEquals(112, handle.guess());
+    }
+
+    @Test
+    public void testForgetsReadsOutsideOfWindow() {
+        RecvByteBufAllocator.Handle handle =
+                new PercentileRecvByteBufAllocator(64, 1024, 65536, 100, 4, 65536).newHandle();
+        for (int i = 0; i < 4; i ++) {
+            handle.record(1000);
+        }
+        for (int i = 0; i < 3; i ++) {
+            handle.record(100);
+            assertEquals(1024, handle.guess());
+        }
+
+        // The last large read was evicted from the window.
+        handle.record(100);
+        assertEquals(112, handle.guess());
+    }
+
+    @Test
+    public void testGrowsIfBufferWasFilled() {
+        RecvByteBufAllocator.Handle handle =
+                new PercentileRecvByteBufAllocator(64, 1024, 65536, 50, 2, 65536).newHandle();
+        handle.record(1024);
+        assertEquals(16384, handle.guess());
+        handle.record(65536);
+        handle.record(65536);
+        assertEquals(65536, handle.guess());
+    }
+
+    @Test
+    public void testBounds() {
+        RecvByteBufAllocator.Handle handle = new PercentileRecvByteBufAllocator(256, 512, 4096).newHandle();
+        handle.record(1);
+        assertEquals(256, handle.guess());
+        for (int i = 0; i < 100; i ++) {
+            handle.record(1024 * 1024);
+        }
+        assertEquals(4096, handle.guess());
+    }
+
+    @Test
+    public void testMaxBytesPerRead() {
+        assertEquals(65536, PercentileRecvByteBufAllocator.DEFAULT.maxBytesPerRead());
+        assertEquals(1024 * 1024, new PercentileRecvByteBufAllocator(
+                64, 1024, 1024 * 1024).maxBytesPerRead());
+    }
+}
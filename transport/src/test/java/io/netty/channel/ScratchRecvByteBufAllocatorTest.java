@@ -0,0 +1,42 @@
+/*
+ * Copyright 2014 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.buffer.ByteBuf;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ScratchRecvByteBufAllocatorTest {
+
+    @Test
+    public void testScratchBufferIsSharedByInstances() {
+        ScratchRecvByteBufAllocator small = new ScratchRecvByteBufAllocator(1024, 1024);
+        ScratchRecvByteBufAllocator large = new ScratchRecvByteBufAllocator(4096, 4096);
+
+        ByteBuf buf = large.scratchBuffer();
+        assertFalse(buf.isReadable());
+        assertEquals(4096, buf.writableBytes());
+        buf.writeInt(42);
+
+        ByteBuf smallBuf = small.scratchBuffer();
+        assertSame(buf, smallBuf);
+        assertFalse(smallBuf.isReadable());
+        assertEquals(1024, smallBuf.writableBytes());
+
+        assertEquals(4096, large.scratchBuffer().writableBytes());
+    }
+}
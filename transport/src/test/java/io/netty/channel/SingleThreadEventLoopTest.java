@@ -20,6 +20,8 @@ import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.Appender;
 import io.netty.channel.local.LocalChannel;
 import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.RejectedExecutionHandler;
+import io.netty.util.concurrent.RejectedExecutionHandlers;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -38,6 +40,7 @@ import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
@@ -437,6 +440,75 @@ public class SingleThreadEventLoopTest {
         assertThat(loopA.isShutdown(), is(true));
     }
 
+    @Test(timeout = 10000)
+    public void testRejectWhenTaskQueueFull() throws Exception {
+        BoundedEventLoop loop = new BoundedEventLoop(RejectedExecutionHandlers.reject());
+        try {
+            loop.fill();
+            try {
+                loop.execute(NOOP);
+                fail("execute() must reject a task if the task queue is full.");
+            } catch (RejectedExecutionException e) {
+                // Expected
+            }
+        } finally {
+            loop.release();
+            loop.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testCallerRunsWhenTaskQueueFull() throws Exception {
+        BoundedEventLoop loop = new BoundedEventLoop(RejectedExecutionHandlers.callerRuns());
+        try {
+            loop.fill();
+            final AtomicReference<Thread> thread = new AtomicReference<Thread>();
+            loop.execute(new Runnable() {
+                @Override
+                public void run() {
+                    thread.set(Thread.currentThread());
+                }
+            });
+            assertSame(Thread.currentThread(), thread.get());
+        } finally {
+            loop.release();
+            loop.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testBlockWhenTaskQueueFull() throws Exception {
+        final BoundedEventLoop loop = new BoundedEventLoop(RejectedExecutionHandlers.block(5, TimeUnit.SECONDS));
+        try {
+            loop.fill();
+            Thread releaser = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        // Ignore
+                    }
+                    loop.release();
+                }
+            });
+            releaser.start();
+
+            final CountDownLatch latch = new CountDownLatch(1);
+            loop.execute(new Runnable() {
+                @Override
+                public void run() {
+                    latch.countDown();
+                }
+            });
+            latch.await();
+            releaser.join();
+        } finally {
+            loop.release();
+            loop.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
     private static class SingleThreadEventLoopA extends SingleThreadEventLoop {
 
         final AtomicInteger cleanedUp = new AtomicInteger();
@@ -494,4 +566,57 @@ public class SingleThreadEventLoopTest {
             interruptThread();
         }
     }
+
+    private static final class BoundedEventLoop extends SingleThreadEventLoop {
+
+        private static final int MAX_PENDING_TASKS = 2;
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        BoundedEventLoop(RejectedExecutionHandler rejectedHandler) {
+            super(null, Executors.defaultThreadFactory(), true, MAX_PENDING_TASKS, rejectedHandler);
+        }
+
+        /**
+         * Blocks the event loop and fills up its task queue.
+         */
+        void fill() throws InterruptedException {
+            execute(new Runnable() {
+                @Override
+                public void run() {
+                    started.countDown();
+                    try {
+                        released.await();
+                    } catch (InterruptedException e) {
+                        // Ignore
+                    }
+                }
+            });
+            started.await();
+            for (int i = 0; i < MAX_PENDING_TASKS; i ++) {
+                execute(NOOP);
+            }
+            assertEquals(MAX_PENDING_TASKS, pendingTasks());
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+        @Override
+        protected void run() {
+            for (;;) {
+                Runnable task = takeTask();
+                if (task != null) {
+                    task.run();
+                    updateLastExecutionTime();
+                }
+
+                if (confirmShutdown()) {
+                    break;
+                }
+            }
+        }
+    }
 }
@@ -16,15 +16,23 @@
 package io.netty.channel.group;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerAdapter;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.util.concurrent.GlobalEventExecutor;
 import org.junit.Test;
 
+import java.util.Iterator;
+
+import static org.junit.Assert.*;
+
 public class DefaultChannnelGroupTest {
 
     // Test for #1183
@@ -57,4 +65,79 @@ public class DefaultChannnelGroupTest {
         bossGroup.terminationFuture().sync();
         workerGroup.terminationFuture().sync();
     }
+
+    @Test
+    public void testWriteAndFlushSharesMessage() {
+        testWriteAndFlushSharesMessage(false);
+    }
+
+    @Test
+    public void testWriteAndFlushSharesMessageWithVoidPromise() {
+        testWriteAndFlushSharesMessage(true);
+    }
+
+    private static void testWriteAndFlushSharesMessage(boolean voidPromise) {
+        ChannelGroup group = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+        EmbeddedChannel[] channels = new EmbeddedChannel[3];
+        for (int i = 0; i < channels.length; i ++) {
+            channels[i] = new EmbeddedChannel(new ChannelHandlerAdapter());
+            group.add(channels[i]);
+        }
+
+        ByteBuf buf = Unpooled.buffer().writeInt(42);
+        ChannelGroupFuture future = group.writeAndFlush(buf, ChannelMatchers.all(), voidPromise);
+        if (voidPromise) {
+            assertNull(future.find(channels[0]));
+            assertFalse(future.iterator().hasNext());
+        } else {
+            assertTrue(future.isSuccess());
+        }
+
+        // Every channel holds one reference of the same underlying buffer.
+        assertEquals(channels.length, buf.refCnt());
+        for (EmbeddedChannel ch: channels) {
+            ByteBuf written = (ByteBuf) ch.readOutbound();
+            assertSame(buf, written.unwrap());
+            assertEquals(42, written.readInt());
+            written.release();
+            assertFalse(ch.finish());
+        }
+        assertEquals(0, buf.refCnt());
+    }
+
+    @Test
+    public void testWriteAndFlushAggregatesFailures() {
+        ChannelGroup group = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+        final Exception cause = new Exception();
+        EmbeddedChannel ok = new EmbeddedChannel(new ChannelHandlerAdapter());
+        EmbeddedChannel failing = new EmbeddedChannel(new ChannelHandlerAdapter() {
+            @Override
+            public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                ((ByteBuf) msg).release();
+                promise.setFailure(cause);
+            }
+        });
+        group.add(ok);
+        group.add(failing);
+
+        ChannelGroupFuture future = group.writeAndFlush(Unpooled.buffer().writeInt(42));
+        assertTrue(future.isDone());
+        assertFalse(future.isSuccess());
+        assertTrue(future.isPartialSuccess());
+        assertTrue(future.isPartialFailure());
+        assertTrue(future.find(ok).isSuccess());
+        assertSame(cause, future.find(failing).cause());
+        assertSame(cause, future.cause().iterator().next().getValue());
+
+        Iterator<ChannelFuture> it = future.iterator();
+        assertTrue(it.hasNext());
+        it.next();
+        assertTrue(it.hasNext());
+        it.next();
+        assertFalse(it.hasNext());
+
+        ((ByteBuf) ok.readOutbound()).release();
+        assertFalse(ok.finish());
+        assertFalse(failing.finish());
+    }
 }
@@ -178,6 +178,106 @@ public class LocalChannelTest {
         group.terminationFuture().sync();
     }
 
+    @Test(timeout = 30000)
+    public void testBatchedWritesAcrossEventLoops() throws Exception {
+        final int batches = 100;
+        final int batchSize = 1000;
+        final int messages = batches * batchSize;
+        EventLoopGroup clientGroup = new DefaultEventLoopGroup(1);
+        EventLoopGroup serverGroup = new DefaultEventLoopGroup(1);
+        LocalAddress addr = new LocalAddress(LOCAL_ADDR_ID);
+        final OrderCheckingHandler serverHandler = new OrderCheckingHandler(messages, true);
+        final OrderCheckingHandler clientHandler = new OrderCheckingHandler(messages, false);
+
+        ServerBootstrap sb = new ServerBootstrap()
+                .group(serverGroup)
+                .channel(LocalServerChannel.class)
+                .childHandler(serverHandler);
+        Bootstrap cb = new Bootstrap()
+                .group(clientGroup)
+                .channel(LocalChannel.class)
+                .handler(clientHandler);
+
+        try {
+            Channel sc = sb.bind(addr).sync().channel();
+            final Channel cc = cb.connect(addr).sync().channel();
+            assertNotSame(sc.eventLoop(), cc.eventLoop());
+
+            // Write every batch from its own task so the peer consumes while more messages arrive.
+            for (int i = 0; i < batches; i ++) {
+                final int first = i * batchSize;
+                cc.eventLoop().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int j = 0; j < batchSize; j ++) {
+                            cc.write(first + j);
+                        }
+                        cc.flush();
+                    }
+                });
+            }
+
+            serverHandler.done.await();
+            clientHandler.done.await();
+            assertNull(serverHandler.error);
+            assertNull(clientHandler.error);
+            assertEquals(messages, serverHandler.received);
+            assertEquals(messages, clientHandler.received);
+            assertTrue(serverHandler.readCompletes > 0);
+            assertTrue(serverHandler.readCompletes <= messages);
+
+            cc.close().sync();
+        } finally {
+            serverGroup.shutdownGracefully();
+            clientGroup.shutdownGracefully();
+            serverGroup.terminationFuture().sync();
+            clientGroup.terminationFuture().sync();
+        }
+    }
+
+    /**
+     * Expects the {@link Integer}s {@code 0} to {@code expected - 1} in order and optionally echoes them back.
+     */
+    private static final class OrderCheckingHandler extends ChannelHandlerAdapter {
+        private final int expected;
+        private final boolean echo;
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile Throwable error;
+        volatile int received;
+        volatile int readCompletes;
+
+        OrderCheckingHandler(int expected, boolean echo) {
+            this.expected = expected;
+            this.echo = echo;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            if (!ctx.channel().eventLoop().inEventLoop()) {
+                error = new AssertionError("not in the event loop of the channel");
+            }
+            int value = (Integer) msg;
+            if (value != received) {
+                error = new AssertionError("expected: " + received + ", actual: " + value);
+            }
+            received ++;
+            if (echo) {
+                ctx.write(msg);
+            }
+            if (received == expected) {
+                done.countDown();
+            }
+        }
+
+        @Override
+        public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+            readCompletes ++;
+            if (echo) {
+                ctx.flush();
+            }
+        }
+    }
+
     static class TestHandler extends ChannelHandlerAdapter {
         @Override
         public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
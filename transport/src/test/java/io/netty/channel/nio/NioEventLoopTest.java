@@ -16,9 +16,21 @@
 package io.netty.channel.nio;
 
 import io.netty.channel.AbstractEventLoopTest;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelPromise;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.LeastRegisteredChannelsEventLoopChooserFactory;
 import io.netty.channel.socket.ServerSocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.junit.Test;
+
+import java.nio.channels.spi.SelectorProvider;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
 
 public class NioEventLoopTest extends AbstractEventLoopTest {
 
@@ -31,4 +43,59 @@ public class NioEventLoopTest extends AbstractEventLoopTest {
     protected Class<? extends ServerSocketChannel> newChannel() {
         return NioServerSocketChannel.class;
     }
+
+    @Test(timeout = 10000)
+    public void testLeastRegisteredChannelsChooser() throws Exception {
+        NioEventLoopGroup group = new NioEventLoopGroup(
+                2, new DefaultThreadFactory(NioEventLoopTest.class),
+                LeastRegisteredChannelsEventLoopChooserFactory.INSTANCE, SelectorProvider.provider());
+        try {
+            List<Channel> channels = new ArrayList<Channel>();
+            for (int i = 0; i < 4; i ++) {
+                channels.add(register(group));
+            }
+            for (NioEventLoop l: group.<NioEventLoop>children()) {
+                assertEquals(2, l.registeredChannels());
+            }
+
+            // Free a slot on one event loop, which must be chosen next.
+            Channel closed = channels.remove(0);
+            closeAndWait(closed);
+            NioEventLoop loop = (NioEventLoop) closed.eventLoop();
+            assertEquals(1, loop.registeredChannels());
+
+            Channel ch = register(group);
+            channels.add(ch);
+            assertSame(loop, ch.eventLoop());
+            assertEquals(2, loop.registeredChannels());
+
+            for (Channel c: channels) {
+                closeAndWait(c);
+            }
+            for (NioEventLoop l: group.<NioEventLoop>children()) {
+                assertEquals(0, l.registeredChannels());
+            }
+        } finally {
+            group.shutdownGracefully().sync();
+        }
+    }
+
+    private static Channel register(NioEventLoopGroup group) throws Exception {
+        Channel ch = new NioSocketChannel(group.next());
+        ChannelPromise promise = ch.newPromise();
+        ch.unsafe().register(promise);
+        promise.sync();
+        return ch;
+    }
+
+    private static void closeAndWait(Channel ch) throws Exception {
+        ch.close().sync();
+        // The channel is deregistered after the close future was notified, so wait for the event loop to catch up.
+        ch.eventLoop().submit(new Runnable() {
+            @Override
+            public void run() {
+                // NOOP
+            }
+        }).sync();
+    }
 }
@@ -16,11 +16,14 @@
 package io.netty.channel.nio;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerAdapter;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ScratchRecvByteBufAllocator;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.util.CharsetUtil;
 import org.junit.Test;
@@ -28,10 +31,12 @@ import org.junit.Test;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.Socket;
 import java.net.SocketAddress;
 import java.nio.channels.ClosedChannelException;
 import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 
 import static org.hamcrest.CoreMatchers.*;
@@ -139,4 +144,48 @@ public class NioSocketChannelTest {
             group.shutdownGracefully().sync();
         }
     }
+
+    @Test(timeout = 10000)
+    public void testReadIntoScratchBuffer() throws Exception {
+        NioEventLoopGroup group = new NioEventLoopGroup(1);
+        try {
+            final BlockingQueue<Object> received = new LinkedBlockingQueue<Object>();
+            ServerBootstrap sb = new ServerBootstrap();
+            sb.group(group).channel(NioServerSocketChannel.class);
+            sb.childOption(ChannelOption.RCVBUF_ALLOCATOR, new ScratchRecvByteBufAllocator(16, 32));
+            sb.childHandler(new ChannelHandlerAdapter() {
+                @Override
+                public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+                    ByteBuf buf = (ByteBuf) msg;
+                    // Must not contain more than what fits into the scratch buffer.
+                    if (buf.readableBytes() > 16) {
+                        received.add(new AssertionError(buf.readableBytes()));
+                    }
+                    while (buf.isReadable()) {
+                        received.add(buf.readByte());
+                    }
+                    buf.release();
+                }
+            });
+
+            SocketAddress address = sb.bind(0).sync().channel().localAddress();
+
+            Socket s = new Socket();
+            s.connect(address);
+            byte[] data = new byte[100];
+            for (int i = 0; i < data.length; i ++) {
+                data[i] = (byte) i;
+            }
+            OutputStream out = s.getOutputStream();
+            out.write(data);
+            out.flush();
+
+            for (byte b: data) {
+                assertEquals(b, received.take());
+            }
+            s.close();
+        } finally {
+            group.shutdownGracefully().sync();
+        }
+    }
 }